@@ -7,6 +7,7 @@ import dev.matheus.entity.Chat;
 import dev.matheus.entity.DocumentFile;
 import dev.matheus.service.ChatSessionRegistry;
 import dev.matheus.service.ChatService;
+import dev.matheus.service.ingestion.IngestionProgressPublisher;
 import io.quarkus.logging.Log;
 import io.quarkus.websockets.next.OnClose;
 import io.quarkus.websockets.next.OnOpen;
@@ -35,6 +36,9 @@ public class DocumentSupportAgentWebSocket {
     @Inject
     ChatSessionRegistry registry;
 
+    @Inject
+    IngestionProgressPublisher ingestionProgressPublisher;
+
     public DocumentSupportAgentWebSocket(DocumentSupportAgent documentSupportAgent) {
         this.documentSupportAgent = documentSupportAgent;
     }
@@ -45,6 +49,8 @@ public class DocumentSupportAgentWebSocket {
     public String onOpen(WebSocketConnection connection) {
         String chatId = connection.pathParam("chatId");
         registry.register(chatId, connection);
+        // A client (re)connecting mid-ingestion gets the current progress with the next event
+        ingestionProgressPublisher.resend(chatId);
         return "";
 //        String chatId = connection.pathParam("chatId");
 //        Log.infof("WebSocket connection opened - chatId=%s, connectionId=%s", chatId, connection.id());
@@ -2,6 +2,7 @@ package dev.matheus.ai;
 
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
+import dev.matheus.service.limiter.OutboundCall;
 import io.quarkiverse.langchain4j.RegisterAiService;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -17,6 +18,7 @@ public interface FakeAnswerAiService {
         Use um tom informativo e formal.
         Retorne um array JSON de strings com as respostas falsas.
         """)
+    @OutboundCall(OutboundCall.OPENAI_CHAT)
     String fakeAnswer(@UserMessage String text);
 
 }
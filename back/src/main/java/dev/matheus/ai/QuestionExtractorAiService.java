@@ -1,7 +1,9 @@
 package dev.matheus.ai;
 
+import dev.langchain4j.model.output.structured.Description;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
+import dev.matheus.service.limiter.OutboundCall;
 import io.quarkiverse.langchain4j.RegisterAiService;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -17,6 +19,7 @@ public interface QuestionExtractorAiService {
             Não use pronomes, seja explícito sobre os sujeitos e objetos da pergunta.
             Retorne um array JSON de strings com as perguntas.
             """)
+    @OutboundCall(OutboundCall.OPENAI_CHAT)
     List<String> extractQuestions(@UserMessage String text);
 
     @SystemMessage("""
@@ -25,6 +28,29 @@ public interface QuestionExtractorAiService {
             Não use pronomes, seja explícito sobre os sujeitos e objetos da pergunta.
             Retorne um array JSON de strings com as perguntas.
             """)
+    @OutboundCall(OutboundCall.OPENAI_CHAT)
     List<String> extractQuestionsFromTable(@UserMessage String table);
-}
 
+    @SystemMessage("""
+            O usuário fornece vários trechos de um documento. Cada trecho começa com uma linha
+            [CHUNK <id>] ou [CHUNK <id> TABLE], quando o trecho é uma tabela.
+            Para CADA trecho, sugira perguntas claras cuja resposta poderia ser dada apenas por aquele trecho.
+            As perguntas devem ser variadas e cobrir TODOS os aspectos do trecho.
+            Não use pronomes, seja explícito sobre os sujeitos e objetos da pergunta.
+            Não misture conteúdo de trechos diferentes em uma mesma pergunta.
+            Retorne um item por trecho, com o id exatamente como informado e as suas perguntas.
+            """)
+    @OutboundCall(OutboundCall.OPENAI_CHAT)
+    BatchQuestions extractQuestionsBatch(@UserMessage String chunks);
+
+    @Description("Perguntas sugeridas para vários trechos")
+    record BatchQuestions(
+            @Description("Um item por trecho fornecido") List<ChunkQuestions> chunks) {
+    }
+
+    @Description("Perguntas sugeridas para um trecho")
+    record ChunkQuestions(
+            @Description("Id do trecho, exatamente como na linha [CHUNK <id>]") String id,
+            @Description("Perguntas cuja resposta está no trecho") List<String> questions) {
+    }
+}
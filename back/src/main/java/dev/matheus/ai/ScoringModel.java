@@ -3,6 +3,7 @@ package dev.matheus.ai;
 import dev.langchain4j.service.SystemMessage;
 import dev.langchain4j.service.UserMessage;
 import dev.langchain4j.service.V;
+import dev.matheus.service.limiter.OutboundCall;
 import io.quarkiverse.langchain4j.RegisterAiService;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.faulttolerance.Retry;
@@ -25,5 +26,6 @@ public interface ScoringModel {
             Provide a relevance score from 1 to 10.
             """)
     @Retry
+    @OutboundCall(OutboundCall.OPENAI_CHAT)
     double score(@V("question") String question, @V("chunk") String chunk);
 }
\ No newline at end of file
@@ -4,6 +4,13 @@ import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
 import dev.langchain4j.model.vertexai.VertexAiScoringModel;
+import dev.matheus.service.embedding.CachingEmbeddingModel;
+import dev.matheus.service.embedding.EmbeddingCache;
+import dev.matheus.service.embedding.EmbeddingConfigProperties;
+import dev.matheus.service.embedding.LocalOnnxEmbeddingModel;
+import dev.matheus.service.limiter.LimitedEmbeddingModel;
+import dev.matheus.service.limiter.OutboundCall;
+import dev.matheus.service.limiter.OutboundCallLimiter;
 import io.quarkiverse.langchain4j.ModelName;
 import io.quarkiverse.langchain4j.jaxrsclient.JaxRsHttpClientBuilder;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -11,6 +18,7 @@ import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Named;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -20,31 +28,65 @@ import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
 @ApplicationScoped
 public class ModelConfig {
 
-    @ConfigProperty(name = "quarkus.thread-pool.retrieval-executor.core-threads", defaultValue = "10")
-    Integer executorThreadPoolSize;
+    private static final String EMBEDDING_MODEL_NAME = "text-embedding-3-small";
+    private static final int EMBEDDING_DIMENSIONS = 768;
 
     @ConfigProperty(name = "OPENAI_API_KEY")
     String openaiApiKey;
 
+    /** Overridden to point at a stand-in server (see the ingestion benchmark) */
+    @ConfigProperty(name = "quarkus.langchain4j.openai.base-url", defaultValue = "https://api.openai.com/v1/")
+    String openaiBaseUrl;
+
+    @ConfigProperty(name = "quarkus.langchain4j.pgvector.dimension")
+    int pgvectorDimension;
+
     @Produces
     @ApplicationScoped
     @Named("retrievalExecutorService")
     public ExecutorService retrievalExecutorService() {
-        return Executors.newFixedThreadPool(executorThreadPoolSize);
+        // One virtual thread per task: nested fan-out cannot starve a fixed pool, and what
+        // the tasks call is bounded by OutboundCallLimiter and ResourceBulkheads instead
+        return Executors.newVirtualThreadPerTaskExecutor();
     }
 
     @Produces
     @ApplicationScoped
     @Named("embeddingModel")
-    public EmbeddingModel defaultEmbeddingModel() {
-        return OpenAiEmbeddingModel.builder()
+    public EmbeddingModel defaultEmbeddingModel(OutboundCallLimiter outboundCallLimiter, EmbeddingCache embeddingCache,
+                                                EmbeddingConfigProperties embeddingConfig) {
+        if (embeddingConfig.provider() == EmbeddingConfigProperties.Provider.LOCAL) {
+            EmbeddingConfigProperties.LocalConfig local = embeddingConfig.local();
+            if (local.dimensions() != pgvectorDimension) {
+                throw new IllegalStateException("docintel.embedding.local.dimensions=" + local.dimensions()
+                        + " does not match quarkus.langchain4j.pgvector.dimension=" + pgvectorDimension);
+            }
+            EmbeddingModel model = new LocalOnnxEmbeddingModel(new LocalOnnxEmbeddingModel.Settings(
+                    Path.of(local.modelPath().orElseThrow(() ->
+                            new IllegalStateException("docintel.embedding.local.model-path is required"))),
+                    Path.of(local.tokenizerPath().orElseThrow(() ->
+                            new IllegalStateException("docintel.embedding.local.tokenizer-path is required"))),
+                    local.dimensions(),
+                    local.pooling(),
+                    local.maxSequenceLength(),
+                    local.batchSize(),
+                    local.concurrency(),
+                    local.intraOpThreads()));
+            // CPU-bound and bounded by its own tokenizer pool: no outbound limiter
+            return new CachingEmbeddingModel(model, embeddingCache, local.modelName(), local.dimensions());
+        }
+
+        EmbeddingModel model = OpenAiEmbeddingModel.builder()
+                .baseUrl(openaiBaseUrl)
                 .apiKey(openaiApiKey)
-                .modelName("text-embedding-3-small")
-                .dimensions(768)
+                .modelName(EMBEDDING_MODEL_NAME)
+                .dimensions(EMBEDDING_DIMENSIONS)
                 .timeout(Duration.ofSeconds(60))
                 .maxRetries(3)
                 .httpClientBuilder(new JaxRsHttpClientBuilder())
                 .build();
+        EmbeddingModel limited = new LimitedEmbeddingModel(model, outboundCallLimiter.limiter(OutboundCall.OPENAI_EMBEDDING));
+        return new CachingEmbeddingModel(limited, embeddingCache, EMBEDDING_MODEL_NAME, EMBEDDING_DIMENSIONS);
     }
 
     /**
@@ -55,6 +97,7 @@ public class ModelConfig {
      */
     private OpenAiChatModel createOpenAiChatModel(String modelName, double temperature) {
         return OpenAiChatModel.builder()
+                .baseUrl(openaiBaseUrl)
                 .apiKey(openaiApiKey)
                 .modelName(modelName)
                 .temperature(temperature)
@@ -0,0 +1,29 @@
+package dev.matheus.dto;
+
+/**
+ * Ingestion progress of a document, pushed to the chat's WebSocket.
+ *
+ * @param status PROCESSING while running, then COMPLETED, FAILED, or PENDING when a retry is scheduled
+ * @param totalPages pages of the document, 0 when unknown
+ * @param chunksToEmbed chunks that need embedding (unchanged chunks of a reprocessed document are reused)
+ * @param chunksCompleted chunks through all embedding and question stages
+ * @param percent overall progress, never decreasing while the document runs
+ * @param etaSeconds estimated time left, null until enough progress was made to tell
+ */
+public record IngestionProgressEvent(
+        String type,
+        String documentId,
+        String status,
+        int pagesConverted,
+        int totalPages,
+        int chunksCreated,
+        int chunksToEmbed,
+        int chunksEmbedded,
+        int chunksCompleted,
+        int questionsGenerated,
+        int percent,
+        Long etaSeconds,
+        String error
+) {
+    public static final String TYPE = "ingestion_progress";
+}
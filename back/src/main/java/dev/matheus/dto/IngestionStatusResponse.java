@@ -0,0 +1,18 @@
+package dev.matheus.dto;
+
+import dev.matheus.entity.IngestionPriority;
+import dev.matheus.service.ingestion.IngestionStageStats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response DTO for the ingestion pipeline state of this node.
+ */
+public record IngestionStatusResponse(
+        int inFlightDocuments,
+        int maxInFlightDocuments,
+        long queuedJobs,
+        Map<IngestionPriority, Long> queuedJobsByPriority,
+        List<IngestionStageStats> stages
+) {}
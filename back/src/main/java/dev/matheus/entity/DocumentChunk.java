@@ -1,9 +1,13 @@
 package dev.matheus.entity;
 
+import dev.matheus.util.ChunkHashes;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Represents a semantic chunk of a processed document.
@@ -40,6 +44,30 @@ public class DocumentChunk extends PanacheEntityBase {
     @Column(name = "token_count", nullable = false)
     public Integer tokenCount;
 
+    /** SHA-256 of the normalized content, see {@link ChunkHashes#contentHash} */
+    @Column(name = "content_hash", length = 64)
+    public String contentHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "embedding_status", nullable = false, length = 30)
+    public EmbeddingStatus embeddingStatus = EmbeddingStatus.PENDING;
+
+    /** Failed embedding attempts so far */
+    @Column(name = "embedding_attempts", nullable = false)
+    public int embeddingAttempts;
+
+    @Column(name = "embedding_error", length = 1000)
+    public String embeddingError;
+
+    /** Last change of embeddingStatus, or last retry of a FAILED chunk */
+    @Column(name = "embedding_updated_at")
+    public LocalDateTime embeddingUpdatedAt;
+
+    /** Questions generated but not embedded yet (QUESTIONS_GENERATED, or FAILED while embedding them) */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "pending_questions", columnDefinition = "jsonb")
+    public List<String> pendingQuestions;
+
     @Column(name = "created_at", nullable = false)
     public LocalDateTime createdAt;
 
@@ -48,5 +76,8 @@ public class DocumentChunk extends PanacheEntityBase {
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
         }
+        if (contentHash == null) {
+            contentHash = ChunkHashes.contentHash(content);
+        }
     }
 }
@@ -28,9 +28,37 @@ public class DocumentFile extends PanacheEntityBase {
     @Column(name = "file_size", nullable = false)
     public Long fileSize;
 
-    @Lob
-    @Column(name = "file_data", nullable = false)
-    public byte[] fileData;
+    /**
+     * Key of the file content in the {@link dev.matheus.service.storage.BlobStore}.
+     * The bytes themselves are never loaded with the entity.
+     */
+    @Column(name = "blob_key", nullable = false, length = 128)
+    public String blobKey;
+
+    @Column(name = "checksum", nullable = false, length = 64)
+    public String checksum; // SHA-256 (hex) of the file content
+
+    /**
+     * Document whose chunks and embeddings this one reuses (same checksum, already ingested).
+     * Null when this document owns its chunks.
+     */
+    @Column(name = "shared_from_id", length = 36)
+    public String sharedFromId;
+
+    /**
+     * Number of documents, this one included, using this document's chunks and embeddings.
+     * Only maintained on owners (sharedFromId == null).
+     */
+    @Column(name = "ref_count", nullable = false, columnDefinition = "INTEGER NOT NULL DEFAULT 1")
+    public int refCount = 1;
+
+    /**
+     * FILE_NAME stored in the metadata of the embeddings this document searches.
+     * Differs from fileName when the embeddings were created for another upload
+     * of the same content. Null means fileName.
+     */
+    @Column(name = "index_file_name")
+    public String indexFileName;
 
     @Column(name = "uploaded_at", nullable = false)
     public LocalDateTime uploadedAt;
@@ -0,0 +1,34 @@
+package dev.matheus.entity;
+
+/**
+ * Embedding progress of a document chunk. Each step is recorded in the same
+ * transaction as the ChunkEmbedding links it stores, so a run that dies halfway
+ * resumes from the last committed step instead of embedding the chunk again.
+ */
+public enum EmbeddingStatus {
+    /**
+     * Nothing embedded yet
+     */
+    PENDING,
+
+    /**
+     * Content vector stored, questions not generated yet
+     */
+    CONTENT_EMBEDDED,
+
+    /**
+     * Questions generated and kept on the chunk (pendingQuestions), not embedded yet
+     */
+    QUESTIONS_GENERATED,
+
+    /**
+     * Content and question vectors stored
+     */
+    DONE,
+
+    /**
+     * Last attempt failed (see embeddingError); retried in the background while
+     * embeddingAttempts is below docintel.ingestion.chunk-max-attempts
+     */
+    FAILED
+}
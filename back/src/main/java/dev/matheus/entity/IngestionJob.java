@@ -0,0 +1,88 @@
+package dev.matheus.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable ingestion work item for a document.
+ * Workers on any backend replica claim jobs with SELECT ... FOR UPDATE SKIP LOCKED,
+ * hold them under a lease renewed by heartbeats, and a job whose lease expires
+ * (crashed or stopped node) becomes claimable again.
+ * Jobs are claimed by {@link IngestionPriority}, then by how many jobs their chat already runs.
+ */
+@Entity
+@Table(name = "ingestion_job")
+public class IngestionJob extends PanacheEntityBase {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    public String id;
+
+    @Column(name = "document_id", nullable = false, length = 36)
+    public String documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    public IngestionJobStatus status = IngestionJobStatus.QUEUED;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", nullable = false, length = 20)
+    public IngestionPriority priority = IngestionPriority.NORMAL;
+
+    /** Chat the document belongs to; jobs of one chat share workers fairly with other chats */
+    @Column(name = "owner_key", length = 36)
+    public String ownerKey;
+
+    @Column(name = "attempts", nullable = false)
+    public int attempts;
+
+    @Column(name = "max_attempts", nullable = false)
+    public int maxAttempts;
+
+    @Column(name = "available_at", nullable = false)
+    public LocalDateTime availableAt;
+
+    @Column(name = "lease_owner", length = 100)
+    public String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    public LocalDateTime leaseExpiresAt;
+
+    @Column(name = "heartbeat_at")
+    public LocalDateTime heartbeatAt;
+
+    /** Chunk size requested on reprocess; null uses docling.chunking.max-tokens */
+    @Column(name = "chunk_max_tokens")
+    public Integer chunkMaxTokens;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    public String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    public LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    public LocalDateTime completedAt;
+
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        if (availableAt == null) {
+            availableAt = now;
+        }
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,26 @@
+package dev.matheus.entity;
+
+/**
+ * Lifecycle of a persistent ingestion job.
+ */
+public enum IngestionJobStatus {
+    /**
+     * Waiting to be claimed by a worker (possibly after a retry backoff)
+     */
+    QUEUED,
+
+    /**
+     * Claimed by a worker holding a lease on it
+     */
+    RUNNING,
+
+    /**
+     * Document fully ingested
+     */
+    COMPLETED,
+
+    /**
+     * Gave up after exhausting all attempts
+     */
+    FAILED
+}
@@ -0,0 +1,22 @@
+package dev.matheus.entity;
+
+/**
+ * Scheduling class of an ingestion job, highest first. Workers claim jobs and stages
+ * pick tasks in this order; jobs of the same class share the workers between chats.
+ */
+public enum IngestionPriority {
+    /**
+     * Reprocess requested by a user waiting on the result
+     */
+    INTERACTIVE,
+
+    /**
+     * Upload of a small document
+     */
+    NORMAL,
+
+    /**
+     * Upload of a large document (above docintel.ingestion.small-document-max-bytes)
+     */
+    BULK
+}
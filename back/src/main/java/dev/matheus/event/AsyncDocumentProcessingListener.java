@@ -1,6 +1,7 @@
 package dev.matheus.event;
 
 import dev.matheus.service.AsyncDocumentProcessingService;
+import dev.matheus.service.ingestion.IngestionJobService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.event.TransactionPhase;
@@ -8,17 +9,20 @@ import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
 /**
- * Listener for DocumentCreatedEvent that triggers async processing
+ * Listener for DocumentCreatedEvent that enqueues the document for ingestion
  * AFTER the transaction commits successfully.
  * 
  * This ensures the document is visible to other threads/transactions
- * before async processing attempts to find it in the database.
+ * before a worker (on this or another node) attempts to find it in the database.
  */
 @ApplicationScoped
 public class AsyncDocumentProcessingListener {
     
     private static final Logger LOG = Logger.getLogger(AsyncDocumentProcessingListener.class);
     
+    @Inject
+    IngestionJobService ingestionJobService;
+
     @Inject
     AsyncDocumentProcessingService asyncProcessingService;
     
@@ -30,13 +34,16 @@ public class AsyncDocumentProcessingListener {
      * 
      * This solves the race condition where async processing tried to find
      * the document before it was visible in the database.
+     * If the node dies between the commit and the enqueue, the document is
+     * picked up by the startup recovery in IngestionJobService.
      */
     public void onDocumentCreated(
             @Observes(during = TransactionPhase.AFTER_SUCCESS) DocumentCreatedEvent event) {
         
-        LOG.infof("Transaction committed successfully, starting async processing: docId=%s, fileName=%s",
+        LOG.infof("Transaction committed successfully, enqueuing ingestion job: docId=%s, fileName=%s",
                 event.getDocumentId(), event.getFileName());
         
-        asyncProcessingService.processDocumentAsync(event.getDocumentId(), event.getFileName());
+        ingestionJobService.enqueue(event.getDocumentId());
+        asyncProcessingService.wakeUp();
     }
 }
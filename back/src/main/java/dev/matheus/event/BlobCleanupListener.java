@@ -0,0 +1,60 @@
+package dev.matheus.event;
+
+import dev.matheus.repository.DocumentFileRepository;
+import dev.matheus.service.storage.BlobStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+/**
+ * Listener for DocumentDeletedEvent that removes the document's blob
+ * AFTER the deleting transaction commits.
+ *
+ * Blobs are content-addressed, so the same blob can back several documents.
+ * It is only deleted once no remaining document references it; uploads of the same
+ * content publish the blob again under the same lock (see {@link DocumentFileRepository#lockBlobKey}).
+ */
+@ApplicationScoped
+public class BlobCleanupListener {
+
+    private static final Logger LOG = Logger.getLogger(BlobCleanupListener.class);
+
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    DocumentFileRepository documentFileRepository;
+
+    /**
+     * Runs in its own transaction holding the blob's reference lock, so no upload of the
+     * same content can commit a reference between the count and the delete.
+     */
+    @ActivateRequestContext
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onDocumentDeleted(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS) DocumentDeletedEvent event) {
+
+        String blobKey = event.getBlobKey();
+        if (blobKey == null) {
+            return;
+        }
+
+        documentFileRepository.lockBlobKey(blobKey);
+        long references = documentFileRepository.countByBlobKey(blobKey);
+        if (references > 0) {
+            LOG.debugf("Blob still referenced by %d document(s), keeping it: blobKey=%s", references, blobKey);
+            return;
+        }
+
+        try {
+            blobStore.delete(blobKey);
+            LOG.infof("Released blob of deleted document: docId=%s, blobKey=%s", event.getDocumentId(), blobKey);
+        } catch (Exception e) {
+            LOG.warnf("Failed to delete blob %s: %s", blobKey, e.getMessage());
+        }
+    }
+}
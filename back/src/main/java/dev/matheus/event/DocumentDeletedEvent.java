@@ -0,0 +1,24 @@
+package dev.matheus.event;
+
+/**
+ * Event fired when a document is deleted.
+ * Observed AFTER the transaction commits to release the document's blob.
+ */
+public class DocumentDeletedEvent {
+
+    private final String documentId;
+    private final String blobKey;
+
+    public DocumentDeletedEvent(String documentId, String blobKey) {
+        this.documentId = documentId;
+        this.blobKey = blobKey;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public String getBlobKey() {
+        return blobKey;
+    }
+}
@@ -0,0 +1,334 @@
+package dev.matheus.repository;
+
+import dev.matheus.entity.ChunkEmbedding;
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.entity.EmbeddingStatus;
+import dev.matheus.service.ingestion.IngestionConfigProperties;
+import dev.matheus.util.ChunkHashes;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk insert path for document chunks and their embedding links.
+ *
+ * Persisting entities one by one costs a round trip per row, which dominates ingestion
+ * of documents with thousands of chunks. Here IDs are generated on the client and rows
+ * are streamed with PostgreSQL COPY (or, in BATCH mode or on other drivers, with
+ * batched prepared statements) on the caller's connection, so the write stays inside
+ * the caller's transaction.
+ *
+ * Inserted objects are not attached to the persistence context. They get their ID,
+ * createdAt and contentHash set and can be referenced by entities persisted afterwards.
+ */
+@ApplicationScoped
+public class ChunkBulkWriter {
+
+    private static final Logger LOG = Logger.getLogger(ChunkBulkWriter.class);
+
+    private static final String CHUNK_COLUMNS =
+            "id, document_file_id, content, content_type, position, section_heading, heading_level, " +
+            "token_count, content_hash, embedding_status, embedding_attempts, created_at";
+    private static final String CHUNK_EMBEDDING_COLUMNS = "id, chunk_id, embedding_id, embedding_type, created_at";
+
+    /** Bytes buffered before each write to the COPY stream */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * How rows are sent to the database.
+     */
+    public enum Mode {
+        /** COPY ... FROM STDIN in CSV format, falling back to BATCH on non-PostgreSQL connections */
+        COPY,
+        /** Batched INSERT prepared statements */
+        BATCH
+    }
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    IngestionConfigProperties config;
+
+    private Mode mode;
+    private int batchSize;
+
+    public ChunkBulkWriter() {
+    }
+
+    /**
+     * Callers must provide the transaction.
+     */
+    ChunkBulkWriter(EntityManager em, Mode mode, int batchSize) {
+        this.em = em;
+        this.mode = mode;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    void init() {
+        mode = config.bulkWriteMode();
+        batchSize = config.bulkWriteBatchSize();
+    }
+
+    /**
+     * Insert chunks of one document.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void insertChunks(String documentId, List<DocumentChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (DocumentChunk chunk : chunks) {
+            if (chunk.id == null) {
+                chunk.id = UUID.randomUUID().toString();
+            }
+            if (chunk.createdAt == null) {
+                chunk.createdAt = now;
+            }
+            if (chunk.contentHash == null) {
+                chunk.contentHash = ChunkHashes.contentHash(chunk.content);
+            }
+            if (chunk.embeddingStatus == null) {
+                chunk.embeddingStatus = EmbeddingStatus.PENDING;
+            }
+        }
+
+        long start = System.nanoTime();
+        write("document_chunk", CHUNK_COLUMNS, chunks.size(), (i, row) -> {
+            DocumentChunk chunk = chunks.get(i);
+            row.text(chunk.id)
+                    .text(documentId)
+                    .text(chunk.content)
+                    .text(chunk.contentType.name())
+                    .integer(chunk.position)
+                    .text(chunk.sectionHeading)
+                    .integer(chunk.headingLevel)
+                    .integer(chunk.tokenCount)
+                    .text(chunk.contentHash)
+                    .text(chunk.embeddingStatus.name())
+                    .integer(chunk.embeddingAttempts)
+                    .timestamp(chunk.createdAt);
+        });
+        LOG.debugf("Bulk inserted %d chunks of document %s in %dms (%s)",
+                chunks.size(), documentId, (System.nanoTime() - start) / 1_000_000, mode);
+    }
+
+    /**
+     * Insert links between chunks and the vectors stored for them.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void insertChunkEmbeddings(List<ChunkEmbedding> links) {
+        if (links.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (ChunkEmbedding link : links) {
+            if (link.id == null) {
+                link.id = UUID.randomUUID().toString();
+            }
+            if (link.createdAt == null) {
+                link.createdAt = now;
+            }
+        }
+
+        write("chunk_embedding", CHUNK_EMBEDDING_COLUMNS, links.size(), (i, row) -> {
+            ChunkEmbedding link = links.get(i);
+            row.text(link.id)
+                    .text(link.chunk.id)
+                    .text(link.embeddingId)
+                    .text(link.embeddingType)
+                    .timestamp(link.createdAt);
+        });
+    }
+
+    // --- Internals ---
+
+    /**
+     * Writes the values of one row, in column order.
+     */
+    private interface RowWriter {
+        void write(int index, Row row) throws SQLException;
+    }
+
+    private interface Row {
+        Row text(String value) throws SQLException;
+
+        Row integer(Integer value) throws SQLException;
+
+        Row timestamp(LocalDateTime value) throws SQLException;
+    }
+
+    private void write(String table, String columns, int rowCount, RowWriter rows) {
+        // Pending entity changes must reach the database before rows that may depend on them
+        em.flush();
+        em.unwrap(Session.class).doWork(connection -> {
+            if (mode == Mode.COPY && connection.isWrapperFor(PGConnection.class)) {
+                copy(connection.unwrap(PGConnection.class), table, columns, rowCount, rows);
+            } else {
+                batchInsert(connection, table, columns, rowCount, rows);
+            }
+        });
+    }
+
+    private static void copy(PGConnection connection, String table, String columns, int rowCount, RowWriter rows)
+            throws SQLException {
+        CopyIn copyIn = connection.getCopyAPI().copyIn(
+                "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+        try {
+            CsvRow row = new CsvRow();
+            for (int i = 0; i < rowCount; i++) {
+                rows.write(i, row);
+                row.endRow();
+                if (row.buffer.length() >= COPY_BUFFER_SIZE) {
+                    row.flushTo(copyIn);
+                }
+            }
+            row.flushTo(copyIn);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void batchInsert(Connection connection, String table, String columns, int rowCount, RowWriter rows)
+            throws SQLException {
+        int columnCount = columns.split(",").length;
+        String sql = "INSERT INTO " + table + " (" + columns + ") VALUES (" +
+                "?, ".repeat(columnCount - 1) + "?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            StatementRow row = new StatementRow(statement);
+            for (int i = 0; i < rowCount; i++) {
+                rows.write(i, row);
+                row.endRow();
+                if ((i + 1) % batchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            if (rowCount % batchSize != 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * CSV row as understood by COPY: unquoted empty fields are NULL, every other
+     * value is quoted so commas, quotes and newlines in chunk content are kept verbatim.
+     */
+    private static class CsvRow implements Row {
+
+        final StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 4096);
+        private boolean firstField = true;
+
+        @Override
+        public Row text(String value) {
+            separate();
+            if (value != null) {
+                buffer.append('"');
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c == '"') {
+                        buffer.append('"');
+                    }
+                    buffer.append(c);
+                }
+                buffer.append('"');
+            }
+            return this;
+        }
+
+        @Override
+        public Row integer(Integer value) {
+            separate();
+            if (value != null) {
+                buffer.append(value.intValue());
+            }
+            return this;
+        }
+
+        @Override
+        public Row timestamp(LocalDateTime value) {
+            separate();
+            if (value != null) {
+                buffer.append(value);
+            }
+            return this;
+        }
+
+        void endRow() {
+            buffer.append('\n');
+            firstField = true;
+        }
+
+        void flushTo(CopyIn copyIn) throws SQLException {
+            if (buffer.length() == 0) {
+                return;
+            }
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        private void separate() {
+            if (!firstField) {
+                buffer.append(',');
+            }
+            firstField = false;
+        }
+    }
+
+    private static class StatementRow implements Row {
+
+        private final PreparedStatement statement;
+        private int parameter = 1;
+
+        StatementRow(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Row text(String value) throws SQLException {
+            statement.setString(parameter++, value);
+            return this;
+        }
+
+        @Override
+        public Row integer(Integer value) throws SQLException {
+            if (value == null) {
+                statement.setNull(parameter++, Types.INTEGER);
+            } else {
+                statement.setInt(parameter++, value);
+            }
+            return this;
+        }
+
+        @Override
+        public Row timestamp(LocalDateTime value) throws SQLException {
+            statement.setObject(parameter++, value);
+            return this;
+        }
+
+        void endRow() throws SQLException {
+            statement.addBatch();
+            parameter = 1;
+        }
+    }
+}
@@ -19,9 +19,43 @@ public class DocumentFileRepository implements PanacheRepositoryBase<DocumentFil
         return find("chat.id", chatId).firstResultOptional();
     }
     
+    public long countByBlobKey(String blobKey) {
+        return count("blobKey", blobKey);
+    }
+
+    /**
+     * Lock the references to a blob until the current transaction ends.
+     * Taken by whoever adds a reference (before publishing the blob) and by the blob
+     * cleanup (before counting references and deleting), so a blob is never deleted
+     * while a new document pointing at it is being committed. Works across nodes.
+     */
+    public void lockBlobKey(String blobKey) {
+        em.createNativeQuery("SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(hashtext(:blobKey))) AS locked")
+                .setParameter("blobKey", blobKey)
+                .getSingleResult();
+    }
+
+    /**
+     * FILE_NAME used in the embedding metadata of the chat's document.
+     */
+    public Optional<String> findIndexFileNameByChatId(String chatId) {
+        return em.createQuery(
+                "SELECT COALESCE(df.indexFileName, df.fileName) FROM DocumentFile df WHERE df.chat.id = :chatId",
+                String.class)
+                .setParameter("chatId", chatId)
+                .getResultStream()
+                .findFirst();
+    }
+
+    public Optional<String> findChatIdByDocumentId(String documentId) {
+        return em.createQuery("SELECT df.chat.id FROM DocumentFile df WHERE df.id = :documentId", String.class)
+                .setParameter("documentId", documentId)
+                .getResultStream()
+                .findFirst();
+    }
+
     /**
-     * Find document processing status by chat ID without loading the large fileData BLOB.
-     * This prevents LOB stream errors when only status information is needed.
+     * Find document processing status by chat ID without loading the whole entity.
      */
     public Optional<DocumentStatusDTO> findStatusByChatId(String chatId) {
         var query = em.createQuery(
@@ -0,0 +1,90 @@
+package dev.matheus.repository;
+
+import dev.matheus.entity.IngestionJob;
+import dev.matheus.entity.IngestionJobStatus;
+import dev.matheus.entity.IngestionPriority;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@ApplicationScoped
+public class IngestionJobRepository implements PanacheRepositoryBase<IngestionJob, String> {
+
+    @Inject
+    EntityManager em;
+
+    /**
+     * Lock the next claimable job: queued and past its backoff, or running with an expired lease.
+     * SKIP LOCKED lets concurrent workers (on this or other nodes) pick different rows
+     * instead of blocking on each other. Must run inside a transaction; the row lock is
+     * held until it commits.
+     *
+     * Jobs are taken by priority (INTERACTIVE, NORMAL, BULK), a job moving up one class for
+     * every {@code priorityAging} it has been waiting so bulk uploads are not starved; within a
+     * class, the chat running the fewest jobs goes first, then the oldest job.
+     *
+     * @param priorityAging Wait after which a job is promoted one class, zero to never promote
+     */
+    public Optional<IngestionJob> lockNextClaimable(LocalDateTime now, Duration priorityAging) {
+        long agingSeconds = priorityAging.isZero() ? Long.MAX_VALUE : Math.max(1, priorityAging.toSeconds());
+        @SuppressWarnings("unchecked")
+        List<String> ids = em.createNativeQuery(
+                "SELECT j.id FROM ingestion_job j " +
+                "WHERE (j.status = 'QUEUED' AND j.available_at <= :now) " +
+                "   OR (j.status = 'RUNNING' AND j.lease_expires_at < :now) " +
+                "ORDER BY GREATEST(0, " +
+                "       CASE j.priority WHEN 'INTERACTIVE' THEN 0 WHEN 'NORMAL' THEN 1 ELSE 2 END " +
+                "       - FLOOR(EXTRACT(EPOCH FROM (:now - j.available_at)) / :agingSeconds)), " +
+                "   (SELECT COUNT(*) FROM ingestion_job r " +
+                "    WHERE r.owner_key = j.owner_key AND r.status = 'RUNNING' AND r.lease_expires_at >= :now), " +
+                "   j.available_at, j.created_at " +
+                "LIMIT 1 " +
+                "FOR UPDATE OF j SKIP LOCKED")
+                .setParameter("now", now)
+                .setParameter("agingSeconds", agingSeconds)
+                .getResultList();
+
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(em.find(IngestionJob.class, ids.get(0)));
+    }
+
+    public Optional<IngestionJob> findActiveByDocumentId(String documentId) {
+        return find("documentId = ?1 and status in ?2", documentId,
+                List.of(IngestionJobStatus.QUEUED, IngestionJobStatus.RUNNING))
+                .firstResultOptional();
+    }
+
+    public List<IngestionJob> findExpiredLeases(LocalDateTime now) {
+        return list("status = ?1 and leaseExpiresAt < ?2", IngestionJobStatus.RUNNING, now);
+    }
+
+    public long countByStatus(IngestionJobStatus status) {
+        return count("status", status);
+    }
+
+    /**
+     * Number of jobs with the given status, per priority (priorities without jobs are left out).
+     */
+    public Map<IngestionPriority, Long> countByStatusPerPriority(IngestionJobStatus status) {
+        Map<IngestionPriority, Long> counts = new EnumMap<>(IngestionPriority.class);
+        List<Object[]> rows = em.createQuery(
+                "SELECT j.priority, COUNT(j) FROM IngestionJob j WHERE j.status = :status GROUP BY j.priority",
+                Object[].class)
+                .setParameter("status", status)
+                .getResultList();
+        for (Object[] row : rows) {
+            counts.put((IngestionPriority) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+}
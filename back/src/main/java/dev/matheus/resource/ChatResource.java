@@ -8,15 +8,18 @@ import dev.matheus.dto.DocumentFileResponse;
 import dev.matheus.entity.Chat;
 import dev.matheus.entity.DocumentFile;
 import dev.matheus.service.ChatService;
+import dev.matheus.service.storage.BlobStore;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.jboss.logging.Logger;
 import org.jboss.resteasy.reactive.RestForm;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.List;
 
@@ -37,6 +40,9 @@ public class ChatResource {
     @Inject
     ChatService chatService;
 
+    @Inject
+    BlobStore blobStore;
+
     @POST
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     public Response createChat(@RestForm("file") FileUpload file) throws IOException {
@@ -49,9 +55,10 @@ public class ChatResource {
                     .build();
         }
 
-        byte[] fileData;
-        try {
-            fileData = Files.readAllBytes(file.uploadedFile());
+        // Stream the uploaded temp file into the blob store - never hold the whole file on the heap
+        ChatResponse chat;
+        try (InputStream content = Files.newInputStream(file.uploadedFile())) {
+            chat = chatService.createChat(content, file.fileName(), file.contentType());
         } catch (IOException e) {
             LOG.errorf(e, "Failed to read file: %s", file.fileName());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -59,7 +66,6 @@ public class ChatResource {
                     .build();
         }
 
-        ChatResponse chat = chatService.createChat(fileData, file.fileName(), file.contentType());
         LOG.infof("Chat created: chatId=%s", chat.id());
         return Response.status(Response.Status.CREATED).entity(chat).build();
     }
@@ -142,9 +148,12 @@ public class ChatResource {
     public Response downloadDocument(@PathParam("chatId") String chatId) {
         LOG.infof("Downloading document: chatId=%s", chatId);
         DocumentFile file = chatService.getDocumentEntity(chatId);
-        return Response.ok(file.fileData)
+        String blobKey = file.blobKey;
+        StreamingOutput body = output -> blobStore.transferTo(blobKey, output);
+        return Response.ok(body)
                 .header("Content-Disposition", "attachment; filename=\"" + file.fileName + "\"")
                 .header("Content-Type", file.fileType)
+                .header("Content-Length", file.fileSize)
                 .build();
     }
 
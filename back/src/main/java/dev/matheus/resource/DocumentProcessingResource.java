@@ -7,9 +7,16 @@ import dev.matheus.dto.ProcessingStatusResponse;
 import dev.matheus.entity.ContentType;
 import dev.matheus.entity.DocumentChunk;
 import dev.matheus.entity.DocumentFile;
+import dev.matheus.entity.IngestionJob;
+import dev.matheus.entity.IngestionJobStatus;
+import dev.matheus.entity.IngestionPriority;
 import dev.matheus.entity.ProcessingStatus;
+import dev.matheus.service.AsyncDocumentProcessingService;
+import dev.matheus.service.DocumentSharingService;
 import dev.matheus.service.docling.DoclingChunkingService;
 import dev.matheus.service.docling.DoclingDocumentParser;
+import dev.matheus.service.ingestion.IngestionJobService;
+import dev.matheus.service.storage.BlobStore;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
@@ -46,6 +53,18 @@ public class DocumentProcessingResource {
     @Inject
     DoclingChunkingService chunkingService;
 
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    DocumentSharingService documentSharingService;
+
+    @Inject
+    IngestionJobService ingestionJobService;
+
+    @Inject
+    AsyncDocumentProcessingService asyncProcessingService;
+
     /**
      * Trigger document processing.
      * POST /api/documents/{documentId}/process
@@ -95,9 +114,10 @@ public class DocumentProcessingResource {
     public Response getProcessingStatus(@PathParam("documentId") String documentId) {
         LOG.infof("Getting status for document: %s", documentId);
 
-        // Query document fields without loading fileData (LOB)
+        // Query document fields without loading the whole entity
         var queryResult = em.createQuery(
-                "SELECT d.id, d.processingStatus, d.processingError, d.processedAt, d.processorVersion " +
+                "SELECT d.id, d.processingStatus, d.processingError, d.processedAt, d.processorVersion, " +
+                "COALESCE(d.sharedFromId, d.id) " +
                 "FROM DocumentFile d WHERE d.id = :docId",
                 Object[].class)
                 .setParameter("docId", documentId)
@@ -113,12 +133,14 @@ public class DocumentProcessingResource {
         String error = (String) row[2];
         LocalDateTime processedAt = (LocalDateTime) row[3];
         String processorVersion = (String) row[4];
+        // Chunks live on the owning document when the content is shared with another upload
+        String contentDocumentId = (String) row[5];
 
         // Count chunks
         Long chunkCount = em.createQuery(
                 "SELECT COUNT(c) FROM DocumentChunk c WHERE c.documentFile.id = :docId",
                 Long.class)
-                .setParameter("docId", documentId)
+                .setParameter("docId", contentDocumentId)
                 .getSingleResult();
 
         // Build response
@@ -159,10 +181,10 @@ public class DocumentProcessingResource {
         // Validate pagination parameters
         validatePaginationParams(page, size);
 
-        // Query document status without loading fileData (LOB)
+        // Query document status without loading the whole entity
         var queryResult = em.createQuery(
-                "SELECT d.processingStatus FROM DocumentFile d WHERE d.id = :docId",
-                ProcessingStatus.class)
+                "SELECT d.processingStatus, COALESCE(d.sharedFromId, d.id) FROM DocumentFile d WHERE d.id = :docId",
+                Object[].class)
                 .setParameter("docId", documentId)
                 .getResultList();
 
@@ -170,7 +192,9 @@ public class DocumentProcessingResource {
             throw notFoundException("Document not found");
         }
 
-        ProcessingStatus status = queryResult.get(0);
+        ProcessingStatus status = (ProcessingStatus) queryResult.get(0)[0];
+        // Chunks live on the owning document when the content is shared with another upload
+        String contentDocumentId = (String) queryResult.get(0)[1];
 
         // Check if document is processed
         if (status != ProcessingStatus.COMPLETED) {
@@ -190,12 +214,12 @@ public class DocumentProcessingResource {
 
         // Execute paginated query
         var query = em.createQuery(queryStr, DocumentChunk.class)
-                .setParameter("docId", documentId)
+                .setParameter("docId", contentDocumentId)
                 .setFirstResult(page * size)
                 .setMaxResults(size);
 
         var countQuery = em.createQuery(countQueryStr, Long.class)
-                .setParameter("docId", documentId);
+                .setParameter("docId", contentDocumentId);
 
         if (contentType != null) {
             query.setParameter("contentType", contentType);
@@ -238,9 +262,14 @@ public class DocumentProcessingResource {
      * Reprocess a document.
      * POST /api/documents/{documentId}/reprocess
      *
+     * Runs through the ingestion queue like a new upload, ahead of uploads (INTERACTIVE priority).
+     * Conversion comes from the conversion cache, chunks whose content did not change keep their
+     * embeddings and questions, and only new chunks are embedded (see {@link dev.matheus.service.ingestion.ChunkDiff}).
+     *
      * @param documentId The document UUID
      * @param options Processing options (optional)
-     * @return 202 with ProcessingStatusResponse
+     * @return 202 with ProcessingStatusResponse, or 409 while a job of the document is running
+     *         (its chunk size can no longer change)
      */
     @POST
     @Path("/{documentId}/reprocess")
@@ -254,16 +283,30 @@ public class DocumentProcessingResource {
         // Find document
         DocumentFile doc = findDocumentOrThrow(documentId);
 
-        // Delete existing chunks
-        int deletedCount = em.createQuery(
-                "DELETE FROM DocumentChunk c WHERE c.documentFile.id = :docId")
-                .setParameter("docId", documentId)
-                .executeUpdate();
+        Integer maxTokens = options != null ? options.maxTokens : null;
+        // Someone is waiting on the result: ahead of uploads
+        IngestionJob job = ingestionJobService.enqueue(doc.id, maxTokens, IngestionPriority.INTERACTIVE);
+        if (job.status == IngestionJobStatus.RUNNING) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(Map.of("error", "Document is being processed, reprocess it once processing finishes"))
+                    .build();
+        }
 
-        LOG.infof("Deleted %d existing chunks for document %s", deletedCount, documentId);
+        // Don't rebuild chunks that other chats share: hand them over first
+        documentSharingService.detach(doc);
 
-        // Execute processing
-        ProcessingStatusResponse response = executeProcessing(doc, options);
+        doc.processingStatus = ProcessingStatus.PROCESSING;
+        doc.processingError = null;
+        asyncProcessingService.wakeUp();
+
+        ProcessingStatusResponse response = new ProcessingStatusResponse(
+                doc.id,
+                ProcessingStatus.PROCESSING,
+                doc.chunkCount,
+                null,
+                doc.processedAt,
+                doc.processorVersion
+        );
 
         return Response.status(Response.Status.ACCEPTED)
                 .entity(response)
@@ -271,7 +314,7 @@ public class DocumentProcessingResource {
     }
 
     /**
-     * Execute document processing (shared logic for process and reprocess).
+     * Execute document processing synchronously (chunking only, no embeddings).
      *
      * @param doc The document file entity
      * @param options Processing options
@@ -291,8 +334,9 @@ public class DocumentProcessingResource {
             em.merge(doc);
             em.flush();
 
-            // Parse document using DoclingDocumentParser
-            List<DocumentChunk> chunks = parser.parse(doc, doc.fileData);
+            // Convert (served from the conversion cache on reprocess) and chunk at the requested size
+            String markdown = parser.convertToMarkdown(doc, blobStore.readAllBytes(doc.blobKey));
+            List<DocumentChunk> chunks = parser.chunkMarkdown(doc, markdown, 0, maxTokens);
 
             // If no chunks were generated, use the chunking service
             if (chunks.isEmpty()) {
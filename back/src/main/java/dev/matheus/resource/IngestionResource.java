@@ -0,0 +1,91 @@
+package dev.matheus.resource;
+
+import dev.matheus.dto.IngestionStatusResponse;
+import dev.matheus.entity.IngestionJobStatus;
+import dev.matheus.repository.IngestionJobRepository;
+import dev.matheus.service.docling.ConversionCache;
+import dev.matheus.service.docling.ConversionCacheStats;
+import dev.matheus.service.embedding.EmbeddingCache;
+import dev.matheus.service.embedding.EmbeddingCacheStats;
+import dev.matheus.service.ingestion.IngestionConfigProperties;
+import dev.matheus.service.ingestion.IngestionPipeline;
+import dev.matheus.service.limiter.LimiterStats;
+import dev.matheus.service.limiter.OutboundCallLimiter;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.List;
+
+/**
+ * REST API exposing the ingestion pipeline at runtime.
+ */
+@Path("/api/ingestion")
+@Produces(MediaType.APPLICATION_JSON)
+public class IngestionResource {
+
+    @Inject
+    IngestionPipeline pipeline;
+
+    @Inject
+    IngestionJobRepository jobRepository;
+
+    @Inject
+    IngestionConfigProperties config;
+
+    @Inject
+    ConversionCache conversionCache;
+
+    @Inject
+    OutboundCallLimiter outboundCallLimiter;
+
+    @Inject
+    EmbeddingCache embeddingCache;
+
+    /**
+     * Per-stage queue depth (in total and per priority), activity and throughput on this node,
+     * plus the number of jobs waiting in the shared queue, per priority.
+     * GET /api/ingestion/stages
+     */
+    @GET
+    @Path("/stages")
+    public IngestionStatusResponse getStages() {
+        return new IngestionStatusResponse(
+                pipeline.getInFlightCount(),
+                config.maxInFlightDocuments(),
+                jobRepository.countByStatus(IngestionJobStatus.QUEUED),
+                jobRepository.countByStatusPerPriority(IngestionJobStatus.QUEUED),
+                pipeline.getStageStats()
+        );
+    }
+
+    /**
+     * Hit/miss/eviction counters and size of the Docling conversion cache on this node.
+     * GET /api/ingestion/conversion-cache
+     */
+    @GET
+    @Path("/conversion-cache")
+    public ConversionCacheStats getConversionCache() {
+        return conversionCache.stats();
+    }
+
+    /**
+     * Current limit, in-flight calls and throttling of each outbound model limiter.
+     * GET /api/ingestion/outbound-limiters
+     */
+    @GET
+    @Path("/outbound-limiters")
+    public List<LimiterStats> getOutboundLimiters() {
+        return outboundCallLimiter.stats();
+    }
+
+    /**
+     * Hit ratio, saved tokens and size of both embedding cache tiers on this node.
+     * GET /api/ingestion/embedding-cache
+     */
+    @GET
+    @Path("/embedding-cache")
+    public EmbeddingCacheStats getEmbeddingCache() {
+        return embeddingCache.stats();
+    }
+}
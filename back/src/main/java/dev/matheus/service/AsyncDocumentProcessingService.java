@@ -1,105 +1,207 @@
 package dev.matheus.service;
 
-import dev.matheus.entity.DocumentFile;
+import dev.matheus.service.ingestion.IngestionConfigProperties;
+import dev.matheus.service.ingestion.IngestionJobService;
+import dev.matheus.service.ingestion.IngestionPipeline;
+import dev.matheus.service.ingestion.IngestionJobService.ClaimedJob;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
+import java.net.InetAddress;
+import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Service for asynchronous document processing.
- * Handles long-running Docling parsing and embedding generation without blocking HTTP requests.
+ * Ingestion worker for asynchronous document processing.
+ * Claims jobs from the persistent ingestion_job queue (see {@link IngestionJobService})
+ * and hands them to the staged {@link IngestionPipeline}, which runs long-running Docling
+ * parsing and embedding generation without blocking HTTP requests.
+ *
+ * Several backend replicas can run this worker against the same database: jobs are
+ * claimed with SKIP LOCKED and kept under a lease renewed by heartbeats, so a job
+ * left behind by a crashed node is picked up again once its lease expires. A node
+ * whose lease was taken over cancels its own run of the job.
  */
 @ApplicationScoped
 public class AsyncDocumentProcessingService {
 
     private static final Logger LOG = Logger.getLogger(AsyncDocumentProcessingService.class);
-    
-    private final ExecutorService executorService = Executors.newFixedThreadPool(3);
-    private final Map<String, CompletableFuture<Void>> processingTasks = new ConcurrentHashMap<>();
-    
+
+    /** Jobs running on this node, by job ID */
+    private final Map<String, ClaimedJob> runningJobs = new ConcurrentHashMap<>();
+
     @Inject
-    DocumentIngestionService documentIngestionService;
-    
+    IngestionPipeline pipeline;
+
     @Inject
-    HypotheticalQuestionService hypotheticalQuestionService;
-    
+    IngestionJobService jobService;
+
+    @Inject
+    IngestionConfigProperties config;
+
+    private ScheduledExecutorService scheduler;
+    private String workerId;
+    private volatile boolean accepting;
+
+    void onStart(@Observes StartupEvent event) {
+        workerId = config.nodeId().orElseGet(AsyncDocumentProcessingService::defaultNodeId);
+
+        try {
+            int recovered = jobService.recoverOrphanedJobs();
+            if (recovered > 0) {
+                LOG.infof("Recovered %d orphaned ingestion job(s) at startup", recovered);
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Startup recovery of ingestion jobs failed");
+        }
+
+        if (!config.workerEnabled()) {
+            LOG.infof("Ingestion worker disabled on this node: workerId=%s", workerId);
+            return;
+        }
+
+        pipeline.start();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        accepting = true;
+
+        scheduler.scheduleWithFixedDelay(this::pollQueue,
+                0, config.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::renewLeases,
+                config.heartbeatInterval().toMillis(), config.heartbeatInterval().toMillis(), TimeUnit.MILLISECONDS);
+
+        LOG.infof("Ingestion worker started: workerId=%s, maxInFlightDocuments=%d",
+                workerId, config.maxInFlightDocuments());
+    }
+
     /**
-     * Start asynchronous processing for a document.
-     * Returns immediately while processing continues in background.
+     * Wake the worker so a newly enqueued job is claimed without waiting for the next poll.
      */
-    public void processDocumentAsync(String docId, String fileName) {
-        LOG.infof("Queuing document for async processing: docId=%s, fileName=%s", 
-                docId, fileName);
-        
-        // Check if already processing
-        if (processingTasks.containsKey(docId)) {
-            LOG.warnf("Document is already being processed: docId=%s", docId);
-            return;
+    public void wakeUp() {
+        if (accepting) {
+            try {
+                scheduler.execute(this::pollQueue);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+    }
+
+    /**
+     * Claim jobs while the pipeline has room for another document.
+     * Only ever runs on the single scheduler thread, so the capacity check cannot race.
+     */
+    private void pollQueue() {
+        try {
+            while (accepting && pipeline.canAccept()) {
+                Optional<ClaimedJob> claimed = jobService.claimNext(workerId);
+                if (claimed.isEmpty()) {
+                    return;
+                }
+                ClaimedJob job = claimed.get();
+                runningJobs.put(job.jobId(), job);
+                LOG.infof("Starting async processing: docId=%s, jobId=%s, attempt=%d, priority=%s",
+                        job.documentId(), job.jobId(), job.attempt(), job.priority());
+                pipeline.submit(job, this::onJobFinished);
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to poll ingestion queue: workerId=%s", workerId);
         }
-        
-        // Submit processing task
-        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+    }
+
+    private void onJobFinished(ClaimedJob job, Throwable failure) {
+        try {
+            if (failure == null) {
+                jobService.complete(job.jobId(), workerId);
+                LOG.infof("Async processing completed successfully: docId=%s", job.documentId());
+            } else {
+                LOG.errorf(failure, "Async processing failed: docId=%s, jobId=%s", job.documentId(), job.jobId());
+                jobService.fail(job.jobId(), workerId, failure.getMessage());
+            }
+        } catch (Exception e) {
+            // Lease will expire and the job will be reclaimed
+            LOG.errorf(e, "Failed to record ingestion job outcome: jobId=%s", job.jobId());
+        } finally {
+            runningJobs.remove(job.jobId());
+            wakeUp();
+        }
+    }
+
+    private void renewLeases() {
+        for (ClaimedJob job : runningJobs.values()) {
             try {
-                LOG.infof("Starting async processing: docId=%s", docId);
-                
-                // Step 1: Parse with Docling and create chunks
-                documentIngestionService.processDocument(docId);
-                
-                // Step 2: Generate embeddings
-                hypotheticalQuestionService.generateEmbeddings(docId);
-                
-                LOG.infof("Async processing completed successfully: docId=%s", docId);
-                
+                if (!jobService.heartbeat(job.jobId(), workerId)) {
+                    // Another worker redoes the document, stop before duplicating its vectors
+                    LOG.warnf("Lost lease on ingestion job (taken over by another worker), cancelling: jobId=%s, docId=%s",
+                            job.jobId(), job.documentId());
+                    pipeline.cancel(job.jobId());
+                    runningJobs.remove(job.jobId());
+                    wakeUp();
+                }
             } catch (Exception e) {
-                LOG.errorf(e, "Async processing failed: docId=%s", docId);
-                // Document status is marked as FAILED by documentIngestionService.processDocument()
-                // via self.markAsFailed() in a separate committed transaction
-            } finally {
-                // Remove from tracking map
-                processingTasks.remove(docId);
+                LOG.warnf("Heartbeat failed for ingestion job %s: %s", job.jobId(), e.getMessage());
             }
-        }, executorService);
-        
-        processingTasks.put(docId, future);
+        }
     }
-    
+
     /**
-     * Check if a document is currently being processed.
+     * Check if a document is currently being processed on this node.
      */
     public boolean isProcessing(String documentId) {
-        return processingTasks.containsKey(documentId);
+        return runningJobs.values().stream().anyMatch(job -> job.documentId().equals(documentId));
     }
-    
+
     /**
-     * Get the number of documents currently being processed.
+     * Get the number of documents currently being processed on this node.
      */
     public int getProcessingCount() {
-        return processingTasks.size();
+        return runningJobs.size();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
     }
 
     /**
-     * Gracefully shut down the executor service on application stop.
+     * Gracefully shut down the worker on application stop.
+     * Jobs still running after the grace period are released back to the queue.
      */
     @PreDestroy
     void shutdown() {
-        LOG.info("Shutting down async document processing executor...");
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(240, TimeUnit.SECONDS)) {
-                LOG.warn("Executor did not terminate in 240s, forcing shutdown");
-                executorService.shutdownNow();
+        if (scheduler == null) {
+            return;
+        }
+        LOG.info("Shutting down ingestion worker...");
+        accepting = false;
+        scheduler.shutdownNow();
+        if (!pipeline.awaitIdle(Duration.ofSeconds(240))) {
+            LOG.warn("Ingestion pipeline did not drain in 240s, forcing shutdown");
+        }
+        pipeline.shutdown();
+
+        for (ClaimedJob job : runningJobs.values()) {
+            try {
+                jobService.release(job.jobId(), workerId);
+            } catch (Exception e) {
+                LOG.warnf("Could not release ingestion job %s, it will be reclaimed after its lease expires",
+                        job.jobId());
             }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
         }
     }
 }
@@ -16,10 +16,12 @@ import dev.matheus.entity.DocumentFile;
 import dev.matheus.entity.ProcessingStatus;
 import dev.matheus.entity.RetrievalInfo;
 import dev.matheus.event.DocumentCreatedEvent;
+import dev.matheus.event.DocumentDeletedEvent;
 import dev.matheus.repository.AgentStepRepository;
 import dev.matheus.repository.ChatMessageRepository;
 import dev.matheus.repository.ChatRepository;
 import dev.matheus.repository.DocumentFileRepository;
+import dev.matheus.service.storage.BlobStore;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Event;
@@ -28,8 +30,11 @@ import jakarta.transaction.Transactional;
 import jakarta.ws.rs.NotFoundException;
 import org.jboss.logging.Logger;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 @ApplicationScoped
 public class ChatService {
@@ -73,16 +78,64 @@ public class ChatService {
     @Inject
     AgentStepRepository agentStepRepository;
 
+    @Inject
+    BlobStore blobStore;
 
-    @Transactional
-    public ChatResponse createChat(byte[] fileData, String fileName, String fileType) throws IOException {
-        LOG.infof("Creating chat with document: fileName=%s, fileType=%s, size=%d bytes",
-                fileName, fileType, fileData != null ? fileData.length : 0);
+    @Inject
+    Event<DocumentDeletedEvent> documentDeletedEvent;
+
+    @Inject
+    DocumentSharingService documentSharingService;
+
+    /**
+     * Self-injection to call @Transactional methods through the CDI proxy.
+     */
+    @Inject
+    ChatService self;
 
+    public ChatResponse createChat(byte[] fileData, String fileName, String fileType) throws IOException {
         if (fileData == null) {
             LOG.error("Attempted to create chat with null file data");
             throw new IllegalArgumentException("File data cannot be null");
         }
+        return createChat(new ByteArrayInputStream(fileData), fileName, fileType);
+    }
+
+    /**
+     * Create a chat for an uploaded document.
+     *
+     * NOT @Transactional: the content is streamed into the blob store's staging area first
+     * (can be large and slow), then the blob is published and the chat and document rows
+     * are written in a short transaction.
+     *
+     * @param content Document content, streamed without buffering it on the heap
+     */
+    public ChatResponse createChat(InputStream content, String fileName, String fileType) throws IOException {
+        if (content == null) {
+            LOG.error("Attempted to create chat with null file data");
+            throw new IllegalArgumentException("File data cannot be null");
+        }
+
+        try (BlobStore.StagedBlob staged = blobStore.stage(content)) {
+            LOG.infof("Document content staged: fileName=%s, blobKey=%s, size=%d bytes",
+                    fileName, staged.ref().key(), staged.ref().size());
+            return self.createChatForBlob(staged, fileName, fileType);
+        }
+    }
+
+    /**
+     * Publish the staged blob and write the chat and document rows.
+     * The blob's reference lock is held until commit, so a concurrent cleanup of the
+     * same content (see {@link dev.matheus.event.BlobCleanupListener}) either runs before
+     * the blob is published again or sees the new reference.
+     */
+    @Transactional
+    public ChatResponse createChatForBlob(BlobStore.StagedBlob staged, String fileName, String fileType) throws IOException {
+        documentFileRepository.lockBlobKey(staged.ref().key());
+        BlobStore.BlobRef blob = blobStore.publish(staged);
+
+        LOG.infof("Creating chat with document: fileName=%s, fileType=%s, size=%d bytes",
+                fileName, fileType, blob.size());
 
         Chat chat = new Chat();
         // Gerar título baseado no nome do arquivo (remover extensão)
@@ -91,18 +144,29 @@ public class ChatService {
 
         DocumentFile documentFile = new DocumentFile();
         documentFile.chat = chat;
-        documentFile.fileData = fileData;
+        documentFile.blobKey = blob.key();
+        documentFile.checksum = blob.checksum();
         documentFile.fileName = fileName;
         documentFile.fileType = fileType;
-        documentFile.fileSize = (long) fileData.length;
+        documentFile.fileSize = blob.size();
         documentFile.processingStatus = ProcessingStatus.PENDING; // Initialize with PENDING status
 
         chat.documentFile = documentFile;
 
+        // Same content already ingested (e.g. uploaded into another chat): reuse its chunks and embeddings
+        Optional<DocumentFile> reusable = documentSharingService.findReusable(blob.checksum());
+        reusable.ifPresent(owner -> documentSharingService.share(documentFile, owner));
+
         chatRepository.persist(chat);
         LOG.infof("Chat created successfully: chatId=%s, documentId=%s, title=%s",
                 chat.id, documentFile.id, chat.title);
 
+        if (reusable.isPresent()) {
+            LOG.infof("Skipping processing, document shares ingestion of %s: docId=%s",
+                    documentFile.sharedFromId, documentFile.id);
+            return mapToChatResponse(chat);
+        }
+
         // Fire CDI event that will be handled AFTER transaction commits
         // The listener observes this event with TransactionPhase.AFTER_SUCCESS
         // This ensures the document is visible to async processing threads
@@ -154,6 +218,12 @@ public class ChatService {
 
         DocumentFile documentFile = chat.documentFile;
 
+        // Chunks still used by other chats are handed over to one of them first,
+        // so the deletes below only touch data no other document references
+        if (documentFile != null) {
+            documentSharingService.detach(documentFile);
+        }
+
         // Remove embeddings from embedding store by their IDs
         if (documentFile != null) {
             LOG.infof("Removing embeddings from store for documentId=%s", documentFile.id);
@@ -189,6 +259,10 @@ public class ChatService {
                     "DELETE FROM DocumentChunk dc WHERE dc.documentFile.id = :docFileId"
             ).setParameter("docFileId", documentFile.id).executeUpdate();
             LOG.infof("Deleted %d document chunks", deletedChunks);
+
+            // The blob may be shared with other documents (content-addressed), so it is
+            // released only after commit and only if nothing else references it
+            documentDeletedEvent.fire(new DocumentDeletedEvent(documentFile.id, documentFile.blobKey));
         }
 
         // Delete chat (cascades to ChatMessages, RetrievalInfo, HypoteticalQuestions)
@@ -425,6 +499,15 @@ public class ChatService {
                 .orElseThrow(() -> new NotFoundException("Document not found for this chat"));
     }
     
+    /**
+     * FILE_NAME under which the chat document's embeddings are stored.
+     * Differs from the uploaded file name when the embeddings are shared with another upload.
+     */
+    public String getIndexFileName(String chatId) {
+        return documentFileRepository.findIndexFileNameByChatId(chatId)
+                .orElseThrow(() -> new NotFoundException("Document not found for this chat"));
+    }
+
     public dev.matheus.dto.DocumentStatusDTO getDocumentStatus(String chatId) {
         return documentFileRepository.findStatusByChatId(chatId)
                 .orElseThrow(() -> new NotFoundException("Document not found for this chat"));
@@ -1,6 +1,7 @@
 package dev.matheus.service;
 
 import io.quarkus.websockets.next.WebSocketConnection;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.jboss.logging.Logger;
 
@@ -22,6 +23,23 @@ public class ChatSessionRegistry {
         sessions.remove(chatId);
     }
 
+    public boolean isConnected(String chatId) {
+        return chatId != null && sessions.containsKey(chatId);
+    }
+
+    /**
+     * Send a JSON event to the chat's connection.
+     *
+     * @return Completes when the message is written; completes immediately if the chat is not connected
+     */
+    public Uni<Void> sendEvent(String chatId, String json) {
+        WebSocketConnection connection = chatId != null ? sessions.get(chatId) : null;
+        if (connection == null) {
+            return Uni.createFrom().voidItem();
+        }
+        return connection.sendText(json);
+    }
+
     public void sendToolCallEvent(String chatId, String toolName, String status) {
         sendToolCallEvent(chatId, toolName, status, null);
     }
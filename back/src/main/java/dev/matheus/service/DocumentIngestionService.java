@@ -2,23 +2,35 @@ package dev.matheus.service;
 
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.matheus.entity.DocumentChunk;
 import dev.matheus.entity.DocumentFile;
 import dev.matheus.entity.ProcessingStatus;
+import dev.matheus.repository.ChunkBulkWriter;
 import dev.matheus.service.docling.DoclingDocumentParser;
+import dev.matheus.service.ingestion.ChunkDiff;
+import dev.matheus.service.ingestion.EmbeddingResume;
 import dev.matheus.service.pdf.PdfTableExtractor;
 import dev.matheus.service.pdf.PdfTextExtractor;
 import dev.matheus.service.pdf.TextNormalizer;
+import dev.matheus.service.storage.BlobStore;
+import dev.matheus.util.ChunkHashes;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.control.ActivateRequestContext;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.jboss.logging.Logger;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Service responsible for ingesting and parsing documents, especially PDFs.
@@ -28,9 +40,27 @@ public class DocumentIngestionService {
 
     private static final Logger Log = Logger.getLogger(DocumentIngestionService.class);
 
+    /** Recorded on processed documents; ingestion results are only reused across the same version */
+    public static final String PROCESSOR_VERSION = "docling-serve-v1.9.0";
+
+    /** Chunk IDs per bulk delete statement */
+    private static final int REMOVE_BATCH_SIZE = 500;
+
     @Inject
     DoclingDocumentParser doclingParser;
 
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    EmbeddingStore<TextSegment> embeddingStore;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    ChunkBulkWriter chunkBulkWriter;
+
     /**
      * Self-injection to call @Transactional methods through the CDI proxy.
      * Direct self-invocation (this.method()) bypasses CDI interceptors,
@@ -58,9 +88,10 @@ public class DocumentIngestionService {
             // Short transaction: load document and set PROCESSING status
             DocumentFile doc = self.startProcessing(docId);
 
-            // NO transaction: external HTTP call to Docling (can take hours)
+            // NO transaction: read content from the blob store and call Docling (can take hours)
             Log.debugf("Parsing document with Docling - docId=%s, fileName=%s", docId, doc.fileName);
-            List<DocumentChunk> chunks = doclingParser.parse(doc, doc.fileData);
+            byte[] content = blobStore.readAllBytes(doc.blobKey);
+            List<DocumentChunk> chunks = doclingParser.parse(doc, content);
             Log.infof("Docling parsing complete - docId=%s, chunks=%d", docId, chunks.size());
 
             // Short transaction: persist chunks and mark COMPLETED
@@ -86,8 +117,9 @@ public class DocumentIngestionService {
      * Transition document to PROCESSING status and return the entity.
      * Short transaction that commits immediately.
      * The returned entity will be detached after commit — its simple fields
-     * (fileName, fileData) remain accessible in memory.
+     * (fileName, blobKey) remain accessible in memory.
      */
+    @ActivateRequestContext
     @Transactional
     public DocumentFile startProcessing(String docId) {
         DocumentFile doc = DocumentFile.findById(docId);
@@ -101,7 +133,7 @@ public class DocumentIngestionService {
 
     /**
      * Persist document chunks and mark processing as complete.
-     * Short transaction for database writes only.
+     * Short transaction for database writes only; chunks are bulk inserted.
      */
     @Transactional
     public void persistChunksAndComplete(String docId, List<DocumentChunk> chunks) {
@@ -114,16 +146,166 @@ public class DocumentIngestionService {
         // detached DocumentFile from before the Docling call)
         for (DocumentChunk chunk : chunks) {
             chunk.documentFile = doc;
-            chunk.persist();
         }
+        chunkBulkWriter.insertChunks(docId, chunks);
 
         doc.processingStatus = ProcessingStatus.COMPLETED;
         doc.processedAt = LocalDateTime.now();
         doc.chunkCount = chunks.size();
-        doc.processorVersion = "docling-serve-v1.9.0";
+        doc.processorVersion = PROCESSOR_VERSION;
+        doc.persist();
+    }
+
+    /**
+     * Load the chunks a document already has, to be matched against the chunks of a
+     * new run (reprocess or retried job) by content hash.
+     */
+    @ActivateRequestContext
+    @Transactional
+    public ChunkDiff loadPreviousChunks(String docId) {
+        List<Object[]> rows = em.createQuery(
+                "SELECT c.id, c.contentHash, CASE WHEN c.contentHash IS NULL THEN c.content ELSE NULL END, " +
+                "(SELECT COUNT(ce) FROM ChunkEmbedding ce WHERE ce.chunk = c AND ce.embeddingType = 'CONTENT') " +
+                "FROM DocumentChunk c WHERE c.documentFile.id = :docId ORDER BY c.position",
+                Object[].class)
+                .setParameter("docId", docId)
+                .getResultList();
+
+        List<ChunkDiff.PreviousChunk> previous = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            // Chunks stored before content hashes existed are hashed on the fly
+            String contentHash = row[1] != null ? (String) row[1] : ChunkHashes.contentHash((String) row[2]);
+            previous.add(new ChunkDiff.PreviousChunk((String) row[0], contentHash, ((Number) row[3]).longValue() > 0));
+        }
+        return new ChunkDiff(previous);
+    }
+
+    /**
+     * Persist the chunks of one ingestion run without changing the processing status.
+     * Used by the staged pipeline, which marks the document COMPLETED only
+     * after its embeddings are stored (see {@link #markCompleted}).
+     *
+     * Chunks whose content the document already had are not inserted again: the existing
+     * row is moved to the new position and keeps its text, embeddings and questions.
+     *
+     * @return The chunks that still need embedding work (new ones, and reused ones not DONE),
+     *         by the step they resume at
+     */
+    @ActivateRequestContext
+    @Transactional
+    public EmbeddingResume.Plan persistChunks(String docId, List<DocumentChunk> chunks, ChunkDiff previous) {
+        DocumentFile doc = DocumentFile.findById(docId);
+        if (doc == null) {
+            throw new IllegalArgumentException("Document not found: " + docId);
+        }
+
+        List<ChunkDiff.PreviousChunk> matches = new ArrayList<>(chunks.size());
+        for (DocumentChunk chunk : chunks) {
+            if (chunk.contentHash == null) {
+                chunk.contentHash = ChunkHashes.contentHash(chunk.content);
+            }
+            matches.add(previous.claim(chunk.contentHash));
+        }
+        Map<String, DocumentChunk> existingById = loadChunks(matches.stream()
+                .filter(Objects::nonNull)
+                .map(ChunkDiff.PreviousChunk::id)
+                .toList());
+
+        List<DocumentChunk> toInsert = new ArrayList<>(chunks.size());
+        EmbeddingResume.Builder toEmbed = new EmbeddingResume.Builder();
+        for (int i = 0; i < chunks.size(); i++) {
+            DocumentChunk chunk = chunks.get(i);
+            ChunkDiff.PreviousChunk match = matches.get(i);
+            DocumentChunk existing = match != null ? existingById.get(match.id()) : null;
+            if (existing == null) {
+                chunk.documentFile = doc;
+                toInsert.add(chunk);
+                toEmbed.add(chunk, false);
+                continue;
+            }
+
+            // Same normalized hash: the stored text is kept, even if layout whitespace changed,
+            // since ChunkTextResolver caches it by ID and passage spans point into it
+            existing.documentFile = doc;
+            existing.contentType = chunk.contentType;
+            existing.position = chunk.position;
+            existing.sectionHeading = chunk.sectionHeading;
+            existing.headingLevel = chunk.headingLevel;
+            // Chunks stored before content hashes existed were matched on the fly
+            existing.contentHash = chunk.contentHash;
+            // Chunks DONE keep their vectors, unfinished ones resume where they stopped
+            toEmbed.add(existing, match.embedded());
+        }
+        chunkBulkWriter.insertChunks(docId, toInsert);
+        return toEmbed.build();
+    }
+
+    private Map<String, DocumentChunk> loadChunks(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, DocumentChunk> byId = new HashMap<>();
+        em.createQuery("SELECT c FROM DocumentChunk c WHERE c.id IN :ids", DocumentChunk.class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(chunk -> byId.put(chunk.id, chunk));
+        return byId;
+    }
+
+    /**
+     * Mark document as COMPLETED once all pipeline stages are done.
+     */
+    @ActivateRequestContext
+    @Transactional
+    public void markCompleted(String docId, int chunkCount) {
+        DocumentFile doc = DocumentFile.findById(docId);
+        if (doc == null) {
+            throw new IllegalArgumentException("Document not found: " + docId);
+        }
+        doc.processingStatus = ProcessingStatus.COMPLETED;
+        doc.processedAt = LocalDateTime.now();
+        doc.chunkCount = chunkCount;
+        doc.processorVersion = PROCESSOR_VERSION;
+        doc.processingError = null;
         doc.persist();
     }
 
+    /**
+     * Delete chunks together with their vectors and ChunkEmbedding links, in bulk.
+     * Used for chunks a reprocessed document no longer contains.
+     *
+     * @return Number of vectors removed from the embedding store
+     */
+    @ActivateRequestContext
+    @Transactional
+    public int removeChunks(List<String> chunkIds) {
+        int removedEmbeddings = 0;
+        for (int from = 0; from < chunkIds.size(); from += REMOVE_BATCH_SIZE) {
+            List<String> batch = chunkIds.subList(from, Math.min(from + REMOVE_BATCH_SIZE, chunkIds.size()));
+
+            List<String> embeddingIds = em.createQuery(
+                    "SELECT ce.embeddingId FROM ChunkEmbedding ce WHERE ce.chunk.id IN :chunkIds", String.class)
+                    .setParameter("chunkIds", batch)
+                    .getResultList();
+            if (!embeddingIds.isEmpty()) {
+                embeddingStore.removeAll(embeddingIds);
+                removedEmbeddings += embeddingIds.size();
+            }
+
+            em.createQuery("DELETE FROM ChunkEmbedding ce WHERE ce.chunk.id IN :chunkIds")
+                    .setParameter("chunkIds", batch)
+                    .executeUpdate();
+            // Retrieval history keeps the question text, only the link to the chunk goes
+            em.createQuery("UPDATE HypoteticalQuestion q SET q.documentChunk = NULL WHERE q.documentChunk.id IN :chunkIds")
+                    .setParameter("chunkIds", batch)
+                    .executeUpdate();
+            em.createQuery("DELETE FROM DocumentChunk dc WHERE dc.id IN :chunkIds")
+                    .setParameter("chunkIds", batch)
+                    .executeUpdate();
+        }
+        return removedEmbeddings;
+    }
+
     /**
      * Mark document as COMPLETED (kept for external callers and tests)
      */
@@ -136,7 +318,7 @@ public class DocumentIngestionService {
         doc.processingStatus = ProcessingStatus.COMPLETED;
         doc.processedAt = LocalDateTime.now();
         doc.chunkCount = chunks.size();
-        doc.processorVersion = "docling-serve-v1.9.0";
+        doc.processorVersion = PROCESSOR_VERSION;
         doc.persist();
     }
 
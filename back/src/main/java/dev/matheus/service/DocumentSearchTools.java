@@ -179,7 +179,7 @@ public class DocumentSearchTools {
         try {
             String messageId = getMessageId(chatId);
             DocumentFileResponse doc = chatService.getDocument(chatId);
-            return new ChatContext(messageId, doc.fileName(), doc.language());
+            return new ChatContext(messageId, chatService.getIndexFileName(chatId), doc.language());
         } catch (NotFoundException | InterruptedException ex) {
             if (ex instanceof InterruptedException) {
                 Thread.currentThread().interrupt();
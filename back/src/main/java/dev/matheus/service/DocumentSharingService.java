@@ -0,0 +1,137 @@
+package dev.matheus.service;
+
+import dev.matheus.entity.DocumentFile;
+import dev.matheus.entity.ProcessingStatus;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shares ingestion results (chunks, chunk embeddings, vectors) between documents
+ * with identical content, so the same file uploaded into several chats is
+ * converted and embedded once.
+ *
+ * The document that ran the ingestion owns the chunks and keeps a reference count
+ * of the documents using them (itself included). Documents reusing them point at
+ * the owner through sharedFromId. When the owner goes away while others still use
+ * the data, ownership moves to one of them.
+ *
+ * All methods must run inside the caller's transaction; owners are locked with
+ * PESSIMISTIC_WRITE so sharing and releasing the same data cannot interleave.
+ */
+@ApplicationScoped
+public class DocumentSharingService {
+
+    private static final Logger LOG = Logger.getLogger(DocumentSharingService.class);
+
+    @Inject
+    EntityManager em;
+
+    /**
+     * Find a document with the same content whose ingestion COMPLETED with the
+     * current processor version, locked for sharing.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Optional<DocumentFile> findReusable(String checksum) {
+        List<DocumentFile> owners = em.createQuery(
+                "SELECT d FROM DocumentFile d WHERE d.checksum = :checksum AND d.sharedFromId IS NULL " +
+                "AND d.processingStatus = :status AND d.processorVersion = :version " +
+                "ORDER BY d.processedAt ASC",
+                DocumentFile.class)
+                .setParameter("checksum", checksum)
+                .setParameter("status", ProcessingStatus.COMPLETED)
+                .setParameter("version", DocumentIngestionService.PROCESSOR_VERSION)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(1)
+                .getResultList();
+        return owners.stream().findFirst();
+    }
+
+    /**
+     * Make {@code doc} use the chunks and embeddings of {@code owner} instead of being processed.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void share(DocumentFile doc, DocumentFile owner) {
+        owner.refCount++;
+
+        doc.sharedFromId = owner.id;
+        doc.indexFileName = owner.indexFileName != null ? owner.indexFileName : owner.fileName;
+        doc.processingStatus = ProcessingStatus.COMPLETED;
+        doc.processedAt = LocalDateTime.now();
+        doc.chunkCount = owner.chunkCount;
+        doc.processorVersion = owner.processorVersion;
+        doc.language = owner.language;
+
+        LOG.infof("Reusing ingestion of document %s (checksum=%s, references=%d)",
+                owner.id, owner.checksum, owner.refCount);
+    }
+
+    /**
+     * Stop {@code doc} from sharing ingestion data with other documents.
+     *
+     * Afterwards {@code doc} owns only chunks nobody else uses: a reusing document drops its
+     * reference (and owns nothing), an owner hands its chunks over to one of the documents
+     * still using them (and owns nothing), a sole owner keeps its chunks. Callers can then
+     * delete or rebuild the document's own chunks as before.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void detach(DocumentFile doc) {
+        if (doc.sharedFromId != null) {
+            DocumentFile owner = em.find(DocumentFile.class, doc.sharedFromId, LockModeType.PESSIMISTIC_WRITE);
+            if (owner != null) {
+                owner.refCount = Math.max(1, owner.refCount - 1);
+                LOG.infof("Released shared ingestion of document %s (references=%d)", owner.id, owner.refCount);
+            }
+            resetToOwnData(doc);
+            return;
+        }
+
+        em.refresh(doc, LockModeType.PESSIMISTIC_WRITE);
+        if (doc.refCount <= 1) {
+            return;
+        }
+
+        List<DocumentFile> sharers = em.createQuery(
+                "SELECT d FROM DocumentFile d WHERE d.sharedFromId = :ownerId ORDER BY d.uploadedAt ASC",
+                DocumentFile.class)
+                .setParameter("ownerId", doc.id)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        if (sharers.isEmpty()) {
+            LOG.warnf("Document %s had refCount=%d but no sharers, resetting", doc.id, doc.refCount);
+            doc.refCount = 1;
+            return;
+        }
+
+        DocumentFile heir = sharers.get(0);
+        em.createQuery("UPDATE DocumentChunk c SET c.documentFile = :heir WHERE c.documentFile.id = :ownerId")
+                .setParameter("heir", heir)
+                .setParameter("ownerId", doc.id)
+                .executeUpdate();
+        for (DocumentFile sharer : sharers.subList(1, sharers.size())) {
+            sharer.sharedFromId = heir.id;
+        }
+
+        heir.sharedFromId = null;
+        heir.refCount = sharers.size();
+        // Keeps searching the vectors created under the original upload's file name
+        heir.indexFileName = doc.indexFileName != null ? doc.indexFileName : doc.fileName;
+
+        LOG.infof("Transferred shared ingestion from document %s to %s (references=%d)",
+                doc.id, heir.id, heir.refCount);
+        resetToOwnData(doc);
+    }
+
+    private void resetToOwnData(DocumentFile doc) {
+        doc.sharedFromId = null;
+        doc.refCount = 1;
+        doc.indexFileName = null;
+    }
+}
@@ -8,23 +8,51 @@ import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.matheus.ai.LanguageDetectionAiService;
 import dev.matheus.ai.QuestionExtractorAiService;
+import dev.matheus.ai.QuestionExtractorAiService.BatchQuestions;
+import dev.matheus.ai.QuestionExtractorAiService.ChunkQuestions;
 import dev.matheus.entity.ChunkEmbedding;
 import dev.matheus.entity.ContentType;
 import dev.matheus.entity.DocumentChunk;
 import dev.matheus.entity.DocumentFile;
+import dev.matheus.entity.EmbeddingStatus;
+import dev.matheus.entity.ProcessingStatus;
+import dev.matheus.repository.ChunkBulkWriter;
+import dev.matheus.service.embedding.BatchEmbeddingWriter;
+import dev.matheus.service.embedding.EmbeddingBatches;
+import dev.matheus.service.docling.PassageSplitter;
+import dev.matheus.service.docling.TokenEstimator;
+import dev.matheus.service.embedding.EmbeddingConfigProperties;
+import dev.matheus.service.ingestion.EmbeddingResume;
+import dev.matheus.service.ingestion.IngestionConfigProperties;
+import dev.matheus.service.limiter.AdaptiveConcurrencyLimiter;
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.Lane;
+import dev.matheus.service.limiter.ResourceBulkheads;
+import dev.matheus.service.retrieval.PassageSegments;
+import dev.matheus.service.retrieval.QuestionSegments;
 import dev.matheus.splitter.CustomTableAwareSplitter;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.control.ActivateRequestContext;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.jboss.logging.Logger;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static dev.matheus.util.ChatUtils.isPdf;
@@ -37,6 +65,11 @@ public class HypotheticalQuestionService {
     private static final String FILE_NAME_KEY = "FILE_NAME";
     private static final String PARAGRAPH_KEY = "PARAGRAPH";
 
+    /** Chunks above this exceed the embedding model's context limit */
+    private static final int MAX_EMBEDDING_TOKENS = 7500;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
     @Inject
     EmbeddingModel embeddingModel;
 
@@ -46,6 +79,24 @@ public class HypotheticalQuestionService {
     @Inject
     DocumentIngestionService documentIngestionService;
 
+    @Inject
+    BatchEmbeddingWriter batchEmbeddingWriter;
+
+    @Inject
+    EmbeddingConfigProperties embeddingConfig;
+
+    @Inject
+    IngestionConfigProperties ingestionConfig;
+
+    @Inject
+    ChunkBulkWriter chunkBulkWriter;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    ResourceBulkheads bulkheads;
+
     @Inject
     CustomTableAwareSplitter customTableAwareSplitter;
 
@@ -59,6 +110,8 @@ public class HypotheticalQuestionService {
     @Named("retrievalExecutorService")
     ExecutorService executorService;
 
+    private final TokenEstimator tokenEstimator = new TokenEstimator();
+
     /**
      * Self-injection to call @Transactional methods through the CDI proxy.
      * Direct self-invocation (this.method()) bypasses CDI interceptors,
@@ -68,11 +121,14 @@ public class HypotheticalQuestionService {
     HypotheticalQuestionService self;
 
     /**
-     * Generate embeddings for all chunks in a document in parallel.
+     * Generate embeddings for all unfinished chunks in a document in parallel.
      * Each chunk is processed in its own transaction to ensure that failures
      * in one chunk don't rollback successful embeddings from other chunks.
      * Chunks are processed in parallel using CompletableFuture for better performance.
      *
+     * Chunks resume at the step their {@link EmbeddingStatus} records (see {@link EmbeddingResume}),
+     * so running this again after a crash only embeds what is missing.
+     *
      * @ActivateRequestContext: called from async threads that lack CDI request context.
      * NO @Transactional: loads data via separate method, then processes without transaction.
      */
@@ -82,27 +138,16 @@ public class HypotheticalQuestionService {
         // Called via self (CDI proxy) so @Transactional is properly activated
         DocumentAndChunks data = self.loadDocumentAndChunks(docId);
 
-        if (data.doc.language == null && !data.chunks.isEmpty()) {
-            String content = data.chunks.get(0).content;
-            if (content != null && !content.isBlank()) {
-                String sample = content.substring(0, Math.min(500, content.length()));
-                try {
-                    String detected = languageDetectionAiService.detectLanguage(sample);
-                    if (detected != null && !detected.isBlank()) {
-                        self.setDocumentLanguage(data.doc.id, detected.trim().toLowerCase());
-                    }
-                } catch (Exception e) {
-                    Log.warnf(e, "Language detection failed for docId=%s. Continuing without language metadata.", data.doc.id);
-                }
-            }
-        }
+        detectLanguage(data.doc, data.chunks);
         
         // Transaction committed in loadDocumentAndChunks() - no longer active here
         Log.infof("Starting embedding generation - docId=%s, fileName=%s", data.doc.id, data.doc.fileName);
-        Log.infof("Found chunks for embedding - docId=%s, chunkCount=%d", data.doc.id, data.chunks.size());
+        Log.infof("Found chunks for embedding - docId=%s, chunkCount=%d, embedContent=%d, generateQuestions=%d, " +
+                "embedQuestions=%d", data.doc.id, data.chunks.size(), data.plan.embedContent().size(),
+                data.plan.generateQuestions().size(), data.plan.embedQuestions().size());
         
         // Process in parallel - NO transaction held during this
-        generateEmbeddingsParallel(data.doc, data.chunks);
+        generateEmbeddingsParallel(data.doc, data.plan);
     }
     
     /**
@@ -125,7 +170,125 @@ public class HypotheticalQuestionService {
         List<DocumentChunk> chunks = DocumentChunk
                 .find("SELECT c FROM DocumentChunk c JOIN FETCH c.documentFile WHERE c.documentFile.id = ?1", doc.id)
                 .list();
-        return new DocumentAndChunks(doc, chunks);
+        return new DocumentAndChunks(doc, chunks, EmbeddingResume.Plan.of(chunks, contentEmbeddedIds(chunks)));
+    }
+
+    /**
+     * Retry FAILED chunks of completed documents, at most {@code limit} per call, each at most
+     * {@code maxAttempts} times. A chunk is retried again no sooner than {@code minAge} after its
+     * last failure or retry.
+     *
+     * @return Number of chunks retried
+     */
+    @ActivateRequestContext
+    public int retryFailedChunks(int maxAttempts, int limit, Duration minAge) {
+        List<DocumentAndChunks> claimed = self.claimFailedChunks(maxAttempts, limit, LocalDateTime.now().minus(minAge));
+        int retried = 0;
+        for (DocumentAndChunks data : claimed) {
+            Log.infof("Retrying failed chunks - docId=%s, chunks=%d", data.doc.id, data.plan.size());
+            try {
+                generateEmbeddingsParallel(data.doc, data.plan);
+            } catch (Exception e) {
+                Log.errorf(e, "Retry of failed chunks failed - docId=%s", data.doc.id);
+            }
+            retried += data.plan.size();
+        }
+        return retried;
+    }
+
+    /**
+     * Claim FAILED chunks for a background retry, counting the attempt up front.
+     * The row locks (SKIP LOCKED) keep other nodes from claiming the same chunks, and the
+     * new embeddingUpdatedAt keeps them from being claimed again for another retry interval;
+     * a retry that dies with its node is picked up again after that.
+     *
+     * @return Claimed chunks by document
+     */
+    @Transactional
+    public List<DocumentAndChunks> claimFailedChunks(int maxAttempts, int limit, LocalDateTime cutoff) {
+        @SuppressWarnings("unchecked")
+        List<String> ids = em.createNativeQuery(
+                "SELECT c.id FROM document_chunk c JOIN document_files d ON d.id = c.document_file_id " +
+                "WHERE c.embedding_status = 'FAILED' AND c.embedding_attempts < :maxAttempts " +
+                "  AND (c.embedding_updated_at IS NULL OR c.embedding_updated_at < :cutoff) " +
+                "  AND d.processing_status = :completed " +
+                "ORDER BY c.embedding_updated_at " +
+                "LIMIT :limit " +
+                "FOR UPDATE OF c SKIP LOCKED")
+                .setParameter("maxAttempts", maxAttempts)
+                .setParameter("cutoff", cutoff)
+                .setParameter("completed", ProcessingStatus.COMPLETED.name())
+                .setParameter("limit", limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        em.createQuery("UPDATE DocumentChunk c SET c.embeddingAttempts = c.embeddingAttempts + 1, " +
+                        "c.embeddingUpdatedAt = :now WHERE c.id IN :ids")
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("ids", ids)
+                .executeUpdate();
+        List<DocumentChunk> chunks = em.createQuery(
+                        "SELECT c FROM DocumentChunk c JOIN FETCH c.documentFile WHERE c.id IN :ids " +
+                        "ORDER BY c.documentFile.id, c.position", DocumentChunk.class)
+                .setParameter("ids", ids)
+                .getResultList();
+
+        Map<String, List<DocumentChunk>> byDocument = new LinkedHashMap<>();
+        for (DocumentChunk chunk : chunks) {
+            byDocument.computeIfAbsent(chunk.documentFile.id, id -> new ArrayList<>()).add(chunk);
+        }
+        Set<String> contentEmbedded = contentEmbeddedIds(chunks);
+        List<DocumentAndChunks> claimed = new ArrayList<>(byDocument.size());
+        for (List<DocumentChunk> documentChunks : byDocument.values()) {
+            claimed.add(new DocumentAndChunks(documentChunks.get(0).documentFile, documentChunks,
+                    EmbeddingResume.Plan.of(documentChunks, contentEmbedded)));
+        }
+        return claimed;
+    }
+
+    /**
+     * IDs of the FAILED chunks among the given ones whose content vector is stored,
+     * i.e. that resume after the content step.
+     */
+    private Set<String> contentEmbeddedIds(List<DocumentChunk> chunks) {
+        List<String> failed = chunks.stream()
+                .filter(chunk -> chunk.embeddingStatus == EmbeddingStatus.FAILED)
+                .map(chunk -> chunk.id)
+                .toList();
+        if (failed.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(em.createQuery(
+                        "SELECT ce.chunk.id FROM ChunkEmbedding ce WHERE ce.chunk.id IN :ids AND ce.embeddingType = 'CONTENT'",
+                        String.class)
+                .setParameter("ids", failed)
+                .getResultList());
+    }
+
+    /**
+     * Detect the document language from its first chunk, if not known yet.
+     * Failures are logged and ignored - language metadata is optional.
+     */
+    @ActivateRequestContext
+    public void detectLanguage(DocumentFile doc, List<DocumentChunk> chunks) {
+        if (doc.language != null || chunks.isEmpty()) {
+            return;
+        }
+        String content = chunks.get(0).content;
+        if (content == null || content.isBlank()) {
+            return;
+        }
+        String sample = content.substring(0, Math.min(500, content.length()));
+        try {
+            String detected = languageDetectionAiService.detectLanguage(sample);
+            if (detected != null && !detected.isBlank()) {
+                self.setDocumentLanguage(doc.id, detected.trim().toLowerCase());
+            }
+        } catch (Exception e) {
+            Log.warnf(e, "Language detection failed for docId=%s. Continuing without language metadata.", doc.id);
+        }
     }
 
     @Transactional
@@ -143,26 +306,39 @@ public class HypotheticalQuestionService {
     static class DocumentAndChunks {
         final DocumentFile doc;
         final List<DocumentChunk> chunks;
+        /** Unfinished chunks, by the step they resume at */
+        final EmbeddingResume.Plan plan;
         
-        DocumentAndChunks(DocumentFile doc, List<DocumentChunk> chunks) {
+        DocumentAndChunks(DocumentFile doc, List<DocumentChunk> chunks, EmbeddingResume.Plan plan) {
             this.doc = doc;
             this.chunks = chunks;
+            this.plan = plan;
         }
     }
     
     /**
-     * Perform parallel embedding generation for chunks.
+     * Perform embedding generation for chunks.
      * Called after transaction commits to release database connection.
-     * No @Transactional - each chunk/question has its own transaction.
-     */
-    private void generateEmbeddingsParallel(DocumentFile doc, List<DocumentChunk> chunks) {
-        // Process chunks in parallel using CompletableFuture
-        List<CompletableFuture<EmbeddingResult>> futures = chunks.stream()
-            .map(chunk -> CompletableFuture.supplyAsync(
-                () -> processChunkEmbedding(chunk),
-                executorService
-            ))
-            .toList();
+     * Chunk contents are embedded in batches (one embedAll call and one transaction per batch),
+     * then questions are generated per chunk and embedded in one batch per chunk.
+     * Chunks that stopped after their content or their questions join at that step.
+     * Batches, and the chunks of each batch, fan out as nested tasks on the virtual-thread
+     * executor, in the caller's {@link Lane}; OpenAI, pgvector and JDBC permits bound the
+     * real concurrency.
+     * No @Transactional - each batch has its own transaction.
+     */
+    private void generateEmbeddingsParallel(DocumentFile doc, EmbeddingResume.Plan plan) {
+        List<CompletableFuture<List<EmbeddingResult>>> futures = new ArrayList<>();
+        for (List<DocumentChunk> batch : EmbeddingBatches.pack(plan.embedContent(),
+                chunk -> chunk.tokenCount, embeddingConfig.batchMaxSegments(), embeddingConfig.batchMaxTokens())) {
+            futures.add(supplyInLane(() -> processBatch(doc, batch)));
+        }
+        for (List<DocumentChunk> questionBatch : packQuestionBatches(plan.generateQuestions())) {
+            futures.add(supplyInLane(() -> processQuestionBatch(questionBatch)));
+        }
+        for (DocumentChunk chunk : plan.embedQuestions()) {
+            futures.add(supplyInLane(() -> List.of(processChunkQuestions(chunk, chunk.pendingQuestions))));
+        }
         
         // Wait for all tasks to complete
         CompletableFuture<Void> allOf = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
@@ -170,21 +346,19 @@ public class HypotheticalQuestionService {
         try {
             allOf.join();
             
-            // Collect results
+            // Collect results - chunks whose content was not embedded count as failed
             int successCount = 0;
-            int failureCount = 0;
-            
-            for (CompletableFuture<EmbeddingResult> future : futures) {
-                EmbeddingResult result = future.join();
-                if (result.success) {
-                    successCount++;
-                } else {
-                    failureCount++;
+            for (CompletableFuture<List<EmbeddingResult>> future : futures) {
+                for (EmbeddingResult result : future.join()) {
+                    if (result.success) {
+                        successCount++;
+                    }
                 }
             }
+            int failureCount = plan.size() - successCount;
             
             Log.infof("Embedding generation complete - docId=%s, total=%d, success=%d, failed=%d", 
-                     doc.id, chunks.size(), successCount, failureCount);
+                     doc.id, plan.size(), successCount, failureCount);
         } catch (Exception e) {
             Log.errorf(e, "Error during parallel embedding generation - docId=%s", doc.id);
             throw new RuntimeException("Embedding generation failed", e);
@@ -192,23 +366,76 @@ public class HypotheticalQuestionService {
     }
     
     /**
-     * Process embedding for a single chunk within a separate thread.
-     * 1. Embeds content in a short transaction
-     * 2. After transaction commits, embeds questions in parallel (each in own transaction)
-     * This prevents holding a transaction open while waiting for parallel tasks.
+     * Embed the contents of a batch, then generate and embed the questions of its embedded
+     * chunks, one parallel task per question batch. Waiting on the nested tasks is safe on
+     * virtual threads.
+     *
+     * @return One result per chunk whose content was embedded
      */
-    private EmbeddingResult processChunkEmbedding(DocumentChunk chunk) {
+    private List<EmbeddingResult> processBatch(DocumentFile doc, List<DocumentChunk> batch) {
+        List<DocumentChunk> embedded;
+        try {
+            embedded = embedContents(batch);
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to embed content batch - docId=%s, chunks=%d", doc.id, batch.size());
+            markEmbeddingFailed(batch, e);
+            return List.of();
+        }
+
+        List<CompletableFuture<List<EmbeddingResult>>> futures = packQuestionBatches(embedded).stream()
+            .map(questionBatch -> supplyInLane(() -> processQuestionBatch(questionBatch)))
+            .toList();
+        return futures.stream().flatMap(future -> future.join().stream()).toList();
+    }
+
+    /**
+     * Run a task on the executor in the caller's {@link Lane}: executor threads default to
+     * INTERACTIVE, so work started by a pipeline stage or by {@link #retryFailedChunks} would
+     * otherwise take the model slots reserved for chat.
+     */
+    private <T> CompletableFuture<T> supplyInLane(Supplier<T> task) {
+        Lane lane = Lane.current();
+        return CompletableFuture.supplyAsync(() -> {
+            Lane previous = Lane.current();
+            Lane.setCurrent(lane);
+            try {
+                return task.get();
+            } finally {
+                Lane.setCurrent(previous);
+            }
+        }, executorService);
+    }
+
+    private List<EmbeddingResult> processQuestionBatch(List<DocumentChunk> questionBatch) {
+        Map<String, List<String>> questions;
+        try {
+            questions = generateQuestions(questionBatch);
+            bulkheads.run(ExternalResource.JDBC, () -> self.recordQuestions(questions));
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to generate or record questions - chunks=%d", questionBatch.size());
+            markEmbeddingFailed(questionBatch, e);
+            return List.of();
+        }
+        List<DocumentChunk> failed = withoutQuestions(questionBatch, questions);
+        if (!failed.isEmpty()) {
+            markEmbeddingFailed(failed, new IllegalStateException("Question generation failed"));
+        }
+        return questionBatch.stream()
+            .filter(chunk -> questions.containsKey(chunk.id))
+            .map(chunk -> processChunkQuestions(chunk, questions.get(chunk.id)))
+            .toList();
+    }
+
+    /**
+     * Embed the generated questions of a chunk whose content is already embedded,
+     * within a separate thread.
+     */
+    private EmbeddingResult processChunkQuestions(DocumentChunk chunk, List<String> questions) {
         try {
-            // Step 1: Embed content and generate questions (in transaction - fast)
-            // Called via self (CDI proxy) so @Transactional and @ActivateRequestContext work
-            // on this executor thread which has no CDI context
-            List<String> questions = self.generateEmbeddingsInTransaction(chunk);
-            
-            // Transaction committed here - no longer holding DB connection
-            
-            // Step 2: Embed each question in parallel (each gets own transaction)
             if (!questions.isEmpty()) {
-                embedQuestionsInParallel(chunk, questions);
+                // Stores through self (CDI proxy) so @Transactional and @ActivateRequestContext work
+                // on this executor thread which has no CDI context
+                embedQuestions(chunk, questions);
             }
             
             Log.debugf("Embeddings completed - chunkId=%s, totalEmbeddings=%d", 
@@ -218,26 +445,11 @@ public class HypotheticalQuestionService {
         } catch (Exception e) {
             Log.errorf(e, "Failed to generate embeddings for chunk - chunkId=%s, position=%d", 
                       chunk.id, chunk.position);
+            markEmbeddingFailed(List.of(chunk), e);
             return new EmbeddingResult(false, chunk.id, e.getMessage());
         }
     }
     
-    /**
-     * Embed questions sequentially, each with its own transaction.
-     * Sequential processing avoids thread pool deadlock since chunks are already parallel.
-     * No transaction context - each question creates its own transaction.
-     */
-    private void embedQuestionsInParallel(DocumentChunk chunk, List<String> questions) {
-        // Process questions sequentially to avoid thread pool exhaustion/deadlock
-        // Chunks are already being processed in parallel, so this is efficient
-        for (String question : questions) {
-            embedAndPersistQuestion(chunk, question);
-        }
-        
-        Log.debugf("Completed question embeddings - chunkId=%s, questionCount=%d", 
-                  chunk.id, questions.size());
-    }
-    
     /**
      * Result holder for parallel embedding processing
      */
@@ -254,112 +466,275 @@ public class HypotheticalQuestionService {
     }
     
     /**
-     * Generate embeddings for a single chunk within a transaction.
-     * Only embeds the chunk content (fast). Questions are embedded after transaction completes.
+     * Embed the content of several chunks (embed-content stage of the ingestion pipeline).
+     * Each chunk is embedded as passages of at most passage-max-tokens tokens
+     * (see {@link PassageSplitter}), or whole when that is 0. Contents go to the model in
+     * token-bounded embedAll batches outside any transaction; only storing the vectors and
+     * their ChunkEmbedding links takes a JDBC permit and a transaction (see {@link #storeContents}).
      *
-     * @ActivateRequestContext: runs on executor threads without CDI context.
-     * Must execute BEFORE @Transactional (lower priority interceptor) so the
-     * request-scoped EntityManager is available when the transaction starts.
+     * @return The chunks whose content embedding was stored; oversized or failed chunks are left out
+     */
+    public List<DocumentChunk> embedContents(List<DocumentChunk> chunks) {
+        int passageMaxTokens = embeddingConfig.passageMaxTokens();
+        List<DocumentChunk> embeddable = new ArrayList<>(chunks.size());
+        // Index of the first segment of each embeddable chunk, then the segment count
+        List<Integer> firstSegment = new ArrayList<>(chunks.size() + 1);
+        List<TextSegment> segments = new ArrayList<>(chunks.size());
+        List<String> oversized = new ArrayList<>();
+        for (DocumentChunk chunk : chunks) {
+            // Skip embedding for whole chunks that exceed the embedding model's context limit
+            if (passageMaxTokens <= 0 && chunk.tokenCount > MAX_EMBEDDING_TOKENS) {
+                Log.errorf("Skipping embedding for oversized chunk - chunkId=%s, tokens=%d (max=%d)",
+                          chunk.id, chunk.tokenCount, MAX_EMBEDDING_TOKENS);
+                oversized.add(chunk.id);
+                continue;
+            }
+            embeddable.add(chunk);
+            firstSegment.add(segments.size());
+            segments.addAll(contentSegments(chunk, passageMaxTokens));
+        }
+        firstSegment.add(segments.size());
+
+        List<Embedding> embeddings = batchEmbeddingWriter.embed(segments);
+        return bulkheads.execute(ExternalResource.JDBC, () -> self.storeContents(
+                new EmbeddedContents(embeddable, firstSegment, segments, embeddings), oversized));
+    }
+
+    /**
+     * Content segments of chunks and their embeddings, aligned with the segments
+     * (null where a segment could not be embedded).
+     *
+     * @param firstSegment Index of the first segment of each chunk, then the segment count
+     */
+    public record EmbeddedContents(List<DocumentChunk> chunks, List<Integer> firstSegment,
+                                   List<TextSegment> segments, List<Embedding> embeddings) {
+    }
+
+    /**
+     * Store embedded chunk contents in one transaction: vectors are written with addAll and
+     * the ChunkEmbedding links (type CONTENT, one per vector) are bulk inserted.
+     * Embedded chunks become CONTENT_EMBEDDED and the others FAILED, in the same transaction;
+     * the vectors stored for a chunk some of whose passages failed are removed again.
      *
-     * @param chunk The chunk to generate embeddings for
-     * @return List of generated questions to embed (outside transaction)
+     * @param oversized Chunks skipped for exceeding the embedding context limit, marked FAILED
+     * @return The chunks whose content embedding was stored
      */
     @ActivateRequestContext
     @Transactional
-    public List<String> generateEmbeddingsInTransaction(DocumentChunk chunk) {
-        return embedContentAndGenerateQuestions(chunk);
+    public List<DocumentChunk> storeContents(EmbeddedContents contents, List<String> oversized) {
+        failEmbedding(oversized, "Chunk exceeds the embedding context limit");
+        if (contents.segments().isEmpty()) {
+            return List.of();
+        }
+
+        List<String> embeddingIds = batchEmbeddingWriter.store(contents.segments(), contents.embeddings());
+
+        List<DocumentChunk> embedded = new ArrayList<>(contents.chunks().size());
+        List<ChunkEmbedding> links = new ArrayList<>(contents.segments().size());
+        List<String> failed = new ArrayList<>();
+        List<String> orphaned = new ArrayList<>();
+        for (int i = 0; i < contents.chunks().size(); i++) {
+            DocumentChunk chunk = contents.chunks().get(i);
+            List<String> chunkEmbeddingIds = embeddingIds.subList(
+                    contents.firstSegment().get(i), contents.firstSegment().get(i + 1));
+            if (chunkEmbeddingIds.contains(null)) {
+                Log.errorf("Failed to embed chunk content - chunkId=%s, contentLength=%d, tokens=%d",
+                          chunk.id, chunk.content.length(), chunk.tokenCount);
+                failed.add(chunk.id);
+                chunkEmbeddingIds.stream().filter(id -> id != null).forEach(orphaned::add);
+                continue;
+            }
+            for (String embeddingId : chunkEmbeddingIds) {
+                links.add(newChunkEmbedding(chunk, embeddingId, "CONTENT"));
+            }
+            embedded.add(chunk);
+        }
+        if (!orphaned.isEmpty()) {
+            // A retry embeds all passages of the chunk again
+            embeddingStore.removeAll(orphaned);
+        }
+        chunkBulkWriter.insertChunkEmbeddings(links);
+        updateEmbeddingStatus(embedded.stream().map(chunk -> chunk.id).toList(), EmbeddingStatus.CONTENT_EMBEDDED);
+        failEmbedding(failed, "Content embedding failed");
+        return embedded;
     }
-    
+
     /**
-     * Embed chunk content and generate questions (but don't embed questions yet).
-     * This keeps the transaction short - only for content embedding.
-     * Questions will be embedded in parallel after this transaction commits.
+     * Segments holding the content of a chunk: its passages, linked to the chunk by CHUNK_ID
+     * with their span in the content, or the whole content when passages are disabled.
      */
-    private List<String> embedContentAndGenerateQuestions(DocumentChunk chunk) {
-        Log.debugf("Generating embeddings for chunk - chunkId=%s, position=%d, tokens=%d", 
-                  chunk.id, chunk.position, chunk.tokenCount);
-        
-        // Skip embedding for chunks that exceed the embedding model's context limit
-        final int MAX_EMBEDDING_TOKENS = 7500;
-        
-        if (chunk.tokenCount > MAX_EMBEDDING_TOKENS) {
-            Log.errorf("Skipping embedding for oversized chunk - chunkId=%s, tokens=%d (max=%d)",
-                      chunk.id, chunk.tokenCount, MAX_EMBEDDING_TOKENS);
-            return List.of(); // Skip this chunk entirely
+    private List<TextSegment> contentSegments(DocumentChunk chunk, int passageMaxTokens) {
+        List<PassageSplitter.Passage> passages = passageMaxTokens > 0
+                ? new PassageSplitter(tokenEstimator, passageMaxTokens).split(chunk.content)
+                : List.of();
+        if (passages.isEmpty()) {
+            return List.of(TextSegment.from(chunk.content, contentMetadata(chunk)));
         }
-        
-        // 1. Embed chunk content (in this transaction)
-        TextSegment contentSegment = TextSegment.from(chunk.content,
-            new Metadata()
-                .put("FILE_NAME", chunk.documentFile.fileName)
-                .put("CHUNK_ID", chunk.id)
-                .put("POSITION", chunk.position));
-        
-        try {
-            Embedding contentEmbedding = embeddingModel.embed(contentSegment).content();
-            String contentEmbeddingId = embeddingStore.add(contentEmbedding, contentSegment);
-            
-            // Create ChunkEmbedding link
-            ChunkEmbedding chunkEmbContent = new ChunkEmbedding();
-            chunkEmbContent.chunk = chunk;
-            chunkEmbContent.embeddingId = contentEmbeddingId;
-            chunkEmbContent.embeddingType = "CONTENT";
-            chunkEmbContent.persist();
-        } catch (Exception e) {
-            Log.errorf(e, "Failed to embed chunk content - chunkId=%s, contentLength=%d, tokens=%d", 
-                      chunk.id, chunk.content.length(), chunk.tokenCount);
-            return List.of(); // Skip questions if content fails
+        List<TextSegment> segments = new ArrayList<>(passages.size());
+        for (PassageSplitter.Passage passage : passages) {
+            segments.add(TextSegment.from(chunk.content.substring(passage.start(), passage.end()),
+                contentMetadata(chunk)
+                    .put(QuestionSegments.EMBEDDING_TYPE_KEY, PassageSegments.PASSAGE)
+                    .put(PassageSegments.START_KEY, passage.start())
+                    .put(PassageSegments.END_KEY, passage.end())));
         }
-        
-        // 2. Generate hypothetical questions (but don't embed yet)
-        List<String> questions = generateQuestions(chunk);
-        Log.debugf("Generated questions for chunk - chunkId=%s, questionCount=%d", chunk.id, questions.size());
-        
-        // Return questions to be embedded AFTER transaction commits
-        return questions;
+        return segments;
     }
-    
+
+    private static Metadata contentMetadata(DocumentChunk chunk) {
+        return new Metadata()
+            .put(FILE_NAME_KEY, indexFileName(chunk.documentFile))
+            .put(QuestionSegments.CHUNK_ID_KEY, chunk.id)
+            .put("POSITION", chunk.position);
+    }
+
     /**
-     * Embed a hypothetical question and persist it within a separate transaction.
-     * Called via self (CDI proxy) so @Transactional and @ActivateRequestContext
-     * are properly activated on the executor thread.
+     * Embed the questions generated for a chunk in one embedAll round trip outside any
+     * transaction (embed-questions stage of the ingestion pipeline), then store them under
+     * a JDBC permit (see {@link #storeQuestions}).
      */
-    private void embedAndPersistQuestion(DocumentChunk chunk, String question) {
-        self.embedAndPersistQuestionInTransaction(chunk, question);
+    public void embedQuestions(DocumentChunk chunk, List<String> questions) {
+        List<TextSegment> segments = new ArrayList<>(questions.size());
+        for (String question : questions) {
+            // Clean JSON formatting artifacts from AI-generated questions
+            String cleanedQuestion = cleanJsonFormatting(question);
+            // The paragraph is referenced by CHUNK_ID and resolved at retrieval time
+            // (ChunkTextResolver) instead of copying the chunk content into every question row
+            segments.add(TextSegment.from(cleanedQuestion,
+                new Metadata()
+                    .put(FILE_NAME_KEY, indexFileName(chunk.documentFile))
+                    .put(QuestionSegments.CHUNK_ID_KEY, chunk.id)
+                    .put(QuestionSegments.EMBEDDING_TYPE_KEY, QuestionSegments.HYPOTHETICAL_QUESTION)));
+        }
+
+        List<Embedding> embeddings = batchEmbeddingWriter.embed(segments);
+        bulkheads.run(ExternalResource.JDBC, () -> self.storeQuestions(chunk, segments, embeddings));
     }
-    
+
     /**
-     * Embed and persist a question within a transaction.
+     * Store the embedded questions of a chunk with one addAll and one transaction.
+     * A question that could not be embedded is logged and skipped. The chunk becomes DONE
+     * in the same transaction.
      *
-     * @ActivateRequestContext: runs on executor threads without CDI context.
+     * @param embeddings Embeddings aligned with {@code segments}, null where a question failed
      */
     @ActivateRequestContext
     @Transactional
-    public void embedAndPersistQuestionInTransaction(DocumentChunk chunk, String question) {
-        try {
-            // Clean JSON formatting artifacts from AI-generated questions
-            String cleanedQuestion = cleanJsonFormatting(question);
+    public void storeQuestions(DocumentChunk chunk, List<TextSegment> segments, List<Embedding> embeddings) {
+        List<String> embeddingIds = batchEmbeddingWriter.store(segments, embeddings);
 
-            TextSegment questionSegment = TextSegment.from(cleanedQuestion,
-                new Metadata()
-                    .put("PARAGRAPH", chunk.content)
-                    .put("FILE_NAME", chunk.documentFile.fileName)
-                    .put("CHUNK_ID", chunk.id));
-            
-            Embedding questionEmbedding = embeddingModel.embed(questionSegment).content();
-            String questionEmbeddingId = embeddingStore.add(questionEmbedding, questionSegment);
-            
+        List<ChunkEmbedding> links = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            if (embeddingIds.get(i) == null) {
+                String question = segments.get(i).text();
+                Log.errorf("Failed to embed question for chunk - chunkId=%s, question=%s",
+                          chunk.id, question.substring(0, Math.min(50, question.length())));
+                continue;
+            }
             // Link question embedding to chunk
-            ChunkEmbedding chunkEmbQuestion = new ChunkEmbedding();
-            chunkEmbQuestion.chunk = chunk;
-            chunkEmbQuestion.embeddingId = questionEmbeddingId;
-            chunkEmbQuestion.embeddingType = "HYPOTHETICAL_QUESTION";
-            chunkEmbQuestion.persist();
+            links.add(newChunkEmbedding(chunk, embeddingIds.get(i), "HYPOTHETICAL_QUESTION"));
+        }
+        chunkBulkWriter.insertChunkEmbeddings(links);
+        updateEmbeddingStatus(List.of(chunk.id), EmbeddingStatus.DONE);
+
+        Log.debugf("Completed question embeddings - chunkId=%s, questionCount=%d, embedded=%d",
+                  chunk.id, segments.size(), links.size());
+    }
+
+    /**
+     * Keep the questions generated for chunks until they are embedded (QUESTIONS_GENERATED),
+     * so a run resumed after a crash embeds them without asking the LLM again.
+     * Chunks without questions are DONE; chunks whose question call failed must not be passed.
+     */
+    @ActivateRequestContext
+    @Transactional
+    public void recordQuestions(Map<String, List<String>> questionsByChunk) {
+        List<String> done = new ArrayList<>();
+        List<String> withQuestions = new ArrayList<>();
+        questionsByChunk.forEach((chunkId, questions) -> (questions.isEmpty() ? done : withQuestions).add(chunkId));
+        updateEmbeddingStatus(done, EmbeddingStatus.DONE);
+        if (withQuestions.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        em.createQuery("SELECT c FROM DocumentChunk c WHERE c.id IN :ids", DocumentChunk.class)
+                .setParameter("ids", withQuestions)
+                .getResultList()
+                .forEach(chunk -> {
+                    chunk.pendingQuestions = new ArrayList<>(questionsByChunk.get(chunk.id));
+                    chunk.embeddingStatus = EmbeddingStatus.QUESTIONS_GENERATED;
+                    chunk.embeddingUpdatedAt = now;
+                });
+    }
+
+    /**
+     * Mark chunks FAILED after an embedding step threw, in a transaction of its own.
+     * Failures are logged only: the chunks are then left at their last committed step.
+     */
+    public void markEmbeddingFailed(List<DocumentChunk> chunks, Exception cause) {
+        try {
+            List<String> ids = chunks.stream().map(chunk -> chunk.id).toList();
+            bulkheads.run(ExternalResource.JDBC, () -> self.markEmbeddingFailed(ids, cause.getMessage()));
         } catch (Exception e) {
-            Log.errorf(e, "Failed to embed question for chunk - chunkId=%s, question=%s", 
-                      chunk.id, question.substring(0, Math.min(50, question.length())));
-            // Continue - failure to embed one question doesn't stop the process
+            Log.warnf("Could not mark %d chunk(s) as FAILED: %s", chunks.size(), e.getMessage());
+        }
+    }
+
+    @ActivateRequestContext
+    @Transactional
+    public void markEmbeddingFailed(Collection<String> chunkIds, String error) {
+        failEmbedding(chunkIds, error);
+    }
+
+    private void updateEmbeddingStatus(Collection<String> chunkIds, EmbeddingStatus status) {
+        if (chunkIds.isEmpty()) {
+            return;
+        }
+        em.createQuery("UPDATE DocumentChunk c SET c.embeddingStatus = :status, c.embeddingError = NULL, " +
+                        "c.pendingQuestions = NULL, c.embeddingUpdatedAt = :now WHERE c.id IN :ids")
+                .setParameter("status", status)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("ids", chunkIds)
+                .executeUpdate();
+    }
+
+    /**
+     * Mark chunks FAILED, keeping their pending questions. An attempt counts when a chunk
+     * fails, unless it was FAILED already: background retries count theirs when claimed
+     * (see {@link #claimFailedChunks}).
+     */
+    private void failEmbedding(Collection<String> chunkIds, String error) {
+        if (chunkIds.isEmpty()) {
+            return;
         }
+        String message = error == null ? "Unknown error"
+                : error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        em.createQuery("UPDATE DocumentChunk c SET " +
+                        "c.embeddingAttempts = c.embeddingAttempts + CASE WHEN c.embeddingStatus = :failed THEN 0 ELSE 1 END, " +
+                        "c.embeddingStatus = :failed, c.embeddingError = :error, c.embeddingUpdatedAt = :now " +
+                        "WHERE c.id IN :ids")
+                .setParameter("failed", EmbeddingStatus.FAILED)
+                .setParameter("error", message)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("ids", chunkIds)
+                .executeUpdate();
+    }
+
+    private static ChunkEmbedding newChunkEmbedding(DocumentChunk chunk, String embeddingId, String embeddingType) {
+        ChunkEmbedding chunkEmbedding = new ChunkEmbedding();
+        chunkEmbedding.chunk = chunk;
+        chunkEmbedding.embeddingId = embeddingId;
+        chunkEmbedding.embeddingType = embeddingType;
+        return chunkEmbedding;
+    }
+
+    /**
+     * FILE_NAME metadata of new vectors. A document that took over shared chunks keeps
+     * the name their vectors were stored under, so reused and new vectors match the
+     * same retrieval filter.
+     */
+    private static String indexFileName(DocumentFile doc) {
+        return doc.indexFileName != null ? doc.indexFileName : doc.fileName;
     }
 
     /**
@@ -413,7 +788,11 @@ public class HypotheticalQuestionService {
 
     /**
      * Generate hypothetical questions for a chunk
+     *
+     * @return The questions, empty for a chunk too large to ask about
+     * @throws RuntimeException if the LLM call fails, so the chunk can be marked FAILED and retried
      */
+    @ActivateRequestContext
     public List<String> generateQuestions(DocumentChunk chunk) {
         // Skip question generation for chunks that are too large
         // Max token limit is 8192, but we need room for system message (~150 tokens)
@@ -426,19 +805,138 @@ public class HypotheticalQuestionService {
             return List.of(); // Return empty list, will only embed content
         }
         
+        // Use existing AI service
+        if (chunk.contentType == ContentType.TABLE) {
+            return questionExtractorAiService.extractQuestionsFromTable(chunk.content);
+        } else {
+            return questionExtractorAiService.extractQuestions(chunk.content);
+        }
+    }
+
+    /**
+     * Split chunks into the batches {@link #generateQuestions(List)} sends in one LLM call:
+     * at most question-batch-max-chunks chunks and question-batch-max-tokens estimated
+     * content tokens each. A chunk larger than the token budget forms a batch of its own.
+     */
+    public List<List<DocumentChunk>> packQuestionBatches(List<DocumentChunk> chunks) {
+        return EmbeddingBatches.pack(chunks, chunk -> tokenEstimator.estimate(chunk.content),
+                Math.max(1, ingestionConfig.questionBatchMaxChunks()), ingestionConfig.questionBatchMaxTokens());
+    }
+
+    /**
+     * Generate hypothetical questions for several chunks with as few LLM calls as possible.
+     * Chunks packed together (see {@link #packQuestionBatches}) share one structured-output call
+     * that returns the questions of each chunk under its key, so the system prompt is paid once
+     * per batch instead of once per chunk. A chunk alone in its batch, or one the batched answer
+     * misses or leaves without questions, goes through {@link #generateQuestions(DocumentChunk)}.
+     * A malformed batch answer falls back to those single calls; a throttled or rejected call does not.
+     *
+     * @return Questions per chunk ID; a chunk whose LLM call failed is left out, so the caller
+     *         marks it FAILED instead of recording it as done
+     * @throws RuntimeException if a call was throttled or rejected by the limiter, for the whole batch to be marked FAILED
+     */
+    @ActivateRequestContext
+    public Map<String, List<String>> generateQuestions(List<DocumentChunk> chunks) {
+        Map<String, List<String>> questions = new HashMap<>();
+        for (List<DocumentChunk> batch : packQuestionBatches(chunks)) {
+            if (batch.size() > 1) {
+                questions.putAll(extractQuestionBatch(batch));
+            }
+            for (DocumentChunk chunk : batch) {
+                if (questions.containsKey(chunk.id)) {
+                    continue;
+                }
+                try {
+                    questions.put(chunk.id, generateQuestions(chunk));
+                } catch (RuntimeException e) {
+                    if (AdaptiveConcurrencyLimiter.isOverload(e)) {
+                        throw e;
+                    }
+                    Log.errorf(e, "Failed to generate questions for chunk - chunkId=%s, contentLength=%d",
+                            chunk.id, chunk.content.length());
+                }
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * The chunks of a batch that {@link #generateQuestions(List)} left out, i.e. whose question call failed.
+     */
+    public static List<DocumentChunk> withoutQuestions(List<DocumentChunk> batch, Map<String, List<String>> questions) {
+        return batch.stream().filter(chunk -> !questions.containsKey(chunk.id)).toList();
+    }
+
+    private Map<String, List<String>> extractQuestionBatch(List<DocumentChunk> batch) {
         try {
-            // Use existing AI service
+            BatchQuestions answer = questionExtractorAiService.extractQuestionsBatch(formatQuestionBatch(batch));
+            Map<String, List<String>> questions = assignBatchQuestions(batch, answer);
+            Log.debugf("Generated questions for chunk batch - chunks=%d, answered=%d", batch.size(), questions.size());
+            return questions;
+        } catch (RuntimeException e) {
+            if (AdaptiveConcurrencyLimiter.isOverload(e)) {
+                // One call per chunk would only add to the load, the chunks are retried later
+                throw e;
+            }
+            Log.warnf("Batched question generation failed for %d chunks, falling back to one call per chunk: %s",
+                    batch.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * User message of a batched question call. Chunks are keyed by their 1-based position in
+     * the batch: short keys cost fewer tokens than UUIDs and are echoed back reliably.
+     */
+    static String formatQuestionBatch(List<DocumentChunk> batch) {
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < batch.size(); i++) {
+            DocumentChunk chunk = batch.get(i);
+            message.append("[CHUNK ").append(i + 1);
             if (chunk.contentType == ContentType.TABLE) {
-                return questionExtractorAiService.extractQuestionsFromTable(chunk.content);
-            } else {
-                return questionExtractorAiService.extractQuestions(chunk.content);
+                message.append(" TABLE");
             }
-        } catch (Exception e) {
-            Log.errorf(e, "Failed to generate questions for chunk - chunkId=%s, contentLength=%d", 
-                      chunk.id, chunk.content.length());
-            // Return empty list on error - chunk will still have content embedding
-            return List.of();
+            message.append("]\n").append(chunk.content.strip()).append("\n\n");
+        }
+        return message.toString();
+    }
+
+    /**
+     * Map the items of a batched answer back to chunk IDs. Unknown keys and blank questions
+     * are dropped; chunks without any question are left out so the caller retries them alone.
+     */
+    static Map<String, List<String>> assignBatchQuestions(List<DocumentChunk> batch, BatchQuestions answer) {
+        Map<String, List<String>> questions = new LinkedHashMap<>();
+        if (answer == null || answer.chunks() == null) {
+            return questions;
+        }
+        for (ChunkQuestions item : answer.chunks()) {
+            if (item == null || item.id() == null || item.questions() == null) {
+                continue;
+            }
+            int index = batchIndex(item.id());
+            if (index < 0 || index >= batch.size()) {
+                continue;
+            }
+            List<String> chunkQuestions = item.questions().stream()
+                    .filter(question -> question != null && !question.isBlank())
+                    .toList();
+            if (!chunkQuestions.isEmpty()) {
+                questions.computeIfAbsent(batch.get(index).id, id -> new ArrayList<>()).addAll(chunkQuestions);
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * 0-based batch index of a key as echoed by the model ("2", "CHUNK 2", "[CHUNK 2]"), -1 if unreadable.
+     */
+    private static int batchIndex(String key) {
+        String digits = key.replaceAll("\\D", "");
+        if (digits.isEmpty() || digits.length() > 6) {
+            return -1;
         }
+        return Integer.parseInt(digits) - 1;
     }
 
     /**
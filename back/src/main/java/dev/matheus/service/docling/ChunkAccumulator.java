@@ -0,0 +1,90 @@
+package dev.matheus.service.docling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Units of the chunk being assembled, with a running token count.
+ *
+ * The count is the sum of the unit counts plus one separator per boundary, kept as units are
+ * added, so deciding whether the next unit fits does not re-join and re-count the chunk.
+ * BPE pre-tokenization already splits at the blank line between units, so the sum matches the
+ * count of the joined content or overestimates it by a token where punctuation and the
+ * separator merge. The content is joined once, when the chunk is flushed.
+ */
+final class ChunkAccumulator {
+
+    static final String SEPARATOR = "\n\n";
+
+    private final int separatorTokens;
+    private final List<SemanticUnit> units = new ArrayList<>();
+    private int tokens;
+    private int length;
+    private SemanticUnit firstHeading;
+
+    /**
+     * @param separatorTokens Token count of {@link #SEPARATOR}
+     */
+    ChunkAccumulator(int separatorTokens) {
+        this.separatorTokens = separatorTokens;
+    }
+
+    void add(SemanticUnit unit, int unitTokens) {
+        if (!units.isEmpty()) {
+            tokens += separatorTokens;
+            length += SEPARATOR.length();
+        }
+        units.add(unit);
+        tokens += unitTokens;
+        length += unit.content().length();
+        if (firstHeading == null && unit.type == UnitType.HEADING) {
+            firstHeading = unit;
+        }
+    }
+
+    /**
+     * Tokens of the chunk so far, 0 when empty.
+     */
+    int tokens() {
+        return tokens;
+    }
+
+    boolean isEmpty() {
+        return units.isEmpty();
+    }
+
+    /**
+     * True if the chunk holds a single heading and nothing else.
+     */
+    boolean isLoneHeading() {
+        return units.size() == 1 && firstHeading != null;
+    }
+
+    /**
+     * First heading of the chunk, null if it has none.
+     */
+    SemanticUnit firstHeading() {
+        return firstHeading;
+    }
+
+    /**
+     * Units joined by blank lines.
+     */
+    String content() {
+        StringBuilder content = new StringBuilder(length);
+        for (int i = 0; i < units.size(); i++) {
+            if (i > 0) {
+                content.append(SEPARATOR);
+            }
+            content.append(units.get(i).content());
+        }
+        return content.toString();
+    }
+
+    void clear() {
+        units.clear();
+        tokens = 0;
+        length = 0;
+        firstHeading = null;
+    }
+}
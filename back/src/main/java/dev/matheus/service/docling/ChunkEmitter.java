@@ -0,0 +1,59 @@
+package dev.matheus.service.docling;
+
+import dev.matheus.entity.DocumentChunk;
+
+import java.util.function.Consumer;
+
+/**
+ * Hands finished chunks to a sink in document order.
+ *
+ * The latest chunk is held back until the next one is emitted or {@link #finish()} is called,
+ * since a heading left over at the end of the document is still appended to it.
+ */
+final class ChunkEmitter {
+
+    private final Consumer<DocumentChunk> sink;
+    private int position;
+    private DocumentChunk last;
+
+    /**
+     * @param firstPosition Position of the first chunk
+     * @param sink Receives each chunk once it can no longer change
+     */
+    ChunkEmitter(int firstPosition, Consumer<DocumentChunk> sink) {
+        this.position = firstPosition;
+        this.sink = sink;
+    }
+
+    /**
+     * Position of the next chunk.
+     */
+    int nextPosition() {
+        return position;
+    }
+
+    /**
+     * Latest chunk, not handed to the sink yet; null before the first chunk.
+     */
+    DocumentChunk last() {
+        return last;
+    }
+
+    void emit(DocumentChunk chunk) {
+        if (last != null) {
+            sink.accept(last);
+        }
+        last = chunk;
+        position++;
+    }
+
+    /**
+     * Hand the latest chunk to the sink.
+     */
+    void finish() {
+        if (last != null) {
+            sink.accept(last);
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package dev.matheus.service.docling;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk cache of Docling conversion output.
+ *
+ * Entries are the markdown page windows of one conversion, gzip-compressed, stored as
+ * {@code <directory>/<key>.md.gz}. The key covers everything that changes the output
+ * (content hash, conversion options, Docling version, see {@link #key}), so reprocessing
+ * a document or re-chunking it at another size skips the Docling round trip.
+ *
+ * The cache is bounded by total file size and evicts least recently used entries.
+ * Access order survives restarts through the files' modification time.
+ */
+@ApplicationScoped
+public class ConversionCache {
+
+    private static final Logger LOG = Logger.getLogger(ConversionCache.class);
+    private static final String SUFFIX = ".md.gz";
+    private static final int FORMAT_MAGIC = 0x444D4431; // "DMD1"
+
+    @Inject
+    DoclingConfigProperties config;
+
+    private boolean enabled;
+    private Path directory;
+    private Path tmpDir;
+    private long maxSizeBytes;
+
+    /** Key → compressed size, in access order (eldest first) */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSizeBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ConversionCache() {
+    }
+
+    ConversionCache(Path directory, long maxSizeBytes) {
+        init(true, directory, maxSizeBytes);
+    }
+
+    @PostConstruct
+    void init() {
+        DoclingConfigProperties.CacheConfig cache = config.cache();
+        init(cache.enabled(), Path.of(cache.directory()), cache.maxSizeMb() * 1024 * 1024);
+    }
+
+    private void init(boolean enabled, Path dir, long maxSizeBytes) {
+        this.enabled = enabled;
+        this.maxSizeBytes = maxSizeBytes;
+        if (!enabled) {
+            LOG.info("Docling conversion cache disabled");
+            return;
+        }
+        try {
+            this.directory = dir.toAbsolutePath().normalize();
+            this.tmpDir = directory.resolve("tmp");
+            Files.createDirectories(tmpDir);
+            loadIndex();
+            LOG.infof("Docling conversion cache initialized at %s: entries=%d, size=%d bytes",
+                    directory, entries.size(), totalSizeBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialize conversion cache at " + dir, e);
+        }
+    }
+
+    /**
+     * Build a cache key from everything that determines the conversion output.
+     *
+     * @param contentHash SHA-256 of the document content
+     * @param optionsFingerprint Stable description of the conversion options
+     * @param doclingVersion Version of the converter producing the output
+     * @return Hex SHA-256 of the three parts
+     */
+    public static String key(String contentHash, String optionsFingerprint, String doclingVersion) {
+        MessageDigest digest = newSha256();
+        for (String part : List.of(contentHash, optionsFingerprint, doclingVersion)) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * SHA-256 of content that has no stored checksum.
+     */
+    public static String contentHash(byte[] content) {
+        return HexFormat.of().formatHex(newSha256().digest(content));
+    }
+
+    /**
+     * Look up a conversion.
+     *
+     * @return The converted windows in page order, or empty on a miss
+     */
+    public Optional<List<String>> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+        }
+
+        Path file = fileFor(key);
+        try {
+            List<String> windows = read(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return Optional.of(windows);
+        } catch (NoSuchFileException e) {
+            LOG.debugf("Conversion cache entry %s disappeared", key);
+        } catch (IOException e) {
+            LOG.warnf("Dropping unreadable conversion cache entry %s: %s", key, e.getMessage());
+        }
+        remove(key);
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a conversion, evicting least recently used entries beyond the size limit.
+     * Failures are logged and ignored: the cache is an optimization only.
+     */
+    public void put(String key, List<String> windows) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path tmp = Files.createTempFile(tmpDir, "entry-", ".part");
+            try {
+                write(tmp, windows);
+                long size = Files.size(tmp);
+                Files.move(tmp, fileFor(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                synchronized (this) {
+                    Long previous = entries.put(key, size);
+                    totalSizeBytes += size - (previous != null ? previous : 0);
+                    evictIfNeeded();
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            LOG.warnf("Could not store conversion cache entry %s: %s", key, e.getMessage());
+        }
+    }
+
+    public ConversionCacheStats stats() {
+        synchronized (this) {
+            return new ConversionCacheStats(enabled, hits.get(), misses.get(), evictions.get(),
+                    entries.size(), totalSizeBytes, maxSizeBytes);
+        }
+    }
+
+    // --- Internals ---
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        // Always keep the newest entry, even if it alone exceeds the limit
+        while (totalSizeBytes > maxSizeBytes && entries.size() > 1 && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalSizeBytes -= entry.getValue();
+            evictions.incrementAndGet();
+            deleteQuietly(fileFor(entry.getKey()));
+            LOG.debugf("Evicted conversion cache entry %s (%d bytes)", entry.getKey(), entry.getValue());
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalSizeBytes -= size;
+        }
+        deleteQuietly(fileFor(key));
+    }
+
+    private void loadIndex() throws IOException {
+        record IndexedFile(String key, long size, FileTime lastModified) {
+        }
+        List<IndexedFile> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                String name = file.getFileName().toString();
+                if (Files.isRegularFile(file) && name.endsWith(SUFFIX)) {
+                    files.add(new IndexedFile(name.substring(0, name.length() - SUFFIX.length()),
+                            Files.size(file), Files.getLastModifiedTime(file)));
+                }
+            }
+        }
+        files.sort(Comparator.comparing(IndexedFile::lastModified));
+        synchronized (this) {
+            for (IndexedFile file : files) {
+                entries.put(file.key(), file.size());
+                totalSizeBytes += file.size();
+            }
+            evictIfNeeded();
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static void write(Path file, List<String> windows) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file))))) {
+            out.writeInt(FORMAT_MAGIC);
+            out.writeInt(windows.size());
+            for (String window : windows) {
+                byte[] bytes = window.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static List<String> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != FORMAT_MAGIC) {
+                throw new IOException("Unknown cache entry format");
+            }
+            int count = in.readInt();
+            List<String> windows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                windows.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return windows;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warnf("Could not delete conversion cache file %s: %s", file, e.getMessage());
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package dev.matheus.service.docling;
+
+/**
+ * Snapshot of the Docling conversion cache counters since startup.
+ */
+public record ConversionCacheStats(
+        boolean enabled,
+        long hits,
+        long misses,
+        long evictions,
+        int entries,
+        long sizeBytes,
+        long maxSizeBytes
+) {}
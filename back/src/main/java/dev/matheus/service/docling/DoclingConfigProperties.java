@@ -4,6 +4,7 @@ import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
 import java.time.Duration;
+import java.util.Optional;
 
 /**
  * Configuration properties for Docling document processing.
@@ -20,6 +21,16 @@ public interface DoclingConfigProperties {
      */
     ChunkingConfig chunking();
 
+    /**
+     * Page-window sharding of large PDFs.
+     */
+    ShardingConfig sharding();
+
+    /**
+     * On-disk cache of conversion output.
+     */
+    CacheConfig cache();
+
     /**
      * Chunking-specific configuration.
      */
@@ -39,4 +50,67 @@ public interface DoclingConfigProperties {
         @WithDefault("2000")
         int maxTokens();
     }
+
+    /**
+     * Large PDFs are split into page windows that are converted concurrently
+     * and merged back in page order.
+     */
+    interface ShardingConfig {
+
+        /**
+         * Whether large PDFs are split into page windows.
+         * Default: true
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Pages per window.
+         * Default: 20
+         */
+        @WithDefault("20")
+        int pagesPerWindow();
+
+        /**
+         * PDFs with fewer pages than this are converted in a single request.
+         * Default: 40
+         */
+        @WithDefault("40")
+        int minPages();
+    }
+
+    /**
+     * Converted markdown is cached on disk, keyed by content hash, conversion
+     * options and docling-serve version, so reprocessing skips the Docling call.
+     */
+    interface CacheConfig {
+
+        /**
+         * Whether conversion output is cached.
+         * Default: true
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Cache directory.
+         * Default: data/docling-cache (relative to the working directory)
+         */
+        @WithDefault("data/docling-cache")
+        String directory();
+
+        /**
+         * Total size of the compressed entries before least recently used ones are evicted.
+         * Default: 1024
+         */
+        @WithDefault("1024")
+        long maxSizeMb();
+
+        /**
+         * Converter version used in the cache key, for docling-serve instances whose
+         * /version endpoint cannot be reached.
+         * Default: read from docling-serve's /version endpoint
+         */
+        Optional<String> converterVersion();
+    }
 }
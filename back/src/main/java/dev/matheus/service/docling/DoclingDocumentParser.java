@@ -10,16 +10,33 @@ import ai.docling.serve.api.convert.request.target.InBodyTarget;
 import ai.docling.serve.api.convert.response.ConvertDocumentResponse;
 import dev.matheus.entity.DocumentChunk;
 import dev.matheus.entity.DocumentFile;
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.ResourceBulkheads;
+import dev.matheus.service.pdf.PdfPageRangeSplitter;
+import dev.matheus.service.pdf.PdfPageRangeSplitter.PageWindow;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.nio.charset.StandardCharsets;
 
+import static dev.matheus.util.ChatUtils.isPdf;
+
 /**
  * Service for parsing documents using Docling.
  * Extracts structured content including tables in markdown format.
@@ -29,15 +46,46 @@ public class DoclingDocumentParser {
 
     private static final Logger LOG = Logger.getLogger(DoclingDocumentParser.class);
 
+    // Conversion options; part of the conversion cache key
+    private static final OutputFormat OUTPUT_FORMAT = OutputFormat.MARKDOWN;
+    private static final TableFormerMode TABLE_MODE = TableFormerMode.ACCURATE; // Use accurate table extraction
+    private static final boolean INCLUDE_IMAGES = false; // Skip images for now (focus on text/tables)
+    private static final boolean ABORT_ON_ERROR = false; // Continue on partial errors
+
     @Inject
     DoclingServeApi doclingServeApi;
 
     @Inject
     DoclingConfigProperties config;
 
+    @Inject
+    ConversionCache conversionCache;
+
+    @Inject
+    DoclingServeVersion doclingServeVersion;
+
+    @Inject
+    ResourceBulkheads bulkheads;
+
     private final ContentTypeDetector contentTypeDetector = new ContentTypeDetector();
     private final TokenEstimator tokenEstimator = new TokenEstimator();
 
+    /** One virtual thread per window; the DOCLING bulkhead keeps requests within docling-serve capacity */
+    private final ExecutorService windowExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Receives conversion progress, in page order.
+     */
+    @FunctionalInterface
+    public interface PageProgressListener {
+
+        /**
+         * @param pagesConverted pages converted and delivered so far
+         * @param totalPages pages of the document, 0 when unknown
+         */
+        void onPagesConverted(int pagesConverted, int totalPages);
+    }
+
     /**
      * Parse a document and extract chunks with structured content.
      * Supports PDF, DOCX, and DOC formats via Docling conversion.
@@ -68,8 +116,8 @@ public class DoclingDocumentParser {
         }
 
         try {
-            // Call Docling Serve API to convert document to markdown
-            String markdownContent = callDoclingApi(documentContent, documentFile.fileName);
+            // Call Docling Serve API to convert document to markdown (page windows for large PDFs)
+            String markdownContent = convertToMarkdown(documentFile, documentContent);
 
             // Extract chunks from markdown content
             List<DocumentChunk> chunks = extractChunks(markdownContent, documentFile);
@@ -83,6 +131,265 @@ public class DoclingDocumentParser {
         }
     }
 
+    /**
+     * Convert a document to markdown without chunking it.
+     * Large PDFs are converted window by window and merged back in page order.
+     *
+     * @param documentFile The document file entity
+     * @param documentContent The document content as byte array
+     * @return Markdown content, empty if the document has nothing to extract
+     * @throws RuntimeException if conversion fails
+     */
+    public String convertToMarkdown(DocumentFile documentFile, byte[] documentContent) {
+        StringBuilder markdown = new StringBuilder();
+        convertInWindows(documentFile, documentContent, window -> {
+            if (!window.isBlank()) {
+                if (!markdown.isEmpty()) {
+                    markdown.append("\n\n");
+                }
+                markdown.append(window);
+            }
+        });
+        return markdown.toString();
+    }
+
+    /**
+     * Convert a document to markdown, handing each page window to {@code windowSink} in page
+     * order as soon as it and all earlier windows are converted. Lets the staged ingestion
+     * pipeline chunk and embed the first pages while later pages are still in Docling.
+     *
+     * PDFs with at least docling.sharding.min-pages pages are split into windows of
+     * docling.sharding.pages-per-window pages, converted concurrently. Everything else
+     * is delivered as a single window.
+     *
+     * @param documentFile The document file entity
+     * @param documentContent The document content as byte array
+     * @param windowSink Receives the markdown of each window, in page order
+     * @return Number of windows delivered
+     * @throws RuntimeException if conversion of any window fails
+     */
+    public int convertInWindows(DocumentFile documentFile, byte[] documentContent, Consumer<String> windowSink) {
+        return convertInWindows(documentFile, documentContent, windowSink, null);
+    }
+
+    /**
+     * Same as {@link #convertInWindows(DocumentFile, byte[], Consumer)}, also reporting
+     * pages converted so far to {@code pageProgress} (may be null).
+     */
+    public int convertInWindows(DocumentFile documentFile, byte[] documentContent, Consumer<String> windowSink,
+                                PageProgressListener pageProgress) {
+        PageProgressListener progress = pageProgress != null ? pageProgress : (converted, total) -> { };
+
+        if (documentContent == null || documentContent.length == 0) {
+            LOG.warn("Empty or null document content provided");
+            windowSink.accept("");
+            progress.onPagesConverted(0, 0);
+            return 1;
+        }
+
+        if (isTextFile(documentFile.fileName)) {
+            windowSink.accept(new String(documentContent, StandardCharsets.UTF_8));
+            progress.onPagesConverted(1, 1);
+            return 1;
+        }
+
+        if (isMinimalOrEmptyDocument(documentContent)) {
+            LOG.warnf("Document %s appears to be empty or minimal, skipping", documentFile.fileName);
+            windowSink.accept("");
+            progress.onPagesConverted(0, 0);
+            return 1;
+        }
+
+        Optional<String> cacheKey = conversionCacheKey(documentFile, documentContent);
+        Optional<List<String>> cached = cacheKey.flatMap(conversionCache::get);
+        if (cached.isPresent()) {
+            LOG.infof("Using cached conversion of %s (%d windows)", documentFile.fileName, cached.get().size());
+            cached.get().forEach(windowSink);
+            int pages = pageProgress != null ? countPages(documentFile, documentContent) : 0;
+            progress.onPagesConverted(pages, pages);
+            return cached.get().size();
+        }
+
+        List<String> converted = new ArrayList<>();
+        int delivered = convertUncached(documentFile, documentContent, markdown -> {
+            converted.add(markdown);
+            windowSink.accept(markdown);
+        }, progress, pageProgress != null);
+        cacheKey.ifPresent(key -> conversionCache.put(key, converted));
+        return delivered;
+    }
+
+    private int convertUncached(DocumentFile documentFile, byte[] documentContent, Consumer<String> windowSink,
+                                PageProgressListener progress, boolean countPages) {
+        List<PageWindow> windows = splitIntoWindows(documentFile, documentContent);
+        if (windows.size() <= 1) {
+            int pages = countPages ? countPages(documentFile, documentContent) : 0;
+            progress.onPagesConverted(0, pages);
+            windowSink.accept(callDoclingApi(documentContent, documentFile.fileName));
+            progress.onPagesConverted(pages, pages);
+            return 1;
+        }
+
+        LOG.infof("Converting %s in %d page windows", documentFile.fileName, windows.size());
+        int totalPages = windows.get(windows.size() - 1).lastPage();
+        progress.onPagesConverted(0, totalPages);
+        List<Future<String>> futures = new ArrayList<>(windows.size());
+        for (PageWindow window : windows) {
+            futures.add(windowExecutor.submit(() -> convertWindow(documentFile.fileName, window, windows.size())));
+        }
+
+        int delivered = 0;
+        try {
+            for (Future<String> future : futures) {
+                windowSink.accept(future.get());
+                progress.onPagesConverted(windows.get(delivered).lastPage(), totalPages);
+                delivered++;
+            }
+            return delivered;
+        } catch (ExecutionException e) {
+            PageWindow failed = windows.get(delivered);
+            throw new RuntimeException(String.format("Docling conversion failed for pages %d-%d: %s",
+                    failed.firstPage(), failed.lastPage(), e.getCause().getMessage()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while converting " + documentFile.fileName, e);
+        } finally {
+            // No-op for completed windows; stops the rest after a failure
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Cache key of a conversion: content hash, conversion options, page-window layout
+     * and docling-serve version. Empty when the version is unknown, the conversion is
+     * then neither looked up nor stored.
+     */
+    private Optional<String> conversionCacheKey(DocumentFile documentFile, byte[] documentContent) {
+        Optional<String> doclingVersion = doclingServeVersion.current();
+        if (doclingVersion.isEmpty()) {
+            return Optional.empty();
+        }
+        String contentHash = documentFile.checksum != null
+                ? documentFile.checksum
+                : ConversionCache.contentHash(documentContent);
+        DoclingConfigProperties.ShardingConfig sharding = config.sharding();
+        String windowLayout = sharding.enabled() && isPdf(documentFile.fileType, documentFile.fileName)
+                ? sharding.pagesPerWindow() + "/" + sharding.minPages()
+                : "none";
+        String options = String.format("to=%s;table=%s;images=%s;abortOnError=%s;windows=%s",
+                OUTPUT_FORMAT, TABLE_MODE, INCLUDE_IMAGES, ABORT_ON_ERROR, windowLayout);
+        return Optional.of(ConversionCache.key(contentHash, options, doclingVersion.get()));
+    }
+
+    private String convertWindow(String fileName, PageWindow window, int windowCount) {
+        String markdown = callDoclingApi(window.content(), fileName);
+        LOG.infof("Converted pages %d-%d of %s (window %d/%d)",
+                window.firstPage(), window.lastPage(), fileName, window.index() + 1, windowCount);
+        return markdown;
+    }
+
+    /**
+     * Page count for progress reporting: PDF pages, 1 for other formats, 0 if unreadable.
+     */
+    private static int countPages(DocumentFile documentFile, byte[] documentContent) {
+        if (!isPdf(documentFile.fileType, documentFile.fileName)) {
+            return 1;
+        }
+        try {
+            return PdfPageRangeSplitter.countPages(documentContent);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Split a large PDF into page windows. Returns an empty list when the document
+     * should be converted in a single request.
+     */
+    private List<PageWindow> splitIntoWindows(DocumentFile documentFile, byte[] documentContent) {
+        DoclingConfigProperties.ShardingConfig sharding = config.sharding();
+        if (!sharding.enabled() || !isPdf(documentFile.fileType, documentFile.fileName)) {
+            return List.of();
+        }
+        try {
+            int pageCount = PdfPageRangeSplitter.countPages(documentContent);
+            if (pageCount < sharding.minPages()) {
+                return List.of();
+            }
+            return PdfPageRangeSplitter.split(documentContent, sharding.pagesPerWindow());
+        } catch (IOException e) {
+            LOG.warnf("Could not split %s into page windows, converting in one request: %s",
+                    documentFile.fileName, e.getMessage());
+            return List.of();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        windowExecutor.shutdownNow();
+    }
+
+    /**
+     * Split converted markdown into chunks. Second half of {@link #parse}.
+     *
+     * @param documentFile The document file entity for chunk association
+     * @param markdownContent Markdown produced by {@link #convertToMarkdown}
+     * @return List of document chunks with metadata
+     */
+    public List<DocumentChunk> chunkMarkdown(DocumentFile documentFile, String markdownContent) {
+        return chunkMarkdown(documentFile, markdownContent, 0);
+    }
+
+    /**
+     * Split the markdown of one page window into chunks, numbering positions from
+     * {@code firstPosition} so chunks of consecutive windows stay in document order.
+     */
+    public List<DocumentChunk> chunkMarkdown(DocumentFile documentFile, String markdownContent, int firstPosition) {
+        return extractChunks(markdownContent, documentFile, firstPosition, config.chunking().maxTokens());
+    }
+
+    /**
+     * Split markdown into chunks of at most {@code maxTokens} tokens instead of
+     * docling.chunking.max-tokens. Used to re-chunk a document at another size.
+     */
+    public List<DocumentChunk> chunkMarkdown(DocumentFile documentFile, String markdownContent,
+                                             int firstPosition, int maxTokens) {
+        return extractChunks(markdownContent, documentFile, firstPosition, maxTokens);
+    }
+
+    /**
+     * Split markdown into chunks as it is read, handing each chunk to {@code sink} as soon as
+     * it is complete, so the chunks of a large document need not be held at once.
+     *
+     * @param documentFile The document file entity for chunk association
+     * @param markdown Reader over the markdown, not closed
+     * @param firstPosition Position of the first chunk
+     * @param maxTokens Maximum tokens per chunk, null for docling.chunking.max-tokens
+     * @param sink Receives the chunks in document order
+     * @return Number of chunks
+     * @throws IOException if the markdown cannot be read
+     */
+    public int chunkMarkdown(DocumentFile documentFile, Reader markdown, int firstPosition, Integer maxTokens,
+                             Consumer<DocumentChunk> sink) throws IOException {
+        MarkdownTableChunker chunker = new MarkdownTableChunker(
+            maxTokens != null ? maxTokens : config.chunking().maxTokens(),
+            tokenEstimator
+        );
+        AtomicInteger position = new AtomicInteger(firstPosition);
+        
+        chunker.split(markdown, content -> {
+            DocumentChunk chunk = new DocumentChunk();
+            chunk.documentFile = documentFile;
+            chunk.content = content;
+            chunk.position = position.getAndIncrement();
+            chunk.contentType = contentTypeDetector.detect(content);
+            chunk.tokenCount = tokenEstimator.estimate(content);
+            sink.accept(chunk);
+        });
+        
+        return position.get() - firstPosition;
+    }
+
     /**
      * Check if the file is a plain text file (.txt).
      *
@@ -170,15 +477,16 @@ public class DoclingDocumentParser {
                             .filename(fileName)
                             .build())
                     .options(ConvertDocumentOptions.builder()
-                            .toFormat(OutputFormat.MARKDOWN)
-                            .tableMode(TableFormerMode.ACCURATE) // Use accurate table extraction
-                            .includeImages(false) // Skip images for now (focus on text/tables)
-                            .abortOnError(false) // Continue on partial errors
+                            .toFormat(OUTPUT_FORMAT)
+                            .tableMode(TABLE_MODE)
+                            .includeImages(INCLUDE_IMAGES)
+                            .abortOnError(ABORT_ON_ERROR)
                             .build())
                     .target(InBodyTarget.builder().build()) // Get results in HTTP response body
                     .build();
 
-            ConvertDocumentResponse response = doclingServeApi.convertSource(request);
+            ConvertDocumentResponse response = bulkheads.execute(ExternalResource.DOCLING,
+                    () -> doclingServeApi.convertSource(request));
             
             if (response == null || response.getDocument() == null) {
                 throw new RuntimeException("Docling API returned null response");
@@ -211,6 +519,11 @@ public class DoclingDocumentParser {
      * @return List of document chunks with metadata
      */
     private List<DocumentChunk> extractChunks(String markdownContent, DocumentFile documentFile) {
+        return extractChunks(markdownContent, documentFile, 0, config.chunking().maxTokens());
+    }
+
+    private List<DocumentChunk> extractChunks(String markdownContent, DocumentFile documentFile,
+                                              int firstPosition, int maxTokens) {
         List<DocumentChunk> chunks = new ArrayList<>();
         
         if (markdownContent == null || markdownContent.trim().isEmpty()) {
@@ -219,23 +532,11 @@ public class DoclingDocumentParser {
         }
 
         // Split content into semantic chunks using table-aware chunker
-        MarkdownTableChunker chunker = new MarkdownTableChunker(
-            config.chunking().maxTokens(), 
-            tokenEstimator
-        );
-        List<String> contentChunks = chunker.split(markdownContent);
-        
-        AtomicInteger position = new AtomicInteger(0);
-        
-        for (String content : contentChunks) {
-            DocumentChunk chunk = new DocumentChunk();
-            chunk.documentFile = documentFile;
-            chunk.content = content;
-            chunk.position = position.getAndIncrement();
-            chunk.contentType = contentTypeDetector.detect(content);
-            chunk.tokenCount = tokenEstimator.estimate(content);
-            
-            chunks.add(chunk);
+        try {
+            chunkMarkdown(documentFile, new StringReader(markdownContent), firstPosition, maxTokens, chunks::add);
+        } catch (IOException e) {
+            // StringReader does not throw
+            throw new UncheckedIOException(e);
         }
 
         return chunks;
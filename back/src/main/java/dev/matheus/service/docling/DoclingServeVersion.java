@@ -0,0 +1,93 @@
+package dev.matheus.service.docling;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Version of the docling-serve instance conversions come from. Part of the conversion
+ * cache key, so upgrading the server stops serving output of the previous version.
+ *
+ * Read from docling-serve's /version endpoint (versions of docling-serve and of the
+ * docling libraries it runs) and read again every few minutes, so an upgrade while the
+ * application runs is noticed. docling.cache.converter-version overrides it.
+ */
+@ApplicationScoped
+public class DoclingServeVersion {
+
+    private static final Logger LOG = Logger.getLogger(DoclingServeVersion.class);
+
+    /** How long a version read from docling-serve is trusted */
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    @Inject
+    DoclingConfigProperties config;
+
+    @ConfigProperty(name = "quarkus.docling.base-url")
+    String baseUrl;
+
+    @ConfigProperty(name = "quarkus.docling.api-key")
+    Optional<String> apiKey;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+
+    private volatile String version;
+    private volatile long readAtNanos;
+
+    /**
+     * @return The converter version, empty when docling-serve does not tell it
+     *         (conversions are then not cached)
+     */
+    public Optional<String> current() {
+        Optional<String> configured = config.cache().converterVersion();
+        if (configured.isPresent()) {
+            return configured;
+        }
+        String known = version;
+        if (known != null && System.nanoTime() - readAtNanos < REFRESH_INTERVAL.toNanos()) {
+            return Optional.of(known);
+        }
+        try {
+            String read = fetch();
+            if (!read.equals(known)) {
+                LOG.infof("docling-serve version: %s", read);
+            }
+            version = read;
+            readAtNanos = System.nanoTime();
+            return Optional.of(read);
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf("Cannot read the docling-serve version, conversion is not cached: %s", e.getMessage());
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    private String fetch() throws IOException, InterruptedException {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + "/version"))
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        apiKey.ifPresent(key -> request.header("X-Api-Key", key));
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /version returned HTTP " + response.statusCode());
+        }
+        String body = response.body().strip();
+        if (body.isEmpty()) {
+            throw new IOException("GET /version returned an empty body");
+        }
+        return body;
+    }
+}
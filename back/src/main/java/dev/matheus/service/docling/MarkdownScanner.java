@@ -0,0 +1,442 @@
+package dev.matheus.service.docling;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Splits markdown into {@link SemanticUnit}s: headings, paragraphs, tables, lists and code blocks.
+ *
+ * Every line is classified by one scan of its characters into a table of offsets and flags;
+ * units are then assembled from that table, so no regex runs and no per-line string is created.
+ * Units reference their span of the markdown until their content is read.
+ *
+ * Markdown read from a {@link Reader} is scanned as it arrives: only the lines of units not yet
+ * complete are buffered, and units are handed out with their own copy of the content.
+ *
+ * The classification reproduces the line patterns the chunker used before, including their
+ * corner cases: headings are 1 to 6 '#' and a whitespace ("^#{1,6}\\s+.*"), list items are
+ * "-", "*", "+" or "1." and a whitespace, "." excludes \r, \u0085, \u2028 and \u2029, table
+ * separators are "^\\s*\\|[-:| ]+\\|\\s*$", and blank lines are those {@link String#trim()} empties.
+ */
+final class MarkdownScanner {
+
+    private static final int BLANK = 1;
+    private static final int HEADING = 1 << 1;
+    private static final int LIST_ITEM = 1 << 2;
+    private static final int CODE_FENCE = 1 << 3;
+    private static final int PIPE = 1 << 4;
+    private static final int TABLE_SEPARATOR = 1 << 5;
+
+    private static final int READ_SIZE = 64 * 1024;
+
+    private final CharSequence text;
+    private final Consumer<SemanticUnit> sink;
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private byte[] flags = new byte[64];
+    /** Heading level and text span; only meaningful on HEADING lines */
+    private byte[] headingLevels = new byte[64];
+    private int[] headingStarts = new int[64];
+    private int[] headingEnds = new int[64];
+    private int lines;
+
+    /** Whether the text is complete; while it is not, the last line and unit may go on */
+    private boolean finished;
+    /** Offset of the first line not classified yet */
+    private int classified;
+    private boolean lastLineClassified;
+    /** First line not part of an assembled unit */
+    private int assembled;
+
+    private MarkdownScanner(CharSequence text, boolean finished, Consumer<SemanticUnit> sink) {
+        this.text = text;
+        this.finished = finished;
+        this.sink = sink;
+    }
+
+    /**
+     * Split markdown into semantic units, in document order.
+     */
+    static List<SemanticUnit> scan(CharSequence markdown) {
+        List<SemanticUnit> units = new ArrayList<>();
+        MarkdownScanner scanner = new MarkdownScanner(markdown, true, units::add);
+        scanner.classifyLines();
+        scanner.assembleUnits();
+        return units;
+    }
+
+    /**
+     * Split markdown into semantic units as it is read, in document order. The reader is read
+     * as units are requested; I/O errors surface as {@link UncheckedIOException}.
+     */
+    static Iterator<SemanticUnit> scan(Reader markdown) {
+        return new StreamingScan(markdown);
+    }
+
+    private static final class StreamingScan implements Iterator<SemanticUnit> {
+
+        private final Reader reader;
+        private final StringBuilder buffer = new StringBuilder();
+        private final char[] read = new char[READ_SIZE];
+        private final ArrayDeque<SemanticUnit> ready = new ArrayDeque<>();
+        private final MarkdownScanner scanner;
+
+        StreamingScan(Reader reader) {
+            this.reader = reader;
+            // The buffer is compacted, units must not keep referencing it
+            this.scanner = new MarkdownScanner(buffer, false, unit -> ready.add(unit.detached()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (ready.isEmpty() && !scanner.lastLineClassified) {
+                try {
+                    int count = reader.read(read);
+                    if (count < 0) {
+                        scanner.finished = true;
+                    } else {
+                        buffer.append(read, 0, count);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                scanner.classifyLines();
+                scanner.assembleUnits();
+                scanner.compact(buffer);
+            }
+            return !ready.isEmpty();
+        }
+
+        @Override
+        public SemanticUnit next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return ready.poll();
+        }
+    }
+
+    // --- Line classification ---
+
+    /**
+     * Classify the complete lines not classified yet; the last line once the text is finished.
+     */
+    private void classifyLines() {
+        int length = text.length();
+        while (!lastLineClassified) {
+            int lineEnd = classifyLine(classified, length);
+            if (lineEnd < length) {
+                classified = lineEnd + 1;
+            } else if (finished) {
+                lastLineClassified = true;
+            } else {
+                // Not terminated yet: classified again once more text arrives
+                lines--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drop the text and lines of assembled units.
+     */
+    private void compact(StringBuilder buffer) {
+        int drop = assembled < lines ? starts[assembled] : classified;
+        int kept = lines - assembled;
+        if (assembled > 0) {
+            System.arraycopy(starts, assembled, starts, 0, kept);
+            System.arraycopy(ends, assembled, ends, 0, kept);
+            System.arraycopy(flags, assembled, flags, 0, kept);
+            System.arraycopy(headingLevels, assembled, headingLevels, 0, kept);
+            System.arraycopy(headingStarts, assembled, headingStarts, 0, kept);
+            System.arraycopy(headingEnds, assembled, headingEnds, 0, kept);
+        }
+        for (int i = 0; i < kept; i++) {
+            starts[i] -= drop;
+            ends[i] -= drop;
+            headingStarts[i] -= drop;
+            headingEnds[i] -= drop;
+        }
+        buffer.delete(0, drop);
+        lines = kept;
+        assembled = 0;
+        classified -= drop;
+    }
+
+    /**
+     * Classify the line starting at {@code start} and record it.
+     *
+     * @return offset of the '\n' ending the line, or the text length for the last line
+     */
+    private int classifyLine(int start, int length) {
+        int end = start;
+        int firstVisible = -1;
+        int lastTerminator = -1;
+        boolean pipe = false;
+        for (; end < length; end++) {
+            char c = text.charAt(end);
+            if (c == '\n') {
+                break;
+            }
+            if (firstVisible < 0 && c > ' ') {
+                firstVisible = end;
+            }
+            if (c == '|') {
+                pipe = true;
+            } else if (isRegexLineTerminator(c)) {
+                lastTerminator = end;
+            }
+        }
+
+        int line = addLine(start, end);
+        if (firstVisible < 0) {
+            flags[line] = BLANK;
+            return end;
+        }
+
+        int lineFlags = pipe ? PIPE : 0;
+        if (isHeading(line, start, end, lastTerminator)) {
+            lineFlags |= HEADING;
+        }
+        if (isListItem(start, end, lastTerminator)) {
+            lineFlags |= LIST_ITEM;
+        }
+        if (firstVisible + 3 <= end && text.charAt(firstVisible) == '`'
+                && text.charAt(firstVisible + 1) == '`' && text.charAt(firstVisible + 2) == '`') {
+            lineFlags |= CODE_FENCE;
+        }
+        if (pipe && isTableSeparator(start, end)) {
+            lineFlags |= TABLE_SEPARATOR;
+        }
+        flags[line] = (byte) lineFlags;
+        return end;
+    }
+
+    private int addLine(int start, int end) {
+        if (lines == starts.length) {
+            int capacity = lines * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            headingLevels = Arrays.copyOf(headingLevels, capacity);
+            headingStarts = Arrays.copyOf(headingStarts, capacity);
+            headingEnds = Arrays.copyOf(headingEnds, capacity);
+        }
+        starts[lines] = start;
+        ends[lines] = end;
+        return lines++;
+    }
+
+    /**
+     * "^#{1,6}\\s+.*", and records the level and text the heading pattern "^(#{1,6})\\s+(.+)$"
+     * extracts from it (the whole line at level 1 when that pattern does not match).
+     */
+    private boolean isHeading(int line, int start, int end, int lastTerminator) {
+        int marker = start;
+        while (marker < end && text.charAt(marker) == '#') {
+            marker++;
+        }
+        int level = marker - start;
+        if (level < 1 || level > 6 || !followedByText(marker, end, lastTerminator)) {
+            return false;
+        }
+
+        int textStart = skipRegexSpaces(marker, end);
+        if (textStart < end) {
+            recordHeading(line, level, textStart, end);
+            return true;
+        }
+
+        // Whitespace only: "(.+)$" takes the last whitespace character that is not a \r,
+        // "\\s+" keeping at least one before it
+        int last = end - 1;
+        while (last > marker && text.charAt(last) == '\r') {
+            last--;
+        }
+        if (last > marker) {
+            recordHeading(line, level, last, last + 1);
+        } else {
+            recordHeading(line, 1, start, end);
+        }
+        return true;
+    }
+
+    private void recordHeading(int line, int level, int textStart, int textEnd) {
+        headingLevels[line] = (byte) level;
+        headingStarts[line] = textStart;
+        headingEnds[line] = textEnd;
+    }
+
+    /**
+     * "^[-*+]\\s+.*" or "^\\d+\\.\\s+.*".
+     */
+    private boolean isListItem(int start, int end, int lastTerminator) {
+        char first = text.charAt(start);
+        if (first == '-' || first == '*' || first == '+') {
+            return followedByText(start + 1, end, lastTerminator);
+        }
+        int marker = start;
+        while (marker < end && isAsciiDigit(text.charAt(marker))) {
+            marker++;
+        }
+        return marker > start && marker < end && text.charAt(marker) == '.'
+                && followedByText(marker + 1, end, lastTerminator);
+    }
+
+    /**
+     * "\\s+.*" from {@code from} to the end of the line: at least one whitespace, and no line
+     * terminator after the leading whitespace (which may itself include \r).
+     */
+    private boolean followedByText(int from, int end, int lastTerminator) {
+        return from < end && isRegexSpace(text.charAt(from)) && lastTerminator < skipRegexSpaces(from, end);
+    }
+
+    /**
+     * "^\\s*\\|[-:| ]+\\|\\s*$".
+     */
+    private boolean isTableSeparator(int start, int end) {
+        int from = skipRegexSpaces(start, end);
+        int to = end;
+        while (to > from && isRegexSpace(text.charAt(to - 1))) {
+            to--;
+        }
+        if (to - from < 3 || text.charAt(from) != '|' || text.charAt(to - 1) != '|') {
+            return false;
+        }
+        for (int i = from + 1; i < to - 1; i++) {
+            char c = text.charAt(i);
+            if (c != '-' && c != ':' && c != '|' && c != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipRegexSpaces(int from, int end) {
+        while (from < end && isRegexSpace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /** Characters of the regex class \s */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** Characters the regex "." does not match (besides \n) */
+    private static boolean isRegexLineTerminator(char c) {
+        return c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private boolean is(int line, int flag) {
+        return (flags[line] & flag) != 0;
+    }
+
+    // --- Unit assembly ---
+
+    /**
+     * Assemble units from the classified lines. Until the text is finished, stops at the first
+     * unit that further lines could still extend (or turn into a table).
+     */
+    private void assembleUnits() {
+        int i = assembled;
+        while (i < lines) {
+            if (is(i, BLANK)) {
+                assembled = ++i;
+                continue;
+            }
+
+            int end;
+            if (is(i, HEADING)) {
+                sink.accept(SemanticUnit.heading(text, starts[i], ends[i], headingLevels[i],
+                        headingStarts[i], headingEnds[i]));
+                assembled = ++i;
+                continue;
+            }
+
+            // A table needs a separator line (|---|---|) right after its first line
+            if (is(i, PIPE) && i + 1 >= lines && !finished) {
+                return;
+            }
+            if (is(i, PIPE) && i + 1 < lines && is(i + 1, TABLE_SEPARATOR)) {
+                end = i + 2;
+                while (end < lines && is(end, PIPE)) {
+                    end++;
+                }
+                if (end == lines && !finished) {
+                    return;
+                }
+                sink.accept(block(UnitType.TABLE, i, end));
+            } else if (is(i, LIST_ITEM)) {
+                end = findListEnd(i);
+                if (end < 0) {
+                    return;
+                }
+                sink.accept(block(UnitType.LIST, i, end));
+            } else if (is(i, CODE_FENCE)) {
+                end = i + 1;
+                while (end < lines && !is(end, CODE_FENCE)) {
+                    end++;
+                }
+                if (end == lines && !finished) {
+                    return;
+                }
+                end = end < lines ? end + 1 : lines;
+                sink.accept(block(UnitType.CODE, i, end));
+            } else {
+                // Paragraph: until a blank line or a structural element (heading, list, code, table)
+                end = i + 1;
+                while (end < lines && !is(end, BLANK | HEADING | LIST_ITEM | CODE_FENCE | PIPE)) {
+                    end++;
+                }
+                if (end == lines && !finished) {
+                    return;
+                }
+                sink.accept(SemanticUnit.paragraph(text, starts[i], ends[end - 1]));
+            }
+            assembled = i = end;
+        }
+    }
+
+    /**
+     * List items and the blank lines between them, -1 if the lines so far do not tell yet.
+     */
+    private int findListEnd(int start) {
+        int i = start + 1;
+        while (i < lines) {
+            if (is(i, BLANK)) {
+                // Continues only if the next line is another item
+                if (i + 1 < lines && is(i + 1, LIST_ITEM)) {
+                    i++;
+                    continue;
+                }
+                if (i + 1 == lines && !finished) {
+                    return -1;
+                }
+                break;
+            }
+            if (!is(i, LIST_ITEM)) {
+                break;
+            }
+            i++;
+        }
+        return i == lines && !finished ? -1 : i;
+    }
+
+    private SemanticUnit block(UnitType type, int firstLine, int endLine) {
+        return SemanticUnit.block(type, text, starts[firstLine], ends[endLine - 1]);
+    }
+}
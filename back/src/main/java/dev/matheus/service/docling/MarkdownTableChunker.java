@@ -2,8 +2,14 @@ package dev.matheus.service.docling;
 
 import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Splits markdown content into semantic chunks while preserving table boundaries.
@@ -30,19 +36,43 @@ public class MarkdownTableChunker {
      */
     public List<String> split(String content) {
         List<String> chunks = new ArrayList<>();
+        try {
+            split(new StringReader(content), chunks::add);
+        } catch (IOException e) {
+            // StringReader does not throw
+            throw new UncheckedIOException(e);
+        }
+        return chunks;
+    }
+
+    /**
+     * Split markdown into semantic chunks as it is read, line by line.
+     * Each chunk goes to {@code sink} as soon as it is complete.
+     *
+     * @param content Reader over the markdown content, not closed
+     * @param sink Receives the content chunks in document order
+     * @return Number of chunks
+     * @throws IOException if the content cannot be read
+     */
+    public int split(Reader content, Consumer<String> sink) throws IOException {
+        AtomicInteger count = new AtomicInteger();
+        Consumer<String> chunks = chunk -> {
+            count.incrementAndGet();
+            sink.accept(chunk);
+        };
         
         ChunkBuilder currentChunk = new ChunkBuilder();
         TableBuilder currentTable = new TableBuilder();
         boolean inTable = false;
         
-        String[] lines = content.split("\n");
-        
-        for (String line : lines) {
+        LineReader lines = new LineReader(content);
+        String line;
+        while ((line = lines.next()) != null) {
             if (isTableLine(line)) {
                 if (!inTable) {
                     // Starting new table - save current chunk if not empty
                     if (currentChunk.hasContent()) {
-                        chunks.add(currentChunk.build());
+                        chunks.accept(currentChunk.build());
                         currentChunk = new ChunkBuilder();
                     }
                     inTable = true;
@@ -51,28 +81,19 @@ public class MarkdownTableChunker {
             } else {
                 if (inTable) {
                     // Table ended - check size and potentially split
-                    String tableContent = currentTable.build();
-                    int tableTokens = tokenEstimator.estimate(tableContent);
-                    
-                    if (tableTokens > maxTokensPerChunk) {
-                        // Table is too large - split it by rows
-                        LOG.warnf("Large table detected (%d tokens) - splitting into smaller chunks", tableTokens);
-                        chunks.addAll(splitLargeTable(tableContent));
-                    } else {
-                        chunks.add(tableContent);
-                    }
-                    
+                    addTable(currentTable.build(), chunks);
                     currentTable = new TableBuilder();
                     inTable = false;
                 }
                 
                 // Add line to regular content
                 if (!line.trim().isEmpty()) {
-                    currentChunk.addLine(line);
+                    // Each line is counted once, with its line break
+                    currentChunk.addLine(line, tokenEstimator.estimate(line + "\n"));
                     
                     // Create chunk if it's getting large
-                    if (tokenEstimator.estimate(currentChunk.content()) > maxTokensPerChunk) {
-                        chunks.add(currentChunk.build());
+                    if (currentChunk.tokens() > maxTokensPerChunk) {
+                        chunks.accept(currentChunk.build());
                         currentChunk = new ChunkBuilder();
                     }
                 }
@@ -81,25 +102,28 @@ public class MarkdownTableChunker {
         
         // Save any remaining table
         if (inTable && currentTable.hasContent()) {
-            String tableContent = currentTable.build();
-            int tableTokens = tokenEstimator.estimate(tableContent);
-            
-            if (tableTokens > maxTokensPerChunk) {
-                // Table is too large - split it by rows
-                LOG.warnf("Large table detected (%d tokens) - splitting into smaller chunks", tableTokens);
-                chunks.addAll(splitLargeTable(tableContent));
-            } else {
-                chunks.add(tableContent);
-            }
+            addTable(currentTable.build(), chunks);
         }
         
         // Save any remaining content
         if (currentChunk.hasContent()) {
-            chunks.add(currentChunk.build());
+            chunks.accept(currentChunk.build());
         }
         
-        LOG.debugf("Split markdown into %d chunks", chunks.size());
-        return chunks;
+        LOG.debugf("Split markdown into %d chunks", count.get());
+        return count.get();
+    }
+
+    private void addTable(String tableContent, Consumer<String> chunks) {
+        int tableTokens = tokenEstimator.estimate(tableContent);
+        
+        if (tableTokens > maxTokensPerChunk) {
+            // Table is too large - split it by rows
+            LOG.warnf("Large table detected (%d tokens) - splitting into smaller chunks", tableTokens);
+            splitLargeTable(tableContent).forEach(chunks);
+        } else {
+            chunks.accept(tableContent);
+        }
     }
 
     private boolean isTableLine(String line) {
@@ -154,21 +178,24 @@ public class MarkdownTableChunker {
     }
 
     /**
-     * Builder for regular content chunks.
+     * Builder for regular content chunks, with a running token count: the sum of the
+     * line counts, so the chunk is not re-counted after every line.
      */
     private static class ChunkBuilder {
         private final StringBuilder content = new StringBuilder();
+        private int tokens;
 
-        void addLine(String line) {
+        void addLine(String line, int lineTokens) {
             content.append(line).append("\n");
+            tokens += lineTokens;
         }
 
         boolean hasContent() {
             return content.length() > 0;
         }
 
-        String content() {
-            return content.toString();
+        int tokens() {
+            return tokens;
         }
 
         String build() {
@@ -194,4 +221,45 @@ public class MarkdownTableChunker {
             return content.toString().trim();
         }
     }
+
+    /**
+     * Reads lines the way String.split("\n") cuts them: only '\n' ends a line.
+     */
+    private static final class LineReader {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+
+        LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Next line without its '\n', null at the end of the content.
+         */
+        String next() throws IOException {
+            line.setLength(0);
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer);
+                    position = 0;
+                    if (limit < 0) {
+                        limit = 0;
+                        return line.isEmpty() ? null : line.toString();
+                    }
+                }
+                for (int i = position; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        line.append(buffer, position, i - position);
+                        position = i + 1;
+                        return line.toString();
+                    }
+                }
+                line.append(buffer, position, limit - position);
+                position = limit;
+            }
+        }
+    }
 }
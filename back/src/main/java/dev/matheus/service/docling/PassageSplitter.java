@@ -0,0 +1,145 @@
+package dev.matheus.service.docling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits chunk content into the small passages that are embedded in its place, so a vector
+ * stands for a few sentences instead of a whole section (see {@code docintel.embedding.passage-max-tokens}).
+ *
+ * Passages are spans of the content, packed greedily from blocks (separated by blank lines);
+ * a block above the limit is broken into lines, a line into sentences and a sentence into words.
+ * Only a single word can exceed the limit.
+ */
+public final class PassageSplitter {
+
+    /**
+     * Span {@code [start, end)} of the chunk content, without surrounding whitespace.
+     */
+    public record Passage(int start, int end) {
+    }
+
+    private final TokenEstimator tokenEstimator;
+    private final int maxTokens;
+
+    /**
+     * @param tokenEstimator Counts the tokens of each piece
+     * @param maxTokens Maximum tokens per passage
+     */
+    public PassageSplitter(TokenEstimator tokenEstimator, int maxTokens) {
+        this.tokenEstimator = tokenEstimator;
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * @return Passages in content order; empty for blank content
+     */
+    public List<Passage> split(String content) {
+        List<Piece> pieces = pieces(content);
+        List<Passage> passages = new ArrayList<>();
+        int first = 0;
+        while (first < pieces.size()) {
+            int last = first;
+            int tokens = pieces.get(first).tokens;
+            while (last + 1 < pieces.size() && tokens + pieces.get(last + 1).tokens <= maxTokens) {
+                tokens += pieces.get(++last).tokens;
+            }
+            // The separators between pieces count as well, so check the passage as a whole
+            while (last > first && tokenEstimator.estimate(
+                    content.substring(pieces.get(first).start, pieces.get(last).end)) > maxTokens) {
+                last--;
+            }
+            passages.add(new Passage(pieces.get(first).start, pieces.get(last).end));
+            first = last + 1;
+        }
+        return passages;
+    }
+
+    private record Piece(int start, int end, int tokens) {
+    }
+
+    /**
+     * Pieces of at most maxTokens each (single words aside), in content order.
+     */
+    private List<Piece> pieces(String content) {
+        List<Piece> pieces = new ArrayList<>();
+        addPieces(content, 0, content.length(), Level.BLOCK, pieces);
+        return pieces;
+    }
+
+    private enum Level {
+        BLOCK, LINE, SENTENCE, WORD
+    }
+
+    private void addPieces(String content, int from, int to, Level level, List<Piece> pieces) {
+        int pieceStart = from;
+        while (pieceStart < to) {
+            int pieceEnd = nextBoundary(content, pieceStart, to, level);
+            int start = pieceStart;
+            int end = pieceEnd;
+            while (start < end && Character.isWhitespace(content.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(content.charAt(end - 1))) {
+                end--;
+            }
+            if (start < end) {
+                int tokens = tokenEstimator.estimate(content.substring(start, end));
+                if (tokens > maxTokens && level != Level.WORD) {
+                    addPieces(content, start, end, Level.values()[level.ordinal() + 1], pieces);
+                } else {
+                    pieces.add(new Piece(start, end, tokens));
+                }
+            }
+            pieceStart = pieceEnd;
+        }
+    }
+
+    /**
+     * End of the piece starting at {@code from}: just past its separator, or {@code to}.
+     */
+    private static int nextBoundary(String content, int from, int to, Level level) {
+        for (int i = from; i < to; i++) {
+            char c = content.charAt(i);
+            switch (level) {
+                case BLOCK -> {
+                    if (c == '\n' && isBlankLineAhead(content, i + 1, to)) {
+                        return i + 1;
+                    }
+                }
+                case LINE -> {
+                    if (c == '\n') {
+                        return i + 1;
+                    }
+                }
+                case SENTENCE -> {
+                    if ((c == '.' || c == '!' || c == '?') && i + 1 < to && Character.isWhitespace(content.charAt(i + 1))) {
+                        return i + 1;
+                    }
+                }
+                case WORD -> {
+                    if (Character.isWhitespace(c) && i > from) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Whether the line starting at {@code from} is blank, i.e. a block separator follows.
+     */
+    private static boolean isBlankLineAhead(String content, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = content.charAt(i);
+            if (c == '\n') {
+                return true;
+            }
+            if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
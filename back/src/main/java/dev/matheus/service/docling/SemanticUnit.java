@@ -0,0 +1,136 @@
+package dev.matheus.service.docling;
+
+/**
+ * Represents a semantic unit in the markdown document: a heading, paragraph, table, list or code block.
+ *
+ * Units found by {@link MarkdownScanner} only hold their span in the scanned markdown;
+ * {@link #content()} and {@link #headingText()} copy the text out on first use.
+ */
+final class SemanticUnit {
+
+    private enum Form {
+        /** The span as is */
+        RAW,
+        /** The span without surrounding whitespace */
+        TRIMMED,
+        /** The lines of the span, each trimmed, joined by single spaces */
+        JOINED
+    }
+
+    final UnitType type;
+    final int headingLevel;
+
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+    private final Form form;
+    private final int headingStart;
+    private final int headingEnd;
+    private String content;
+
+    private SemanticUnit(UnitType type, CharSequence source, int start, int end, Form form,
+                         int headingLevel, int headingStart, int headingEnd) {
+        this.type = type;
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.form = form;
+        this.headingLevel = headingLevel;
+        this.headingStart = headingStart;
+        this.headingEnd = headingEnd;
+    }
+
+    /**
+     * Unit with already built content.
+     */
+    static SemanticUnit of(UnitType type, String content) {
+        SemanticUnit unit = new SemanticUnit(type, content, 0, content.length(), Form.RAW, 0, -1, -1);
+        unit.content = content;
+        return unit;
+    }
+
+    /**
+     * Heading line {@code [start, end)} whose text is {@code [textStart, textEnd)}.
+     */
+    static SemanticUnit heading(CharSequence source, int start, int end, int level, int textStart, int textEnd) {
+        return new SemanticUnit(UnitType.HEADING, source, start, end, Form.RAW, level, textStart, textEnd);
+    }
+
+    /**
+     * Table, list or code block spanning {@code [start, end)}, kept line by line.
+     */
+    static SemanticUnit block(UnitType type, CharSequence source, int start, int end) {
+        return new SemanticUnit(type, source, start, end, Form.TRIMMED, 0, -1, -1);
+    }
+
+    /**
+     * Paragraph spanning {@code [start, end)}, its lines joined into one.
+     */
+    static SemanticUnit paragraph(CharSequence source, int start, int end) {
+        return new SemanticUnit(UnitType.PARAGRAPH, source, start, end, Form.JOINED, 0, -1, -1);
+    }
+
+    String content() {
+        if (content == null) {
+            content = switch (form) {
+                case RAW -> source.subSequence(start, end).toString();
+                case TRIMMED -> trimmed(start, end);
+                case JOINED -> joined();
+            };
+        }
+        return content;
+    }
+
+    /**
+     * The same unit over its own copy of the content, so the scanned text can be released.
+     */
+    SemanticUnit detached() {
+        String text = content();
+        if (headingStart < 0) {
+            return of(type, text);
+        }
+        return heading(text, 0, text.length(), headingLevel, headingStart - start, headingEnd - start);
+    }
+
+    /**
+     * Text of a heading without its markers, null for other units.
+     */
+    String headingText() {
+        return headingStart < 0 ? null : source.subSequence(headingStart, headingEnd).toString();
+    }
+
+    private String trimmed(int from, int to) {
+        while (from < to && source.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && source.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return source.subSequence(from, to).toString();
+    }
+
+    private String joined() {
+        StringBuilder text = new StringBuilder(end - start);
+        int lineStart = start;
+        while (lineStart <= end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && source.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int from = lineStart;
+            int to = lineEnd;
+            while (from < to && source.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && source.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            if (lineStart > start) {
+                text.append(' ');
+            }
+            text.append(source, from, to);
+            lineStart = lineEnd + 1;
+        }
+        return text.toString();
+    }
+}
@@ -1,29 +1,33 @@
 package dev.matheus.service.docling;
 
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
 import jakarta.enterprise.context.ApplicationScoped;
 
 /**
- * Estimates token count for text content.
- * Uses approximation: 1 token ≈ 4 characters (English text average).
+ * Counts tokens of text content with jtokkit's cl100k_base encoding, the one of the embedding
+ * model, so Portuguese text, tables and code are measured exactly instead of assuming a fixed
+ * number of characters per token.
  */
 @ApplicationScoped
 public class TokenEstimator {
 
-    private static final int CHARACTERS_PER_TOKEN = 4;
+    /** Loaded once: every estimator shares the rank table */
+    private static final Encoding CL100K_BASE =
+            Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
 
     /**
-     * Estimate token count for given content.
-     * Uses rough approximation: 1 token ≈ 4 characters.
+     * Count tokens for given content.
      *
-     * @param content The text content to estimate
-     * @return Estimated token count (minimum 1 for non-empty content)
+     * @param content The text content to count
+     * @return Token count, 0 for null or empty content
      */
     public int estimate(String content) {
         if (content == null || content.isEmpty()) {
             return 0;
         }
-        // Rough estimation: 1 token ≈ 4 characters
-        // Ensure at least 1 token for non-empty content
-        return Math.max(1, content.length() / CHARACTERS_PER_TOKEN);
+        // Special tokens such as <|endoftext|> in a document are plain text here
+        return CL100K_BASE.countTokensOrdinary(content);
     }
 }
@@ -0,0 +1,8 @@
+package dev.matheus.service.docling;
+
+/**
+ * Semantic unit types.
+ */
+enum UnitType {
+    HEADING, PARAGRAPH, TABLE, LIST, CODE
+}
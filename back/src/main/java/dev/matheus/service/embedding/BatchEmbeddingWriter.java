@@ -0,0 +1,177 @@
+package dev.matheus.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.matheus.service.docling.TokenEstimator;
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.ResourceBulkheads;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Embeds segments with as few model and vector-store round trips as possible:
+ * segments are packed into token-bounded {@code embedAll} requests and written
+ * with one {@code addAll} per batch. Embedding and storing are separate steps,
+ * so the model calls can run outside the caller's database transaction.
+ *
+ * A batch that fails is retried segment by segment, so one bad segment does not
+ * cost the embeddings of its neighbours.
+ */
+@ApplicationScoped
+public class BatchEmbeddingWriter {
+
+    private static final Logger LOG = Logger.getLogger(BatchEmbeddingWriter.class);
+
+    @Inject
+    EmbeddingModel embeddingModel;
+
+    @Inject
+    EmbeddingStore<TextSegment> embeddingStore;
+
+    @Inject
+    EmbeddingConfigProperties config;
+
+    @Inject
+    ResourceBulkheads bulkheads;
+
+    private final TokenEstimator tokenEstimator = new TokenEstimator();
+
+    private int maxSegments;
+    private int maxTokens;
+
+    public BatchEmbeddingWriter() {
+    }
+
+    BatchEmbeddingWriter(EmbeddingModel embeddingModel, EmbeddingStore<TextSegment> embeddingStore,
+                                int maxSegments, int maxTokens) {
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
+        this.maxSegments = maxSegments;
+        this.maxTokens = maxTokens;
+        this.bulkheads = ResourceBulkheads.unbounded();
+    }
+
+    @PostConstruct
+    void init() {
+        maxSegments = config.batchMaxSegments();
+        maxTokens = config.batchMaxTokens();
+    }
+
+    /**
+     * Embed and store segments.
+     *
+     * @param segments Segments to embed
+     * @return Embedding IDs aligned with {@code segments}; null where a segment could not be embedded
+     */
+    public List<String> embedAndStore(List<TextSegment> segments) {
+        return store(segments, embed(segments));
+    }
+
+    /**
+     * Embed segments without storing them, so callers can make the model round trips
+     * before opening the transaction that {@link #store} runs in.
+     *
+     * @param segments Segments to embed
+     * @return Embeddings aligned with {@code segments}; null where a segment could not be embedded
+     */
+    public List<Embedding> embed(List<TextSegment> segments) {
+        Embedding[] embeddings = new Embedding[segments.size()];
+        List<Integer> indexes = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            indexes.add(i);
+        }
+
+        List<List<Integer>> batches = EmbeddingBatches.pack(indexes,
+                i -> tokenEstimator.estimate(segments.get(i).text()), maxSegments, maxTokens);
+        for (List<Integer> batch : batches) {
+            List<TextSegment> batchSegments = batch.stream().map(segments::get).toList();
+            try {
+                List<Embedding> batchEmbeddings = embedBatch(batchSegments);
+                for (int i = 0; i < batch.size(); i++) {
+                    embeddings[batch.get(i)] = batchEmbeddings.get(i);
+                }
+            } catch (Exception e) {
+                LOG.warnf("Embedding batch of %d segments failed (%s), retrying one by one",
+                        batch.size(), e.getMessage());
+                for (Integer index : batch) {
+                    embeddings[index] = embedSingle(segments.get(index));
+                }
+            }
+        }
+
+        LOG.debugf("Embedded %d segments in %d batches", segments.size(), batches.size());
+        return Arrays.asList(embeddings);
+    }
+
+    /**
+     * Store embedded segments, one {@code addAll} per batch of at most batch-max-segments.
+     *
+     * @param segments Segments to store
+     * @param embeddings Embeddings aligned with {@code segments}, as returned by {@link #embed}
+     * @return Embedding IDs aligned with {@code segments}; null where a segment has no embedding
+     *         or could not be stored
+     */
+    public List<String> store(List<TextSegment> segments, List<Embedding> embeddings) {
+        String[] ids = new String[segments.size()];
+        List<Integer> indexes = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            if (embeddings.get(i) != null) {
+                indexes.add(i);
+            }
+        }
+
+        for (int from = 0; from < indexes.size(); from += maxSegments) {
+            List<Integer> batch = indexes.subList(from, Math.min(indexes.size(), from + maxSegments));
+            try {
+                List<String> batchIds = bulkheads.execute(ExternalResource.PGVECTOR, () -> embeddingStore.addAll(
+                        batch.stream().map(embeddings::get).toList(),
+                        batch.stream().map(segments::get).toList()));
+                for (int i = 0; i < batch.size(); i++) {
+                    ids[batch.get(i)] = batchIds.get(i);
+                }
+            } catch (Exception e) {
+                LOG.warnf("Storing a batch of %d embeddings failed (%s), retrying one by one",
+                        batch.size(), e.getMessage());
+                for (Integer index : batch) {
+                    ids[index] = storeSingle(embeddings.get(index), segments.get(index));
+                }
+            }
+        }
+        return Arrays.asList(ids);
+    }
+
+    private List<Embedding> embedBatch(List<TextSegment> segments) {
+        List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+        if (embeddings.size() != segments.size()) {
+            throw new IllegalStateException(String.format(
+                    "Embedding model returned %d embeddings for %d segments", embeddings.size(), segments.size()));
+        }
+        return embeddings;
+    }
+
+    private Embedding embedSingle(TextSegment segment) {
+        try {
+            return embeddingModel.embed(segment).content();
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to embed segment - length=%d", segment.text().length());
+            return null;
+        }
+    }
+
+    private String storeSingle(Embedding embedding, TextSegment segment) {
+        try {
+            return bulkheads.execute(ExternalResource.PGVECTOR, () -> embeddingStore.add(embedding, segment));
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to store embedding - length=%d", segment.text().length());
+            return null;
+        }
+    }
+}
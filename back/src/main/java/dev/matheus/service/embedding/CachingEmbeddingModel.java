@@ -0,0 +1,38 @@
+package dev.matheus.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Embedding model that serves repeated texts from the {@link EmbeddingCache}.
+ * Sits outermost, so cache hits neither wait for the outbound limiter nor count against it.
+ * The single-text methods of {@link EmbeddingModel} delegate to embedAll.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final EmbeddingCache cache;
+    private final String modelName;
+    private final int dimensions;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, EmbeddingCache cache, String modelName, int dimensions) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.modelName = modelName;
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return cache.embedAll(delegate, modelName, dimensions, textSegments);
+    }
+
+    @Override
+    public int dimension() {
+        return dimensions;
+    }
+}
@@ -0,0 +1,50 @@
+package dev.matheus.service.embedding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Packs items into consecutive batches bounded by item count and total tokens.
+ */
+public class EmbeddingBatches {
+
+    private EmbeddingBatches() {
+        // Utility class
+    }
+
+    /**
+     * Split {@code items} into batches, keeping their order. A batch is closed when adding
+     * the next item would exceed {@code maxSize} items or {@code maxTokens} tokens; an item
+     * that exceeds {@code maxTokens} on its own gets a batch of its own.
+     *
+     * @param items Items to pack
+     * @param tokens Token estimate of an item
+     * @param maxSize Maximum items per batch
+     * @param maxTokens Maximum tokens per batch
+     * @return Batches, in order
+     */
+    public static <T> List<List<T>> pack(List<T> items, ToIntFunction<T> tokens, int maxSize, int maxTokens) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        List<List<T>> batches = new ArrayList<>();
+        List<T> current = new ArrayList<>();
+        long currentTokens = 0;
+
+        for (T item : items) {
+            int itemTokens = tokens.applyAsInt(item);
+            if (!current.isEmpty() && (current.size() >= maxSize || currentTokens + itemTokens > maxTokens)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(item);
+            currentTokens += itemTokens;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+}
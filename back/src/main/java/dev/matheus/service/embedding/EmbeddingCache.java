@@ -0,0 +1,264 @@
+package dev.matheus.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.matheus.service.docling.TokenEstimator;
+import dev.matheus.util.ChunkHashes;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of embedding vectors, see {@link CachingEmbeddingModel}.
+ *
+ * Entries are keyed by {@link #key}: model name, dimensions and the SHA-256 of the
+ * normalized text, so headers repeated across chunks, identical hypothetical questions,
+ * reprocessed documents and retried queries are embedded once.
+ *
+ * Two tiers are looked up in order: an in-process LRU of off-heap vectors
+ * ({@link OffHeapVectorCache}) and a persistent tier (the embedding_cache table,
+ * see {@link PersistentEmbeddingCache}) shared across nodes and restarts. Both are
+ * bounded and evict least recently used entries. Failures of the persistent tier
+ * are logged and treated as misses.
+ */
+@ApplicationScoped
+public class EmbeddingCache {
+
+    private static final Logger LOG = Logger.getLogger(EmbeddingCache.class);
+
+    /**
+     * Durable second tier. Implementations must not throw from {@link #save}.
+     */
+    interface PersistentTier {
+
+        /**
+         * @return Vectors found, by key
+         */
+        Map<String, float[]> load(Collection<String> keys);
+
+        /**
+         * Store vectors of the given model, possibly asynchronously.
+         */
+        void save(String model, Map<String, float[]> vectors);
+
+        long entries();
+
+        long evictions();
+
+        int pendingWrites();
+
+        long droppedWrites();
+    }
+
+    @Inject
+    EmbeddingConfigProperties config;
+
+    @Inject
+    Instance<PersistentEmbeddingCache> persistentCache;
+
+    private final TokenEstimator tokenEstimator = new TokenEstimator();
+
+    private boolean enabled;
+    private int memoryMaxEntries;
+    private PersistentTier persistent;
+
+    /** Created with the dimension of the first vector stored */
+    private volatile OffHeapVectorCache memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong savedTokens = new AtomicLong();
+
+    public EmbeddingCache() {
+    }
+
+    /**
+     * @param persistent Second tier, or null for memory only
+     */
+    EmbeddingCache(int memoryMaxEntries, PersistentTier persistent) {
+        this.enabled = true;
+        this.memoryMaxEntries = memoryMaxEntries;
+        this.persistent = persistent;
+    }
+
+    @PostConstruct
+    void init() {
+        EmbeddingConfigProperties.CacheConfig cache = config.cache();
+        enabled = cache.enabled();
+        memoryMaxEntries = cache.memoryMaxEntries();
+        persistent = enabled && cache.persistentEnabled() ? persistentCache.get() : null;
+        LOG.infof("Embedding cache: enabled=%s, memoryMaxEntries=%d, persistent=%s",
+                enabled, memoryMaxEntries, persistent != null);
+    }
+
+    /**
+     * Cache key of a text embedded by the given model.
+     *
+     * @return Hex SHA-256 of model name, dimensions and the normalized text
+     *         (see {@link ChunkHashes#normalize})
+     */
+    public static String key(String modelName, int dimensions, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Integer.toString(dimensions).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(ChunkHashes.normalize(text).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Embed segments, calling the model only for texts found in neither tier.
+     * Texts repeated within the request are sent once. The token usage returned is
+     * that of the model call, or null when everything came from the cache.
+     */
+    public Response<List<Embedding>> embedAll(EmbeddingModel model, String modelName, int dimensions,
+                                              List<TextSegment> segments) {
+        if (!enabled || segments.isEmpty()) {
+            return model.embedAll(segments);
+        }
+
+        Embedding[] result = new Embedding[segments.size()];
+        // Key → positions of segments not served from memory, in request order
+        Map<String, List<Integer>> missing = new LinkedHashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            String key = key(modelName, dimensions, segments.get(i).text());
+            float[] vector = fromMemory(key);
+            if (vector != null) {
+                result[i] = Embedding.from(vector);
+                hit(memoryHits, segments.get(i));
+            } else {
+                missing.computeIfAbsent(key, k -> new ArrayList<>(1)).add(i);
+            }
+        }
+
+        if (!missing.isEmpty() && persistent != null) {
+            Map<String, float[]> found = loadPersistent(missing.keySet());
+            for (Map.Entry<String, float[]> entry : found.entrySet()) {
+                List<Integer> positions = missing.remove(entry.getKey());
+                if (positions == null) {
+                    continue;
+                }
+                toMemory(entry.getKey(), entry.getValue());
+                for (int position : positions) {
+                    result[position] = Embedding.from(Arrays.copyOf(entry.getValue(), entry.getValue().length));
+                    hit(persistentHits, segments.get(position));
+                }
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return Response.from(Arrays.asList(result));
+        }
+
+        List<TextSegment> toEmbed = new ArrayList<>(missing.size());
+        for (List<Integer> positions : missing.values()) {
+            toEmbed.add(segments.get(positions.get(0)));
+        }
+        Response<List<Embedding>> response = model.embedAll(toEmbed);
+        List<Embedding> embedded = response.content();
+
+        Map<String, float[]> fresh = new LinkedHashMap<>();
+        int index = 0;
+        for (Map.Entry<String, List<Integer>> entry : missing.entrySet()) {
+            float[] vector = embedded.get(index++).vector();
+            fresh.put(entry.getKey(), vector);
+            toMemory(entry.getKey(), vector);
+            List<Integer> positions = entry.getValue();
+            result[positions.get(0)] = Embedding.from(vector);
+            misses.incrementAndGet();
+            for (int i = 1; i < positions.size(); i++) {
+                result[positions.get(i)] = Embedding.from(Arrays.copyOf(vector, vector.length));
+                hit(memoryHits, segments.get(positions.get(i)));
+            }
+        }
+        if (persistent != null) {
+            persistent.save(modelName, fresh);
+        }
+        return Response.from(Arrays.asList(result), response.tokenUsage());
+    }
+
+    public EmbeddingCacheStats stats() {
+        long hits = memoryHits.get() + persistentHits.get();
+        long total = hits + misses.get();
+        OffHeapVectorCache current = memory;
+        return new EmbeddingCacheStats(
+                enabled,
+                memoryHits.get(),
+                persistentHits.get(),
+                misses.get(),
+                total == 0 ? 0.0 : (double) hits / total,
+                savedTokens.get(),
+                current != null ? current.size() : 0,
+                memoryMaxEntries,
+                current != null ? current.evictions() : 0,
+                current != null ? current.allocatedBytes() : 0,
+                persistent != null,
+                persistent != null ? persistent.entries() : 0,
+                persistent != null ? persistent.evictions() : 0,
+                persistent != null ? persistent.pendingWrites() : 0,
+                persistent != null ? persistent.droppedWrites() : 0);
+    }
+
+    // --- Internals ---
+
+    private void hit(AtomicLong counter, TextSegment segment) {
+        counter.incrementAndGet();
+        savedTokens.addAndGet(tokenEstimator.estimate(segment.text()));
+    }
+
+    private float[] fromMemory(String key) {
+        OffHeapVectorCache current = memory;
+        return current != null ? current.get(key) : null;
+    }
+
+    private void toMemory(String key, float[] vector) {
+        if (memoryMaxEntries <= 0) {
+            return;
+        }
+        OffHeapVectorCache current = memory;
+        if (current == null) {
+            synchronized (this) {
+                current = memory;
+                if (current == null) {
+                    current = new OffHeapVectorCache(vector.length, memoryMaxEntries);
+                    memory = current;
+                }
+            }
+        }
+        // Vectors of another dimension (a second model) only use the persistent tier
+        if (current.dimension() == vector.length) {
+            current.put(key, vector);
+        }
+    }
+
+    private Map<String, float[]> loadPersistent(Collection<String> keys) {
+        try {
+            return persistent.load(keys);
+        } catch (Exception e) {
+            LOG.warnf("Embedding cache lookup failed, embedding %d text(s) without it: %s", keys.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package dev.matheus.service.embedding;
+
+/**
+ * Snapshot of the embedding cache counters since startup.
+ * Hits and misses count segments; a text repeated within one request counts as a memory hit.
+ * savedTokens is estimated from the texts served by the cache.
+ */
+public record EmbeddingCacheStats(
+        boolean enabled,
+        long memoryHits,
+        long persistentHits,
+        long misses,
+        double hitRatio,
+        long savedTokens,
+        int memoryEntries,
+        int memoryMaxEntries,
+        long memoryEvictions,
+        long memoryBytes,
+        boolean persistentEnabled,
+        long persistentEntries,
+        long persistentEvictions,
+        int pendingWrites,
+        long droppedWrites
+) {}
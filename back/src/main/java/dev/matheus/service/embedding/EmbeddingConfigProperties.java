@@ -0,0 +1,181 @@
+package dev.matheus.service.embedding;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Configuration properties for embedding generation.
+ * Mapped to application.properties under 'docintel.embedding' prefix.
+ */
+@ConfigMapping(prefix = "docintel.embedding")
+public interface EmbeddingConfigProperties {
+
+    /**
+     * Where embeddings are computed.
+     */
+    enum Provider {
+        /** OpenAI text-embedding-3-small, through the outbound limiter */
+        OPENAI,
+        /** ONNX model on the local CPU, see {@link LocalOnnxEmbeddingModel} */
+        LOCAL
+    }
+
+    /**
+     * Embedding model used for ingestion and queries. Vectors of different models are not
+     * comparable: documents must be reprocessed after switching.
+     * Default: OPENAI
+     */
+    @WithDefault("OPENAI")
+    Provider provider();
+
+    /**
+     * Local ONNX model, used when provider is LOCAL.
+     */
+    LocalConfig local();
+
+    /**
+     * Maximum segments sent in one embedAll request.
+     * Default: 64
+     */
+    @WithDefault("64")
+    int batchMaxSegments();
+
+    /**
+     * Maximum estimated tokens sent in one embedAll request. A single segment
+     * above the limit is still sent, alone.
+     * Default: 8000
+     */
+    @WithDefault("8000")
+    int batchMaxTokens();
+
+    /**
+     * Chunk contents are embedded as passages of at most this many tokens, each linked to its
+     * chunk, which retrieval returns a window of. 0 embeds every chunk whole.
+     * Default: 200
+     */
+    @WithDefault("200")
+    int passageMaxTokens();
+
+    /**
+     * Content-addressed cache in front of the embedding model.
+     */
+    CacheConfig cache();
+
+    interface CacheConfig {
+
+        /**
+         * Serve repeated texts from the cache instead of calling the model.
+         * Default: true
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Vectors kept in the in-process (off-heap) tier. 0 disables the tier.
+         * Default: 20000 (about 60 MB at 768 dimensions)
+         */
+        @WithDefault("20000")
+        int memoryMaxEntries();
+
+        /**
+         * Keep vectors in the embedding_cache table, shared by all nodes and restarts.
+         * Default: true
+         */
+        @WithDefault("true")
+        boolean persistentEnabled();
+
+        /**
+         * Rows kept in the embedding_cache table; least recently used rows above it are deleted.
+         * Default: 500000
+         */
+        @WithDefault("500000")
+        int persistentMaxEntries();
+
+        /**
+         * How often new vectors and last-used times are written to the table.
+         * Default: PT5S
+         */
+        @WithDefault("PT5S")
+        Duration flushInterval();
+
+        /**
+         * How often the table is trimmed to persistentMaxEntries.
+         * Default: PT10M
+         */
+        @WithDefault("PT10M")
+        Duration evictionInterval();
+
+        /**
+         * Vectors waiting to be written at most; more are not persisted.
+         * Default: 10000
+         */
+        @WithDefault("10000")
+        int maxPendingWrites();
+    }
+
+    interface LocalConfig {
+
+        /**
+         * Name of the model, part of the embedding cache key.
+         * Default: local-onnx
+         */
+        @WithDefault("local-onnx")
+        String modelName();
+
+        /**
+         * Path of the .onnx model file (e.g. an int8-quantized export of a multilingual
+         * sentence-transformers model). Required when provider is LOCAL.
+         */
+        Optional<String> modelPath();
+
+        /**
+         * Path of the model's HuggingFace tokenizer.json. Required when provider is LOCAL.
+         */
+        Optional<String> tokenizerPath();
+
+        /**
+         * Output dimensions; must match quarkus.langchain4j.pgvector.dimension.
+         * Default: 768
+         */
+        @WithDefault("768")
+        int dimensions();
+
+        /**
+         * How token vectors are pooled into one vector.
+         * Default: MEAN
+         */
+        @WithDefault("MEAN")
+        LocalOnnxEmbeddingModel.Pooling pooling();
+
+        /**
+         * Tokens per text; longer texts are truncated.
+         * Default: 512
+         */
+        @WithDefault("512")
+        int maxSequenceLength();
+
+        /**
+         * Texts per inference run.
+         * Default: 32
+         */
+        @WithDefault("32")
+        int batchSize();
+
+        /**
+         * Inference runs at once, each with its own pooled tokenizer.
+         * Default: 2
+         */
+        @WithDefault("2")
+        int concurrency();
+
+        /**
+         * ONNX Runtime threads per run. 0 uses the runtime default (one per core).
+         * Default: 0
+         */
+        @WithDefault("0")
+        int intraOpThreads();
+    }
+}
@@ -0,0 +1,271 @@
+package dev.matheus.service.embedding;
+
+import ai.djl.huggingface.tokenizers.Encoding;
+import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Embedding model running a (quantized) ONNX sentence-embedding model on the CPU,
+ * for embedding without a network round trip.
+ *
+ * Texts are sorted by length and run in batches of batchSize, so each batch is padded
+ * to a similar length. The ONNX session is shared and safe for concurrent runs; each run
+ * borrows one of {@code concurrency} tokenizers from a pool, which also bounds the
+ * number of batches competing for CPU cores.
+ *
+ * Token vectors are mean-pooled over the attention mask (or the first token is taken,
+ * for CLS pooling) and L2-normalized. Models exporting a pooled [batch, dim] output are
+ * used as is.
+ */
+public class LocalOnnxEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(LocalOnnxEmbeddingModel.class);
+
+    /**
+     * How token vectors become one text vector.
+     */
+    public enum Pooling {
+        /** Average of the token vectors, padding excluded */
+        MEAN,
+        /** Vector of the first ([CLS]) token */
+        CLS
+    }
+
+    /**
+     * Model settings, see {@link EmbeddingConfigProperties.LocalConfig}.
+     */
+    public record Settings(
+            Path modelPath,
+            Path tokenizerPath,
+            int dimensions,
+            Pooling pooling,
+            int maxSequenceLength,
+            int batchSize,
+            int concurrency,
+            int intraOpThreads
+    ) {}
+
+    private final Settings settings;
+    private final OrtEnvironment environment;
+    private final OrtSession session;
+    private final boolean usesTokenTypeIds;
+    private final BlockingQueue<HuggingFaceTokenizer> tokenizers;
+
+    public LocalOnnxEmbeddingModel(Settings settings) {
+        this.settings = settings;
+        this.environment = OrtEnvironment.getEnvironment();
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            if (settings.intraOpThreads() > 0) {
+                options.setIntraOpNumThreads(settings.intraOpThreads());
+            }
+            this.session = environment.createSession(settings.modelPath().toString(), options);
+            this.usesTokenTypeIds = session.getInputNames().contains("token_type_ids");
+        } catch (OrtException e) {
+            throw new IllegalStateException("Cannot load ONNX embedding model " + settings.modelPath(), e);
+        }
+
+        this.tokenizers = new ArrayBlockingQueue<>(settings.concurrency());
+        Map<String, String> tokenizerOptions = Map.of(
+                "truncation", "true",
+                "padding", "false",
+                "maxLength", Integer.toString(settings.maxSequenceLength()));
+        try {
+            for (int i = 0; i < settings.concurrency(); i++) {
+                tokenizers.add(HuggingFaceTokenizer.newInstance(settings.tokenizerPath(), tokenizerOptions));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load tokenizer " + settings.tokenizerPath(), e);
+        }
+        LOG.infof("Local embedding model loaded: model=%s, dimensions=%d, pooling=%s, batchSize=%d, concurrency=%d",
+                settings.modelPath(), settings.dimensions(), settings.pooling(), settings.batchSize(),
+                settings.concurrency());
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        List<String> texts = textSegments.stream().map(TextSegment::text).toList();
+        Embedding[] result = new Embedding[texts.size()];
+        int tokens = 0;
+        for (List<Integer> batch : batchesByLength(texts, settings.batchSize())) {
+            tokens += embedBatch(texts, batch, result);
+        }
+        return Response.from(Arrays.asList(result), new TokenUsage(tokens));
+    }
+
+    @Override
+    public int dimension() {
+        return settings.dimensions();
+    }
+
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (OrtException e) {
+            LOG.warnf(e, "Failed to close ONNX session");
+        }
+        tokenizers.forEach(HuggingFaceTokenizer::close);
+    }
+
+    /**
+     * Group text positions into batches of similar length, longest first.
+     */
+    static List<List<Integer>> batchesByLength(List<String> texts, int batchSize) {
+        List<Integer> order = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingInt((Integer i) -> texts.get(i).length()).reversed());
+        List<List<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < order.size(); from += batchSize) {
+            batches.add(order.subList(from, Math.min(order.size(), from + batchSize)));
+        }
+        return batches;
+    }
+
+    /**
+     * Pool the token vectors of one text into an L2-normalized text vector.
+     */
+    static float[] pool(float[][] tokenVectors, long[] attentionMask, Pooling pooling) {
+        float[] vector;
+        if (pooling == Pooling.CLS) {
+            vector = Arrays.copyOf(tokenVectors[0], tokenVectors[0].length);
+        } else {
+            vector = new float[tokenVectors[0].length];
+            int count = 0;
+            for (int t = 0; t < tokenVectors.length && t < attentionMask.length; t++) {
+                if (attentionMask[t] == 0) {
+                    continue;
+                }
+                for (int d = 0; d < vector.length; d++) {
+                    vector[d] += tokenVectors[t][d];
+                }
+                count++;
+            }
+            for (int d = 0; d < vector.length && count > 0; d++) {
+                vector[d] /= count;
+            }
+        }
+        normalize(vector);
+        return vector;
+    }
+
+    static void normalize(float[] vector) {
+        double sumOfSquares = 0;
+        for (float value : vector) {
+            sumOfSquares += value * value;
+        }
+        if (sumOfSquares == 0) {
+            return;
+        }
+        float norm = (float) Math.sqrt(sumOfSquares);
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] /= norm;
+        }
+    }
+
+    // --- Internals ---
+
+    /**
+     * Embed the texts at the given positions into result.
+     *
+     * @return Tokens processed
+     */
+    private int embedBatch(List<String> texts, List<Integer> positions, Embedding[] result) {
+        HuggingFaceTokenizer tokenizer = borrowTokenizer();
+        try {
+            Encoding[] encodings = new Encoding[positions.size()];
+            int maxLength = 0;
+            int tokens = 0;
+            for (int i = 0; i < positions.size(); i++) {
+                encodings[i] = tokenizer.encode(texts.get(positions.get(i)));
+                maxLength = Math.max(maxLength, encodings[i].getIds().length);
+                tokens += encodings[i].getIds().length;
+            }
+
+            long[][] inputIds = new long[encodings.length][maxLength];
+            long[][] attentionMask = new long[encodings.length][maxLength];
+            long[][] tokenTypeIds = new long[encodings.length][maxLength];
+            for (int i = 0; i < encodings.length; i++) {
+                // Zero-filled tails are the padding (pad id 0, mask 0)
+                long[] ids = encodings[i].getIds();
+                System.arraycopy(ids, 0, inputIds[i], 0, ids.length);
+                System.arraycopy(encodings[i].getAttentionMask(), 0, attentionMask[i], 0, ids.length);
+                System.arraycopy(encodings[i].getTypeIds(), 0, tokenTypeIds[i], 0, ids.length);
+            }
+
+            float[][] vectors = run(inputIds, attentionMask, tokenTypeIds);
+            for (int i = 0; i < vectors.length; i++) {
+                if (vectors[i].length != settings.dimensions()) {
+                    throw new IllegalStateException("Local embedding model returned " + vectors[i].length
+                            + " dimensions, configured " + settings.dimensions());
+                }
+                result[positions.get(i)] = Embedding.from(vectors[i]);
+            }
+            return tokens;
+        } finally {
+            tokenizers.add(tokenizer);
+        }
+    }
+
+    private float[][] run(long[][] inputIds, long[][] attentionMask, long[][] tokenTypeIds) {
+        Map<String, OnnxTensor> inputs = new HashMap<>();
+        try {
+            inputs.put("input_ids", OnnxTensor.createTensor(environment, inputIds));
+            inputs.put("attention_mask", OnnxTensor.createTensor(environment, attentionMask));
+            if (usesTokenTypeIds) {
+                inputs.put("token_type_ids", OnnxTensor.createTensor(environment, tokenTypeIds));
+            }
+            try (OrtSession.Result output = session.run(inputs)) {
+                Object value = output.get(0).getValue();
+                if (value instanceof float[][] pooled) {
+                    for (float[] vector : pooled) {
+                        normalize(vector);
+                    }
+                    return pooled;
+                }
+                float[][][] hidden = (float[][][]) value;
+                float[][] vectors = new float[hidden.length][];
+                for (int i = 0; i < hidden.length; i++) {
+                    vectors[i] = pool(hidden[i], attentionMask[i], settings.pooling());
+                }
+                return vectors;
+            }
+        } catch (OrtException e) {
+            throw new IllegalStateException("Local embedding inference failed", e);
+        } finally {
+            inputs.values().forEach(OnnxTensor::close);
+        }
+    }
+
+    private HuggingFaceTokenizer borrowTokenizer() {
+        try {
+            return tokenizers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the local embedding model", e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package dev.matheus.service.embedding;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU map from key to float vector, with the vectors stored outside the heap.
+ *
+ * Vectors of one fixed dimension are written into direct buffers of PAGE_SLOTS slots each,
+ * allocated as the cache fills up. The heap only holds the key → slot index, so a cache of
+ * tens of thousands of vectors adds no float arrays for the garbage collector to trace.
+ * When full, the least recently used entry gives its slot to the new one.
+ *
+ * Thread-safe; readers get a copy of the vector.
+ */
+public class OffHeapVectorCache {
+
+    /** Slots per direct buffer */
+    static final int PAGE_SLOTS = 1024;
+
+    private final int dimension;
+    private final int maxEntries;
+    private final FloatBuffer[] pages;
+
+    /** Key → slot, in access order (eldest first). Guarded by this */
+    private final LinkedHashMap<String, Integer> slots = new LinkedHashMap<>(16, 0.75f, true);
+    private int allocatedSlots;
+    private long evictions;
+
+    public OffHeapVectorCache(int dimension, int maxEntries) {
+        if (dimension < 1 || maxEntries < 1) {
+            throw new IllegalArgumentException("dimension and maxEntries must be positive: "
+                    + dimension + ", " + maxEntries);
+        }
+        this.dimension = dimension;
+        this.maxEntries = maxEntries;
+        this.pages = new FloatBuffer[(maxEntries + PAGE_SLOTS - 1) / PAGE_SLOTS];
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * @return Copy of the cached vector, or null
+     */
+    public synchronized float[] get(String key) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        float[] vector = new float[dimension];
+        page(slot).get(offset(slot), vector);
+        return vector;
+    }
+
+    /**
+     * Store a copy of the vector, evicting the least recently used entry when full.
+     *
+     * @throws IllegalArgumentException if the vector does not have the cache's dimension
+     */
+    public synchronized void put(String key, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected " + dimension + " dimensions, got " + vector.length);
+        }
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            slot = freeSlot();
+            slots.put(key, slot);
+        }
+        page(slot).put(offset(slot), vector);
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Off-heap bytes currently allocated.
+     */
+    public synchronized long allocatedBytes() {
+        long bytes = 0;
+        for (FloatBuffer page : pages) {
+            if (page != null) {
+                bytes += (long) page.capacity() * Float.BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    // --- Internals ---
+
+    private int freeSlot() {
+        if (allocatedSlots < maxEntries) {
+            return allocatedSlots++;
+        }
+        Iterator<Map.Entry<String, Integer>> eldest = slots.entrySet().iterator();
+        int slot = eldest.next().getValue();
+        eldest.remove();
+        evictions++;
+        return slot;
+    }
+
+    private FloatBuffer page(int slot) {
+        int index = slot / PAGE_SLOTS;
+        FloatBuffer page = pages[index];
+        if (page == null) {
+            int pageSlots = Math.min(PAGE_SLOTS, maxEntries - index * PAGE_SLOTS);
+            page = ByteBuffer.allocateDirect(pageSlots * dimension * Float.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+            pages[index] = page;
+        }
+        return page;
+    }
+
+    private int offset(int slot) {
+        return (slot % PAGE_SLOTS) * dimension;
+    }
+}
@@ -0,0 +1,264 @@
+package dev.matheus.service.embedding;
+
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.ResourceBulkheads;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent tier of the {@link EmbeddingCache}: the embedding_cache table.
+ *
+ * Lookups run on their own autocommit connection with the caller's transaction
+ * suspended, so a cache failure can never abort an ingestion transaction.
+ * New vectors and last-used times are written behind, in batches, by a background
+ * thread; at most maxPendingWrites vectors wait, more are dropped (they are simply
+ * embedded again next time). The same thread trims the table to persistentMaxEntries
+ * rows, deleting the least recently used.
+ *
+ * Vectors are stored as little-endian float32 bytes.
+ */
+@ApplicationScoped
+public class PersistentEmbeddingCache implements EmbeddingCache.PersistentTier {
+
+    private static final Logger LOG = Logger.getLogger(PersistentEmbeddingCache.class);
+
+    /** Rows per INSERT batch / keys per UPDATE */
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    /** Keys per lookup query */
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private record PendingRow(String model, int dimension, byte[] vector) {}
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    EmbeddingConfigProperties config;
+
+    @Inject
+    ResourceBulkheads bulkheads;
+
+    private final Map<String, PendingRow> pending = new ConcurrentHashMap<>();
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong entries = new AtomicLong(-1);
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong droppedWrites = new AtomicLong();
+
+    private int maxEntries;
+    private int maxPendingWrites;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        EmbeddingConfigProperties.CacheConfig cache = config.cache();
+        maxEntries = cache.persistentMaxEntries();
+        maxPendingWrites = cache.maxPendingWrites();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "embedding-cache-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushMillis = cache.flushInterval().toMillis();
+        long evictionMillis = cache.evictionInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::evict, 0, evictionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            flush();
+        }
+    }
+
+    @Override
+    public Map<String, float[]> load(Collection<String> keys) {
+        Map<String, float[]> found = new HashMap<>();
+        List<String> all = new ArrayList<>(keys);
+        for (int from = 0; from < all.size(); from += LOAD_BATCH_SIZE) {
+            List<String> batch = all.subList(from, Math.min(all.size(), from + LOAD_BATCH_SIZE));
+            QuarkusTransaction.suspendingExisting().run(() ->
+                    bulkheads.run(ExternalResource.JDBC, () -> loadBatch(batch, found)));
+        }
+        // Rows waiting to be written are hits too
+        for (String key : keys) {
+            PendingRow row = pending.get(key);
+            if (row != null && !found.containsKey(key)) {
+                found.put(key, decode(row.vector()));
+            }
+        }
+        touched.addAll(found.keySet());
+        return found;
+    }
+
+    @Override
+    public void save(String model, Map<String, float[]> vectors) {
+        for (Map.Entry<String, float[]> entry : vectors.entrySet()) {
+            if (pending.size() >= maxPendingWrites) {
+                droppedWrites.incrementAndGet();
+                continue;
+            }
+            float[] vector = entry.getValue();
+            pending.putIfAbsent(entry.getKey(), new PendingRow(model, vector.length, encode(vector)));
+        }
+    }
+
+    /**
+     * Rows in the table at the last eviction run, -1 before the first one.
+     */
+    @Override
+    public long entries() {
+        return entries.get();
+    }
+
+    @Override
+    public long evictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public int pendingWrites() {
+        return pending.size();
+    }
+
+    @Override
+    public long droppedWrites() {
+        return droppedWrites.get();
+    }
+
+    static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    static float[] decode(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    // --- Internals ---
+
+    private void loadBatch(List<String> keys, Map<String, float[]> found) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT cache_key, vector FROM embedding_cache WHERE cache_key = ANY(?)")) {
+            Array array = connection.createArrayOf("varchar", keys.toArray());
+            statement.setArray(1, array);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    found.put(rows.getString(1), decode(rows.getBytes(2)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Embedding cache lookup failed", e);
+        }
+    }
+
+    void flush() {
+        try {
+            writePending();
+            writeTouched();
+        } catch (Exception e) {
+            LOG.warnf(e, "Embedding cache flush failed");
+        }
+    }
+
+    private void writePending() throws SQLException {
+        while (!pending.isEmpty()) {
+            Map<String, PendingRow> batch = new HashMap<>();
+            Iterator<Map.Entry<String, PendingRow>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < WRITE_BATCH_SIZE) {
+                Map.Entry<String, PendingRow> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+            }
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "INSERT INTO embedding_cache (cache_key, model, dimension, vector, created_at, last_used_at) " +
+                         "VALUES (?, ?, ?, ?, now(), now()) ON CONFLICT (cache_key) DO NOTHING")) {
+                for (Map.Entry<String, PendingRow> entry : batch.entrySet()) {
+                    statement.setString(1, entry.getKey());
+                    statement.setString(2, entry.getValue().model());
+                    statement.setInt(3, entry.getValue().dimension());
+                    statement.setBytes(4, entry.getValue().vector());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            } finally {
+                // Written or lost: either way they leave the queue
+                batch.forEach(pending::remove);
+            }
+        }
+    }
+
+    private void writeTouched() throws SQLException {
+        while (!touched.isEmpty()) {
+            List<String> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+            Iterator<String> iterator = touched.iterator();
+            while (iterator.hasNext() && batch.size() < WRITE_BATCH_SIZE) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "UPDATE embedding_cache SET last_used_at = now() WHERE cache_key = ANY(?)")) {
+                statement.setArray(1, connection.createArrayOf("varchar", batch.toArray()));
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    void evict() {
+        try (Connection connection = dataSource.getConnection()) {
+            long count;
+            try (PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM embedding_cache");
+                 ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                count = rows.getLong(1);
+            }
+            if (count > maxEntries) {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM embedding_cache WHERE cache_key IN (" +
+                        "SELECT cache_key FROM embedding_cache ORDER BY last_used_at LIMIT ?)")) {
+                    statement.setLong(1, count - maxEntries);
+                    int deleted = statement.executeUpdate();
+                    evictions.addAndGet(deleted);
+                    count -= deleted;
+                    LOG.infof("Embedding cache trimmed: deleted=%d, remaining=%d", deleted, count);
+                }
+            }
+            entries.set(count);
+        } catch (Exception e) {
+            LOG.warnf(e, "Embedding cache eviction failed");
+        }
+    }
+}
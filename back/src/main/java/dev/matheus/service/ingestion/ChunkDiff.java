@@ -0,0 +1,78 @@
+package dev.matheus.service.ingestion;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches the chunks of a new ingestion run against the chunks a document already has,
+ * by content hash, so reprocessing keeps the rows (and their embeddings and hypothetical
+ * questions) of unchanged chunks and only embeds what is new.
+ *
+ * Duplicate contents are matched in position order. Chunks never claimed during the
+ * run are the ones the new version of the document no longer contains.
+ *
+ * Not thread-safe: the pipeline chunks one document on one thread at a time.
+ */
+public class ChunkDiff {
+
+    /**
+     * A chunk stored before the run.
+     *
+     * @param embedded whether its content embedding exists, i.e. where a FAILED chunk resumes
+     */
+    public record PreviousChunk(String id, String contentHash, boolean embedded) {
+    }
+
+    private final Map<String, Deque<PreviousChunk>> byHash = new HashMap<>();
+    private int reused;
+
+    /**
+     * @param previous Chunks stored before the run, in position order
+     */
+    public ChunkDiff(List<PreviousChunk> previous) {
+        for (PreviousChunk chunk : previous) {
+            byHash.computeIfAbsent(chunk.contentHash(), hash -> new ArrayDeque<>()).add(chunk);
+        }
+    }
+
+    public static ChunkDiff empty() {
+        return new ChunkDiff(List.of());
+    }
+
+    /**
+     * Take the earliest unclaimed previous chunk with this content.
+     *
+     * @return The chunk to reuse, or null if the content is new
+     */
+    public PreviousChunk claim(String contentHash) {
+        Deque<PreviousChunk> candidates = byHash.get(contentHash);
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        reused++;
+        return candidates.poll();
+    }
+
+    /**
+     * IDs of previous chunks not claimed so far. Once the run has seen all new chunks,
+     * these are the removed ones.
+     */
+    public List<String> unclaimedIds() {
+        List<String> ids = new ArrayList<>();
+        for (Deque<PreviousChunk> candidates : byHash.values()) {
+            candidates.forEach(chunk -> ids.add(chunk.id()));
+        }
+        return ids;
+    }
+
+    /**
+     * Number of previous chunks reused so far.
+     */
+    public int reusedCount() {
+        return reused;
+    }
+}
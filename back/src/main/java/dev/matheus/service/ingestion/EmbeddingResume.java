@@ -0,0 +1,113 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.entity.EmbeddingStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Where the embedding of a chunk picks up again, from its {@link EmbeddingStatus}.
+ *
+ * A FAILED chunk resumes after the last step it completed: questions kept on the chunk
+ * are embedded without asking the LLM again, and a chunk whose content vector exists
+ * only gets its questions. DONE chunks are left alone, so running a document again
+ * never duplicates vectors.
+ */
+public final class EmbeddingResume {
+
+    /**
+     * Next embedding step of a chunk.
+     */
+    public enum Step {
+        EMBED_CONTENT,
+        GENERATE_QUESTIONS,
+        EMBED_QUESTIONS,
+        /** Nothing left to do */
+        NONE
+    }
+
+    /**
+     * Unfinished chunks grouped by the step they resume at.
+     */
+    public record Plan(
+            List<DocumentChunk> embedContent,
+            List<DocumentChunk> generateQuestions,
+            List<DocumentChunk> embedQuestions
+    ) {
+
+        public static Plan empty() {
+            return new Plan(List.of(), List.of(), List.of());
+        }
+
+        /**
+         * @param contentEmbeddedIds IDs of the chunks whose content vector is stored;
+         *                           only consulted for FAILED chunks
+         */
+        public static Plan of(Collection<DocumentChunk> chunks, Set<String> contentEmbeddedIds) {
+            Builder builder = new Builder();
+            for (DocumentChunk chunk : chunks) {
+                builder.add(chunk, contentEmbeddedIds.contains(chunk.id));
+            }
+            return builder.build();
+        }
+
+        /**
+         * Chunks still to be worked on.
+         */
+        public int size() {
+            return embedContent.size() + generateQuestions.size() + embedQuestions.size();
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+    }
+
+    /**
+     * Collects a {@link Plan} chunk by chunk.
+     */
+    public static class Builder {
+        private final List<DocumentChunk> embedContent = new ArrayList<>();
+        private final List<DocumentChunk> generateQuestions = new ArrayList<>();
+        private final List<DocumentChunk> embedQuestions = new ArrayList<>();
+
+        public Builder add(DocumentChunk chunk, boolean contentEmbedded) {
+            switch (next(chunk, contentEmbedded)) {
+                case EMBED_CONTENT -> embedContent.add(chunk);
+                case GENERATE_QUESTIONS -> generateQuestions.add(chunk);
+                case EMBED_QUESTIONS -> embedQuestions.add(chunk);
+                case NONE -> {
+                }
+            }
+            return this;
+        }
+
+        public Plan build() {
+            return new Plan(embedContent, generateQuestions, embedQuestions);
+        }
+    }
+
+    private EmbeddingResume() {
+    }
+
+    /**
+     * @param contentEmbedded Whether the content vector of the chunk is stored
+     *                        (only consulted for FAILED chunks)
+     */
+    public static Step next(DocumentChunk chunk, boolean contentEmbedded) {
+        EmbeddingStatus status = chunk.embeddingStatus != null ? chunk.embeddingStatus : EmbeddingStatus.PENDING;
+        boolean hasQuestions = chunk.pendingQuestions != null && !chunk.pendingQuestions.isEmpty();
+        return switch (status) {
+            case PENDING -> Step.EMBED_CONTENT;
+            case CONTENT_EMBEDDED -> Step.GENERATE_QUESTIONS;
+            case QUESTIONS_GENERATED -> hasQuestions ? Step.EMBED_QUESTIONS : Step.GENERATE_QUESTIONS;
+            case DONE -> Step.NONE;
+            case FAILED -> hasQuestions ? Step.EMBED_QUESTIONS
+                    : contentEmbedded ? Step.GENERATE_QUESTIONS
+                    : Step.EMBED_CONTENT;
+        };
+    }
+}
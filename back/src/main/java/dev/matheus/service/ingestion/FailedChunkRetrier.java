@@ -0,0 +1,73 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.service.HypotheticalQuestionService;
+import dev.matheus.service.limiter.Lane;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background retry of chunks whose embedding FAILED.
+ *
+ * Every chunk-retry-interval, claims up to chunk-retry-batch-size FAILED chunks of completed
+ * documents and resumes each at the step it failed in (see {@link EmbeddingResume}).
+ * Chunks are claimed with SKIP LOCKED, so replicas retry different chunks, and each claim
+ * counts as an attempt: after chunk-max-attempts the chunk stays FAILED until its
+ * document is processed again.
+ */
+@ApplicationScoped
+public class FailedChunkRetrier {
+
+    private static final Logger LOG = Logger.getLogger(FailedChunkRetrier.class);
+
+    @Inject
+    HypotheticalQuestionService hypotheticalQuestionService;
+
+    @Inject
+    IngestionConfigProperties config;
+
+    private ScheduledExecutorService scheduler;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!config.workerEnabled() || config.chunkMaxAttempts() <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chunk-embedding-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = config.chunkRetryInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::retry, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        LOG.infof("Failed chunk retry started: interval=%s, maxAttempts=%d, batchSize=%d",
+                config.chunkRetryInterval(), config.chunkMaxAttempts(), config.chunkRetryBatchSize());
+    }
+
+    void retry() {
+        // Retries yield to interactive retrieval, like the pipeline stages (see StageExecutor)
+        Lane.setCurrent(Lane.BACKGROUND);
+        try {
+            int retried = hypotheticalQuestionService.retryFailedChunks(config.chunkMaxAttempts(),
+                    config.chunkRetryBatchSize(), config.chunkRetryInterval());
+            if (retried > 0) {
+                LOG.infof("Retried %d failed chunk(s)", retried);
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Retry of failed chunks failed");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
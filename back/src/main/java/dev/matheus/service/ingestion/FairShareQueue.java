@@ -0,0 +1,185 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.entity.IngestionPriority;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded task queue of a pipeline stage that hands out tasks by {@link IngestionPriority}
+ * instead of arrival order, with weighted round-robin between the owners (chats) of one priority.
+ *
+ * Every stage of a document is a separate task, so a long BULK document yields at each stage
+ * boundary: its next task waits while INTERACTIVE or NORMAL tasks are queued, and one chat
+ * uploading many documents only gets its weight of turns before the next chat's task runs.
+ * {@link #put} blocks while the queue holds {@code capacity} tasks, whatever their priority.
+ */
+class FairShareQueue {
+
+    private final int capacity;
+    private final ToIntFunction<String> weights;
+    private final Map<IngestionPriority, Tier> tiers = new EnumMap<>(IngestionPriority.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int size;
+
+    /**
+     * @param weights Consecutive turns of an owner before the next owner of the same priority
+     */
+    FairShareQueue(int capacity, ToIntFunction<String> weights) {
+        this.capacity = capacity;
+        this.weights = weights;
+        for (IngestionPriority priority : IngestionPriority.values()) {
+            tiers.put(priority, new Tier());
+        }
+    }
+
+    /**
+     * Queue a task, blocking while the queue is full.
+     *
+     * @param owner Owner sharing the stage fairly with others, null for a shared anonymous owner
+     */
+    void put(IngestionPriority priority, String owner, Runnable task) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size >= capacity) {
+                notFull.await();
+            }
+            tiers.get(priority).add(owner != null ? owner : "", task);
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next task: from the highest priority with queued tasks, from the owner whose turn it is.
+     *
+     * @return the task, or null if none arrived within the timeout
+     */
+    Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            for (Tier tier : tiers.values()) {
+                if (tier.size > 0) {
+                    size--;
+                    notFull.signal();
+                    return tier.take(weights);
+                }
+            }
+            throw new IllegalStateException("Queue size out of sync with its tiers");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queued tasks per priority, every priority included.
+     */
+    Map<IngestionPriority, Integer> sizeByPriority() {
+        lock.lock();
+        try {
+            Map<IngestionPriority, Integer> sizes = new EnumMap<>(IngestionPriority.class);
+            tiers.forEach((priority, tier) -> sizes.put(priority, tier.size));
+            return sizes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Distinct owners with queued tasks.
+     */
+    int owners() {
+        lock.lock();
+        try {
+            return (int) tiers.values().stream()
+                    .flatMap(tier -> tier.byOwner.keySet().stream())
+                    .distinct()
+                    .count();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            tiers.values().forEach(Tier::clear);
+            size = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tasks of one priority: a FIFO per owner, owners taking turns in arrival order.
+     */
+    private static final class Tier {
+        final Map<String, Deque<Runnable>> byOwner = new HashMap<>();
+        final Deque<String> turns = new ArrayDeque<>();
+        int size;
+        /** Tasks the owner at the head of turns may still take before its turn ends */
+        int credits;
+
+        void add(String owner, Runnable task) {
+            byOwner.computeIfAbsent(owner, key -> {
+                turns.addLast(key);
+                return new ArrayDeque<>();
+            }).addLast(task);
+            size++;
+        }
+
+        Runnable take(ToIntFunction<String> weights) {
+            String owner = turns.peekFirst();
+            if (credits <= 0) {
+                credits = Math.max(1, weights.applyAsInt(owner));
+            }
+            Deque<Runnable> tasks = byOwner.get(owner);
+            Runnable task = tasks.pollFirst();
+            size--;
+            credits--;
+            if (tasks.isEmpty()) {
+                byOwner.remove(owner);
+                turns.pollFirst();
+                credits = 0;
+            } else if (credits == 0) {
+                turns.addLast(turns.pollFirst());
+            }
+            return task;
+        }
+
+        void clear() {
+            byOwner.clear();
+            turns.clear();
+            size = 0;
+            credits = 0;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.repository.ChunkBulkWriter;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithDefaults;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Configuration properties for the durable ingestion job queue and the staged pipeline.
+ * Mapped to application.properties under 'docintel.ingestion' prefix.
+ */
+@ConfigMapping(prefix = "docintel.ingestion")
+public interface IngestionConfigProperties {
+
+    /**
+     * Whether this node runs ingestion workers.
+     * Nodes with workers disabled still enqueue jobs for other replicas.
+     * Default: true
+     */
+    @WithDefault("true")
+    boolean workerEnabled();
+
+    /**
+     * Maximum number of documents in flight (claimed, in any stage) on this node.
+     * Default: 8
+     */
+    @WithDefault("8")
+    int maxInFlightDocuments();
+
+    /**
+     * Per-stage worker count and queue capacity, keyed by {@link IngestionStage#configKey()}.
+     * Example: docintel.ingestion.stage.convert.workers=3
+     */
+    @WithDefaults
+    Map<String, StageConfig> stage();
+
+    /**
+     * Identifier of this node in job leases. Defaults to hostname plus a random suffix.
+     */
+    Optional<String> nodeId();
+
+    /**
+     * How often idle workers poll the queue.
+     * Default: 2 seconds
+     */
+    @WithDefault("PT2S")
+    Duration pollInterval();
+
+    /**
+     * How long a claimed job stays owned without a heartbeat.
+     * Default: 5 minutes
+     */
+    @WithDefault("PT5M")
+    Duration leaseDuration();
+
+    /**
+     * How often running jobs renew their lease. Must be well below leaseDuration.
+     * Default: 1 minute
+     */
+    @WithDefault("PT1M")
+    Duration heartbeatInterval();
+
+    /**
+     * Attempts before a job is marked FAILED.
+     * Default: 3
+     */
+    @WithDefault("3")
+    int maxAttempts();
+
+    /**
+     * Delay before the first retry; doubled on each further attempt.
+     * Default: 30 seconds
+     */
+    @WithDefault("PT30S")
+    Duration retryBackoff();
+
+    /**
+     * Upper bound for the retry delay.
+     * Default: 30 minutes
+     */
+    @WithDefault("PT30M")
+    Duration maxRetryBackoff();
+
+    /**
+     * Minimum time between two progress events of a document on its chat WebSocket.
+     * Updates in between are coalesced into the next event.
+     * Default: 1 second
+     */
+    @WithDefault("PT1S")
+    Duration progressInterval();
+
+    /**
+     * How chunks and embedding links are bulk inserted, see {@link ChunkBulkWriter}.
+     * Default: COPY
+     */
+    @WithDefault("COPY")
+    ChunkBulkWriter.Mode bulkWriteMode();
+
+    /**
+     * Rows per executeBatch call when bulk writes use batched inserts.
+     * Default: 1000
+     */
+    @WithDefault("1000")
+    int bulkWriteBatchSize();
+
+    /**
+     * Chunks persisted (and handed to the embedding stages) at a time while a converted window
+     * is chunked, so the chunks of a large window are not all held until it is chunked.
+     * Default: 200
+     */
+    @WithDefault("200")
+    int chunkPersistBatchSize();
+
+    /**
+     * Chunks packed into one hypothetical-question call. 1 sends every chunk on its own.
+     * Default: 8
+     */
+    @WithDefault("8")
+    int questionBatchMaxChunks();
+
+    /**
+     * Estimated content tokens per batched hypothetical-question call.
+     * Larger chunks are sent on their own.
+     * Default: 3000
+     */
+    @WithDefault("3000")
+    int questionBatchMaxTokens();
+
+    /**
+     * Attempts at embedding a chunk before the background retry gives up on it
+     * (see {@link FailedChunkRetrier}). 0 disables the retry.
+     * Default: 3
+     */
+    @WithDefault("3")
+    int chunkMaxAttempts();
+
+    /**
+     * How often failed chunks are retried in the background, and how long a chunk waits
+     * after a failure (or a retry) before it is retried again.
+     * Default: 5 minutes
+     */
+    @WithDefault("PT5M")
+    Duration chunkRetryInterval();
+
+    /**
+     * Failed chunks retried per run of the background retry.
+     * Default: 100
+     */
+    @WithDefault("100")
+    int chunkRetryBatchSize();
+
+    /**
+     * Uploads up to this size are queued as NORMAL, larger ones as BULK
+     * (see {@link dev.matheus.entity.IngestionPriority}).
+     * Default: 5 MB
+     */
+    @WithDefault("5242880")
+    long smallDocumentMaxBytes();
+
+    /**
+     * How long a job waits before it is claimed as if it had the next higher priority,
+     * so bulk uploads are delayed but never starved. Zero disables aging.
+     * Default: 15 minutes
+     */
+    @WithDefault("PT15M")
+    Duration priorityAging();
+
+    /**
+     * Weights of chats in the round-robin between chats of the same priority, keyed by chat ID:
+     * a chat of weight 3 gets three stage tasks for every task of a chat of weight 1.
+     * Chats not listed weigh 1.
+     * Example: docintel.ingestion.owner-weights."chat-id"=3
+     */
+    Map<String, Integer> ownerWeights();
+
+    /**
+     * Configuration of a single pipeline stage.
+     */
+    interface StageConfig {
+
+        /**
+         * Threads consuming this stage's queue.
+         * Default: 2
+         */
+        @WithDefault("2")
+        int workers();
+
+        /**
+         * Tasks that can wait in this stage's queue before producers block.
+         * Default: 100
+         */
+        @WithDefault("100")
+        int queueCapacity();
+    }
+}
@@ -0,0 +1,337 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.entity.DocumentFile;
+import dev.matheus.entity.IngestionJob;
+import dev.matheus.entity.IngestionJobStatus;
+import dev.matheus.entity.IngestionPriority;
+import dev.matheus.entity.ProcessingStatus;
+import dev.matheus.repository.IngestionJobRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistent ingestion job queue backed by the ingestion_job table.
+ * Every method is a short transaction so that row locks taken while claiming
+ * are released immediately and jobs survive restarts of any node.
+ *
+ * @ActivateRequestContext: called from worker and scheduler threads that have no
+ * CDI request context (same reason as in DocumentIngestionService).
+ */
+@ApplicationScoped
+@ActivateRequestContext
+public class IngestionJobService {
+
+    private static final Logger LOG = Logger.getLogger(IngestionJobService.class);
+    private static final int MAX_ERROR_LENGTH = 4000;
+
+    @Inject
+    IngestionJobRepository repository;
+
+    @Inject
+    IngestionConfigProperties config;
+
+    @Inject
+    EntityManager em;
+
+    /**
+     * Enqueue a document for ingestion. Idempotent: if the document already has a
+     * queued or running job, that job is returned instead of creating a new one.
+     */
+    @Transactional
+    public IngestionJob enqueue(String documentId) {
+        return enqueue(documentId, null, null);
+    }
+
+    /**
+     * Enqueue a document for ingestion with chunks of at most {@code chunkMaxTokens}
+     * tokens instead of docling.chunking.max-tokens (null for the default).
+     * Idempotent like {@link #enqueue(String)}.
+     */
+    @Transactional
+    public IngestionJob enqueue(String documentId, Integer chunkMaxTokens) {
+        return enqueue(documentId, chunkMaxTokens, null);
+    }
+
+    /**
+     * Enqueue a document for ingestion with the given priority, or with the priority of its
+     * size when null (see {@link #priorityFor(DocumentFile)}). Idempotent like
+     * {@link #enqueue(String)}; a job still queued is raised to a higher priority and takes
+     * the requested chunk size. A running job is returned unchanged: callers that need the
+     * chunk size applied check for {@link IngestionJobStatus#RUNNING}.
+     */
+    @Transactional
+    public IngestionJob enqueue(String documentId, Integer chunkMaxTokens, IngestionPriority priority) {
+        Optional<IngestionJob> active = repository.findActiveByDocumentId(documentId);
+        if (active.isPresent()) {
+            IngestionJob job = active.get();
+            if (job.status == IngestionJobStatus.QUEUED) {
+                if (priority != null && priority.compareTo(job.priority) < 0) {
+                    LOG.infof("Raising priority of queued ingestion job: jobId=%s, docId=%s, %s -> %s",
+                            job.id, documentId, job.priority, priority);
+                    job.priority = priority;
+                }
+                if (chunkMaxTokens != null) {
+                    job.chunkMaxTokens = chunkMaxTokens;
+                }
+            }
+            LOG.debugf("Document already has an active ingestion job: docId=%s, jobId=%s",
+                    documentId, job.id);
+            return job;
+        }
+
+        DocumentFile doc = DocumentFile.findById(documentId);
+        IngestionJob job = newJob(documentId, doc);
+        if (priority != null) {
+            job.priority = priority;
+        }
+        job.chunkMaxTokens = chunkMaxTokens;
+        repository.persist(job);
+
+        LOG.infof("Ingestion job enqueued: jobId=%s, docId=%s, priority=%s", job.id, documentId, job.priority);
+        return job;
+    }
+
+    /**
+     * Claim the next available job for the given worker and start its lease.
+     * A job reclaimed after its lease expired counts as a new attempt; once the
+     * attempts are exhausted it is failed instead of being handed out again.
+     */
+    @Transactional
+    public Optional<ClaimedJob> claimNext(String workerId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        while (true) {
+            Optional<IngestionJob> next = repository.lockNextClaimable(now, config.priorityAging());
+            if (next.isEmpty()) {
+                return Optional.empty();
+            }
+
+            IngestionJob job = next.get();
+            if (job.status == IngestionJobStatus.RUNNING) {
+                LOG.warnf("Reclaiming orphaned ingestion job: jobId=%s, docId=%s, previousOwner=%s",
+                        job.id, job.documentId, job.leaseOwner);
+                if (job.attempts >= job.maxAttempts) {
+                    markFailed(job, "Lease expired on last attempt (worker " + job.leaseOwner + " stopped)");
+                    continue;
+                }
+            }
+
+            job.status = IngestionJobStatus.RUNNING;
+            job.attempts++;
+            job.leaseOwner = workerId;
+            job.heartbeatAt = now;
+            job.leaseExpiresAt = now.plus(config.leaseDuration());
+
+            LOG.infof("Ingestion job claimed: jobId=%s, docId=%s, worker=%s, attempt=%d/%d, priority=%s",
+                    job.id, job.documentId, workerId, job.attempts, job.maxAttempts, job.priority);
+            return Optional.of(new ClaimedJob(job.id, job.documentId, job.attempts, job.chunkMaxTokens,
+                    job.priority, job.ownerKey));
+        }
+    }
+
+    /**
+     * Renew the lease of a running job.
+     *
+     * @return false if the worker no longer owns the job (lease expired and taken over)
+     */
+    @Transactional
+    public boolean heartbeat(String jobId, String workerId) {
+        IngestionJob job = repository.findById(jobId);
+        if (!isOwnedBy(job, workerId)) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        job.heartbeatAt = now;
+        job.leaseExpiresAt = now.plus(config.leaseDuration());
+        return true;
+    }
+
+    @Transactional
+    public void complete(String jobId, String workerId) {
+        IngestionJob job = repository.findById(jobId);
+        if (!isOwnedBy(job, workerId)) {
+            LOG.warnf("Cannot complete ingestion job not owned by this worker: jobId=%s, worker=%s", jobId, workerId);
+            return;
+        }
+        job.status = IngestionJobStatus.COMPLETED;
+        job.completedAt = LocalDateTime.now();
+        job.leaseOwner = null;
+        job.leaseExpiresAt = null;
+        job.lastError = null;
+        LOG.infof("Ingestion job completed: jobId=%s, docId=%s, attempts=%d", job.id, job.documentId, job.attempts);
+    }
+
+    /**
+     * Record a failed attempt. Schedules a retry with exponential backoff while
+     * attempts remain, otherwise fails the job and its document.
+     */
+    @Transactional
+    public void fail(String jobId, String workerId, String error) {
+        IngestionJob job = repository.findById(jobId);
+        if (!isOwnedBy(job, workerId)) {
+            LOG.warnf("Cannot fail ingestion job not owned by this worker: jobId=%s, worker=%s", jobId, workerId);
+            return;
+        }
+
+        if (job.attempts >= job.maxAttempts) {
+            markFailed(job, error);
+            return;
+        }
+
+        Duration delay = backoffFor(job.attempts, config.retryBackoff(), config.maxRetryBackoff());
+        job.status = IngestionJobStatus.QUEUED;
+        job.availableAt = LocalDateTime.now().plus(delay);
+        job.leaseOwner = null;
+        job.leaseExpiresAt = null;
+        job.lastError = truncate(error);
+
+        DocumentFile doc = DocumentFile.findById(job.documentId);
+        if (doc != null) {
+            doc.processingStatus = ProcessingStatus.PENDING;
+            doc.processingError = truncate("Attempt " + job.attempts + " failed, retrying in "
+                    + delay.toSeconds() + "s: " + error);
+        }
+
+        LOG.warnf("Ingestion job attempt failed, retry scheduled: jobId=%s, docId=%s, attempt=%d/%d, delay=%ds",
+                job.id, job.documentId, job.attempts, job.maxAttempts, delay.toSeconds());
+    }
+
+    /**
+     * Give a job back to the queue without counting the attempt (graceful shutdown).
+     */
+    @Transactional
+    public void release(String jobId, String workerId) {
+        IngestionJob job = repository.findById(jobId);
+        if (!isOwnedBy(job, workerId)) {
+            return;
+        }
+        job.status = IngestionJobStatus.QUEUED;
+        job.attempts = Math.max(0, job.attempts - 1);
+        job.availableAt = LocalDateTime.now();
+        job.leaseOwner = null;
+        job.leaseExpiresAt = null;
+        LOG.infof("Ingestion job released back to queue: jobId=%s, docId=%s", job.id, job.documentId);
+    }
+
+    /**
+     * Startup recovery:
+     * - RUNNING jobs with an expired lease are put back in the queue right away
+     *   (they would also be reclaimed lazily by {@link #claimNext(String)});
+     * - documents left PENDING or PROCESSING without any active job (e.g. enqueued
+     *   by the in-memory executor before this queue existed) get a new job.
+     *
+     * @return Number of jobs recovered or created
+     */
+    @Transactional
+    public int recoverOrphanedJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int recovered = 0;
+
+        for (IngestionJob job : repository.findExpiredLeases(now)) {
+            LOG.warnf("Recovering ingestion job with expired lease: jobId=%s, docId=%s, previousOwner=%s",
+                    job.id, job.documentId, job.leaseOwner);
+            if (job.attempts >= job.maxAttempts) {
+                markFailed(job, "Lease expired on last attempt (worker " + job.leaseOwner + " stopped)");
+            } else {
+                job.status = IngestionJobStatus.QUEUED;
+                job.availableAt = now;
+                job.leaseOwner = null;
+                job.leaseExpiresAt = null;
+                recovered++;
+            }
+        }
+
+        List<String> orphanedDocIds = em.createQuery(
+                "SELECT d.id FROM DocumentFile d WHERE d.processingStatus IN :statuses " +
+                "AND NOT EXISTS (SELECT 1 FROM IngestionJob j WHERE j.documentId = d.id AND j.status IN :active)",
+                String.class)
+                .setParameter("statuses", List.of(ProcessingStatus.PENDING, ProcessingStatus.PROCESSING))
+                .setParameter("active", List.of(IngestionJobStatus.QUEUED, IngestionJobStatus.RUNNING))
+                .getResultList();
+
+        for (String docId : orphanedDocIds) {
+            LOG.warnf("Document stuck without ingestion job, re-enqueuing: docId=%s", docId);
+            repository.persist(newJob(docId, DocumentFile.findById(docId)));
+            recovered++;
+        }
+
+        return recovered;
+    }
+
+    private IngestionJob newJob(String documentId, DocumentFile doc) {
+        IngestionJob job = new IngestionJob();
+        job.documentId = documentId;
+        job.status = IngestionJobStatus.QUEUED;
+        job.maxAttempts = config.maxAttempts();
+        job.priority = priorityFor(doc);
+        job.ownerKey = doc != null && doc.chat != null ? doc.chat.id : null;
+        return job;
+    }
+
+    /**
+     * Priority of an upload: NORMAL up to docintel.ingestion.small-document-max-bytes, BULK above.
+     */
+    IngestionPriority priorityFor(DocumentFile doc) {
+        if (doc == null || doc.fileSize == null) {
+            return IngestionPriority.NORMAL;
+        }
+        return doc.fileSize > config.smallDocumentMaxBytes() ? IngestionPriority.BULK : IngestionPriority.NORMAL;
+    }
+
+    private void markFailed(IngestionJob job, String error) {
+        job.status = IngestionJobStatus.FAILED;
+        job.completedAt = LocalDateTime.now();
+        job.leaseOwner = null;
+        job.leaseExpiresAt = null;
+        job.lastError = truncate(error);
+
+        DocumentFile doc = DocumentFile.findById(job.documentId);
+        if (doc != null) {
+            doc.processingStatus = ProcessingStatus.FAILED;
+            doc.processingError = truncate(error);
+            doc.processedAt = LocalDateTime.now();
+        }
+
+        LOG.errorf("Ingestion job failed permanently: jobId=%s, docId=%s, attempts=%d, error=%s",
+                job.id, job.documentId, job.attempts, error);
+    }
+
+    private static boolean isOwnedBy(IngestionJob job, String workerId) {
+        return job != null && job.status == IngestionJobStatus.RUNNING && workerId.equals(job.leaseOwner);
+    }
+
+    /**
+     * Exponential backoff: base * 2^(attempt - 1), capped at max.
+     */
+    static Duration backoffFor(int attempt, Duration base, Duration max) {
+        int exponent = Math.max(0, Math.min(attempt - 1, 20));
+        Duration delay = base.multipliedBy(1L << exponent);
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_ERROR_LENGTH) {
+            return value;
+        }
+        return value.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Snapshot of a job handed to a worker.
+     *
+     * @param chunkMaxTokens chunk size requested for this job, null for the configured default
+     * @param ownerKey chat of the document, null if unknown
+     */
+    public record ClaimedJob(String jobId, String documentId, int attempt, Integer chunkMaxTokens,
+                             IngestionPriority priority, String ownerKey) {
+    }
+}
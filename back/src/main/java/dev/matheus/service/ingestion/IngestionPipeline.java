@@ -0,0 +1,535 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.entity.DocumentFile;
+import dev.matheus.service.DocumentIngestionService;
+import dev.matheus.service.HypotheticalQuestionService;
+import dev.matheus.service.docling.DoclingDocumentParser;
+import dev.matheus.service.embedding.EmbeddingBatches;
+import dev.matheus.service.embedding.EmbeddingConfigProperties;
+import dev.matheus.service.ingestion.IngestionJobService.ClaimedJob;
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.ResourceBulkheads;
+import dev.matheus.service.storage.BlobStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Staged ingestion pipeline: convert → chunk → embed content → generate questions →
+ * embed questions → finalize.
+ *
+ * Each stage has its own workers and a bounded queue, so a document that spends hours
+ * in Docling occupies a convert worker only, while already-converted documents keep
+ * the embedding stages busy. A full queue blocks the stage feeding it (backpressure).
+ * Large PDFs are converted in page windows that enter the chunk stage as they complete.
+ *
+ * Chunk contents are embedded in token-bounded batches, one EMBED_CONTENT task per batch,
+ * and small chunks share hypothetical-question calls, one GENERATE_QUESTIONS task per batch.
+ * Stage workers are virtual threads; the write transactions of the chunk and embed stages
+ * take a JDBC permit of {@link ResourceBulkheads} so they cannot exhaust the connection pool.
+ * Embedding model calls happen before those transactions, holding no connection or permit.
+ *
+ * Stages take tasks by the job's {@link dev.matheus.entity.IngestionPriority} and round-robin
+ * between chats (see {@link FairShareQueue}), so a bulk upload yields to reprocess requests and
+ * small uploads at every stage boundary instead of holding the stages until it is done.
+ *
+ * Progress (pages converted, chunks created, embedded and questioned) is recorded on the
+ * run's {@link IngestionProgress} and pushed to the chat by {@link IngestionProgressPublisher}.
+ *
+ * A run whose job lease was lost is {@link #cancel cancelled}: every task checks the run
+ * before it starts, so the document stops at the next stage boundary.
+ *
+ * Failures in CONVERT, CHUNK or FINALIZE fail the whole job. A failure on one chunk
+ * (or one content batch) is logged and the chunk is skipped and marked FAILED, as in
+ * {@link HypotheticalQuestionService#generateEmbeddings}; {@link FailedChunkRetrier} retries it later.
+ * Each chunk's {@link dev.matheus.entity.EmbeddingStatus} is committed with the vectors of each
+ * step, so a retried job resumes every chunk where it stopped (see {@link EmbeddingResume}).
+ */
+@ApplicationScoped
+public class IngestionPipeline {
+
+    private static final Logger LOG = Logger.getLogger(IngestionPipeline.class);
+
+    @Inject
+    DocumentIngestionService documentIngestionService;
+
+    @Inject
+    HypotheticalQuestionService hypotheticalQuestionService;
+
+    @Inject
+    DoclingDocumentParser doclingParser;
+
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    IngestionConfigProperties config;
+
+    @Inject
+    EmbeddingConfigProperties embeddingConfig;
+
+    @Inject
+    IngestionProgressPublisher progressPublisher;
+
+    @Inject
+    ResourceBulkheads bulkheads;
+
+    private final Map<IngestionStage, StageExecutor> stages = new EnumMap<>(IngestionStage.class);
+
+    /** Documents in flight on this node, by job ID */
+    private final Map<String, DocumentRun> inFlight = new ConcurrentHashMap<>();
+
+    private volatile boolean stopping;
+
+    public synchronized void start() {
+        if (!stages.isEmpty()) {
+            return;
+        }
+        stopping = false;
+        for (IngestionStage stage : IngestionStage.values()) {
+            IngestionConfigProperties.StageConfig stageConfig = config.stage().get(stage.configKey());
+            StageExecutor executor = new StageExecutor(stage, stageConfig.workers(), stageConfig.queueCapacity(),
+                    owner -> config.ownerWeights().getOrDefault(owner, 1));
+            executor.start();
+            stages.put(stage, executor);
+            LOG.infof("Ingestion stage started: stage=%s, workers=%d, queueCapacity=%d",
+                    stage, stageConfig.workers(), stageConfig.queueCapacity());
+        }
+    }
+
+    /**
+     * Whether another document can be admitted: a converter is idle and the
+     * in-flight limit is not reached.
+     */
+    public boolean canAccept() {
+        StageExecutor convert = stages.get(IngestionStage.CONVERT);
+        return convert != null
+                && convert.hasIdleWorker()
+                && inFlight.size() < config.maxInFlightDocuments();
+    }
+
+    /**
+     * Admit a claimed job. {@code onFinished} is called exactly once, with a null
+     * failure on success, unless the job is {@link #cancel cancelled}.
+     */
+    public void submit(ClaimedJob job, BiConsumer<ClaimedJob, Throwable> onFinished) {
+        DocumentRun run = new DocumentRun(job, onFinished);
+        inFlight.put(job.jobId(), run);
+        submitDocumentTask(IngestionStage.CONVERT, run, () -> convert(run));
+    }
+
+    /**
+     * Stop working on a job this node no longer owns (its lease was taken over by another
+     * worker). Tasks of the document already queued or started stop at their next stage
+     * boundary, and {@code onFinished} is not called: the job is no longer this node's
+     * to complete or fail.
+     *
+     * @return true if the job was in flight
+     */
+    public boolean cancel(String jobId) {
+        DocumentRun run = inFlight.get(jobId);
+        return run != null && run.cancel();
+    }
+
+    /**
+     * Wait until no document is in flight, up to the given timeout.
+     *
+     * @return true if the pipeline drained
+     */
+    public boolean awaitIdle(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!inFlight.isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop all stages. Documents still in flight are abandoned without notifying
+     * their callbacks; the caller releases their jobs.
+     */
+    public synchronized void shutdown() {
+        stopping = true;
+        stages.values().forEach(stage -> stage.shutdown(Duration.ofSeconds(5)));
+        stages.clear();
+        inFlight.clear();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public List<IngestionStageStats> getStageStats() {
+        List<IngestionStageStats> stats = new ArrayList<>();
+        for (StageExecutor executor : stages.values()) {
+            stats.add(executor.stats());
+        }
+        return stats;
+    }
+
+    // --- Stages ---
+
+    private void convert(DocumentRun run) {
+        String docId = run.job.documentId();
+        run.progress = progressPublisher.start(docId);
+
+        DocumentFile doc = documentIngestionService.startProcessing(docId);
+        // Chunks from an earlier run (reprocess, or a retried attempt) are matched by content,
+        // so unchanged chunks keep their embeddings
+        run.previousChunks = documentIngestionService.loadPreviousChunks(docId);
+        run.doc = doc;
+        byte[] content = blobStore.readAllBytes(doc.blobKey);
+
+        // Large PDFs arrive window by window, so chunking starts before conversion ends
+        int windows = doclingParser.convertInWindows(doc, content, markdown -> offerWindow(run, markdown, false),
+                run.progress::pagesConverted);
+        run.progress.conversionFinished();
+        offerWindow(run, "", true);
+        LOG.infof("Converted document - docId=%s, windows=%d", docId, windows);
+    }
+
+    /**
+     * Hand a converted window to the chunk stage. Windows of one document are chunked
+     * one at a time, in page order, by a single CHUNK task draining the run's window queue,
+     * so chunk positions stay in document order.
+     */
+    private void offerWindow(DocumentRun run, String markdown, boolean last) {
+        synchronized (run) {
+            run.convertedWindows.add(new ConvertedWindow(markdown, last));
+            if (run.chunking) {
+                return;
+            }
+            run.chunking = true;
+        }
+        submitDocumentTask(IngestionStage.CHUNK, run, () -> chunkWindows(run));
+    }
+
+    private void chunkWindows(DocumentRun run) {
+        while (!run.isFinished()) {
+            ConvertedWindow window;
+            synchronized (run) {
+                window = run.convertedWindows.poll();
+                if (window == null) {
+                    run.chunking = false;
+                    return;
+                }
+            }
+            if (window.last()) {
+                // All windows chunked: release the conversion's hold on finalization
+                releasePending(run);
+            } else {
+                chunk(run, window.markdown());
+            }
+        }
+    }
+
+    /**
+     * Chunk a converted window, persisting its chunks and handing them to the embedding stages
+     * in batches as they come out of the chunker.
+     */
+    private void chunk(DocumentRun run, String markdown) {
+        List<DocumentChunk> batch = new ArrayList<>();
+        try {
+            doclingParser.chunkMarkdown(run.doc, new StringReader(markdown), run.chunkCount, run.job.chunkMaxTokens(),
+                    chunk -> {
+                        batch.add(chunk);
+                        if (batch.size() >= config.chunkPersistBatchSize()) {
+                            chunked(run, List.copyOf(batch));
+                            batch.clear();
+                        }
+                    });
+        } catch (IOException e) {
+            // StringReader does not throw
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            chunked(run, batch);
+        }
+    }
+
+    private void chunked(DocumentRun run, List<DocumentChunk> chunks) {
+        if (run.isFinished()) {
+            // Cancelled while chunking: leave the rest of the window to the new owner
+            return;
+        }
+        String docId = run.job.documentId();
+        EmbeddingResume.Plan toEmbed = bulkheads.execute(ExternalResource.JDBC,
+                () -> documentIngestionService.persistChunks(docId, chunks, run.previousChunks));
+        if (run.chunkCount == 0) {
+            hypotheticalQuestionService.detectLanguage(run.doc, chunks);
+        }
+        // Chunks of an earlier attempt that stopped after their content or their questions
+        int resumed = toEmbed.generateQuestions().size() + toEmbed.embedQuestions().size();
+        run.chunkCount += chunks.size();
+        run.progress.chunksCreated(chunks.size(), toEmbed.size());
+        LOG.infof("Chunked - docId=%s, chunks=%d, toEmbed=%d, resumed=%d, totalChunks=%d",
+                docId, chunks.size(), toEmbed.size(), resumed, run.chunkCount);
+
+        run.pendingChunks.addAndGet(toEmbed.size());
+        // One EMBED_CONTENT task per embedAll batch
+        for (List<DocumentChunk> batch : EmbeddingBatches.pack(toEmbed.embedContent(), c -> c.tokenCount,
+                embeddingConfig.batchMaxSegments(), embeddingConfig.batchMaxTokens())) {
+            submitChunkBatchTask(IngestionStage.EMBED_CONTENT, run, batch, () -> embedContents(run, batch));
+        }
+        if (resumed > 0) {
+            run.progress.chunksEmbedded(resumed);
+        }
+        submitQuestionBatches(run, toEmbed.generateQuestions());
+        for (DocumentChunk chunk : toEmbed.embedQuestions()) {
+            submitEmbedQuestions(run, chunk, chunk.pendingQuestions);
+        }
+    }
+
+    private void embedContents(DocumentRun run, List<DocumentChunk> batch) {
+        // Takes a JDBC permit for its write transaction only, not for the model calls
+        List<DocumentChunk> embedded = hypotheticalQuestionService.embedContents(batch);
+        run.progress.chunksEmbedded(embedded.size());
+        for (DocumentChunk chunk : batch) {
+            if (!embedded.contains(chunk)) {
+                run.skippedChunks.incrementAndGet();
+                chunkDone(run);
+            }
+        }
+        submitQuestionBatches(run, embedded);
+    }
+
+    /**
+     * Small chunks share one LLM call, one GENERATE_QUESTIONS task per question batch.
+     */
+    private void submitQuestionBatches(DocumentRun run, List<DocumentChunk> chunks) {
+        for (List<DocumentChunk> questionBatch : hypotheticalQuestionService.packQuestionBatches(chunks)) {
+            submitChunkBatchTask(IngestionStage.GENERATE_QUESTIONS, run, questionBatch,
+                    () -> generateQuestions(run, questionBatch));
+        }
+    }
+
+    private void generateQuestions(DocumentRun run, List<DocumentChunk> questionBatch) {
+        Map<String, List<String>> questionsByChunk = hypotheticalQuestionService.generateQuestions(questionBatch);
+        // Kept on the chunks until embedded, a retried job does not generate them again
+        bulkheads.run(ExternalResource.JDBC, () -> hypotheticalQuestionService.recordQuestions(questionsByChunk));
+        List<DocumentChunk> failed = HypotheticalQuestionService.withoutQuestions(questionBatch, questionsByChunk);
+        if (!failed.isEmpty()) {
+            // Left for FailedChunkRetrier
+            hypotheticalQuestionService.markEmbeddingFailed(failed, new IllegalStateException("Question generation failed"));
+        }
+        for (DocumentChunk chunk : questionBatch) {
+            List<String> questions = questionsByChunk.get(chunk.id);
+            if (questions == null) {
+                run.skippedChunks.incrementAndGet();
+                chunkDone(run);
+                continue;
+            }
+            run.progress.questionsGenerated(questions.size());
+            if (questions.isEmpty()) {
+                chunkDone(run);
+                continue;
+            }
+            submitEmbedQuestions(run, chunk, questions);
+        }
+    }
+
+    private void submitEmbedQuestions(DocumentRun run, DocumentChunk chunk, List<String> questions) {
+        submitChunkTask(IngestionStage.EMBED_QUESTIONS, run, chunk, () -> {
+            hypotheticalQuestionService.embedQuestions(chunk, questions);
+            chunkDone(run);
+        });
+    }
+
+    private void chunkDone(DocumentRun run) {
+        run.progress.chunkCompleted();
+        releasePending(run);
+    }
+
+    private void releasePending(DocumentRun run) {
+        if (run.pendingChunks.decrementAndGet() == 0) {
+            submitDocumentTask(IngestionStage.FINALIZE, run, () -> finish(run));
+        }
+    }
+
+    private void finish(DocumentRun run) {
+        // Chunks the document no longer contains, with their vectors
+        List<String> removedChunkIds = run.previousChunks.unclaimedIds();
+        int removedEmbeddings = removedChunkIds.isEmpty() ? 0 : bulkheads.execute(ExternalResource.JDBC,
+                () -> documentIngestionService.removeChunks(removedChunkIds));
+
+        documentIngestionService.markCompleted(run.job.documentId(), run.chunkCount);
+        progressPublisher.finished(run.progress, "COMPLETED", null);
+        LOG.infof("Ingestion pipeline completed - docId=%s, chunks=%d, reusedChunks=%d, removedChunks=%d, " +
+                        "removedEmbeddings=%d, skippedChunks=%d",
+                run.job.documentId(), run.chunkCount, run.previousChunks.reusedCount(), removedChunkIds.size(),
+                removedEmbeddings, run.skippedChunks.get());
+        run.finish(null);
+    }
+
+    // --- Task plumbing ---
+
+    /**
+     * Queue a task that fails the whole document if it throws.
+     */
+    private void submitDocumentTask(IngestionStage stage, DocumentRun run, Runnable task) {
+        enqueue(stage, run, () -> {
+            if (run.isFinished()) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOG.errorf(e, "Ingestion stage %s failed - docId=%s", stage, run.job.documentId());
+                run.finish(e);
+            }
+        });
+    }
+
+    /**
+     * Queue a per-chunk task. A failure marks the chunk FAILED and skips it instead of
+     * failing the document.
+     */
+    private void submitChunkTask(IngestionStage stage, DocumentRun run, DocumentChunk chunk, Runnable task) {
+        enqueue(stage, run, () -> {
+            if (run.isFinished()) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOG.errorf(e, "Ingestion stage %s failed for a chunk - docId=%s", stage, run.job.documentId());
+                hypotheticalQuestionService.markEmbeddingFailed(List.of(chunk), e);
+                run.skippedChunks.incrementAndGet();
+                chunkDone(run);
+            }
+        });
+    }
+
+    /**
+     * Queue a task covering several chunks. A failure marks all of them FAILED and skips them.
+     */
+    private void submitChunkBatchTask(IngestionStage stage, DocumentRun run, List<DocumentChunk> batch, Runnable task) {
+        enqueue(stage, run, () -> {
+            if (run.isFinished()) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOG.errorf(e, "Ingestion stage %s failed for %d chunks - docId=%s", stage, batch.size(),
+                        run.job.documentId());
+                hypotheticalQuestionService.markEmbeddingFailed(batch, e);
+                for (int i = 0; i < batch.size(); i++) {
+                    run.skippedChunks.incrementAndGet();
+                    chunkDone(run);
+                }
+            }
+        });
+    }
+
+    private void enqueue(IngestionStage stage, DocumentRun run, Runnable task) {
+        StageExecutor executor = stages.get(stage);
+        try {
+            if (executor == null) {
+                throw new IllegalStateException("Ingestion pipeline is not running");
+            }
+            executor.submit(run.job.priority(), run.job.ownerKey(), task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.finish(e);
+        } catch (RuntimeException e) {
+            run.finish(e);
+        }
+    }
+
+    private record ConvertedWindow(String markdown, boolean last) {
+    }
+
+    /**
+     * Progress of one document through the pipeline.
+     */
+    private final class DocumentRun {
+        final ClaimedJob job;
+        final BiConsumer<ClaimedJob, Throwable> onFinished;
+        /** Chunks not yet through the chunk stages, plus one until the last window is chunked */
+        final AtomicInteger pendingChunks = new AtomicInteger(1);
+        final Deque<ConvertedWindow> convertedWindows = new ArrayDeque<>();
+        final AtomicInteger skippedChunks = new AtomicInteger();
+        final AtomicBoolean finished = new AtomicBoolean();
+        volatile DocumentFile doc;
+        /** Set first thing in CONVERT; every later stage runs after it */
+        volatile IngestionProgress progress;
+        volatile ChunkDiff previousChunks = ChunkDiff.empty();
+        volatile int chunkCount;
+        boolean chunking;
+
+        DocumentRun(ClaimedJob job, BiConsumer<ClaimedJob, Throwable> onFinished) {
+            this.job = job;
+            this.onFinished = onFinished;
+        }
+
+        boolean isFinished() {
+            return finished.get();
+        }
+
+        /**
+         * Finish without reporting an outcome.
+         *
+         * @return false if the run had already finished
+         */
+        boolean cancel() {
+            if (!finished.compareAndSet(false, true)) {
+                return false;
+            }
+            inFlight.remove(job.jobId());
+            if (progress != null) {
+                progressPublisher.discard(progress);
+            }
+            LOG.infof("Ingestion run cancelled - docId=%s, jobId=%s", job.documentId(), job.jobId());
+            return true;
+        }
+
+        void finish(Throwable failure) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            inFlight.remove(job.jobId());
+            if (stopping) {
+                // Abandoned on shutdown: the worker releases the job instead
+                if (progress != null) {
+                    progressPublisher.discard(progress);
+                }
+                return;
+            }
+            if (failure != null && progress != null) {
+                // Mirrors IngestionJobService.fail: the document goes back to PENDING while attempts remain
+                String status = job.attempt() < config.maxAttempts() ? "PENDING" : "FAILED";
+                progressPublisher.finished(progress, status, failure.getMessage());
+            }
+            try {
+                onFinished.accept(job, failure);
+            } catch (Exception e) {
+                LOG.errorf(e, "Ingestion completion callback failed - jobId=%s", job.jobId());
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.dto.IngestionProgressEvent;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Live progress of one document through the ingestion pipeline. Updated by the
+ * pipeline stages, read by {@link IngestionProgressPublisher}. Thread-safe.
+ *
+ * The overall percentage weights conversion at 50%, content embedding at 20% and
+ * question generation/embedding at 30%. Chunk counts grow while later pages are still
+ * converting, so the reported percentage is clamped to never go back.
+ */
+public class IngestionProgress {
+
+    static final double CONVERT_WEIGHT = 0.5;
+    static final double EMBED_WEIGHT = 0.2;
+    static final double QUESTIONS_WEIGHT = 0.3;
+
+    /** Below this fraction the ETA would be mostly noise */
+    private static final double MIN_FRACTION_FOR_ETA = 0.02;
+
+    private final String documentId;
+    private final String chatId;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+
+    private final AtomicInteger pagesConverted = new AtomicInteger();
+    private final AtomicInteger totalPages = new AtomicInteger();
+    private final AtomicInteger chunksCreated = new AtomicInteger();
+    private final AtomicInteger chunksToEmbed = new AtomicInteger();
+    private final AtomicInteger chunksEmbedded = new AtomicInteger();
+    private final AtomicInteger chunksCompleted = new AtomicInteger();
+    private final AtomicInteger questionsGenerated = new AtomicInteger();
+    private volatile boolean converted;
+    private int reportedPercent;
+
+    /** Changed since the last event was sent */
+    final AtomicBoolean dirty = new AtomicBoolean(true);
+    /** An event is being written to the socket */
+    final AtomicBoolean sending = new AtomicBoolean();
+
+    public IngestionProgress(String documentId, String chatId) {
+        this(documentId, chatId, System::nanoTime);
+    }
+
+    IngestionProgress(String documentId, String chatId, LongSupplier nanoClock) {
+        this.documentId = documentId;
+        this.chatId = chatId;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    public String documentId() {
+        return documentId;
+    }
+
+    public String chatId() {
+        return chatId;
+    }
+
+    /**
+     * @param totalPages pages of the document, 0 when unknown
+     */
+    public void pagesConverted(int pagesConverted, int totalPages) {
+        this.pagesConverted.set(pagesConverted);
+        this.totalPages.set(totalPages);
+        dirty.set(true);
+    }
+
+    public void conversionFinished() {
+        converted = true;
+        dirty.set(true);
+    }
+
+    public void chunksCreated(int created, int toEmbed) {
+        chunksCreated.addAndGet(created);
+        chunksToEmbed.addAndGet(toEmbed);
+        dirty.set(true);
+    }
+
+    public void chunksEmbedded(int count) {
+        chunksEmbedded.addAndGet(count);
+        dirty.set(true);
+    }
+
+    public void questionsGenerated(int count) {
+        questionsGenerated.addAndGet(count);
+        dirty.set(true);
+    }
+
+    /**
+     * A chunk left the pipeline, embedded or skipped.
+     */
+    public void chunkCompleted() {
+        chunksCompleted.incrementAndGet();
+        dirty.set(true);
+    }
+
+    /**
+     * Current state as an event.
+     *
+     * @param status Processing status to report
+     * @param error Error message for failed runs, or null
+     */
+    public synchronized IngestionProgressEvent snapshot(String status, String error) {
+        double fraction = fraction();
+        int percent;
+        if ("COMPLETED".equals(status)) {
+            percent = 100;
+        } else {
+            // 100 only once the document is marked COMPLETED
+            percent = Math.max(reportedPercent, Math.min(99, (int) Math.floor(fraction * 100)));
+        }
+        reportedPercent = percent;
+
+        Long etaSeconds = null;
+        if ("PROCESSING".equals(status) && fraction >= MIN_FRACTION_FOR_ETA) {
+            double elapsedSeconds = (nanoClock.getAsLong() - startNanos) / 1_000_000_000.0;
+            etaSeconds = Math.round(elapsedSeconds * (1 - fraction) / fraction);
+        }
+
+        return new IngestionProgressEvent(IngestionProgressEvent.TYPE, documentId, status,
+                pagesConverted.get(), totalPages.get(), chunksCreated.get(), chunksToEmbed.get(),
+                chunksEmbedded.get(), chunksCompleted.get(), questionsGenerated.get(),
+                percent, etaSeconds, error);
+    }
+
+    /**
+     * Overall progress between 0 and 1.
+     */
+    double fraction() {
+        int total = totalPages.get();
+        double convert = converted ? 1 : total > 0 ? Math.min(1, (double) pagesConverted.get() / total) : 0;
+
+        int toEmbed = chunksToEmbed.get();
+        double embed;
+        double questions;
+        if (toEmbed == 0) {
+            // Nothing to embed (yet): chunk stages are done once conversion is
+            embed = converted ? 1 : 0;
+            questions = embed;
+        } else {
+            int completed = chunksCompleted.get();
+            embed = Math.min(1, (double) Math.max(chunksEmbedded.get(), completed) / toEmbed);
+            questions = Math.min(1, (double) completed / toEmbed);
+        }
+
+        return CONVERT_WEIGHT * convert + EMBED_WEIGHT * embed + QUESTIONS_WEIGHT * questions;
+    }
+}
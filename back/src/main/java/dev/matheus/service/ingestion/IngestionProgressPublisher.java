@@ -0,0 +1,166 @@
+package dev.matheus.service.ingestion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.matheus.repository.DocumentFileRepository;
+import dev.matheus.service.ChatSessionRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes ingestion progress of running documents to their chat WebSocket
+ * (see {@link ChatSessionRegistry}), so clients show a progress bar.
+ * Events only reach sessions connected to the node running the job; clients poll the
+ * document status endpoint while no event arrives.
+ *
+ * Pipeline stages only update counters on {@link IngestionProgress}. A single publisher
+ * thread sends the latest state of each changed document at most once per
+ * docintel.ingestion.progress-interval, and never while the previous event of that
+ * document is still being written, so bursts of chunk updates cannot flood the socket.
+ * Final events (completed, failed) are sent right away.
+ */
+@ApplicationScoped
+public class IngestionProgressPublisher {
+
+    private static final Logger LOG = Logger.getLogger(IngestionProgressPublisher.class);
+
+    @Inject
+    ChatSessionRegistry registry;
+
+    @Inject
+    DocumentFileRepository documentFileRepository;
+
+    @Inject
+    IngestionConfigProperties config;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Documents running on this node, by document ID */
+    private final Map<String, IngestionProgress> running = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public IngestionProgressPublisher() {
+    }
+
+    /**
+     * Events are only sent on {@link #flush()}.
+     */
+    IngestionProgressPublisher(ChatSessionRegistry registry) {
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    void init() {
+        Duration interval = config.progressInterval();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ingestion-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Start tracking a document.
+     */
+    @ActivateRequestContext
+    public IngestionProgress start(String documentId) {
+        String chatId = documentFileRepository.findChatIdByDocumentId(documentId).orElse(null);
+        return track(new IngestionProgress(documentId, chatId));
+    }
+
+    IngestionProgress track(IngestionProgress progress) {
+        running.put(progress.documentId(), progress);
+        return progress;
+    }
+
+    /**
+     * Stop tracking a document and send its final state immediately.
+     *
+     * @param status COMPLETED, FAILED, or PENDING when a retry is scheduled
+     */
+    public void finished(IngestionProgress progress, String status, String error) {
+        running.remove(progress.documentId(), progress);
+        send(progress, status, error);
+    }
+
+    /**
+     * Stop tracking a document without sending anything (abandoned on shutdown).
+     */
+    public void discard(IngestionProgress progress) {
+        running.remove(progress.documentId(), progress);
+    }
+
+    /**
+     * Resend the current state of the chat's document, e.g. to a client that just connected.
+     */
+    public void resend(String chatId) {
+        for (IngestionProgress progress : running.values()) {
+            if (chatId.equals(progress.chatId())) {
+                progress.dirty.set(true);
+            }
+        }
+    }
+
+    /**
+     * Send one event per changed document whose chat is connected.
+     */
+    void flush() {
+        try {
+            for (IngestionProgress progress : running.values()) {
+                if (!progress.dirty.get() || progress.sending.get()) {
+                    continue;
+                }
+                if (!registry.isConnected(progress.chatId())) {
+                    // Nobody to tell; the state is resent when the client connects
+                    progress.dirty.set(false);
+                    continue;
+                }
+                progress.dirty.set(false);
+                send(progress, "PROCESSING", null);
+            }
+        } catch (Exception e) {
+            LOG.warnf("Failed to publish ingestion progress: %s", e.getMessage());
+        }
+    }
+
+    private void send(IngestionProgress progress, String status, String error) {
+        if (!registry.isConnected(progress.chatId())) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(progress.snapshot(status, error));
+        } catch (JsonProcessingException e) {
+            LOG.warnf("Failed to serialize ingestion progress of document %s: %s", progress.documentId(), e.getMessage());
+            return;
+        }
+
+        progress.sending.set(true);
+        registry.sendEvent(progress.chatId(), json).subscribe().with(
+                v -> progress.sending.set(false),
+                e -> {
+                    progress.sending.set(false);
+                    LOG.debugf("Failed to send ingestion progress for chatId=%s: %s", progress.chatId(), e.getMessage());
+                });
+    }
+}
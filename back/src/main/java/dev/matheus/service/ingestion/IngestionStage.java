@@ -0,0 +1,40 @@
+package dev.matheus.service.ingestion;
+
+/**
+ * Stages of the ingestion pipeline, in processing order.
+ * A document passes CONVERT and CHUNK as a whole; the chunk stages then fan out per chunk
+ * and FINALIZE runs once every chunk of the document has left EMBED_QUESTIONS.
+ */
+public enum IngestionStage {
+
+    /** Docling conversion of the stored file to markdown (slow, external) */
+    CONVERT("convert"),
+
+    /** Markdown chunking and chunk persistence */
+    CHUNK("chunk"),
+
+    /** Embedding of chunk content */
+    EMBED_CONTENT("embed-content"),
+
+    /** Hypothetical question generation (LLM) */
+    GENERATE_QUESTIONS("generate-questions"),
+
+    /** Embedding of generated questions */
+    EMBED_QUESTIONS("embed-questions"),
+
+    /** Marks the document COMPLETED and the job done */
+    FINALIZE("finalize");
+
+    private final String configKey;
+
+    IngestionStage(String configKey) {
+        this.configKey = configKey;
+    }
+
+    /**
+     * Key under docintel.ingestion.stage used to configure this stage.
+     */
+    public String configKey() {
+        return configKey;
+    }
+}
@@ -0,0 +1,33 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.entity.IngestionPriority;
+
+import java.util.Map;
+
+/**
+ * Point-in-time view of one ingestion pipeline stage on this node.
+ *
+ * @param queueDepth tasks waiting for a worker
+ * @param queueDepthByPriority tasks waiting for a worker, per priority
+ * @param queuedOwners chats with tasks waiting for a worker
+ * @param active tasks currently running
+ * @param throughputPerMinute tasks completed during the last 60 seconds
+ * @param avgTaskMillis mean task duration since startup
+ * @param p50TaskMillis median task duration since startup (within 25%)
+ * @param p99TaskMillis 99th percentile of task durations since startup (within 25%)
+ */
+public record IngestionStageStats(
+        IngestionStage stage,
+        int workers,
+        int queueCapacity,
+        int queueDepth,
+        Map<IngestionPriority, Integer> queueDepthByPriority,
+        int queuedOwners,
+        int active,
+        long completed,
+        long failed,
+        long throughputPerMinute,
+        double avgTaskMillis,
+        double p50TaskMillis,
+        double p99TaskMillis
+) {}
@@ -0,0 +1,78 @@
+package dev.matheus.service.ingestion;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of task durations for percentiles of a pipeline stage.
+ *
+ * Durations are counted in log-scale buckets of microseconds, four per power of two,
+ * so a percentile is reported within about 25% of the real value whatever its magnitude,
+ * from microseconds up to days, in a fixed 1.4 KB.
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int BUCKETS = 44 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(1, nanos / 1_000)));
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, in milliseconds; 0 without samples.
+     *
+     * @param percentile Between 0 and 100
+     */
+    double percentileMillis(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundMicros(i) / 1_000.0;
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1) / 1_000.0;
+    }
+
+    /**
+     * Bucket of a duration: its power of two, then which quarter of it.
+     */
+    static int bucketOf(long micros) {
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        long mantissa = exponent >= SUB_BUCKET_BITS
+                ? micros >>> (exponent - SUB_BUCKET_BITS)
+                : micros << (SUB_BUCKET_BITS - exponent);
+        int bucket = exponent * SUB_BUCKETS + (int) (mantissa - SUB_BUCKETS);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * Smallest duration above the bucket, in microseconds.
+     */
+    static double upperBoundMicros(int bucket) {
+        int exponent = bucket / SUB_BUCKETS;
+        int mantissa = SUB_BUCKETS + bucket % SUB_BUCKETS + 1;
+        return Math.scalb((double) mantissa, exponent - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,50 @@
+package dev.matheus.service.ingestion;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts events over the last 60 seconds using one bucket per second.
+ * Used for per-stage throughput; lock-free on the recording path.
+ */
+class SlidingWindowCounter {
+
+    static final int WINDOW_SECONDS = 60;
+
+    private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SECONDS);
+    private final AtomicLongArray epochs = new AtomicLongArray(WINDOW_SECONDS);
+    private final LongSupplier clockSeconds;
+
+    SlidingWindowCounter() {
+        this(() -> System.currentTimeMillis() / 1000);
+    }
+
+    SlidingWindowCounter(LongSupplier clockSeconds) {
+        this.clockSeconds = clockSeconds;
+    }
+
+    void record() {
+        long now = clockSeconds.getAsLong();
+        int slot = (int) (now % WINDOW_SECONDS);
+        long slotEpoch = epochs.get(slot);
+        if (slotEpoch != now && epochs.compareAndSet(slot, slotEpoch, now)) {
+            // First event in this second: the bucket still holds a count from a minute ago
+            counts.set(slot, 0);
+        }
+        counts.incrementAndGet(slot);
+    }
+
+    /**
+     * Events recorded during the last {@value #WINDOW_SECONDS} seconds.
+     */
+    long sum() {
+        long now = clockSeconds.getAsLong();
+        long total = 0;
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+            if (now - epochs.get(slot) < WINDOW_SECONDS) {
+                total += counts.get(slot);
+            }
+        }
+        return total;
+    }
+}
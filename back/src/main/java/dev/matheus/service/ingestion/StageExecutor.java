@@ -0,0 +1,162 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.entity.IngestionPriority;
+import dev.matheus.service.limiter.Lane;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fixed set of worker threads consuming a bounded queue for one pipeline stage.
+ * {@link #submit(IngestionPriority, String, Runnable)} blocks while the queue is full, so a slow
+ * stage pushes back on the stages feeding it instead of buffering unbounded work in memory.
+ * Workers take queued tasks by priority and round-robin between chats, see {@link FairShareQueue}.
+ *
+ * Workers are virtual threads: they spend their time waiting on OpenAI, pgvector or
+ * Docling, and the permits of those resources (see ResourceBulkheads) bound the real
+ * concurrency, so worker counts can be raised without tying up platform threads.
+ */
+class StageExecutor {
+
+    private static final Logger LOG = Logger.getLogger(StageExecutor.class);
+
+    private final IngestionStage stage;
+    private final int workers;
+    private final int queueCapacity;
+    private final FairShareQueue queue;
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final SlidingWindowCounter lastMinute = new SlidingWindowCounter();
+    private final LatencyHistogram durations = new LatencyHistogram();
+
+    private volatile boolean running;
+
+    StageExecutor(IngestionStage stage, int workers, int queueCapacity) {
+        this(stage, workers, queueCapacity, owner -> 1);
+    }
+
+    /**
+     * @param ownerWeights Round-robin weight of each owner (chat) within a priority
+     */
+    StageExecutor(IngestionStage stage, int workers, int queueCapacity, ToIntFunction<String> ownerWeights) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Stage " + stage + " needs at least one worker and one queue slot");
+        }
+        this.stage = stage;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.queue = new FairShareQueue(queueCapacity, ownerWeights);
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = Thread.ofVirtual()
+                    .name("ingestion-" + stage.configKey() + "-" + i)
+                    .unstarted(this::workLoop);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queue a task of NORMAL priority without an owner, blocking while the stage is at capacity.
+     */
+    void submit(Runnable task) throws InterruptedException {
+        submit(IngestionPriority.NORMAL, null, task);
+    }
+
+    /**
+     * Queue a task, blocking while the stage is at capacity.
+     *
+     * @param owner Chat the task works for, null if unknown
+     */
+    void submit(IngestionPriority priority, String owner, Runnable task) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Stage " + stage + " is not running");
+        }
+        queue.put(priority, owner, task);
+    }
+
+    /**
+     * Whether a newly submitted task would start without waiting behind queued work.
+     */
+    boolean hasIdleWorker() {
+        return active.get() + queue.size() < workers;
+    }
+
+    private void workLoop() {
+        // Model calls made by ingestion yield to interactive retrieval, see OutboundCallLimiter
+        Lane.setCurrent(Lane.BACKGROUND);
+        while (running) {
+            Runnable task;
+            try {
+                task = queue.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                continue;
+            }
+
+            active.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                task.run();
+                completed.incrementAndGet();
+                lastMinute.record();
+            } catch (Throwable t) {
+                failed.incrementAndGet();
+                LOG.errorf(t, "Unhandled failure in ingestion stage %s", stage);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                busyNanos.addAndGet(elapsed);
+                durations.record(elapsed);
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Stop the workers. Tasks still queued are dropped; callers release their jobs.
+     */
+    synchronized void shutdown(Duration timeout) {
+        running = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Thread thread : threads) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) {
+                    thread.join(TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.forEach(Thread::interrupt);
+        threads.clear();
+        queue.clear();
+    }
+
+    IngestionStageStats stats() {
+        long done = completed.get() + failed.get();
+        double avgMillis = done == 0 ? 0 : busyNanos.get() / 1_000_000.0 / done;
+        return new IngestionStageStats(stage, workers, queueCapacity, queue.size(), queue.sizeByPriority(),
+                queue.owners(), active.get(), completed.get(), failed.get(), lastMinute.sum(), avgMillis,
+                durations.percentileMillis(50), durations.percentileMillis(99));
+    }
+}
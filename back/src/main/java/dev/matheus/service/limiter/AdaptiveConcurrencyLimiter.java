@@ -0,0 +1,291 @@
+package dev.matheus.service.limiter;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * AIMD concurrency limiter for calls to a remote model provider.
+ *
+ * The limit grows by one call per round of successful calls (additive increase) while
+ * the limiter is actually used, and is multiplied by backoffRatio when the provider
+ * throttles (HTTP 429, RESOURCE_EXHAUSTED) or when a call takes much longer than the
+ * recent average (multiplicative decrease). Decreases are spaced by a cooldown so one
+ * burst of throttled calls only cuts the limit once.
+ *
+ * Waiting {@link Lane#INTERACTIVE} calls always go first, and {@link Lane#BACKGROUND}
+ * calls never take the last interactiveReserve share of the limit, so user-facing
+ * retrieval keeps its latency while ingestion saturates the provider.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /** Successful calls that only build the latency baseline */
+    static final int LATENCY_WARMUP_SAMPLES = 10;
+
+    /** Weight of a new sample in the latency moving average */
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    private static final int MAX_CAUSE_DEPTH = 10;
+
+    /**
+     * Limiter settings, see {@link OutboundLimiterConfigProperties.LimitConfig}.
+     */
+    public record Settings(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double backoffRatio,
+            double latencyTolerance,
+            Duration cooldown,
+            double interactiveReserve,
+            Duration maxWait
+    ) {
+        public static Settings from(OutboundLimiterConfigProperties.LimitConfig config) {
+            return new Settings(config.initialLimit(), config.minLimit(), config.maxLimit(),
+                    config.backoffRatio(), config.latencyTolerance(), config.cooldown(),
+                    config.interactiveReserve(), config.maxWait());
+        }
+    }
+
+    private final String name;
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition interactiveTurn = lock.newCondition();
+    private final Condition backgroundTurn = lock.newCondition();
+
+    // Guarded by lock
+    private double limit;
+    private int inFlight;
+    private int waitingInteractive;
+    private int waitingBackground;
+    private long lastDecreaseNanos;
+    private boolean decreasedBefore;
+    private double avgLatencyNanos;
+    private long latencySamples;
+    private long succeeded;
+    private long throttled;
+    private long decreases;
+    private long rejected;
+
+    public AdaptiveConcurrencyLimiter(String name, Settings settings) {
+        this(name, settings, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, Settings settings, LongSupplier nanoClock) {
+        if (settings.minLimit() < 1 || settings.maxLimit() < settings.minLimit()) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": min=" + settings.minLimit()
+                    + ", max=" + settings.maxLimit());
+        }
+        this.name = name;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.limit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), settings.initialLimit()));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Run a call once a slot of the given lane is free.
+     *
+     * @throws RejectedExecutionException if no slot frees up within maxWait
+     */
+    public <T> T call(Lane lane, Callable<T> task) throws Exception {
+        acquire(lane);
+        long start = nanoClock.getAsLong();
+        boolean success = false;
+        Throwable failure = null;
+        try {
+            T result = task.call();
+            success = true;
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            complete(nanoClock.getAsLong() - start, success, failure);
+        }
+    }
+
+    /**
+     * {@link #call} for tasks without checked exceptions.
+     */
+    public <T> T execute(Lane lane, Supplier<T> task) {
+        try {
+            return call(lane, task::get);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for " + name + " limiter", e);
+        } catch (Exception e) {
+            // Supplier cannot throw other checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public LimiterStats stats() {
+        lock.lock();
+        try {
+            return new LimiterStats(name, limit, inFlight, waitingInteractive, waitingBackground,
+                    succeeded, throttled, decreases, rejected,
+                    avgLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a call failed because of load rather than its input: the provider throttled it
+     * or a limiter rejected it. Retrying such a call right away, or splitting it into more
+     * calls, only adds to the load.
+     */
+    public static boolean isOverload(Throwable error) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (current instanceof RejectedExecutionException) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+            current = current.getCause();
+        }
+        return isThrottle(error);
+    }
+
+    /**
+     * Whether a failure means the provider is throwing us back: a rate-limit exception
+     * (e.g. LangChain4j's RateLimitException) or an error mentioning 429 or
+     * RESOURCE_EXHAUSTED anywhere in the cause chain.
+     */
+    static boolean isThrottle(Throwable error) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (current.getClass().getSimpleName().contains("RateLimit")) {
+                return true;
+            }
+            String message = current.getMessage();
+            if (message != null) {
+                String normalized = message.toUpperCase(Locale.ROOT);
+                if (normalized.contains("429") || normalized.contains("TOO MANY REQUESTS")
+                        || normalized.contains("RESOURCE_EXHAUSTED") || normalized.contains("RATE LIMIT")) {
+                    return true;
+                }
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    // --- Internals ---
+
+    private void acquire(Lane lane) throws InterruptedException {
+        long remaining = settings.maxWait().toNanos();
+        boolean interactive = lane == Lane.INTERACTIVE;
+        lock.lockInterruptibly();
+        try {
+            if (interactive) {
+                waitingInteractive++;
+            } else {
+                waitingBackground++;
+            }
+            try {
+                while (!canStart(interactive)) {
+                    if (remaining <= 0) {
+                        rejected++;
+                        throw new RejectedExecutionException("No " + name + " call slot within "
+                                + settings.maxWait() + " (limit " + (int) limit + ", in flight " + inFlight + ")");
+                    }
+                    remaining = (interactive ? interactiveTurn : backgroundTurn).awaitNanos(remaining);
+                }
+                inFlight++;
+            } finally {
+                if (interactive) {
+                    waitingInteractive--;
+                    // Background calls held back for this one may go now
+                    signalWaiters();
+                } else {
+                    waitingBackground--;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canStart(boolean interactive) {
+        int capacity = (int) limit;
+        if (interactive) {
+            return inFlight < capacity;
+        }
+        int reserved = (int) Math.ceil(capacity * settings.interactiveReserve());
+        return waitingInteractive == 0 && inFlight < Math.max(1, capacity - reserved);
+    }
+
+    private void complete(long latencyNanos, boolean success, Throwable failure) {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            if (success) {
+                succeeded++;
+                onSuccess(latencyNanos, now);
+            } else if (isThrottle(failure)) {
+                throttled++;
+                decrease(now);
+            }
+            inFlight--;
+            signalWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSuccess(long latencyNanos, long now) {
+        boolean warmedUp = latencySamples >= LATENCY_WARMUP_SAMPLES;
+        boolean spike = warmedUp && latencyNanos > avgLatencyNanos * settings.latencyTolerance();
+
+        if (spike) {
+            decrease(now);
+        } else if (inFlight * 2 >= limit) {
+            // Only grow while the current limit is actually used, otherwise idle
+            // periods would inflate it far beyond what the provider was shown to handle
+            limit = Math.min(settings.maxLimit(), limit + 1.0 / limit);
+        }
+
+        latencySamples++;
+        avgLatencyNanos = warmedUp
+                ? avgLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - avgLatencyNanos)
+                : avgLatencyNanos + (latencyNanos - avgLatencyNanos) / latencySamples;
+    }
+
+    private void decrease(long now) {
+        if (decreasedBefore && now - lastDecreaseNanos < settings.cooldown().toNanos()) {
+            return;
+        }
+        limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+        lastDecreaseNanos = now;
+        decreasedBefore = true;
+        decreases++;
+    }
+
+    private void signalWaiters() {
+        if (waitingInteractive > 0) {
+            interactiveTurn.signalAll();
+        } else if (waitingBackground > 0) {
+            backgroundTurn.signalAll();
+        }
+    }
+}
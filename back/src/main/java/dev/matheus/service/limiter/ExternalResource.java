@@ -0,0 +1,30 @@
+package dev.matheus.service.limiter;
+
+/**
+ * External resources whose concurrent use is bounded by {@link ResourceBulkheads}.
+ * OpenAI calls are bounded by the adaptive limiters of {@link OutboundCallLimiter} instead.
+ */
+public enum ExternalResource {
+
+    /** pgvector searches and writes */
+    PGVECTOR("pgvector"),
+
+    /** Ingestion transactions, each holding a connection of the JDBC pool */
+    JDBC("jdbc"),
+
+    /** docling-serve conversions */
+    DOCLING("docling");
+
+    private final String configKey;
+
+    ExternalResource(String configKey) {
+        this.configKey = configKey;
+    }
+
+    /**
+     * Key under docintel.outbound.bulkheads used to configure this resource.
+     */
+    public String configKey() {
+        return configKey;
+    }
+}
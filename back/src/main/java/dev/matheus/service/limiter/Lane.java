@@ -0,0 +1,33 @@
+package dev.matheus.service.limiter;
+
+/**
+ * Priority lane of an outbound model call.
+ *
+ * The lane comes from the calling thread: threads doing background work (ingestion
+ * pipeline stages) switch to {@link #BACKGROUND}, everything else is {@link #INTERACTIVE}.
+ */
+public enum Lane {
+
+    /** Chat and retrieval: a user is waiting for the answer */
+    INTERACTIVE,
+
+    /** Ingestion and other batch work */
+    BACKGROUND;
+
+    private static final ThreadLocal<Lane> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    /**
+     * Lane of calls made by the current thread.
+     */
+    public static Lane current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Set the lane of calls made by the current thread from now on.
+     * Meant for dedicated worker threads.
+     */
+    public static void setCurrent(Lane lane) {
+        CURRENT.set(lane);
+    }
+}
@@ -0,0 +1,23 @@
+package dev.matheus.service.limiter;
+
+/**
+ * Point-in-time view of one adaptive limiter.
+ *
+ * @param limit current concurrency limit (fractional, calls use its floor)
+ * @param throttled calls answered with a rate-limit error
+ * @param decreases times the limit was cut (throttling or latency spike)
+ * @param rejected calls that gave up waiting for a slot
+ * @param avgLatencyMillis moving average latency of successful calls
+ */
+public record LimiterStats(
+        String name,
+        double limit,
+        int inFlight,
+        int waitingInteractive,
+        int waitingBackground,
+        long succeeded,
+        long throttled,
+        long decreases,
+        long rejected,
+        double avgLatencyMillis
+) {}
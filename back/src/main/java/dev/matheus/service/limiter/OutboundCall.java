@@ -0,0 +1,34 @@
+package dev.matheus.service.limiter;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs calls of the annotated AI service method through the named adaptive limiter,
+ * see {@link OutboundCallLimiter}.
+ */
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OutboundCall {
+
+    /** OpenAI chat completions (AI services) */
+    String OPENAI_CHAT = "openai-chat";
+
+    /** OpenAI embeddings */
+    String OPENAI_EMBEDDING = "openai-embedding";
+
+    /** Vertex AI semantic ranker */
+    String VERTEX_RANKING = "vertex-ranking";
+
+    /**
+     * Limiter name, one of the constants above or any name configured under docintel.outbound.limiters
+     */
+    @Nonbinding
+    String value();
+}
@@ -0,0 +1,30 @@
+package dev.matheus.service.limiter;
+
+import io.quarkus.arc.ArcInvocationContext;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Applies {@link OutboundCall} to AI service methods.
+ *
+ * Runs inside fault-tolerance interceptors (e.g. {@code @Retry}), so every retry
+ * takes its own slot and its throttling feeds the limiter.
+ */
+@OutboundCall("")
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_AFTER + 100)
+public class OutboundCallInterceptor {
+
+    @Inject
+    OutboundCallLimiter limiter;
+
+    @AroundInvoke
+    Object limit(InvocationContext context) throws Exception {
+        OutboundCall binding = ArcInvocationContext.findIterceptorBinding(context, OutboundCall.class);
+        String name = binding != null && !binding.value().isEmpty() ? binding.value() : OutboundCall.OPENAI_CHAT;
+        return limiter.limiter(name).call(Lane.current(), context::proceed);
+    }
+}
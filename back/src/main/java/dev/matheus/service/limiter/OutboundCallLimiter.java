@@ -0,0 +1,51 @@
+package dev.matheus.service.limiter;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the adaptive limiters shared by every outbound model call of this node.
+ *
+ * All callers of a provider share one {@link AdaptiveConcurrencyLimiter}, so ingestion
+ * workers, retrieval and chat together stay under what the provider accepts instead of
+ * each pool guessing its own fixed concurrency.
+ */
+@ApplicationScoped
+public class OutboundCallLimiter {
+
+    private static final Logger LOG = Logger.getLogger(OutboundCallLimiter.class);
+
+    @Inject
+    OutboundLimiterConfigProperties config;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Limiter with the given name, created on first use.
+     */
+    public AdaptiveConcurrencyLimiter limiter(String name) {
+        return limiters.computeIfAbsent(name, key -> {
+            AdaptiveConcurrencyLimiter.Settings settings =
+                    AdaptiveConcurrencyLimiter.Settings.from(config.limiters().get(key));
+            LOG.infof("Outbound limiter %s: initial=%d, min=%d, max=%d",
+                    key, settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+            return new AdaptiveConcurrencyLimiter(key, settings);
+        });
+    }
+
+    /**
+     * Current state of the limiters used so far.
+     */
+    public List<LimiterStats> stats() {
+        return limiters.values().stream()
+                .map(AdaptiveConcurrencyLimiter::stats)
+                .sorted(Comparator.comparing(LimiterStats::name))
+                .toList();
+    }
+}
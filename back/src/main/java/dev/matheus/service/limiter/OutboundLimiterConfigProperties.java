@@ -0,0 +1,113 @@
+package dev.matheus.service.limiter;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithDefaults;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration properties for the adaptive limiters of outbound model calls and the
+ * bulkheads of the other external resources.
+ * Mapped to application.properties under 'docintel.outbound' prefix.
+ */
+@ConfigMapping(prefix = "docintel.outbound")
+public interface OutboundLimiterConfigProperties {
+
+    /**
+     * Limiter settings keyed by limiter name (see {@link OutboundCall}).
+     * Example: docintel.outbound.limiters.openai-embedding.max-limit=32
+     */
+    @WithDefaults
+    Map<String, LimitConfig> limiters();
+
+    /**
+     * Bulkhead settings keyed by {@link ExternalResource#configKey()}.
+     * Example: docintel.outbound.bulkheads.docling.permits=3
+     */
+    @WithDefaults
+    Map<String, BulkheadConfig> bulkheads();
+
+    /**
+     * Configuration of a single limiter.
+     */
+    interface LimitConfig {
+
+        /**
+         * Concurrent calls allowed before any feedback.
+         * Default: 8
+         */
+        @WithDefault("8")
+        int initialLimit();
+
+        /**
+         * Lowest limit reached by backing off.
+         * Default: 1
+         */
+        @WithDefault("1")
+        int minLimit();
+
+        /**
+         * Highest limit reached by growing.
+         * Default: 64
+         */
+        @WithDefault("64")
+        int maxLimit();
+
+        /**
+         * Factor applied to the limit on throttling or a latency spike.
+         * Default: 0.5
+         */
+        @WithDefault("0.5")
+        double backoffRatio();
+
+        /**
+         * A successful call slower than this multiple of the average latency counts as a spike.
+         * Default: 2.0
+         */
+        @WithDefault("2.0")
+        double latencyTolerance();
+
+        /**
+         * Minimum time between two decreases of the limit.
+         * Default: 1 second
+         */
+        @WithDefault("PT1S")
+        Duration cooldown();
+
+        /**
+         * Share of the limit that background calls (ingestion) cannot use.
+         * Default: 0.25
+         */
+        @WithDefault("0.25")
+        double interactiveReserve();
+
+        /**
+         * How long a call waits for a slot before it is rejected.
+         * Default: 2 minutes
+         */
+        @WithDefault("PT2M")
+        Duration maxWait();
+    }
+
+    /**
+     * Configuration of a single resource bulkhead.
+     */
+    interface BulkheadConfig {
+
+        /**
+         * Operations allowed on the resource at once.
+         * Default: 8
+         */
+        @WithDefault("8")
+        int permits();
+
+        /**
+         * How long an operation waits for a permit before it is rejected.
+         * Default: 10 minutes
+         */
+        @WithDefault("PT10M")
+        Duration maxWait();
+    }
+}
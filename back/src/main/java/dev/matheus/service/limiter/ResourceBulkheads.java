@@ -0,0 +1,129 @@
+package dev.matheus.service.limiter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One semaphore per {@link ExternalResource}.
+ *
+ * Ingestion and retrieval run on virtual threads, so thread pools no longer bound how
+ * many operations hit a dependency at once; these permits do. A thread that already
+ * holds a permit of a resource does not take a second one for nested use of the same
+ * resource, so nested fan-out cannot deadlock on its own permits.
+ */
+@ApplicationScoped
+public class ResourceBulkheads {
+
+    /** Permits held by the current thread, per resource ordinal */
+    private static final ThreadLocal<int[]> HELD =
+            ThreadLocal.withInitial(() -> new int[ExternalResource.values().length]);
+
+    @Inject
+    OutboundLimiterConfigProperties config;
+
+    private final Map<ExternalResource, Bulkhead> bulkheads = new EnumMap<>(ExternalResource.class);
+
+    public ResourceBulkheads() {
+    }
+
+    ResourceBulkheads(int permits, Duration maxWait) {
+        for (ExternalResource resource : ExternalResource.values()) {
+            bulkheads.put(resource, new Bulkhead(permits, maxWait));
+        }
+    }
+
+    /**
+     * Bulkheads that never make a caller wait, for code running outside CDI.
+     */
+    public static ResourceBulkheads unbounded() {
+        return new ResourceBulkheads(Integer.MAX_VALUE, Duration.ZERO);
+    }
+
+    @PostConstruct
+    void init() {
+        for (ExternalResource resource : ExternalResource.values()) {
+            OutboundLimiterConfigProperties.BulkheadConfig bulkhead = config.bulkheads().get(resource.configKey());
+            bulkheads.put(resource, new Bulkhead(bulkhead.permits(), bulkhead.maxWait()));
+        }
+    }
+
+    /**
+     * Run a task while holding a permit of the resource.
+     *
+     * @throws RejectedExecutionException if no permit frees up within the resource's max-wait
+     */
+    public <T> T call(ExternalResource resource, Callable<T> task) throws Exception {
+        int[] held = HELD.get();
+        if (held[resource.ordinal()] > 0) {
+            return task.call();
+        }
+        Bulkhead bulkhead = bulkheads.get(resource);
+        bulkhead.acquire(resource);
+        held[resource.ordinal()]++;
+        try {
+            return task.call();
+        } finally {
+            held[resource.ordinal()]--;
+            bulkhead.semaphore.release();
+        }
+    }
+
+    /**
+     * {@link #call} for tasks without checked exceptions.
+     */
+    public <T> T execute(ExternalResource resource, Supplier<T> task) {
+        try {
+            return call(resource, task::get);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for " + resource, e);
+        } catch (Exception e) {
+            // Supplier cannot throw other checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void run(ExternalResource resource, Runnable task) {
+        execute(resource, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Permits currently free, per resource.
+     */
+    public Map<ExternalResource, Integer> available() {
+        Map<ExternalResource, Integer> available = new EnumMap<>(ExternalResource.class);
+        bulkheads.forEach((resource, bulkhead) -> available.put(resource, bulkhead.semaphore.availablePermits()));
+        return available;
+    }
+
+    private static final class Bulkhead {
+        final Semaphore semaphore;
+        final Duration maxWait;
+
+        Bulkhead(int permits, Duration maxWait) {
+            this.semaphore = new Semaphore(permits, true);
+            this.maxWait = maxWait;
+        }
+
+        void acquire(ExternalResource resource) throws InterruptedException {
+            if (!semaphore.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("No " + resource + " permit within " + maxWait);
+            }
+        }
+    }
+}
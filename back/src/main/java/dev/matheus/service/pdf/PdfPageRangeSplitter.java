@@ -0,0 +1,73 @@
+package dev.matheus.service.pdf;
+
+import org.apache.pdfbox.multipdf.Splitter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a PDF into consecutive page windows, each saved as a standalone PDF.
+ * Lets large documents be converted by Docling window by window instead of in one request.
+ */
+public class PdfPageRangeSplitter {
+
+    private PdfPageRangeSplitter() {
+        // Utility class
+    }
+
+    /**
+     * A contiguous range of pages saved as its own PDF.
+     *
+     * @param index zero-based window index, in page order
+     * @param firstPage first page of the window (1-based, inclusive)
+     * @param lastPage last page of the window (1-based, inclusive)
+     * @param content the window as a standalone PDF
+     */
+    public record PageWindow(int index, int firstPage, int lastPage, byte[] content) {
+    }
+
+    /**
+     * Count the pages of a PDF.
+     */
+    public static int countPages(byte[] pdfBytes) throws IOException {
+        try (PDDocument document = PDDocument.load(pdfBytes)) {
+            return document.getNumberOfPages();
+        }
+    }
+
+    /**
+     * Split a PDF into windows of at most {@code pagesPerWindow} pages, in page order.
+     */
+    public static List<PageWindow> split(byte[] pdfBytes, int pagesPerWindow) throws IOException {
+        if (pagesPerWindow < 1) {
+            throw new IllegalArgumentException("pagesPerWindow must be >= 1");
+        }
+
+        try (PDDocument document = PDDocument.load(pdfBytes)) {
+            Splitter splitter = new Splitter();
+            splitter.setSplitAtPage(pagesPerWindow);
+
+            List<PDDocument> parts = splitter.split(document);
+            List<PageWindow> windows = new ArrayList<>(parts.size());
+            int firstPage = 1;
+            try {
+                for (int i = 0; i < parts.size(); i++) {
+                    PDDocument part = parts.get(i);
+                    int pageCount = part.getNumberOfPages();
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    part.save(out);
+                    windows.add(new PageWindow(i, firstPage, firstPage + pageCount - 1, out.toByteArray()));
+                    firstPage += pageCount;
+                }
+            } finally {
+                for (PDDocument part : parts) {
+                    part.close();
+                }
+            }
+            return windows;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dev.matheus.service.retrieval;
+
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.ResourceBulkheads;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Resolves chunk IDs to chunk content for question matches, which reference their
+ * paragraph by CHUNK_ID instead of carrying its text.
+ *
+ * Misses are loaded with one query per batch of IDs; texts are kept in an LRU of
+ * chunkCacheMaxEntries entries. Chunk content never changes under an ID (reprocessing
+ * keeps unchanged chunks with their stored text and creates new ones for changed content),
+ * so entries need no invalidation.
+ */
+@ApplicationScoped
+public class ChunkTextResolver {
+
+    private static final Logger LOG = Logger.getLogger(ChunkTextResolver.class);
+
+    /** IDs per lookup query */
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    ResourceBulkheads bulkheads;
+
+    @Inject
+    RetrievalConfigProperties config;
+
+    private int maxEntries;
+    private Function<Collection<String>, Map<String, String>> loader;
+
+    /** Chunk ID → content, in access order (eldest first). Guarded by itself */
+    private final LinkedHashMap<String, String> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ChunkTextResolver() {
+    }
+
+    ChunkTextResolver(int maxEntries, Function<Collection<String>, Map<String, String>> loader) {
+        this.maxEntries = maxEntries;
+        this.loader = loader;
+    }
+
+    @PostConstruct
+    void init() {
+        maxEntries = config.chunkCacheMaxEntries();
+        loader = this::loadFromDatabase;
+    }
+
+    /**
+     * Content of the given chunks. Chunks that no longer exist are missing from the result.
+     */
+    @ActivateRequestContext
+    public Map<String, String> resolve(Collection<String> chunkIds) {
+        Map<String, String> texts = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        synchronized (cache) {
+            for (String chunkId : chunkIds) {
+                String text = cache.get(chunkId);
+                if (text != null) {
+                    texts.put(chunkId, text);
+                } else {
+                    missing.add(chunkId);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return texts;
+        }
+
+        Map<String, String> loaded = loader.apply(missing);
+        texts.putAll(loaded);
+        synchronized (cache) {
+            cache.putAll(loaded);
+            Iterator<Map.Entry<String, String>> eldest = cache.entrySet().iterator();
+            while (cache.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        LOG.debugf("Resolved %d chunk texts: cached=%d, loaded=%d, notFound=%d",
+                chunkIds.size(), texts.size() - loaded.size(), loaded.size(), missing.size() - loaded.size());
+        return texts;
+    }
+
+    private Map<String, String> loadFromDatabase(Collection<String> chunkIds) {
+        List<String> ids = new ArrayList<>(chunkIds);
+        Map<String, String> texts = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + LOAD_BATCH_SIZE));
+            List<Object[]> rows = bulkheads.execute(ExternalResource.JDBC, () -> em.createQuery(
+                            "SELECT c.id, c.content FROM DocumentChunk c WHERE c.id IN :ids", Object[].class)
+                    .setParameter("ids", batch)
+                    .getResultList());
+            for (Object[] row : rows) {
+                texts.put((String) row[0], (String) row[1]);
+            }
+        }
+        return texts;
+    }
+}
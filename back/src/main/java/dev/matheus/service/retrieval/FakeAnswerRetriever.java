@@ -8,11 +8,15 @@ import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
 import dev.matheus.ai.FakeAnswerAiService;
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.ResourceBulkheads;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Handles fake answer retrieval strategy (HyDE - Hypothetical Document Embeddings).
@@ -21,7 +25,8 @@ import java.util.List;
 public class FakeAnswerRetriever {
     private static final Logger LOG = Logger.getLogger(FakeAnswerRetriever.class);
     private static final String FILE_NAME_KEY = "FILE_NAME";
-    private static final String PARAGRAPH_KEY = "PARAGRAPH";
+    /** Content matches fetched per result: several passages of one chunk often match together */
+    private static final int MATCHES_PER_RESULT = 4;
 
     @Inject
     EmbeddingStore<TextSegment> embeddingStore;
@@ -32,9 +37,14 @@ public class FakeAnswerRetriever {
     @Inject
     FakeAnswerAiService fakeAnswerAiService;
 
+    @Inject
+    ResourceBulkheads bulkheads;
+
     /**
      * Generates a fake answer for the question and searches using it.
-     * Only returns original paragraphs (without PARAGRAPH_KEY in metadata).
+     * Only returns original paragraphs, not hypothetical questions (see {@link QuestionSegments}):
+     * the passages of at most maxResults chunks, all of them, since they are merged into one
+     * window per chunk later (see {@link RetrievalSegmentProcessor}).
      */
     public EmbeddingSearchResult<TextSegment> search(
             String question,
@@ -60,26 +70,29 @@ public class FakeAnswerRetriever {
         LOG.debug("Generating embedding for fake answer...");
         EmbeddingSearchResult<TextSegment> result;
         try {
-            result = embeddingStore.search(
-                    EmbeddingSearchRequest.builder()
-                            .maxResults(maxResults * 2)
-                            .minScore(minSimilarity)
-                            .queryEmbedding(embeddingModel.embed(fakeAnswer).content())
-                            .filter(new IsEqualTo(FILE_NAME_KEY, filename))
-                            .build()
-            );
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .maxResults(maxResults * MATCHES_PER_RESULT)
+                    .minScore(minSimilarity)
+                    .queryEmbedding(embeddingModel.embed(fakeAnswer).content())
+                    .filter(new IsEqualTo(FILE_NAME_KEY, filename))
+                    .build();
+            result = bulkheads.execute(ExternalResource.PGVECTOR, () -> embeddingStore.search(request));
             LOG.debugf("Raw search returned %d results", result.matches().size());
         } catch (Exception e) {
             LOG.errorf(e, "Error during embedding search for fake answer");
             throw e;
         }
 
+        Set<String> parents = new HashSet<>();
         List<EmbeddingMatch<TextSegment>> filteredMatches = result.matches().stream()
-                .filter(match -> !match.embedded().metadata().containsKey(PARAGRAPH_KEY))
-                .limit(maxResults)
+                .filter(match -> !QuestionSegments.isQuestion(match.embedded()))
+                .filter(match -> {
+                    String parent = PassageSegments.parentKey(match.embedded());
+                    return parents.contains(parent) || (parents.size() < maxResults && parents.add(parent));
+                })
                 .toList();
 
-        LOG.debugf("After filtering without PARAGRAPH_KEY: %d results", filteredMatches.size());
+        LOG.debugf("After filtering out questions: %d results from %d chunks", filteredMatches.size(), parents.size());
 
         return new EmbeddingSearchResult<>(filteredMatches);
     }
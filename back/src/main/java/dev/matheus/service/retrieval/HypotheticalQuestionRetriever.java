@@ -7,11 +7,15 @@ import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.ResourceBulkheads;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Handles embedding-based search operations using hypothetical questions strategy.
@@ -20,15 +24,19 @@ import java.util.List;
 public class HypotheticalQuestionRetriever {
     private static final Logger LOG = Logger.getLogger(HypotheticalQuestionRetriever.class);
     private static final String FILE_NAME_KEY = "FILE_NAME";
-    private static final String PARAGRAPH_KEY = "PARAGRAPH";
 
     @Inject
     EmbeddingStore<TextSegment> embeddingStore;
 
+    @Inject
+    ResourceBulkheads bulkheads;
+
 
     /**
      * Searches for segments using the hypothetical questions strategy.
-     * Only returns segments that have a PARAGRAPH_KEY in metadata.
+     * Only returns question segments, the best-scoring one per paragraph: several questions
+     * of one chunk would otherwise fill the results with the same paragraph. Paragraph texts
+     * are resolved later, see {@link RetrievalSegmentProcessor}.
      */
     public EmbeddingSearchResult<TextSegment> search(
             Embedding questionEmbedding,
@@ -42,27 +50,29 @@ public class HypotheticalQuestionRetriever {
         LOG.debug("Executing embedding store search...");
         EmbeddingSearchResult<TextSegment> result;
         try {
-            result = embeddingStore.search(
-                    EmbeddingSearchRequest.builder()
-                            .maxResults(maxResults * 2)
-                            .minScore(minSimilarity)
-                            .queryEmbedding(questionEmbedding)
-                            .filter(new IsEqualTo(FILE_NAME_KEY, filename))
-                            .build()
-            );
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .maxResults(maxResults * 2)
+                    .minScore(minSimilarity)
+                    .queryEmbedding(questionEmbedding)
+                    .filter(new IsEqualTo(FILE_NAME_KEY, filename))
+                    .build();
+            result = bulkheads.execute(ExternalResource.PGVECTOR, () -> embeddingStore.search(request));
             LOG.debugf("Raw search returned %d results", result.matches().size());
         } catch (Exception e) {
             LOG.errorf(e, "Error during embedding search for hypothetical questions");
             throw e;
         }
 
-        LOG.debug("Filtering results with PARAGRAPH_KEY...");
+        LOG.debug("Filtering question results...");
+        // Matches come sorted by score, so the first question of a paragraph is its best
+        Set<String> paragraphs = new HashSet<>();
         List<EmbeddingMatch<TextSegment>> filteredMatches = result.matches().stream()
-                .filter(match -> match.embedded().metadata().containsKey(PARAGRAPH_KEY))
+                .filter(match -> QuestionSegments.isQuestion(match.embedded()))
+                .filter(match -> paragraphs.add(QuestionSegments.paragraphKey(match.embedded())))
                 .limit(maxResults)
                 .toList();
 
-        LOG.debugf("After filtering with PARAGRAPH_KEY: %d results", filteredMatches.size());
+        LOG.debugf("After filtering questions, one per paragraph: %d results", filteredMatches.size());
 
         return new EmbeddingSearchResult<>(filteredMatches);
     }
@@ -7,6 +7,8 @@ import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.matheus.service.limiter.ExternalResource;
+import dev.matheus.service.limiter.ResourceBulkheads;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -25,6 +27,9 @@ public class KeywordRetriever {
     @Inject
     EmbeddingStore<TextSegment> embeddingStore;
 
+    @Inject
+    ResourceBulkheads bulkheads;
+
 
     public EmbeddingSearchResult<TextSegment> search(String filename, List<String> keywords, String query, int maxResults) {
         String safeQuery = query == null ? "" : query.trim();
@@ -43,8 +48,8 @@ public class KeywordRetriever {
 
         applyHybridTextQueryIfSupported(builder, keywordText);
 
-        return embeddingStore.search(
-                builder.build());
+        EmbeddingSearchRequest request = builder.build();
+        return bulkheads.execute(ExternalResource.PGVECTOR, () -> embeddingStore.search(request));
     }
 
     private void applyHybridTextQueryIfSupported(EmbeddingSearchRequest.EmbeddingSearchRequestBuilder builder, String keywordText) {
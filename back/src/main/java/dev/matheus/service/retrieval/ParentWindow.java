@@ -0,0 +1,136 @@
+package dev.matheus.service.retrieval;
+
+import dev.matheus.service.docling.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts the part of a chunk that passage matches point at, so a hit returns the
+ * surroundings of the matched passages rather than the whole chunk.
+ *
+ * The window is made of whole blocks (separated by blank lines): it starts at the blocks of
+ * the best passage, takes in further passages while the window stays within the token
+ * budget, then grows by neighbouring blocks on both sides until the budget is spent.
+ */
+final class ParentWindow {
+
+    /**
+     * Span {@code [start, end)} of a matched passage in the chunk content.
+     */
+    record Span(int start, int end) {
+    }
+
+    private ParentWindow() {
+        // Utility class
+    }
+
+    /**
+     * @param parent Chunk content
+     * @param hits Matched passages, best first; spans outside the content are ignored
+     * @param maxTokens Token budget of the window
+     * @param tokenEstimator Counts the tokens of each block
+     * @return The whole content when it fits the budget or no span is valid, the best
+     *         passage alone when even its blocks do not fit, otherwise the window
+     */
+    static String around(String parent, List<Span> hits, int maxTokens, TokenEstimator tokenEstimator) {
+        List<Span> valid = hits.stream()
+                .filter(hit -> hit.start() >= 0 && hit.start() < hit.end() && hit.end() <= parent.length())
+                .toList();
+        if (valid.isEmpty() || tokenEstimator.estimate(parent) <= maxTokens) {
+            return parent;
+        }
+
+        List<Span> blocks = blocks(parent);
+        int[] tokens = new int[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            tokens[i] = tokenEstimator.estimate(parent.substring(blocks.get(i).start(), blocks.get(i).end()));
+        }
+
+        Span best = valid.get(0);
+        int first = blockOf(blocks, best.start());
+        int last = blockOf(blocks, best.end() - 1);
+        if (sum(tokens, first, last) > maxTokens) {
+            return parent.substring(best.start(), best.end());
+        }
+
+        // Further passages, as long as the blocks between them fit
+        for (Span hit : valid.subList(1, valid.size())) {
+            int from = Math.min(first, blockOf(blocks, hit.start()));
+            int to = Math.max(last, blockOf(blocks, hit.end() - 1));
+            if (sum(tokens, from, to) <= maxTokens) {
+                first = from;
+                last = to;
+            }
+        }
+
+        // Neighbouring blocks, alternately before and after
+        int used = sum(tokens, first, last);
+        boolean grown = true;
+        while (grown) {
+            grown = false;
+            if (first > 0 && used + tokens[first - 1] <= maxTokens) {
+                used += tokens[--first];
+                grown = true;
+            }
+            if (last < blocks.size() - 1 && used + tokens[last + 1] <= maxTokens) {
+                used += tokens[++last];
+                grown = true;
+            }
+        }
+        return parent.substring(blocks.get(first).start(), blocks.get(last).end());
+    }
+
+    /**
+     * Runs of non-blank lines. An offset in the blank lines between two blocks
+     * belongs to the block after them for {@link #blockOf}.
+     */
+    private static List<Span> blocks(String parent) {
+        List<Span> blocks = new ArrayList<>();
+        int lineStart = 0;
+        int blockStart = -1;
+        int blockEnd = -1;
+        while (lineStart <= parent.length()) {
+            int lineEnd = parent.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = parent.length();
+            }
+            if (parent.substring(lineStart, lineEnd).isBlank()) {
+                if (blockStart >= 0) {
+                    blocks.add(new Span(blockStart, blockEnd));
+                    blockStart = -1;
+                }
+            } else {
+                if (blockStart < 0) {
+                    blockStart = lineStart;
+                }
+                blockEnd = lineEnd;
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (blockStart >= 0) {
+            blocks.add(new Span(blockStart, blockEnd));
+        }
+        return blocks;
+    }
+
+    /**
+     * Index of the block holding the offset, or of the first block after it.
+     */
+    private static int blockOf(List<Span> blocks, int offset) {
+        for (int i = 0; i < blocks.size(); i++) {
+            if (offset < blocks.get(i).end()) {
+                return i;
+            }
+        }
+        return blocks.size() - 1;
+    }
+
+    private static int sum(int[] tokens, int from, int to) {
+        int total = 0;
+        for (int i = from; i <= to; i++) {
+            total += tokens[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,50 @@
+package dev.matheus.service.retrieval;
+
+import dev.langchain4j.data.segment.TextSegment;
+
+/**
+ * Metadata of passage vectors.
+ *
+ * The content of a chunk is embedded as small passages (see {@code PassageSplitter}) carrying
+ * CHUNK_ID, EMBEDDING_TYPE PASSAGE and their span in the chunk content under PASSAGE_START
+ * and PASSAGE_END. A match stands for a window of its chunk, see {@link ParentWindow}.
+ * Content vectors stored before passages existed hold the whole chunk and carry no EMBEDDING_TYPE.
+ */
+public final class PassageSegments {
+
+    public static final String PASSAGE = "PASSAGE";
+    public static final String START_KEY = "PASSAGE_START";
+    public static final String END_KEY = "PASSAGE_END";
+
+    private PassageSegments() {
+        // Utility class
+    }
+
+    /**
+     * @return ID of the chunk a passage belongs to, or null for other segments
+     */
+    public static String parentId(TextSegment segment) {
+        if (!PASSAGE.equals(segment.metadata().getString(QuestionSegments.EMBEDDING_TYPE_KEY))) {
+            return null;
+        }
+        return segment.metadata().getString(QuestionSegments.CHUNK_ID_KEY);
+    }
+
+    /**
+     * Key identifying the text a content segment stands for: its chunk ID, or for
+     * segments stored without one, the text itself.
+     */
+    public static String parentKey(TextSegment segment) {
+        String chunkId = segment.metadata().getString(QuestionSegments.CHUNK_ID_KEY);
+        return chunkId != null ? chunkId : segment.text();
+    }
+
+    /**
+     * Span of a passage in its chunk content, or null if the segment has none.
+     */
+    static ParentWindow.Span span(TextSegment segment) {
+        Integer start = segment.metadata().getInteger(START_KEY);
+        Integer end = segment.metadata().getInteger(END_KEY);
+        return start != null && end != null ? new ParentWindow.Span(start, end) : null;
+    }
+}
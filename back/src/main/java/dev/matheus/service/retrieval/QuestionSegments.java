@@ -0,0 +1,50 @@
+package dev.matheus.service.retrieval;
+
+import dev.langchain4j.data.segment.TextSegment;
+
+/**
+ * Metadata of hypothetical-question vectors.
+ *
+ * Question vectors of chunked documents carry CHUNK_ID and EMBEDDING_TYPE
+ * HYPOTHETICAL_QUESTION; their paragraph is the chunk content, resolved through
+ * {@link ChunkTextResolver}. Vectors of the deprecated chunk-less ingestion
+ * still carry the paragraph text itself under PARAGRAPH.
+ */
+public final class QuestionSegments {
+
+    public static final String PARAGRAPH_KEY = "PARAGRAPH";
+    public static final String CHUNK_ID_KEY = "CHUNK_ID";
+    public static final String EMBEDDING_TYPE_KEY = "EMBEDDING_TYPE";
+    public static final String HYPOTHETICAL_QUESTION = "HYPOTHETICAL_QUESTION";
+
+    private QuestionSegments() {
+        // Utility class
+    }
+
+    /**
+     * Whether the segment is a hypothetical question rather than document content.
+     */
+    public static boolean isQuestion(TextSegment segment) {
+        return segment.metadata().containsKey(PARAGRAPH_KEY) || chunkId(segment) != null;
+    }
+
+    /**
+     * @return ID of the chunk a question was generated from, or null for content
+     *         segments and chunk-less questions
+     */
+    public static String chunkId(TextSegment segment) {
+        if (!HYPOTHETICAL_QUESTION.equals(segment.metadata().getString(EMBEDDING_TYPE_KEY))) {
+            return null;
+        }
+        return segment.metadata().getString(CHUNK_ID_KEY);
+    }
+
+    /**
+     * Key identifying the paragraph of a question segment without loading it:
+     * the chunk ID, or the inline paragraph text.
+     */
+    public static String paragraphKey(TextSegment segment) {
+        String chunkId = chunkId(segment);
+        return chunkId != null ? chunkId : segment.metadata().getString(PARAGRAPH_KEY);
+    }
+}
@@ -0,0 +1,27 @@
+package dev.matheus.service.retrieval;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration properties for retrieval.
+ * Mapped to application.properties under 'docintel.retrieval' prefix.
+ */
+@ConfigMapping(prefix = "docintel.retrieval")
+public interface RetrievalConfigProperties {
+
+    /**
+     * Chunk texts kept in memory to resolve question matches to their paragraph.
+     * Default: 2000
+     */
+    @WithDefault("2000")
+    int chunkCacheMaxEntries();
+
+    /**
+     * Token budget of the chunk window a passage match returns: the matched passages of the
+     * chunk and the blocks around them. Chunks within the budget are returned whole.
+     * Default: 600
+     */
+    @WithDefault("600")
+    int parentWindowMaxTokens();
+}
@@ -4,13 +4,21 @@ import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.vertexai.VertexAiScoringModel;
 import dev.langchain4j.store.embedding.EmbeddingMatch;
 import dev.matheus.dto.RetrievalSegment;
+import dev.matheus.service.docling.TokenEstimator;
+import dev.matheus.service.limiter.Lane;
+import dev.matheus.service.limiter.OutboundCall;
+import dev.matheus.service.limiter.OutboundCallLimiter;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Processes and scores retrieved segments.
@@ -18,29 +26,73 @@ import java.util.Map;
 @ApplicationScoped
 public class RetrievalSegmentProcessor {
     private static final Logger LOG = Logger.getLogger(RetrievalSegmentProcessor.class);
-    private static final String PARAGRAPH_KEY = "PARAGRAPH";
 
     @Inject
     VertexAiScoringModel scoringModel;
 
+    @Inject
+    ChunkTextResolver chunkTextResolver;
+
+    @Inject
+    OutboundCallLimiter outboundCallLimiter;
+
+    @Inject
+    RetrievalConfigProperties config;
+
+    private final TokenEstimator tokenEstimator = new TokenEstimator();
+
     /**
      * Processes matches by scoring them and converting to RetrievalSegments.
-     * Removes duplicates based on paragraph content.
+     * Question and passage matches are resolved to their chunk content in one lookup. Passages
+     * of the same chunk become one match, the best one, standing for a window of the chunk
+     * around all of them (see {@link ParentWindow}); question matches of that chunk get the
+     * same window. Duplicates are then removed based on paragraph content; matches whose
+     * chunk no longer exists are dropped.
      * Skips VertexAI scoring when unique matches already fit maxResults — ranking is unnecessary.
      */
     public List<RetrievalSegment> processMatches(List<EmbeddingMatch<TextSegment>> matches, String question, int maxResults) {
         LOG.debugf("Processing %d matches for scoring (maxResults=%d)", (Object) matches.size(), (Object) maxResults);
 
-        Map<String, EmbeddingMatch<TextSegment>> unique = new LinkedHashMap<>();
+        Set<String> chunkIds = new LinkedHashSet<>();
+        Map<String, List<ParentWindow.Span>> passageHits = new HashMap<>();
+        for (EmbeddingMatch<TextSegment> match : matches) {
+            String chunkId = QuestionSegments.chunkId(match.embedded());
+            if (chunkId != null) {
+                chunkIds.add(chunkId);
+            }
+            String parentId = PassageSegments.parentId(match.embedded());
+            if (parentId != null) {
+                chunkIds.add(parentId);
+                ParentWindow.Span span = PassageSegments.span(match.embedded());
+                if (span != null) {
+                    passageHits.computeIfAbsent(parentId, id -> new ArrayList<>()).add(span);
+                }
+            }
+        }
+        Map<String, String> chunkTexts = chunkIds.isEmpty() ? Map.of() : chunkTextResolver.resolve(chunkIds);
+        Map<String, String> windows = new HashMap<>();
+        passageHits.forEach((parentId, hits) -> {
+            String parent = chunkTexts.get(parentId);
+            if (parent != null) {
+                windows.put(parentId, ParentWindow.around(parent, hits, config.parentWindowMaxTokens(), tokenEstimator));
+            }
+        });
+
+        Map<String, ResolvedMatch> unique = new LinkedHashMap<>();
         for (EmbeddingMatch<TextSegment> match : matches) {
-            unique.putIfAbsent(getParagraph(match), match);
+            ResolvedMatch resolved = resolve(match, chunkTexts, windows);
+            if (resolved == null) {
+                LOG.debugf("Skipping match of missing chunk %s", PassageSegments.parentKey(match.embedded()));
+                continue;
+            }
+            unique.putIfAbsent(resolved.paragraph(), resolved);
         }
 
         boolean needsScoring = unique.size() > maxResults;
         LOG.debugf("Unique segments after dedup=%d, needsScoring=%b", (Object) unique.size(), (Object) needsScoring);
 
         return unique.values().stream()
-                .map(match -> createRetrievalSegment(match, question, needsScoring))
+                .map(resolved -> createRetrievalSegment(resolved, question, needsScoring))
                 .toList();
     }
 
@@ -65,18 +117,48 @@ public class RetrievalSegmentProcessor {
         return filtered;
     }
 
-    private RetrievalSegment createRetrievalSegment(EmbeddingMatch<TextSegment> match, String question, boolean withScoring) {
+    /**
+     * A match with the paragraph it stands for.
+     */
+    private record ResolvedMatch(EmbeddingMatch<TextSegment> match, String paragraph, boolean isQuestion) {}
 
-        String paragraphFromMetadata = match.embedded().metadata().getString(PARAGRAPH_KEY);
-        String paragraph = paragraphFromMetadata != null ? paragraphFromMetadata : match.embedded().text();
-        String questionToBeSaved = paragraphFromMetadata != null ? match.embedded().text() : question;
+    /**
+     * @return The match with its paragraph, or null for a question or passage whose chunk is gone
+     */
+    private static ResolvedMatch resolve(EmbeddingMatch<TextSegment> match, Map<String, String> chunkTexts,
+                                         Map<String, String> windows) {
+        TextSegment segment = match.embedded();
+        String chunkId = QuestionSegments.chunkId(segment);
+        if (chunkId != null) {
+            // A chunk that passages matched as well is narrowed to their window
+            String paragraph = windows.getOrDefault(chunkId, chunkTexts.get(chunkId));
+            return paragraph != null ? new ResolvedMatch(match, paragraph, true) : null;
+        }
+        String parentId = PassageSegments.parentId(segment);
+        if (parentId != null) {
+            // Passages without a span stand for their whole chunk
+            String paragraph = windows.getOrDefault(parentId, chunkTexts.get(parentId));
+            return paragraph != null ? new ResolvedMatch(match, paragraph, false) : null;
+        }
+        String paragraphFromMetadata = segment.metadata().getString(QuestionSegments.PARAGRAPH_KEY);
+        return paragraphFromMetadata != null
+                ? new ResolvedMatch(match, paragraphFromMetadata, true)
+                : new ResolvedMatch(match, segment.text(), false);
+    }
+
+    private RetrievalSegment createRetrievalSegment(ResolvedMatch resolved, String question, boolean withScoring) {
+
+        EmbeddingMatch<TextSegment> match = resolved.match();
+        String paragraph = resolved.paragraph();
+        String questionToBeSaved = resolved.isQuestion() ? match.embedded().text() : question;
 
         Double modelScore;
         if (withScoring) {
             String paragraphPreview = paragraph.substring(0, Math.min(50, paragraph.length()));
             LOG.debugf("Calling VertexAI scoring for paragraph preview: %s...", (Object) paragraphPreview);
             try {
-                var scoreResponse = scoringModel.score(paragraph, question);
+                var scoreResponse = outboundCallLimiter.limiter(OutboundCall.VERTEX_RANKING)
+                        .execute(Lane.current(), () -> scoringModel.score(paragraph, question));
                 modelScore = scoreResponse.content();
                 LOG.debugf("VertexAI score received: %.4f for paragraph: %s...", (Object) modelScore, (Object) paragraphPreview);
             } catch (Exception e) {
@@ -94,10 +176,4 @@ public class RetrievalSegmentProcessor {
                 modelScore
         );
     }
-
-    private String getParagraph(EmbeddingMatch<TextSegment> match) {
-        String paragraphFromMetadata = match.embedded().metadata().getString(PARAGRAPH_KEY);
-        return paragraphFromMetadata != null ? paragraphFromMetadata : match.embedded().text();
-    }
 }
-
@@ -0,0 +1,110 @@
+package dev.matheus.service.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Content-addressed storage for uploaded document bytes.
+ * Blobs are identified by the SHA-256 of their content, so storing the same
+ * file twice yields the same key and a single copy on the backing medium.
+ *
+ * The default implementation is {@link LocalFileSystemBlobStore}; an alternative
+ * backend (S3, GCS, ...) only needs to provide another bean of this type.
+ */
+public interface BlobStore {
+
+    /**
+     * Stream content into the store without buffering it on the heap.
+     *
+     * @param content The content to store (not closed by this method)
+     * @return Reference to the stored blob (key, checksum and size)
+     * @throws IOException if the content cannot be read or written
+     */
+    default BlobRef put(InputStream content) throws IOException {
+        try (StagedBlob staged = stage(content)) {
+            return publish(staged);
+        }
+    }
+
+    /**
+     * First half of {@link #put(InputStream)}: stream content into a staging area and
+     * compute its key, without making it visible under that key yet.
+     * The caller must close the returned blob, which discards the staged copy.
+     *
+     * @param content The content to stage (not closed by this method)
+     * @throws IOException if the content cannot be read or written
+     */
+    StagedBlob stage(InputStream content) throws IOException;
+
+    /**
+     * Second half of {@link #put(InputStream)}: store a staged blob under its key.
+     * Stores it again if the blob was deleted since it was staged, so a caller
+     * holding the blob's reference lock (see
+     * {@link dev.matheus.repository.DocumentFileRepository#lockBlobKey(String)})
+     * can rely on it existing until that lock is released.
+     *
+     * @return Reference to the stored blob
+     * @throws IOException if the blob cannot be written
+     */
+    BlobRef publish(StagedBlob staged) throws IOException;
+
+    /**
+     * Open a stream over a stored blob. The caller must close it.
+     *
+     * @param key The blob key returned by {@link #put(InputStream)}
+     * @return Stream over the blob content
+     * @throws IOException if the blob does not exist or cannot be read
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Read a stored blob fully into memory.
+     * Only meant for consumers that need the whole payload anyway (e.g. Docling base64 source).
+     */
+    default byte[] readAllBytes(String key) throws IOException {
+        try (InputStream in = open(key)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Copy a stored blob to the given output stream using the most efficient
+     * transfer the backend supports.
+     *
+     * @return Number of bytes transferred
+     */
+    long transferTo(String key, OutputStream out) throws IOException;
+
+    /**
+     * Size in bytes of a stored blob.
+     */
+    long size(String key) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * Delete a stored blob. Deleting a missing blob is a no-op.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Reference to a stored blob.
+     *
+     * @param key Storage key (content address)
+     * @param checksum Hex-encoded SHA-256 of the content
+     * @param size Content size in bytes
+     */
+    record BlobRef(String key, String checksum, long size) {
+    }
+
+    /**
+     * Content staged by {@link #stage(InputStream)}, not stored under its key yet.
+     * Closing it discards the staged copy.
+     */
+    interface StagedBlob extends Closeable {
+
+        BlobRef ref();
+    }
+}
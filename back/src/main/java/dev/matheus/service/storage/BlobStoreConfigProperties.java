@@ -0,0 +1,19 @@
+package dev.matheus.service.storage;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration properties for the document blob store.
+ * Mapped to application.properties under 'docintel.blob-store' prefix.
+ */
+@ConfigMapping(prefix = "docintel.blob-store")
+public interface BlobStoreConfigProperties {
+
+    /**
+     * Root directory of the local filesystem blob store.
+     * Default: data/blobs (relative to the working directory)
+     */
+    @WithDefault("data/blobs")
+    String root();
+}
@@ -0,0 +1,123 @@
+package dev.matheus.service.storage;
+
+import dev.matheus.repository.DocumentFileRepository;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Moves documents uploaded before the blob store into it.
+ *
+ * Such rows still hold their bytes in the legacy document_files.file_data column and have
+ * no blob_key. At startup, before the ingestion worker claims jobs, each of them is
+ * streamed into the {@link BlobStore}, gets its blob_key and checksum, and has file_data
+ * cleared. Rows are claimed one at a time with SKIP LOCKED, so replicas starting
+ * together split the work. Nothing happens once the column is empty or gone.
+ */
+@ApplicationScoped
+public class LegacyFileDataBackfill {
+
+    private static final Logger LOG = Logger.getLogger(LegacyFileDataBackfill.class);
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    DocumentFileRepository documentFileRepository;
+
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION) StartupEvent event) {
+        try {
+            String columnType = fileDataColumnType();
+            if (columnType == null) {
+                return;
+            }
+            // Hibernate maps @Lob byte[] to a large object (oid) on PostgreSQL; bytea is read inline
+            boolean largeObject = "oid".equals(columnType);
+            int exported = 0;
+            while (QuarkusTransaction.requiringNew().call(() -> exportNext(largeObject))) {
+                exported++;
+            }
+            if (exported > 0) {
+                LOG.infof("Moved %d legacy document file(s) to the blob store", exported);
+            }
+        } catch (Exception e) {
+            LOG.errorf(e, "Moving legacy document files to the blob store failed");
+        }
+    }
+
+    /**
+     * Type of the legacy file_data column, null when the schema no longer has it.
+     */
+    private String fileDataColumnType() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT data_type FROM information_schema.columns " +
+                     "WHERE table_schema = current_schema() AND table_name = 'document_files' " +
+                     "AND column_name = 'file_data'");
+             ResultSet rows = statement.executeQuery()) {
+            return rows.next() ? rows.getString(1) : null;
+        }
+    }
+
+    /**
+     * Move one legacy row to the blob store, in the caller's transaction.
+     *
+     * @return false when no row is left to move
+     */
+    private boolean exportNext(boolean largeObject) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            String documentId;
+            BlobStore.StagedBlob staged;
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT id, file_data FROM document_files WHERE blob_key IS NULL AND file_data IS NOT NULL " +
+                    "LIMIT 1 FOR UPDATE SKIP LOCKED");
+                 ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    return false;
+                }
+                documentId = row.getString(1);
+                try (InputStream content = largeObject ? row.getBlob(2).getBinaryStream() : row.getBinaryStream(2)) {
+                    staged = blobStore.stage(content);
+                }
+            }
+
+            try (staged) {
+                documentFileRepository.lockBlobKey(staged.ref().key());
+                BlobStore.BlobRef blob = blobStore.publish(staged);
+                if (largeObject) {
+                    try (PreparedStatement unlink = connection.prepareStatement(
+                            "SELECT lo_unlink(file_data) FROM document_files WHERE id = ?")) {
+                        unlink.setString(1, documentId);
+                        unlink.executeQuery().close();
+                    }
+                }
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE document_files SET blob_key = ?, checksum = ?, file_data = NULL WHERE id = ?")) {
+                    update.setString(1, blob.key());
+                    update.setString(2, blob.checksum());
+                    update.setString(3, documentId);
+                    update.executeUpdate();
+                }
+                LOG.infof("Moved legacy document file to the blob store: docId=%s, blobKey=%s, size=%d bytes",
+                        documentId, blob.key(), blob.size());
+            }
+            return true;
+        }
+    }
+}
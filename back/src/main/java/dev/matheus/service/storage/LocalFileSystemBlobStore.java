@@ -0,0 +1,238 @@
+package dev.matheus.service.storage;
+
+import io.quarkus.arc.DefaultBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * {@link BlobStore} backed by the local filesystem.
+ *
+ * Layout: {@code <root>/<aa>/<bb>/<sha256>} where aa/bb are the first two byte
+ * pairs of the hash, keeping directories small. Uploads are streamed into a
+ * temporary file under {@code <root>/tmp} while the digest is computed (staging),
+ * then hard-linked to their content address (publishing).
+ */
+@ApplicationScoped
+@DefaultBean
+public class LocalFileSystemBlobStore implements BlobStore {
+
+    private static final Logger LOG = Logger.getLogger(LocalFileSystemBlobStore.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Inject
+    BlobStoreConfigProperties config;
+
+    private Path root;
+    private Path tmpDir;
+
+    public LocalFileSystemBlobStore() {
+    }
+
+    LocalFileSystemBlobStore(Path root) {
+        init(root);
+    }
+
+    @PostConstruct
+    void init() {
+        init(Path.of(config.root()));
+    }
+
+    private void init(Path rootDir) {
+        try {
+            this.root = rootDir.toAbsolutePath().normalize();
+            this.tmpDir = root.resolve("tmp");
+            Files.createDirectories(tmpDir);
+            LOG.infof("Local blob store initialized at %s", root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialize blob store at " + rootDir, e);
+        }
+    }
+
+    @Override
+    public StagedBlob stage(InputStream content) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = newSha256();
+            long size;
+            try (DigestInputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.WRITE)) {
+                size = copy(in, out);
+            }
+            String checksum = HexFormat.of().formatHex(digest.digest());
+            return new LocalStagedBlob(new BlobRef(checksum, checksum, size), tmp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    @Override
+    public BlobRef publish(StagedBlob staged) throws IOException {
+        if (!(staged instanceof LocalStagedBlob local)) {
+            throw new IllegalArgumentException("Blob was not staged by this store: " + staged);
+        }
+        BlobRef blob = local.ref();
+        Path target = resolve(blob.key());
+        Files.createDirectories(target.getParent());
+
+        if (Files.exists(target)) {
+            LOG.debugf("Blob already stored, reusing: key=%s", blob.key());
+        } else {
+            // Link rather than move, so the staged content can be published again
+            // if the blob is deleted before its reference is committed
+            try {
+                link(local.tmp(), target);
+            } catch (FileAlreadyExistsException e) {
+                // Concurrent upload of the same content won the race - same bytes, keep theirs
+                LOG.debugf("Blob stored concurrently, reusing: key=%s", blob.key());
+            }
+        }
+
+        LOG.debugf("Stored blob: key=%s, size=%d bytes", blob.key(), blob.size());
+        return blob;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(existing(key));
+    }
+
+    /**
+     * Zero-copy transfer: lets the kernel move bytes from the page cache to the
+     * target channel without copying them through the Java heap.
+     */
+    @Override
+    public long transferTo(String key, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(existing(key), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return position;
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return Files.size(existing(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return isValidKey(key) && Files.exists(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        if (!isValidKey(key)) {
+            return;
+        }
+        if (Files.deleteIfExists(resolve(key))) {
+            LOG.debugf("Deleted blob: key=%s", key);
+        }
+    }
+
+    /**
+     * Staged content in a temporary file under {@code <root>/tmp}.
+     */
+    private record LocalStagedBlob(BlobRef ref, Path tmp) implements StagedBlob {
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Make {@code source} visible at {@code target} atomically, keeping {@code source}:
+     * a hard link, or an atomically moved copy where links are not supported.
+     */
+    private void link(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+            return;
+        } catch (UnsupportedOperationException e) {
+            // Filesystem without hard links
+        }
+        Path copy = Files.createTempFile(tmpDir, "publish-", ".part");
+        try {
+            Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(copy, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    private Path existing(String key) throws IOException {
+        if (!isValidKey(key)) {
+            throw new NoSuchFileException("Invalid blob key: " + key);
+        }
+        Path path = resolve(key);
+        if (!Files.exists(path)) {
+            throw new NoSuchFileException("Blob not found: " + key);
+        }
+        return path;
+    }
+
+    private Path resolve(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    /**
+     * Keys are lowercase hex SHA-256 digests; anything else is rejected so a key
+     * can never escape the root directory.
+     */
+    private static boolean isValidKey(String key) {
+        if (key == null || key.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.matheus.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Content hashes of document chunks, used to recognise unchanged chunks when a
+ * document is reprocessed.
+ */
+public class ChunkHashes {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ChunkHashes() {
+        // Utility class
+    }
+
+    /**
+     * SHA-256 of the normalized chunk content (Unicode NFC, whitespace runs collapsed
+     * to one space, trimmed). Chunks that differ only in layout whitespace hash alike.
+     *
+     * @param content Chunk content
+     * @return Hex digest, 64 characters
+     */
+    public static String contentHash(String content) {
+        String normalized = normalize(content == null ? "" : content);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Unicode NFC, whitespace runs collapsed to one space, trimmed.
+     */
+    public static String normalize(String content) {
+        String nfc = Normalizer.normalize(content, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(nfc).replaceAll(" ").trim();
+    }
+}
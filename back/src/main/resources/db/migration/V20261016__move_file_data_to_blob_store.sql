@@ -0,0 +1,16 @@
+-- Migration: Store uploaded documents in the content-addressed blob store
+-- Date: 2026-10-16
+
+-- document_files now keeps only a reference to the blob and its SHA-256
+ALTER TABLE document_files
+    ADD COLUMN IF NOT EXISTS blob_key VARCHAR(128),
+    ADD COLUMN IF NOT EXISTS checksum VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_document_files_blob_key ON document_files(blob_key);
+
+-- file_data is no longer written. It is kept (nullable) so rows uploaded before this
+-- migration can be moved to the blob store: LegacyFileDataBackfill does it at startup,
+-- filling blob_key/checksum and clearing file_data. Drop the column once no row has
+-- blob_key IS NULL.
+ALTER TABLE document_files
+    ALTER COLUMN file_data DROP NOT NULL;
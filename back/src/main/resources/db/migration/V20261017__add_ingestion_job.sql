@@ -0,0 +1,28 @@
+-- Migration: Durable ingestion job queue
+-- Date: 2026-10-17
+
+-- Work items claimed by ingestion workers with SELECT ... FOR UPDATE SKIP LOCKED.
+-- A RUNNING job whose lease_expires_at has passed belongs to a dead worker and is reclaimed.
+CREATE TABLE IF NOT EXISTS ingestion_job (
+    id VARCHAR(36) PRIMARY KEY,
+    document_id VARCHAR(36) NOT NULL REFERENCES document_files(id) ON DELETE CASCADE,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL,
+    available_at TIMESTAMP NOT NULL,
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMP,
+    heartbeat_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP,
+    CONSTRAINT chk_ingestion_job_status CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_ingestion_job_claim ON ingestion_job(status, available_at);
+CREATE INDEX IF NOT EXISTS idx_ingestion_job_lease ON ingestion_job(lease_expires_at) WHERE status = 'RUNNING';
+
+-- At most one active job per document
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ingestion_job_active_document
+    ON ingestion_job(document_id) WHERE status IN ('QUEUED', 'RUNNING');
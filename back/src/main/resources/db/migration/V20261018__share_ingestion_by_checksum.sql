@@ -0,0 +1,17 @@
+-- Migration: Share ingestion results between uploads of identical content
+-- Date: 2026-10-18
+
+-- A document with shared_from_id set reuses the chunks/embeddings of that document.
+-- ref_count is kept on owners and counts the documents (owner included) using them.
+-- index_file_name is the FILE_NAME under which the shared vectors were stored.
+ALTER TABLE document_files
+    ADD COLUMN IF NOT EXISTS shared_from_id VARCHAR(36),
+    ADD COLUMN IF NOT EXISTS ref_count INTEGER NOT NULL DEFAULT 1,
+    ADD COLUMN IF NOT EXISTS index_file_name VARCHAR(255);
+
+CREATE INDEX IF NOT EXISTS idx_document_files_shared_from ON document_files(shared_from_id);
+
+-- Lookup of reusable ingestions at upload time
+CREATE INDEX IF NOT EXISTS idx_document_files_reusable
+    ON document_files(checksum, processor_version)
+    WHERE shared_from_id IS NULL AND processing_status = 'COMPLETED';
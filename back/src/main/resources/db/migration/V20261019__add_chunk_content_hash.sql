@@ -0,0 +1,12 @@
+-- Migration: Chunk content hashes for incremental reprocessing
+-- Date: 2026-10-19
+
+-- SHA-256 of the normalized chunk content (NFC, whitespace collapsed, trimmed).
+-- Existing rows stay NULL and are hashed by the application the next time their
+-- document is reprocessed, since the normalization is defined in Java.
+ALTER TABLE document_chunk ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_chunk_content_hash ON document_chunk(document_file_id, content_hash);
+
+-- Chunk size requested when a document is reprocessed (NULL = docling.chunking.max-tokens)
+ALTER TABLE ingestion_job ADD COLUMN IF NOT EXISTS chunk_max_tokens INTEGER;
@@ -0,0 +1,15 @@
+-- Migration: Content-addressed embedding cache
+-- Date: 2026-10-20
+
+-- One vector per (model, dimensions, normalized text), see EmbeddingCache.key.
+-- vector holds little-endian float32 values; last_used_at drives LRU trimming.
+CREATE TABLE IF NOT EXISTS embedding_cache (
+    cache_key VARCHAR(64) PRIMARY KEY,
+    model VARCHAR(100) NOT NULL,
+    dimension INTEGER NOT NULL,
+    vector BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    last_used_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_embedding_cache_last_used ON embedding_cache(last_used_at);
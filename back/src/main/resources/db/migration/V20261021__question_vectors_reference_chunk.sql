@@ -0,0 +1,18 @@
+-- Migration: Question vectors reference their chunk instead of copying its text
+-- Date: 2026-10-21
+
+-- Hypothetical-question rows of chunked documents carried the whole chunk content under
+-- PARAGRAPH. They now carry CHUNK_ID and EMBEDDING_TYPE = HYPOTHETICAL_QUESTION, and the
+-- paragraph is loaded from document_chunk at retrieval time. Rows without CHUNK_ID (the
+-- deprecated chunk-less ingestion) keep PARAGRAPH, which is their only copy of the text.
+-- The embeddings table is created by the pgvector extension at startup, so it may not exist yet.
+DO $$
+BEGIN
+    IF to_regclass('public.embeddings') IS NOT NULL THEN
+        UPDATE embeddings
+        SET metadata = (metadata::jsonb - 'PARAGRAPH')
+                       || jsonb_build_object('EMBEDDING_TYPE', 'HYPOTHETICAL_QUESTION')
+        WHERE metadata::jsonb ? 'PARAGRAPH'
+          AND metadata::jsonb ? 'CHUNK_ID';
+    END IF;
+END $$;
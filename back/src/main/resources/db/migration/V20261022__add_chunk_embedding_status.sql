@@ -0,0 +1,22 @@
+-- Migration: Per-chunk embedding status for resumable embedding
+-- Date: 2026-10-22
+
+-- PENDING → CONTENT_EMBEDDED → QUESTIONS_GENERATED → DONE, or FAILED (retried in the background)
+ALTER TABLE document_chunk ADD COLUMN IF NOT EXISTS embedding_status VARCHAR(30) NOT NULL DEFAULT 'PENDING';
+ALTER TABLE document_chunk ADD COLUMN IF NOT EXISTS embedding_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE document_chunk ADD COLUMN IF NOT EXISTS embedding_error VARCHAR(1000);
+ALTER TABLE document_chunk ADD COLUMN IF NOT EXISTS embedding_updated_at TIMESTAMP;
+
+-- Questions generated but not embedded yet, so a resumed run does not pay for them again
+ALTER TABLE document_chunk ADD COLUMN IF NOT EXISTS pending_questions JSONB;
+
+-- Chunks embedded before this migration were embedded in one go: content, then questions
+UPDATE document_chunk c SET embedding_status = 'DONE'
+WHERE EXISTS (
+    SELECT 1 FROM chunk_embedding ce
+    WHERE ce.chunk_id = c.id AND ce.embedding_type = 'CONTENT'
+);
+
+-- Background retry scans failed chunks only
+CREATE INDEX IF NOT EXISTS idx_chunk_embedding_failed ON document_chunk(embedding_updated_at)
+    WHERE embedding_status = 'FAILED';
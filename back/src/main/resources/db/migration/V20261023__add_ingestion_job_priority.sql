@@ -0,0 +1,17 @@
+-- Migration: Priority and fair-share scheduling of ingestion jobs
+-- Date: 2026-10-23
+
+-- INTERACTIVE (reprocess) → NORMAL (small upload) → BULK (large upload)
+ALTER TABLE ingestion_job ADD COLUMN IF NOT EXISTS priority VARCHAR(20) NOT NULL DEFAULT 'NORMAL';
+
+-- Chat of the document: jobs are shared fairly between chats
+ALTER TABLE ingestion_job ADD COLUMN IF NOT EXISTS owner_key VARCHAR(36);
+
+UPDATE ingestion_job j SET owner_key = d.chat_id
+FROM document_files d
+WHERE d.id = j.document_id AND j.owner_key IS NULL;
+
+-- Claims order queued jobs by priority; running jobs are counted per chat
+DROP INDEX IF EXISTS idx_ingestion_job_claim;
+CREATE INDEX IF NOT EXISTS idx_ingestion_job_claim ON ingestion_job(status, priority, available_at);
+CREATE INDEX IF NOT EXISTS idx_ingestion_job_owner ON ingestion_job(owner_key) WHERE status = 'RUNNING';
@@ -0,0 +1,155 @@
+package dev.matheus.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for docling-serve in the ingestion benchmark.
+ *
+ * POST /v1/convert/source answers like DoclingServeApi.convertSource with an in-body markdown
+ * document: one section per page of the submitted PDF (prose, and a table on about one page in four),
+ * after {@code latencyPerPage} for each page. Each section is generated from the label printed
+ * on its page, so documents differ from each other and a page converts the same way whichever
+ * page window it arrives in.
+ * GET /stats returns the request and page counters.
+ */
+final class DoclingServeStub implements AutoCloseable {
+
+    private static final String[] WORDS = {
+            "contrato", "cláusula", "pagamento", "prazo", "fornecedor", "cliente", "serviço", "multa",
+            "rescisão", "garantia", "entrega", "relatório", "auditoria", "receita", "despesa", "imposto",
+            "operação", "unidade", "período", "análise", "resultado", "investimento", "risco", "controle",
+            "processo", "sistema", "dados", "acesso", "segurança", "política", "norma", "responsável",
+            "the", "payment", "schedule", "annual", "report", "value", "total", "quarter"
+    };
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Duration latencyPerPage;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong pages = new AtomicLong();
+
+    DoclingServeStub(Duration latencyPerPage) throws IOException {
+        this.latencyPerPage = latencyPerPage;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/convert/source", this::convert);
+        server.createContext("/health", exchange -> respond(exchange, 200, "{\"status\":\"ok\"}"));
+        server.createContext("/stats", exchange -> respond(exchange, 200,
+                "{\"requests\":" + requests.get() + ",\"pages\":" + pages.get() + "}"));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void convert(HttpExchange exchange) throws IOException {
+        try {
+            JsonNode request = mapper.readTree(exchange.getRequestBody());
+            JsonNode source = request.path("sources").path(0);
+            String filename = source.path("filename").asText("document.pdf");
+            byte[] pdf = Base64.getDecoder().decode(source.path("base64_string").asText());
+
+            List<String> labels = new ArrayList<>();
+            try (PDDocument document = PDDocument.load(pdf)) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                    stripper.setStartPage(page);
+                    stripper.setEndPage(page);
+                    labels.add(stripper.getText(document).strip());
+                }
+            }
+            int pageCount = labels.size();
+
+            Thread.sleep(latencyPerPage.multipliedBy(pageCount).toMillis());
+            requests.incrementAndGet();
+            pages.addAndGet(pageCount);
+
+            ObjectNode response = mapper.createObjectNode();
+            ObjectNode document = response.putObject("document");
+            document.put("filename", filename);
+            document.put("md_content", markdown(labels));
+            response.put("status", "success");
+            response.putArray("errors");
+            response.put("processing_time", latencyPerPage.multipliedBy(pageCount).toMillis() / 1000.0);
+            response.putObject("timings");
+            respond(exchange, 200, mapper.writeValueAsString(response));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{\"detail\":\"interrupted\"}");
+        } catch (Exception e) {
+            respond(exchange, 500, "{\"detail\":\"" + e.getClass().getSimpleName() + "\"}");
+        }
+    }
+
+    /**
+     * Markdown of the pages with the given labels.
+     */
+    static String markdown(List<String> labels) {
+        StringBuilder markdown = new StringBuilder();
+        for (String label : labels) {
+            Random random = new Random(label.hashCode());
+            markdown.append("## ").append(label).append("\n\n");
+            for (int paragraph = 0; paragraph < 3; paragraph++) {
+                markdown.append(sentence(random, 60 + random.nextInt(40))).append("\n\n");
+            }
+            if (random.nextInt(4) == 0) {
+                markdown.append("| Item | Descrição | Valor | Prazo |\n|---|---|---|---|\n");
+                for (int row = 1; row <= 8; row++) {
+                    markdown.append("| ").append(row)
+                            .append(" | ").append(sentence(random, 4))
+                            .append(" | R$ ").append(random.nextInt(100_000)).append(",00")
+                            .append(" | ").append(1 + random.nextInt(90)).append(" dias |\n");
+                }
+                markdown.append("\n");
+            }
+        }
+        return markdown.toString();
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(i % 12 == 0 ? ". " : " ");
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.append('.').toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
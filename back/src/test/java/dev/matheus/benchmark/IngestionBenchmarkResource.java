@@ -0,0 +1,84 @@
+package dev.matheus.benchmark;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Environment of the ingestion benchmark: a pgvector container, a docling-serve stand-in and an
+ * OpenAI stand-in, wired into the application through configuration overrides.
+ *
+ * Tuned with system properties (mvn test -Pbenchmark -D...):
+ * - benchmark.docling.latency-per-page: Docling conversion time per page (default PT0.05S)
+ * - benchmark.openai.latency: latency of every OpenAI call (default PT0.15S)
+ * - benchmark.openai.rate-limit-ratio: share of OpenAI calls answered with 429 (default 0.02)
+ *
+ * Caches are disabled so every run converts and embeds everything.
+ */
+public class IngestionBenchmarkResource implements QuarkusTestResourceLifecycleManager {
+
+    private static final DockerImageName PGVECTOR = DockerImageName.parse("pgvector/pgvector:pg16")
+            .asCompatibleSubstituteFor("postgres");
+
+    private PostgreSQLContainer<?> database;
+    private DoclingServeStub docling;
+    private OpenAiStub openAi;
+
+    @Override
+    public Map<String, String> start() {
+        database = new PostgreSQLContainer<>(PGVECTOR)
+                .withDatabaseName("docintel")
+                .withUsername("postgres")
+                .withPassword("postgres");
+        database.start();
+
+        try {
+            docling = new DoclingServeStub(duration("benchmark.docling.latency-per-page", "PT0.05S"));
+            openAi = new OpenAiStub(duration("benchmark.openai.latency", "PT0.15S"),
+                    Double.parseDouble(System.getProperty("benchmark.openai.rate-limit-ratio", "0.02")), 768);
+        } catch (Exception e) {
+            stop();
+            throw new IllegalStateException("Could not start the benchmark stand-ins", e);
+        }
+
+        Map<String, String> config = new HashMap<>();
+        config.put("quarkus.datasource.jdbc.url", database.getJdbcUrl());
+        config.put("quarkus.datasource.username", database.getUsername());
+        config.put("quarkus.datasource.password", database.getPassword());
+        config.put("quarkus.docling.base-url", docling.url());
+        config.put("quarkus.langchain4j.openai.base-url", openAi.baseUrl());
+        config.put("OPENAI_API_KEY", "benchmark");
+
+        config.put("docling.cache.enabled", "false");
+        config.put("docintel.embedding.provider", "OPENAI");
+        config.put("docintel.embedding.cache.enabled", "false");
+        config.put("docintel.embedding.cache.persistent-enabled", "false");
+
+        // SQL and request logging would dominate the measurement
+        config.put("quarkus.hibernate-orm.log.sql", "false");
+        config.put("quarkus.langchain4j.log-requests", "false");
+        config.put("quarkus.log.category.\"dev.matheus\".level", "INFO");
+        return config;
+    }
+
+    @Override
+    public void stop() {
+        if (openAi != null) {
+            openAi.close();
+        }
+        if (docling != null) {
+            docling.close();
+        }
+        if (database != null) {
+            database.stop();
+        }
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return Duration.parse(System.getProperty(property, defaultValue));
+    }
+}
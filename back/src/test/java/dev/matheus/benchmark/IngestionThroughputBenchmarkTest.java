@@ -0,0 +1,232 @@
+package dev.matheus.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.matheus.dto.ChatResponse;
+import dev.matheus.service.ChatService;
+import dev.matheus.service.ingestion.IngestionPipeline;
+import dev.matheus.service.ingestion.IngestionStageStats;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end ingestion throughput: synthetic PDFs are uploaded through ChatService and go the
+ * real way (job queue, AsyncDocumentProcessingService, staged pipeline, pgvector), with
+ * docling-serve and OpenAI replaced by local stand-ins (see {@link IngestionBenchmarkResource}).
+ *
+ * Reports docs/min, chunks/s, p50/p99 task time of each stage and database write rates, logs
+ * them and writes them to target/benchmark/ingestion-*.json so runs before and after a change
+ * can be compared. Only runs with -Pbenchmark; sized with -Dbenchmark.documents (default 12)
+ * and -Dbenchmark.pages (default 60, enough for page windows).
+ */
+@QuarkusTest
+@QuarkusTestResource(value = IngestionBenchmarkResource.class, restrictToAnnotatedClass = true)
+@Tag("benchmark")
+class IngestionThroughputBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(IngestionThroughputBenchmarkTest.class);
+
+    @Inject
+    ChatService chatService;
+
+    @Inject
+    IngestionPipeline pipeline;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @ConfigProperty(name = "quarkus.docling.base-url")
+    String doclingUrl;
+
+    @ConfigProperty(name = "quarkus.langchain4j.openai.base-url")
+    String openAiUrl;
+
+    @Test
+    void measureIngestionThroughput() throws Exception {
+        int documents = Integer.getInteger("benchmark.documents", 12);
+        int pages = Integer.getInteger("benchmark.pages", 60);
+        Duration timeout = Duration.parse(System.getProperty("benchmark.timeout", "PT30M"));
+
+        DbCounters before = DbCounters.read(dataSource);
+        long start = System.nanoTime();
+
+        List<String> chatIds = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            String name = "benchmark-" + i;
+            ChatResponse chat = chatService.createChat(new ByteArrayInputStream(pdf(name, pages)),
+                    name + ".pdf", "application/pdf");
+            chatIds.add(chat.id());
+        }
+
+        Outcome outcome = awaitIngestion(chatIds, timeout);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        // pg_stat_database is flushed about once a second
+        Thread.sleep(1_500);
+        DbCounters after = DbCounters.read(dataSource);
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (IngestionStageStats stage : pipeline.getStageStats()) {
+            stages.put(stage.stage().name(), Map.of(
+                    "tasks", stage.completed() + stage.failed(),
+                    "failed", stage.failed(),
+                    "p50Millis", stage.p50TaskMillis(),
+                    "p99Millis", stage.p99TaskMillis(),
+                    "avgMillis", stage.avgTaskMillis()));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("documents", documents);
+        report.put("pagesPerDocument", pages);
+        report.put("completed", outcome.completed());
+        report.put("failed", outcome.failed());
+        report.put("seconds", seconds);
+        report.put("docsPerMinute", outcome.completed() / seconds * 60);
+        report.put("chunks", outcome.chunks());
+        report.put("chunksPerSecond", outcome.chunks() / seconds);
+        report.put("stages", stages);
+        report.put("db", Map.of(
+                "commitsPerSecond", (after.commits() - before.commits()) / seconds,
+                "rowsInsertedPerSecond", (after.inserted() - before.inserted()) / seconds,
+                "rowsUpdatedPerSecond", (after.updated() - before.updated()) / seconds,
+                "chunkEmbeddingLinks", after.links() - before.links()));
+        report.put("docling", stats(doclingUrl + "/stats"));
+        report.put("openai", stats(openAiUrl.replaceFirst("/v1/?$", "") + "/stats"));
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Path file = Path.of("target", "benchmark", "ingestion-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Files.createDirectories(file.getParent());
+        mapper.writeValue(file.toFile(), report);
+        LOG.infof("Ingestion benchmark (%s):%n%s", file, mapper.writeValueAsString(report));
+
+        assertThat(outcome.completed())
+                .as("Documents ingested within %s", timeout)
+                .isEqualTo(documents);
+    }
+
+    private record Outcome(int completed, int failed, long chunks) {
+    }
+
+    private Outcome awaitIngestion(List<String> chatIds, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            Outcome outcome = outcome(chatIds);
+            if (outcome.completed() + outcome.failed() == chatIds.size() || System.nanoTime() > deadline) {
+                return outcome;
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    private Outcome outcome(List<String> chatIds) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT processing_status, COUNT(*), COALESCE(SUM(chunk_count), 0) FROM document_files " +
+                     "WHERE chat_id = ANY(?) GROUP BY processing_status")) {
+            Array ids = connection.createArrayOf("varchar", chatIds.toArray());
+            statement.setArray(1, ids);
+            int completed = 0;
+            int failed = 0;
+            long chunks = 0;
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    switch (rows.getString(1)) {
+                        case "COMPLETED" -> {
+                            completed = rows.getInt(2);
+                            chunks = rows.getLong(3);
+                        }
+                        case "FAILED" -> failed = rows.getInt(2);
+                        default -> {
+                        }
+                    }
+                }
+            }
+            return new Outcome(completed, failed, chunks);
+        }
+    }
+
+    /**
+     * Commit and row counters of the database since it started.
+     */
+    private record DbCounters(long commits, long inserted, long updated, long links) {
+
+        static DbCounters read(AgroalDataSource dataSource) throws SQLException {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(
+                         "SELECT xact_commit, tup_inserted, tup_updated, " +
+                         "(SELECT COUNT(*) FROM chunk_embedding) " +
+                         "FROM pg_stat_database WHERE datname = current_database()")) {
+                rows.next();
+                return new DbCounters(rows.getLong(1), rows.getLong(2), rows.getLong(3), rows.getLong(4));
+            }
+        }
+    }
+
+    private static Object stats(String url) {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return new ObjectMapper().readTree(response.body());
+        } catch (Exception e) {
+            return "unavailable: " + e.getMessage();
+        }
+    }
+
+    /**
+     * PDF whose pages carry a label ("name page N") the Docling stand-in turns into content.
+     */
+    private static byte[] pdf(String name, int pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 1; i <= pages; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 12);
+                    content.newLineAtOffset(72, 720);
+                    content.showText(name + " page " + i);
+                    content.endText();
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package dev.matheus.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for the OpenAI embeddings and chat completions endpoints in the ingestion benchmark.
+ *
+ * Every call waits {@code latency} (±20%), and a {@code rateLimitRatio} share of them is answered
+ * with 429 and Retry-After: 1 instead, to exercise the retries and the adaptive outbound limits.
+ * Embeddings are unit vectors seeded by the input text. Chat completions answer question
+ * extraction: a JSON array of questions, or one item per [CHUNK n] of a batched call.
+ * GET /stats returns the call, throttling and token counters.
+ */
+final class OpenAiStub implements AutoCloseable {
+
+    private static final Pattern CHUNK_KEY = Pattern.compile("\\[CHUNK (\\d+)");
+    private static final int QUESTIONS_PER_CHUNK = 3;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Duration latency;
+    private final double rateLimitRatio;
+    private final int defaultDimensions;
+
+    private final AtomicLong embeddingCalls = new AtomicLong();
+    private final AtomicLong embeddedInputs = new AtomicLong();
+    private final AtomicLong chatCalls = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();
+
+    OpenAiStub(Duration latency, double rateLimitRatio, int defaultDimensions) throws IOException {
+        this.latency = latency;
+        this.rateLimitRatio = rateLimitRatio;
+        this.defaultDimensions = defaultDimensions;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/embeddings", exchange -> handle(exchange, this::embeddings));
+        server.createContext("/v1/chat/completions", exchange -> handle(exchange, this::chat));
+        server.createContext("/stats", this::stats);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Base URL of the OpenAI API, as configured in quarkus.langchain4j.openai.base-url.
+     */
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v1/";
+    }
+
+    private interface Endpoint {
+        ObjectNode answer(JsonNode request);
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try {
+            JsonNode request = mapper.readTree(exchange.getRequestBody());
+            long millis = latency.toMillis();
+            Thread.sleep(millis == 0 ? 0 : ThreadLocalRandom.current().nextLong(millis * 8 / 10, millis * 12 / 10 + 1));
+            if (ThreadLocalRandom.current().nextDouble() < rateLimitRatio) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 429, "{\"error\":{\"message\":\"Rate limit reached (benchmark stub)\"," +
+                        "\"type\":\"requests\",\"code\":\"rate_limit_exceeded\"}}");
+                return;
+            }
+            respond(exchange, 200, mapper.writeValueAsString(endpoint.answer(request)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{\"error\":{\"message\":\"interrupted\"}}");
+        } catch (Exception e) {
+            respond(exchange, 500, "{\"error\":{\"message\":\"" + e.getClass().getSimpleName() + "\"}}");
+        }
+    }
+
+    private ObjectNode embeddings(JsonNode request) {
+        List<String> inputs = new ArrayList<>();
+        JsonNode input = request.path("input");
+        if (input.isArray()) {
+            input.forEach(item -> inputs.add(item.asText()));
+        } else {
+            inputs.add(input.asText());
+        }
+        int dimensions = request.path("dimensions").asInt(defaultDimensions);
+
+        ObjectNode response = mapper.createObjectNode();
+        response.put("object", "list");
+        response.put("model", request.path("model").asText("text-embedding-3-small"));
+        ArrayNode data = response.putArray("data");
+        long tokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            ObjectNode item = data.addObject();
+            item.put("object", "embedding");
+            item.put("index", i);
+            ArrayNode vector = item.putArray("embedding");
+            for (float value : vector(inputs.get(i), dimensions)) {
+                vector.add(value);
+            }
+            tokens += tokens(inputs.get(i));
+        }
+        usage(response, tokens, 0);
+        embeddingCalls.incrementAndGet();
+        embeddedInputs.addAndGet(inputs.size());
+        promptTokens.addAndGet(tokens);
+        return response;
+    }
+
+    private ObjectNode chat(JsonNode request) {
+        JsonNode messages = request.path("messages");
+        String prompt = "";
+        long tokens = 0;
+        for (JsonNode message : messages) {
+            String content = message.path("content").asText("");
+            tokens += tokens(content);
+            if ("user".equals(message.path("role").asText())) {
+                prompt = content;
+            }
+        }
+
+        String content;
+        Matcher keys = CHUNK_KEY.matcher(prompt);
+        if (keys.find()) {
+            ObjectNode answer = mapper.createObjectNode();
+            ArrayNode chunks = answer.putArray("chunks");
+            do {
+                ObjectNode item = chunks.addObject();
+                item.put("id", keys.group(1));
+                questions(item.putArray("questions"), prompt.hashCode() + keys.group(1));
+            } while (keys.find());
+            content = answer.toString();
+        } else {
+            ArrayNode answer = mapper.createArrayNode();
+            questions(answer, String.valueOf(prompt.hashCode()));
+            content = answer.toString();
+        }
+
+        ObjectNode response = mapper.createObjectNode();
+        response.put("id", "chatcmpl-benchmark");
+        response.put("object", "chat.completion");
+        response.put("created", System.currentTimeMillis() / 1000);
+        response.put("model", request.path("model").asText("gpt-4o-mini"));
+        ObjectNode choice = response.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.putObject("message").put("role", "assistant").put("content", content);
+        choice.put("finish_reason", "stop");
+        usage(response, tokens, tokens(content));
+        chatCalls.incrementAndGet();
+        promptTokens.addAndGet(tokens);
+        return response;
+    }
+
+    private static void questions(ArrayNode target, String seed) {
+        for (int i = 1; i <= QUESTIONS_PER_CHUNK; i++) {
+            target.add("Qual é o ponto " + i + " do trecho " + Integer.toHexString(seed.hashCode()) + "?");
+        }
+    }
+
+    private static float[] vector(String text, int dimensions) {
+        Random random = new Random(text.hashCode());
+        float[] vector = new float[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static long tokens(String text) {
+        return Math.max(1, text.length() / 4);
+    }
+
+    private static void usage(ObjectNode response, long prompt, long completion) {
+        response.putObject("usage")
+                .put("prompt_tokens", prompt)
+                .put("completion_tokens", completion)
+                .put("total_tokens", prompt + completion);
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        ObjectNode stats = mapper.createObjectNode()
+                .put("embeddingCalls", embeddingCalls.get())
+                .put("embeddedInputs", embeddedInputs.get())
+                .put("chatCalls", chatCalls.get())
+                .put("throttled", throttled.get())
+                .put("promptTokens", promptTokens.get());
+        respond(exchange, 200, mapper.writeValueAsString(stats));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,189 @@
+package dev.matheus.repository;
+
+import dev.matheus.entity.Chat;
+import dev.matheus.entity.ChunkEmbedding;
+import dev.matheus.entity.ContentType;
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.entity.DocumentFile;
+import dev.matheus.entity.ProcessingStatus;
+import dev.matheus.service.storage.BlobStore;
+import dev.matheus.test.util.TestFileUtils;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests and throughput comparison for ChunkBulkWriter
+ */
+@QuarkusTest
+class ChunkBulkWriterTest {
+
+    private static final Logger LOG = Logger.getLogger(ChunkBulkWriterTest.class);
+    private static final int BENCHMARK_CHUNKS = 10_000;
+
+    @Inject
+    ChunkBulkWriter chunkBulkWriter;
+
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    EntityManager em;
+
+    private String docId;
+
+    @BeforeEach
+    @Transactional
+    void setupDocument() {
+        em.createQuery("DELETE FROM ChunkEmbedding").executeUpdate();
+        em.createQuery("DELETE FROM DocumentChunk").executeUpdate();
+        em.createQuery("DELETE FROM DocumentFile").executeUpdate();
+        em.createQuery("DELETE FROM ChatMessage").executeUpdate();
+        em.createQuery("DELETE FROM Chat").executeUpdate();
+
+        Chat chat = new Chat();
+        chat.title = "Bulk";
+        em.persist(chat);
+
+        byte[] content = "bulk writer test document".getBytes(StandardCharsets.UTF_8);
+        DocumentFile doc = new DocumentFile();
+        doc.chat = chat;
+        chat.documentFile = doc;
+        doc.fileName = "bulk.txt";
+        doc.fileType = "text/plain";
+        doc.fileSize = (long) content.length;
+        TestFileUtils.attachContent(blobStore, doc, content);
+        doc.processingStatus = ProcessingStatus.PROCESSING;
+        em.persist(doc);
+        em.flush();
+
+        docId = doc.id;
+    }
+
+    @Test
+    void shouldCopyChunksWithContentKeptVerbatim() {
+        String tricky = "Quote \" comma, backslash \\ tab\t\nnew line, \"\"doubled\"\" and ünïcode – ✓";
+        DocumentChunk chunk = chunk(0, tricky);
+        DocumentChunk empty = chunk(1, "");
+        empty.sectionHeading = "Heading, with \"quotes\"";
+        empty.headingLevel = 2;
+
+        QuarkusTransaction.requiringNew().run(() ->
+                chunkBulkWriter.insertChunks(docId, List.of(chunk, empty)));
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            DocumentChunk first = em.find(DocumentChunk.class, chunk.id);
+            assertThat(first.content).isEqualTo(tricky);
+            assertThat(first.sectionHeading).isNull();
+            assertThat(first.headingLevel).isNull();
+            assertThat(first.contentHash).isEqualTo(chunk.contentHash).isNotNull();
+            assertThat(first.createdAt).isNotNull();
+            assertThat(first.documentFile.id).isEqualTo(docId);
+
+            DocumentChunk second = em.find(DocumentChunk.class, empty.id);
+            assertThat(second.content).isEmpty();
+            assertThat(second.sectionHeading).isEqualTo("Heading, with \"quotes\"");
+            assertThat(second.headingLevel).isEqualTo(2);
+            assertThat(second.position).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void shouldInsertLinksReferencingBulkInsertedChunks() {
+        DocumentChunk chunk = chunk(0, "Linked chunk");
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            chunkBulkWriter.insertChunks(docId, List.of(chunk));
+            chunkBulkWriter.insertChunkEmbeddings(List.of(
+                    link(chunk, "vector-1", "CONTENT"),
+                    link(chunk, "vector-2", "HYPOTHETICAL_QUESTION")));
+        });
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            List<ChunkEmbedding> links = ChunkEmbedding.list("chunk.id", chunk.id);
+            assertThat(links).extracting(link -> link.embeddingId)
+                    .containsExactlyInAnyOrder("vector-1", "vector-2");
+        });
+    }
+
+    @Test
+    void shouldInsertWithBatchedStatements() {
+        ChunkBulkWriter batchWriter = new ChunkBulkWriter(em, ChunkBulkWriter.Mode.BATCH, 3);
+        List<DocumentChunk> chunks = chunks(7);
+
+        QuarkusTransaction.requiringNew().run(() -> batchWriter.insertChunks(docId, chunks));
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertThat(DocumentChunk.count("documentFile.id", docId)).isEqualTo(7);
+            assertThat(em.find(DocumentChunk.class, chunks.get(6).id).content).isEqualTo(chunks.get(6).content);
+        });
+    }
+
+    /**
+     * Writes a 10k-chunk document with entity persist, batched statements and COPY,
+     * each in one transaction, and logs the throughput.
+     */
+    @Test
+    void benchmarkBulkWritesOfLargeDocument() {
+        long persistMillis = timeInTransaction(() -> {
+            DocumentFile doc = em.find(DocumentFile.class, docId);
+            for (DocumentChunk chunk : chunks(BENCHMARK_CHUNKS)) {
+                chunk.documentFile = doc;
+                chunk.persist();
+            }
+        });
+        long batchMillis = timeInTransaction(() ->
+                new ChunkBulkWriter(em, ChunkBulkWriter.Mode.BATCH, 1000).insertChunks(docId, chunks(BENCHMARK_CHUNKS)));
+        long copyMillis = timeInTransaction(() ->
+                new ChunkBulkWriter(em, ChunkBulkWriter.Mode.COPY, 1000).insertChunks(docId, chunks(BENCHMARK_CHUNKS)));
+
+        LOG.infof("%d chunks - entity persist: %dms, batched statements: %dms, COPY: %dms",
+                BENCHMARK_CHUNKS, persistMillis, batchMillis, copyMillis);
+
+        QuarkusTransaction.requiringNew().run(() ->
+                assertThat(DocumentChunk.count("documentFile.id", docId)).isEqualTo(3L * BENCHMARK_CHUNKS));
+        assertThat(copyMillis).isLessThan(persistMillis);
+    }
+
+    private long timeInTransaction(Runnable work) {
+        long start = System.nanoTime();
+        QuarkusTransaction.requiringNew().run(work);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static List<DocumentChunk> chunks(int count) {
+        List<DocumentChunk> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            chunks.add(chunk(i, "Chunk " + i + " of a large document. ".repeat(40)));
+        }
+        return chunks;
+    }
+
+    private static DocumentChunk chunk(int position, String content) {
+        DocumentChunk chunk = new DocumentChunk();
+        chunk.content = content;
+        chunk.contentType = ContentType.TEXT;
+        chunk.position = position;
+        chunk.tokenCount = content.length() / 4;
+        return chunk;
+    }
+
+    private static ChunkEmbedding link(DocumentChunk chunk, String embeddingId, String type) {
+        ChunkEmbedding link = new ChunkEmbedding();
+        link.chunk = chunk;
+        link.embeddingId = embeddingId;
+        link.embeddingType = type;
+        return link;
+    }
+}
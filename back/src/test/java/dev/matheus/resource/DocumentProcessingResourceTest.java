@@ -3,6 +3,9 @@ package dev.matheus.resource;
 import dev.matheus.dto.ChunkResponse;
 import dev.matheus.dto.ProcessingStatusResponse;
 import dev.matheus.entity.*;
+import dev.matheus.service.storage.BlobStore;
+import dev.matheus.test.util.TestFileUtils;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import jakarta.inject.Inject;
@@ -48,6 +51,9 @@ public class DocumentProcessingResourceTest {
     @Inject
     EntityManager em;
 
+    @Inject
+    BlobStore blobStore;
+
     private String testDocumentId;
     private String processedDocumentId;
     private String processingDocumentId;
@@ -82,7 +88,7 @@ public class DocumentProcessingResourceTest {
         pendingDoc.fileName = "test-pending.pdf";
         pendingDoc.fileType = "application/pdf";
         pendingDoc.fileSize = 1024L;
-        pendingDoc.fileData = "dummy pdf content".getBytes();
+        TestFileUtils.attachContent(blobStore, pendingDoc, "dummy pdf content".getBytes());
         pendingDoc.uploadedAt = LocalDateTime.now();
         pendingDoc.processingStatus = ProcessingStatus.PENDING;
         em.persist(pendingDoc);
@@ -95,7 +101,7 @@ public class DocumentProcessingResourceTest {
         completedDoc.fileName = "test-completed.pdf";
         completedDoc.fileType = "application/pdf";
         completedDoc.fileSize = 2048L;
-        completedDoc.fileData = "dummy pdf content 2".getBytes();
+        TestFileUtils.attachContent(blobStore, completedDoc, "dummy pdf content 2".getBytes());
         completedDoc.uploadedAt = LocalDateTime.now();
         completedDoc.processingStatus = ProcessingStatus.COMPLETED;
         completedDoc.processedAt = LocalDateTime.now();
@@ -125,7 +131,7 @@ public class DocumentProcessingResourceTest {
         processingDoc.fileName = "test-processing.pdf";
         processingDoc.fileType = "application/pdf";
         processingDoc.fileSize = 3072L;
-        processingDoc.fileData = "dummy pdf content 3".getBytes();
+        TestFileUtils.attachContent(blobStore, processingDoc, "dummy pdf content 3".getBytes());
         processingDoc.uploadedAt = LocalDateTime.now();
         processingDoc.processingStatus = ProcessingStatus.PROCESSING;
         em.persist(processingDoc);
@@ -479,4 +485,43 @@ public class DocumentProcessingResourceTest {
                 .body("size", equalTo(20)) // Default size from spec
                 .body("hasMore", equalTo(false));
     }
+
+    /**
+     * Reprocessing while a job of the document is running returns 409: the running job
+     * would chunk at the old size, so the request cannot be applied.
+     */
+    @Test
+    @Order(12)
+    public void shouldReturn409WhenReprocessingDuringRunningJob() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createQuery("DELETE FROM IngestionJob j WHERE j.documentId = :docId")
+                    .setParameter("docId", processedDocumentId)
+                    .executeUpdate();
+            IngestionJob job = new IngestionJob();
+            job.documentId = processedDocumentId;
+            job.status = IngestionJobStatus.RUNNING;
+            job.maxAttempts = 3;
+            job.attempts = 1;
+            job.leaseOwner = "other-node";
+            job.leaseExpiresAt = LocalDateTime.now().plusHours(1);
+            em.persist(job);
+        });
+
+        try {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body("{\"maxTokens\": 500}")
+                    .when()
+                    .post("/api/documents/" + processedDocumentId + "/reprocess")
+                    .then()
+                    .statusCode(409);
+
+            DocumentFile doc = QuarkusTransaction.requiringNew().call(() -> em.find(DocumentFile.class, processedDocumentId));
+            assertThat(doc.processingStatus).isEqualTo(ProcessingStatus.COMPLETED);
+        } finally {
+            QuarkusTransaction.requiringNew().run(() -> em.createQuery("DELETE FROM IngestionJob j WHERE j.documentId = :docId")
+                    .setParameter("docId", processedDocumentId)
+                    .executeUpdate());
+        }
+    }
 }
@@ -4,6 +4,7 @@ import ai.docling.testcontainers.serve.DoclingServeContainer;
 import ai.docling.testcontainers.serve.config.DoclingServeContainerConfig;
 import com.github.dockerjava.api.model.HostConfig;
 import dev.matheus.entity.*;
+import dev.matheus.service.storage.BlobStore;
 import dev.matheus.test.util.TestFileUtils;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
@@ -66,6 +67,9 @@ class DocumentIngestionServiceIntegrationTest {
     @Inject
     DocumentIngestionService documentIngestionService;
 
+    @Inject
+    BlobStore blobStore;
+
     @BeforeAll
     static void setUp() {
         if (doclingServeContainer != null && doclingServeContainer.isRunning()) {
@@ -345,7 +349,7 @@ class DocumentIngestionServiceIntegrationTest {
         doc.fileName = filename;
         doc.fileType = "application/pdf";
         doc.fileSize = (long) data.length;
-        doc.fileData = data;
+        TestFileUtils.attachContent(blobStore, doc, data);
         doc.processingStatus = ProcessingStatus.PENDING;
         doc.persist();
         
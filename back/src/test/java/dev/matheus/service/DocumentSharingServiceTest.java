@@ -0,0 +1,148 @@
+package dev.matheus.service;
+
+import dev.matheus.dto.ChatResponse;
+import dev.matheus.entity.Chat;
+import dev.matheus.entity.ContentType;
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.entity.DocumentFile;
+import dev.matheus.entity.ProcessingStatus;
+import dev.matheus.service.storage.BlobStore;
+import dev.matheus.test.util.TestFileUtils;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for sharing ingestion results between uploads of the same content
+ */
+@QuarkusTest
+class DocumentSharingServiceTest {
+
+    private static final byte[] CONTENT = "shared document content for dedup tests".getBytes(StandardCharsets.UTF_8);
+
+    @Inject
+    ChatService chatService;
+
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    EntityManager em;
+
+    private String ownerChatId;
+    private String ownerDocId;
+
+    @BeforeEach
+    @Transactional
+    void setupOwner() {
+        em.createQuery("DELETE FROM ChunkEmbedding").executeUpdate();
+        em.createQuery("DELETE FROM DocumentChunk").executeUpdate();
+        em.createQuery("DELETE FROM DocumentFile").executeUpdate();
+        em.createQuery("DELETE FROM ChatMessage").executeUpdate();
+        em.createQuery("DELETE FROM Chat").executeUpdate();
+
+        Chat chat = new Chat();
+        chat.title = "Owner";
+        em.persist(chat);
+
+        DocumentFile doc = new DocumentFile();
+        doc.chat = chat;
+        chat.documentFile = doc;
+        doc.fileName = "manual.txt";
+        doc.fileType = "text/plain";
+        doc.fileSize = (long) CONTENT.length;
+        TestFileUtils.attachContent(blobStore, doc, CONTENT);
+        doc.processingStatus = ProcessingStatus.COMPLETED;
+        doc.processedAt = LocalDateTime.now();
+        doc.processorVersion = DocumentIngestionService.PROCESSOR_VERSION;
+        doc.chunkCount = 2;
+        doc.language = "en";
+        em.persist(doc);
+
+        for (int i = 0; i < 2; i++) {
+            DocumentChunk chunk = new DocumentChunk();
+            chunk.documentFile = doc;
+            chunk.content = "Chunk " + i;
+            chunk.contentType = ContentType.TEXT;
+            chunk.position = i;
+            chunk.tokenCount = 2;
+            em.persist(chunk);
+        }
+        em.flush();
+
+        ownerChatId = chat.id;
+        ownerDocId = doc.id;
+    }
+
+    @Test
+    void shouldReuseCompletedIngestionForSameContent() throws Exception {
+        ChatResponse response = chatService.createChat(CONTENT, "copy-of-manual.txt", "text/plain");
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            DocumentFile copy = chatService.getDocumentEntity(response.id());
+            DocumentFile owner = em.find(DocumentFile.class, ownerDocId);
+
+            assertThat(copy.sharedFromId).isEqualTo(ownerDocId);
+            assertThat(copy.processingStatus).isEqualTo(ProcessingStatus.COMPLETED);
+            assertThat(copy.chunkCount).isEqualTo(2);
+            assertThat(copy.language).isEqualTo("en");
+            assertThat(owner.refCount).isEqualTo(2);
+            // Searches the vectors created for the first upload
+            assertThat(chatService.getIndexFileName(response.id())).isEqualTo("manual.txt");
+        });
+    }
+
+    @Test
+    void shouldNotReuseIngestionOfDifferentContent() throws Exception {
+        ChatResponse response = chatService.createChat(
+                "other content".getBytes(StandardCharsets.UTF_8), "other.txt", "text/plain");
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            DocumentFile doc = chatService.getDocumentEntity(response.id());
+            assertThat(doc.sharedFromId).isNull();
+            assertThat(em.find(DocumentFile.class, ownerDocId).refCount).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void shouldHandChunksToRemainingChatWhenOwnerIsDeleted() throws Exception {
+        ChatResponse copyChat = chatService.createChat(CONTENT, "copy-of-manual.txt", "text/plain");
+
+        chatService.deleteChat(ownerChatId);
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            DocumentFile heir = chatService.getDocumentEntity(copyChat.id());
+            assertThat(heir.sharedFromId).isNull();
+            assertThat(heir.refCount).isEqualTo(1);
+            assertThat(heir.indexFileName).isEqualTo("manual.txt");
+            assertThat(DocumentChunk.count("documentFile.id", heir.id)).isEqualTo(2);
+        });
+
+        chatService.deleteChat(copyChat.id());
+
+        QuarkusTransaction.requiringNew().run(() ->
+                assertThat(DocumentChunk.count()).isZero());
+    }
+
+    @Test
+    void shouldKeepOwnerChunksWhenSharingChatIsDeleted() throws Exception {
+        ChatResponse copyChat = chatService.createChat(CONTENT, "copy-of-manual.txt", "text/plain");
+
+        chatService.deleteChat(copyChat.id());
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            DocumentFile owner = em.find(DocumentFile.class, ownerDocId);
+            assertThat(owner.refCount).isEqualTo(1);
+            assertThat(DocumentChunk.count("documentFile.id", ownerDocId)).isEqualTo(2);
+        });
+    }
+}
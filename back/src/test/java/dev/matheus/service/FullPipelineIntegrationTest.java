@@ -206,7 +206,13 @@ class FullPipelineIntegrationTest {
         System.out.println("Content embeddings: " + contentEmbeddings);
         System.out.println("Question embeddings: " + questionEmbeddings);
         
-        assertThat(contentEmbeddings).isEqualTo(chunks.size());
+        // Each chunk is embedded as one or more passages
+        assertThat(contentEmbeddings).isGreaterThanOrEqualTo(chunks.size());
+        assertThat(embeddings.stream()
+                .filter(e -> "CONTENT".equals(e.embeddingType))
+                .map(e -> e.chunk.id)
+                .distinct()
+                .count()).isEqualTo(chunks.size());
         assertThat(questionEmbeddings).isGreaterThan(0);
         
         // Verify all embeddings have IDs
@@ -0,0 +1,169 @@
+package dev.matheus.service;
+
+import dev.matheus.ai.QuestionExtractorAiService;
+import dev.matheus.ai.QuestionExtractorAiService.BatchQuestions;
+import dev.matheus.ai.QuestionExtractorAiService.ChunkQuestions;
+import dev.matheus.entity.ContentType;
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.service.ingestion.IngestionConfigProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for batched hypothetical question generation in HypotheticalQuestionService
+ */
+class HypotheticalQuestionBatchingTest {
+
+    private final HypotheticalQuestionService service = new HypotheticalQuestionService();
+    private QuestionExtractorAiService ai;
+
+    @BeforeEach
+    void setUp() {
+        ai = mock(QuestionExtractorAiService.class);
+        IngestionConfigProperties config = mock(IngestionConfigProperties.class);
+        when(config.questionBatchMaxChunks()).thenReturn(8);
+        when(config.questionBatchMaxTokens()).thenReturn(3000);
+        service.questionExtractorAiService = ai;
+        service.ingestionConfig = config;
+    }
+
+    @Test
+    void shouldPackSmallChunksIntoOneCall() {
+        List<DocumentChunk> chunks = chunks(20, "Short paragraph about invoices.");
+        when(ai.extractQuestionsBatch(anyString())).thenAnswer(invocation -> answerAll(invocation.getArgument(0)));
+
+        Map<String, List<String>> questions = service.generateQuestions(chunks);
+
+        // 20 chunks at 8 per call
+        verify(ai, times(3)).extractQuestionsBatch(anyString());
+        verify(ai, never()).extractQuestions(anyString());
+        assertThat(questions).hasSize(20);
+        assertThat(questions.get(chunks.get(9).id)).containsExactly("Question about chunk 2?");
+    }
+
+    @Test
+    void shouldSendChunksAboveTokenBudgetAlone() {
+        List<DocumentChunk> chunks = new ArrayList<>(chunks(2, "Short paragraph."));
+        chunks.add(1, chunk("big", "word ".repeat(20_000), ContentType.TEXT));
+        when(ai.extractQuestions(anyString())).thenReturn(List.of("Single question?"));
+
+        Map<String, List<String>> questions = service.generateQuestions(chunks);
+
+        // Packing keeps order: [small], [big], [small] - every batch has one chunk
+        verify(ai, never()).extractQuestionsBatch(anyString());
+        assertThat(questions).hasSize(3);
+    }
+
+    @Test
+    void shouldFallBackToSingleCallsForChunksMissingFromBatchAnswer() {
+        List<DocumentChunk> chunks = chunks(3, "Paragraph.");
+        chunks.get(2).contentType = ContentType.TABLE;
+        when(ai.extractQuestionsBatch(anyString())).thenReturn(new BatchQuestions(List.of(
+                new ChunkQuestions("CHUNK 1", List.of("First?", " ")),
+                new ChunkQuestions("2", List.of()),
+                new ChunkQuestions("7", List.of("Unknown chunk?")))));
+        when(ai.extractQuestions(anyString())).thenReturn(List.of("Retried text?"));
+        when(ai.extractQuestionsFromTable(anyString())).thenReturn(List.of("Retried table?"));
+
+        Map<String, List<String>> questions = service.generateQuestions(chunks);
+
+        assertThat(questions.get(chunks.get(0).id)).containsExactly("First?");
+        assertThat(questions.get(chunks.get(1).id)).containsExactly("Retried text?");
+        assertThat(questions.get(chunks.get(2).id)).containsExactly("Retried table?");
+    }
+
+    @Test
+    void shouldFallBackToSingleCallsWhenBatchCallFails() {
+        List<DocumentChunk> chunks = chunks(4, "Paragraph.");
+        when(ai.extractQuestionsBatch(anyString())).thenThrow(new RuntimeException("invalid JSON"));
+        when(ai.extractQuestions(anyString())).thenReturn(List.of("Retried?"));
+
+        Map<String, List<String>> questions = service.generateQuestions(chunks);
+
+        verify(ai, times(4)).extractQuestions(anyString());
+        assertThat(questions.values()).allSatisfy(q -> assertThat(q).containsExactly("Retried?"));
+    }
+
+    @Test
+    void shouldPropagateThrottledBatchCall() {
+        List<DocumentChunk> chunks = chunks(4, "Paragraph.");
+        when(ai.extractQuestionsBatch(anyString())).thenThrow(new RuntimeException("HTTP 429 Too Many Requests"));
+
+        assertThatThrownBy(() -> service.generateQuestions(chunks)).hasMessageContaining("429");
+        verify(ai, never()).extractQuestions(anyString());
+    }
+
+    @Test
+    void shouldPropagateLimiterRejection() {
+        List<DocumentChunk> chunks = chunks(1, "Paragraph.");
+        when(ai.extractQuestions(anyString())).thenThrow(new RejectedExecutionException("No call slot"));
+
+        assertThatThrownBy(() -> service.generateQuestions(chunks)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void shouldLeaveOutChunksWhoseCallFails() {
+        List<DocumentChunk> chunks = List.of(
+                chunk("ok", "Paragraph.", ContentType.TEXT),
+                chunk("broken", "Table.", ContentType.TABLE));
+        when(ai.extractQuestionsBatch(anyString())).thenReturn(new BatchQuestions(List.of()));
+        when(ai.extractQuestions(anyString())).thenReturn(List.of("Answered?"));
+        when(ai.extractQuestionsFromTable(anyString())).thenThrow(new RuntimeException("timeout"));
+
+        Map<String, List<String>> questions = service.generateQuestions(chunks);
+
+        assertThat(questions).containsOnlyKeys("ok");
+        assertThat(HypotheticalQuestionService.withoutQuestions(chunks, questions))
+                .extracting(chunk -> chunk.id).containsExactly("broken");
+    }
+
+    @Test
+    void shouldMarkTablesInBatchMessage() {
+        List<DocumentChunk> chunks = List.of(
+                chunk("a", "  Text chunk  ", ContentType.TEXT),
+                chunk("b", "| a | b |", ContentType.TABLE));
+
+        assertThat(HypotheticalQuestionService.formatQuestionBatch(chunks))
+                .isEqualTo("[CHUNK 1]\nText chunk\n\n[CHUNK 2 TABLE]\n| a | b |\n\n");
+    }
+
+    /**
+     * Answer every chunk of a batch message with one question naming its key.
+     */
+    private static BatchQuestions answerAll(String message) {
+        List<ChunkQuestions> items = new ArrayList<>();
+        int count = message.split("\\[CHUNK ").length - 1;
+        for (int i = 1; i <= count; i++) {
+            items.add(new ChunkQuestions(String.valueOf(i), List.of("Question about chunk " + i + "?")));
+        }
+        return new BatchQuestions(items);
+    }
+
+    private static List<DocumentChunk> chunks(int count, String content) {
+        List<DocumentChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            chunks.add(chunk("chunk-" + i, content, ContentType.TEXT));
+        }
+        return chunks;
+    }
+
+    private static DocumentChunk chunk(String id, String content, ContentType type) {
+        DocumentChunk chunk = new DocumentChunk();
+        chunk.id = id;
+        chunk.content = content;
+        chunk.contentType = type;
+        chunk.position = 0;
+        chunk.tokenCount = content.length() / 4;
+        return chunk;
+    }
+}
@@ -8,6 +8,8 @@ import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.matheus.entity.*;
+import dev.matheus.service.storage.BlobStore;
+import dev.matheus.test.util.TestFileUtils;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -45,6 +47,9 @@ class HypotheticalQuestionServiceIntegrationTest {
     @Inject
     EmbeddingStore<TextSegment> embeddingStore;
 
+    @Inject
+    BlobStore blobStore;
+
     /**
      * T089: Verify hypothetical questions generated and linked via ChunkEmbedding
      * 
@@ -112,7 +117,7 @@ class HypotheticalQuestionServiceIntegrationTest {
         DocumentChunk chunk = createTestChunk();
         
         // When: Generating hypothetical questions
-        hypotheticalQuestionService.generateEmbeddingsInTransaction(chunk);
+        hypotheticalQuestionService.generateEmbeddings(chunk.documentFile.id);
         
         // Then: Questions created and linked via ChunkEmbedding
         List<ChunkEmbedding> chunkEmbeddings = ChunkEmbedding.list("chunk.id", chunk.id);
@@ -160,7 +165,7 @@ class HypotheticalQuestionServiceIntegrationTest {
         DocumentChunk chunk = createTestChunk();
         
         // When: Generating embeddings
-        hypotheticalQuestionService.generateEmbeddingsInTransaction(chunk);
+        hypotheticalQuestionService.generateEmbeddings(chunk.documentFile.id);
         
         // Then: Multiple embedding types created
         List<ChunkEmbedding> embeddings = ChunkEmbedding.list("chunk.id", chunk.id);
@@ -385,7 +390,7 @@ class HypotheticalQuestionServiceIntegrationTest {
         doc.fileName = "test-processed.pdf";
         doc.fileType = "application/pdf";
         doc.fileSize = 1024L;
-        doc.fileData = new byte[]{1, 2, 3};
+        TestFileUtils.attachContent(blobStore, doc, new byte[]{1, 2, 3});
         doc.processingStatus = ProcessingStatus.COMPLETED;
         doc.chunkCount = 5;
         doc.processorVersion = "docling-serve-v1.9.0";
@@ -415,7 +420,7 @@ class HypotheticalQuestionServiceIntegrationTest {
         doc.fileName = "test-single-chunk.pdf";
         doc.fileType = "application/pdf";
         doc.fileSize = 512L;
-        doc.fileData = new byte[]{1, 2, 3};
+        TestFileUtils.attachContent(blobStore, doc, new byte[]{1, 2, 3});
         doc.processingStatus = ProcessingStatus.COMPLETED;
         doc.persist();
         
@@ -441,7 +446,7 @@ class HypotheticalQuestionServiceIntegrationTest {
         doc.fileName = "test-table.pdf";
         doc.fileType = "application/pdf";
         doc.fileSize = 512L;
-        doc.fileData = new byte[]{1, 2, 3};
+        TestFileUtils.attachContent(blobStore, doc, new byte[]{1, 2, 3});
         doc.processingStatus = ProcessingStatus.COMPLETED;
         doc.persist();
         
@@ -0,0 +1,58 @@
+package dev.matheus.service.docling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ChunkAccumulator.
+ */
+class ChunkAccumulatorTest {
+
+    @Test
+    void shouldKeepRunningTokenCountWithSeparators() {
+        ChunkAccumulator chunk = new ChunkAccumulator(1);
+
+        chunk.add(SemanticUnit.of(UnitType.PARAGRAPH, "First paragraph."), 3);
+        chunk.add(SemanticUnit.of(UnitType.LIST, "- a\n- b"), 6);
+
+        assertThat(chunk.tokens()).isEqualTo(3 + 1 + 6);
+        assertThat(chunk.content()).isEqualTo("First paragraph.\n\n- a\n- b");
+    }
+
+    @Test
+    void shouldRememberFirstHeading() {
+        ChunkAccumulator chunk = new ChunkAccumulator(1);
+        SemanticUnit first = SemanticUnit.heading("## First", 0, 8, 2, 3, 8);
+
+        chunk.add(SemanticUnit.of(UnitType.PARAGRAPH, "Intro."), 2);
+        chunk.add(first, 2);
+        chunk.add(SemanticUnit.heading("### Second", 0, 10, 3, 4, 10), 2);
+
+        assertThat(chunk.firstHeading()).isSameAs(first);
+        assertThat(chunk.isLoneHeading()).isFalse();
+    }
+
+    @Test
+    void shouldDetectLoneHeading() {
+        ChunkAccumulator chunk = new ChunkAccumulator(1);
+
+        chunk.add(SemanticUnit.heading("# Title", 0, 7, 1, 2, 7), 2);
+
+        assertThat(chunk.isLoneHeading()).isTrue();
+    }
+
+    @Test
+    void shouldStartOverWhenCleared() {
+        ChunkAccumulator chunk = new ChunkAccumulator(1);
+        chunk.add(SemanticUnit.heading("# Title", 0, 7, 1, 2, 7), 2);
+        chunk.add(SemanticUnit.of(UnitType.PARAGRAPH, "Text."), 2);
+
+        chunk.clear();
+        chunk.add(SemanticUnit.of(UnitType.PARAGRAPH, "Next."), 2);
+
+        assertThat(chunk.tokens()).isEqualTo(2);
+        assertThat(chunk.content()).isEqualTo("Next.");
+        assertThat(chunk.firstHeading()).isNull();
+    }
+}
@@ -0,0 +1,80 @@
+package dev.matheus.service.docling;
+
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.entity.DocumentFile;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of assembling chunks from very long runs of small paragraphs, where a chunk holds
+ * hundreds of units: with exact BPE counts, re-counting the chunk after every unit made
+ * assembly quadratic in units per chunk. Time per paragraph must stay flat as the run grows.
+ * Only runs with -Pbenchmark.
+ */
+@Tag("benchmark")
+class ChunkAssemblyBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(ChunkAssemblyBenchmarkTest.class);
+    private static final int MAX_TOKENS = 8000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void assemblyShouldScaleLinearlyWithParagraphs() {
+        DoclingChunkingService service = new DoclingChunkingService();
+        service.tokenEstimator = new TokenEstimator();
+        service.contentTypeDetector = new ContentTypeDetector();
+
+        // Warm up the JIT
+        chunk(service, 5_000);
+
+        double smallNanos = bestNanosPerParagraph(service, 5_000);
+        double largeNanos = bestNanosPerParagraph(service, 40_000);
+        LOG.infof("Chunk assembly of small paragraphs: %.1f µs each for 5000, %.1f µs each for 40000",
+                smallNanos / 1_000, largeNanos / 1_000);
+
+        assertThat(largeNanos).isLessThan(smallNanos * 3);
+    }
+
+    @Test
+    void longParagraphRunsShouldFillChunksUpToTheLimit() {
+        DoclingChunkingService service = new DoclingChunkingService();
+        service.tokenEstimator = new TokenEstimator();
+        service.contentTypeDetector = new ContentTypeDetector();
+
+        List<DocumentChunk> chunks = chunk(service, 5_000);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.tokenCount).isLessThanOrEqualTo(MAX_TOKENS));
+        assertThat(chunks.subList(0, chunks.size() - 1))
+                .allSatisfy(chunk -> assertThat(chunk.tokenCount).isGreaterThan(MAX_TOKENS * 8 / 10));
+    }
+
+    private static double bestNanosPerParagraph(DoclingChunkingService service, int paragraphs) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            assertThat(chunk(service, paragraphs)).isNotEmpty();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return (double) best / paragraphs;
+    }
+
+    private static List<DocumentChunk> chunk(DoclingChunkingService service, int paragraphs) {
+        DocumentFile documentFile = new DocumentFile();
+        documentFile.fileName = "benchmark.md";
+        return service.chunkMarkdown(documentFile, markdown(paragraphs), MAX_TOKENS);
+    }
+
+    private static String markdown(int paragraphs) {
+        StringBuilder markdown = new StringBuilder("# Ata da reunião\n\n");
+        for (int i = 0; i < paragraphs; i++) {
+            markdown.append("Item ").append(i).append(": aprovado sem ressalvas pelo conselho.\n\n");
+        }
+        return markdown.toString();
+    }
+}
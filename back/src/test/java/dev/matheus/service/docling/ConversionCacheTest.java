@@ -0,0 +1,110 @@
+package dev.matheus.service.docling;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ConversionCache
+ */
+class ConversionCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReturnStoredWindowsInOrder() {
+        ConversionCache cache = new ConversionCache(directory, 1024 * 1024);
+        String key = ConversionCache.key("abc", "to=MARKDOWN", "v1");
+
+        cache.put(key, List.of("# Page 1", "", "## Página 2 – ünïcode"));
+
+        assertThat(cache.get(key)).contains(List.of("# Page 1", "", "## Página 2 – ünïcode"));
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        ConversionCache cache = new ConversionCache(directory, 1024 * 1024);
+        String key = ConversionCache.key("abc", "to=MARKDOWN", "v1");
+
+        assertThat(cache.get(key)).isEmpty();
+        cache.put(key, List.of("markdown"));
+        assertThat(cache.get(key)).isPresent();
+        assertThat(cache.get(key)).isPresent();
+
+        ConversionCacheStats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.entries()).isEqualTo(1);
+        assertThat(stats.sizeBytes()).isPositive();
+    }
+
+    @Test
+    void shouldKeyOnEveryPart() {
+        String key = ConversionCache.key("abc", "to=MARKDOWN", "v1");
+
+        assertThat(ConversionCache.key("abd", "to=MARKDOWN", "v1")).isNotEqualTo(key);
+        assertThat(ConversionCache.key("abc", "to=HTML", "v1")).isNotEqualTo(key);
+        assertThat(ConversionCache.key("abc", "to=MARKDOWN", "v2")).isNotEqualTo(key);
+        assertThat(ConversionCache.key("abc", "to=MARKDOWN", "v1")).isEqualTo(key);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntriesBeyondSizeLimit() {
+        ConversionCache probe = new ConversionCache(directory.resolve("probe"), Long.MAX_VALUE);
+        probe.put("probe", List.of(incompressible(1)));
+        long entrySize = probe.stats().sizeBytes();
+
+        ConversionCache cache = new ConversionCache(directory.resolve("cache"), entrySize * 2 + entrySize / 2);
+        cache.put("first", List.of(incompressible(2)));
+        cache.put("second", List.of(incompressible(3)));
+        // Touch "first" so "second" is the least recently used
+        assertThat(cache.get("first")).isPresent();
+        cache.put("third", List.of(incompressible(4)));
+
+        assertThat(cache.get("second")).isEmpty();
+        assertThat(cache.get("first")).isPresent();
+        assertThat(cache.get("third")).isPresent();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().sizeBytes()).isLessThanOrEqualTo(entrySize * 2 + entrySize / 2);
+    }
+
+    @Test
+    void shouldReloadEntriesAfterRestart() {
+        ConversionCache cache = new ConversionCache(directory, 1024 * 1024);
+        cache.put("key", List.of("persisted"));
+
+        ConversionCache reopened = new ConversionCache(directory, 1024 * 1024);
+
+        assertThat(reopened.stats().entries()).isEqualTo(1);
+        assertThat(reopened.get("key")).contains(List.of("persisted"));
+    }
+
+    @Test
+    void shouldTreatCorruptEntryAsMiss() throws IOException {
+        ConversionCache cache = new ConversionCache(directory, 1024 * 1024);
+        cache.put("key", List.of("markdown"));
+        Files.writeString(directory.resolve("key.md.gz"), "not gzip");
+
+        assertThat(cache.get("key")).isEmpty();
+        assertThat(cache.stats().entries()).isZero();
+        assertThat(directory.resolve("key.md.gz")).doesNotExist();
+    }
+
+    /** Random-looking text that gzip cannot shrink much, so entries have similar sizes */
+    private static String incompressible(long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 4000; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+}
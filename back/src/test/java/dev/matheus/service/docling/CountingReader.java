@@ -0,0 +1,38 @@
+package dev.matheus.service.docling;
+
+import java.io.Reader;
+
+/**
+ * Reader over a string that hands out at most {@code maxRead} characters per read and
+ * counts the characters read so far, to check what a streaming consumer has buffered.
+ */
+final class CountingReader extends Reader {
+
+    private final String text;
+    private final int maxRead;
+    private int position;
+
+    CountingReader(String text, int maxRead) {
+        this.text = text;
+        this.maxRead = maxRead;
+    }
+
+    int charsRead() {
+        return position;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        if (position == text.length()) {
+            return -1;
+        }
+        int count = Math.min(Math.min(length, maxRead), text.length() - position);
+        text.getChars(position, position + count, buffer, offset);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() {
+    }
+}
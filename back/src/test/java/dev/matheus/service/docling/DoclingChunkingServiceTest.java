@@ -7,6 +7,8 @@ import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -522,6 +524,71 @@ class DoclingChunkingServiceTest {
         }
     }
 
+    /**
+     * Streaming chunking: chunks from a Reader are the chunks of the whole string, numbered from
+     * the given position, and reach the sink before the markdown has been read to the end.
+     */
+    @Test
+    void shouldChunkMarkdownStreamIncrementally() throws IOException {
+        StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            markdown.append(createMarkdownWithStructure()).append("\n");
+        }
+        DocumentFile documentFile = createTestDocumentFile("test-stream.md");
+        CountingReader reader = new CountingReader(markdown.toString(), 4096);
+        List<DocumentChunk> streamed = new ArrayList<>();
+        List<Integer> readWhenEmitted = new ArrayList<>();
+
+        int count = doclingChunkingService.chunkMarkdown(documentFile, reader, 10, 1000, chunk -> {
+            streamed.add(chunk);
+            readWhenEmitted.add(reader.charsRead());
+        });
+
+        List<DocumentChunk> whole = doclingChunkingService.chunkMarkdown(documentFile, markdown.toString(), 1000);
+        assertThat(count).isEqualTo(whole.size()).isEqualTo(streamed.size());
+        for (int i = 0; i < whole.size(); i++) {
+            assertThat(streamed.get(i).content).isEqualTo(whole.get(i).content);
+            assertThat(streamed.get(i).sectionHeading).isEqualTo(whole.get(i).sectionHeading);
+            assertThat(streamed.get(i).headingLevel).isEqualTo(whole.get(i).headingLevel);
+            assertThat(streamed.get(i).position).isEqualTo(10 + i);
+        }
+        assertThat(readWhenEmitted.get(0))
+                .as("First chunk emitted before the whole markdown is read")
+                .isLessThan(markdown.length() / 4);
+    }
+
+    /**
+     * Sections opened by H1/H2 headings are chunked in parallel; the stitched chunks must
+     * keep document order, consecutive positions and the heading context of their section.
+     */
+    @Test
+    void shouldStitchSectionsChunkedInParallel() {
+        StringBuilder markdown = new StringBuilder("Preamble before any heading.\n\n");
+        for (int i = 0; i < 200; i++) {
+            markdown.append("## Section ").append(i).append("\n\n")
+                    .append("Opening paragraph of section ").append(i).append(".\n\n")
+                    .append("### Details ").append(i).append("\n\n")
+                    .append("Detail paragraph of section ").append(i).append(".\n\n");
+        }
+        markdown.append("## Trailing heading\n");
+        DocumentFile documentFile = createTestDocumentFile("test-parallel.md");
+
+        List<DocumentChunk> chunks = doclingChunkingService.chunkMarkdown(documentFile, markdown.toString(), 1000);
+
+        assertThat(chunks).hasSize(201);
+        for (int i = 0; i < chunks.size(); i++) {
+            assertThat(chunks.get(i).position).isEqualTo(i);
+        }
+        assertThat(chunks.get(0).sectionHeading).isNull();
+        for (int i = 0; i < 200; i++) {
+            DocumentChunk chunk = chunks.get(i + 1);
+            assertThat(chunk.sectionHeading).isEqualTo("Section " + i);
+            assertThat(chunk.headingLevel).isEqualTo(2);
+            assertThat(chunk.content).contains("Detail paragraph of section " + i + ".");
+        }
+        assertThat(chunks.get(200).content).endsWith("## Trailing heading");
+    }
+
     // ========== Helper Methods ==========
 
     private DocumentFile createTestDocumentFile(String filename) {
@@ -0,0 +1,87 @@
+package dev.matheus.service.docling;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for DoclingServeVersion
+ */
+class DoclingServeVersionTest {
+
+    private static final String VERSION_BODY = "{\"docling-serve\":\"1.5.0\",\"docling\":\"2.55.1\"}";
+
+    private HttpServer server;
+    private final List<String> apiKeys = new ArrayList<>();
+    private volatile int status = 200;
+
+    private DoclingServeVersion version;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/version", exchange -> {
+            apiKeys.add(exchange.getRequestHeaders().getFirst("X-Api-Key"));
+            byte[] body = VERSION_BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        version = new DoclingServeVersion();
+        version.config = mock(DoclingConfigProperties.class, RETURNS_DEEP_STUBS);
+        when(version.config.cache().converterVersion()).thenReturn(Optional.empty());
+        version.baseUrl = "http://localhost:" + server.getAddress().getPort() + "/";
+        version.apiKey = Optional.of("secret");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReadVersionFromServer() {
+        assertThat(version.current()).contains(VERSION_BODY);
+        assertThat(apiKeys).containsExactly("secret");
+    }
+
+    @Test
+    void shouldReuseVersionBetweenConversions() {
+        version.current();
+        version.current();
+
+        assertThat(apiKeys).hasSize(1);
+    }
+
+    @Test
+    void shouldPreferConfiguredVersion() {
+        when(version.config.cache().converterVersion()).thenReturn(Optional.of("docling-serve 1.5.0"));
+
+        assertThat(version.current()).contains("docling-serve 1.5.0");
+        assertThat(apiKeys).isEmpty();
+    }
+
+    @Test
+    void shouldBeEmptyWhenServerDoesNotTell() {
+        status = 404;
+
+        assertThat(version.current()).isEmpty();
+    }
+}
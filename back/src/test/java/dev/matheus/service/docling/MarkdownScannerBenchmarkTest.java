@@ -0,0 +1,72 @@
+package dev.matheus.service.docling;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of splitting Docling markdown into units: MarkdownScanner against the per-line regex
+ * matching it replaced ({@link RegexMarkdownParser}), on a few MB of headings, paragraphs,
+ * lists, tables and code. Unit content is read, as the chunker does, so lazy copies are paid for.
+ * Only runs with -Pbenchmark.
+ */
+@Tag("benchmark")
+class MarkdownScannerBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(MarkdownScannerBenchmarkTest.class);
+    private static final int SECTIONS = 10_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void scannerShouldBeFasterThanRegexLineMatching() {
+        String markdown = markdown();
+
+        // Warm up the JIT
+        long checksum = consume(RegexMarkdownParser.parse(markdown)) + consume(MarkdownScanner.scan(markdown));
+
+        long regexNanos = 0;
+        long scannerNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            checksum += consume(RegexMarkdownParser.parse(markdown));
+            long middle = System.nanoTime();
+            checksum += consume(MarkdownScanner.scan(markdown));
+            long end = System.nanoTime();
+            regexNanos += middle - start;
+            scannerNanos += end - middle;
+        }
+
+        double megabytes = (double) markdown.length() * ROUNDS / 1_000_000;
+        LOG.infof("Markdown parsing over %.1f MB: regex %.1f MB/s, scanner %.1f MB/s",
+                megabytes, megabytes / (regexNanos / 1_000_000_000.0), megabytes / (scannerNanos / 1_000_000_000.0));
+
+        assertThat(checksum).isPositive();
+        assertThat(scannerNanos).isLessThan(regexNanos);
+    }
+
+    private static long consume(List<SemanticUnit> units) {
+        long total = 0;
+        for (SemanticUnit unit : units) {
+            total += unit.content().length();
+        }
+        return total;
+    }
+
+    private static String markdown() {
+        StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < SECTIONS; i++) {
+            markdown.append("## Seção ").append(i).append("\n\n")
+                    .append("A análise técnica da operação ").append(i).append(" indica que a informação não foi\n")
+                    .append("consolidada até a conclusão do exercício, exigindo revisão contábil.\n\n")
+                    .append("- Valores em reais\n- Base: 31/12/2025\n\n")
+                    .append("| Conta | Saldo (R$) | Variação |\n|---|---|---|\n")
+                    .append("| Receita ").append(i).append(" | 1.234.567,89 | +12,5% |\n\n")
+                    .append("```java\nint total = items.stream().mapToInt(Item::quantity).sum();\n```\n\n");
+        }
+        return markdown.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package dev.matheus.service.docling;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for MarkdownScanner: the units it finds, and that they are the ones the regex
+ * parser it replaced ({@link RegexMarkdownParser}) found, corner cases included.
+ */
+class MarkdownScannerTest {
+
+    @Test
+    void shouldSplitDoclingOutputIntoUnits() throws IOException {
+        List<SemanticUnit> units = MarkdownScanner.scan(fixture());
+
+        assertThat(units).extracting(u -> u.type).containsExactly(
+                UnitType.HEADING, UnitType.PARAGRAPH, UnitType.PARAGRAPH, UnitType.HEADING,
+                UnitType.TABLE, UnitType.PARAGRAPH, UnitType.LIST, UnitType.CODE,
+                UnitType.PARAGRAPH, UnitType.PARAGRAPH, UnitType.PARAGRAPH, UnitType.LIST,
+                UnitType.PARAGRAPH, UnitType.HEADING);
+
+        assertThat(units.get(0).headingLevel).isEqualTo(2);
+        assertThat(units.get(0).headingText()).isEqualTo("Relatório Anual 2025");
+        assertThat(units.get(2).content()).isEqualTo("A análise técnica da operação indica que a informação "
+                + "não foi consolidada até a conclusão do exercício. Os valores abaixo foram revisados pela auditoria.");
+        assertThat(units.get(3).headingText()).isEqualTo("1. Demonstrações financeiras");
+        assertThat(units.get(4).content()).startsWith("| Conta").endsWith("-3,1%      |").hasLineCount(4);
+        assertThat(units.get(6).content()).startsWith("- Valores em reais").endsWith("3. Publicar relatório");
+        assertThat(units.get(7).content()).startsWith("```java").endsWith("return total;\n```");
+        assertThat(units.get(8).content()).isEqualTo("#Sem espaço não é título ####### Sete marcadores também não");
+    }
+
+    @Test
+    void shouldMatchRegexParserOnDoclingOutput() throws IOException {
+        String markdown = fixture();
+
+        assertSameUnits(markdown);
+        assertSameUnits(markdown.replace("\n", "\r\n"));
+    }
+
+    @Test
+    void shouldMatchRegexParserOnCornerCases() {
+        assertSameUnits("");
+        assertSameUnits("# Title");
+        assertSameUnits("#\tTitle\r");
+        assertSameUnits("# \rTitle");
+        assertSameUnits("# \t\r");
+        assertSameUnits("##   ");
+        assertSameUnits("#Title\n####### Seven");
+        assertSameUnits("# Title\u2028more");
+        assertSameUnits("- item\u0085 tail\n-\titem");
+        assertSameUnits("12. item\n1.item\n.1 item");
+        assertSameUnits("a | b\n |---|:---:| \nrow\n| c | d |");
+        assertSameUnits("a | b\n|-x-|\n| c |");
+        assertSameUnits("| a |\n||\n| b |");
+        assertSameUnits("```\nnot closed\n# Title");
+        assertSameUnits("  ```js\ncode\n   ```  \nafter");
+        assertSameUnits("- a\n\n- b\n\n\ntext\n- c\n\nnext");
+        assertSameUnits("line one\n  line two  \n| pipe");
+        assertSameUnits("\u000B\f \n\t\r\nText");
+    }
+
+    @Test
+    void shouldMatchRegexParserOnRandomMarkdown() {
+        String[] pieces = {"#", "##", "#######", " ", "\t", "\r", "\u0085", "\u2028", "\u000B", "|", "|---|",
+                ":", "-", "*", "+", "1.", "12.", "text", "```", "\n", "\n", "\n", " | ", "é"};
+        Random random = new Random(21);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder markdown = new StringBuilder();
+            int length = random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                markdown.append(pieces[random.nextInt(pieces.length)]);
+            }
+            assertSameUnits(markdown.toString());
+        }
+    }
+
+    @Test
+    void shouldScanReaderLikeWholeText() throws IOException {
+        String markdown = fixture();
+        Random random = new Random(23);
+        for (int i = 0; i < 5; i++) {
+            markdown += markdown;
+        }
+
+        for (int maxRead : new int[]{1, 7, 4096}) {
+            List<SemanticUnit> streamed = new ArrayList<>();
+            MarkdownScanner.scan(new CountingReader(markdown, maxRead)).forEachRemaining(streamed::add);
+            assertThat(describe(streamed)).isEqualTo(describe(MarkdownScanner.scan(markdown)));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            String piece = markdown.substring(random.nextInt(2000), 2000 + random.nextInt(500));
+            List<SemanticUnit> streamed = new ArrayList<>();
+            MarkdownScanner.scan(new CountingReader(piece, 1 + random.nextInt(16))).forEachRemaining(streamed::add);
+            assertThat(describe(streamed)).as("Units of %s", piece).isEqualTo(describe(MarkdownScanner.scan(piece)));
+        }
+    }
+
+    @Test
+    void shouldScanAnyCharSequence() {
+        StringBuilder markdown = new StringBuilder("# Title\n\nSome text\n");
+
+        List<SemanticUnit> units = MarkdownScanner.scan(markdown);
+
+        assertThat(units).extracting(SemanticUnit::content).containsExactly("# Title", "Some text");
+    }
+
+    private static void assertSameUnits(String markdown) {
+        assertThat(describe(MarkdownScanner.scan(markdown)))
+                .as("Units of %s", markdown)
+                .isEqualTo(describe(RegexMarkdownParser.parse(markdown)));
+    }
+
+    private static List<String> describe(List<SemanticUnit> units) {
+        return units.stream()
+                .map(u -> u.type + " " + u.headingLevel + " " + u.headingText() + " [" + u.content() + "]")
+                .toList();
+    }
+
+    private static String fixture() throws IOException {
+        try (InputStream in = MarkdownScannerTest.class.getResourceAsStream("/fixtures/docling-output.md")) {
+            assertThat(in).as("fixtures/docling-output.md").isNotNull();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
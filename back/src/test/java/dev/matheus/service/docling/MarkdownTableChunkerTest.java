@@ -3,6 +3,8 @@ package dev.matheus.service.docling;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -103,4 +105,48 @@ class MarkdownTableChunkerTest {
 
         assertThat(chunks).isEmpty();
     }
+
+    @Test
+    void shouldEmitChunksWhileReading() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("Section ").append(i).append(" text. ").append("word ".repeat(300)).append("\n\n")
+                    .append("| Column 1 | Column 2 |\n|----------|----------|\n| Value ").append(i).append(" | x |\n\n");
+        }
+        CountingReader reader = new CountingReader(content.toString(), 1000);
+        List<String> chunks = new ArrayList<>();
+        List<Integer> readWhenEmitted = new ArrayList<>();
+
+        int count = chunker.split(reader, chunk -> {
+            chunks.add(chunk);
+            readWhenEmitted.add(reader.charsRead());
+        });
+
+        assertThat(count).isEqualTo(chunks.size());
+        assertThat(chunks).isEqualTo(chunker.split(content.toString()));
+        assertThat(readWhenEmitted.get(0)).isLessThan(content.length() / 10);
+    }
+
+    @Test
+    void shouldCountEachLineOnce() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append("Linha ").append(i).append(" do manual de instruções.\n");
+        }
+        long[] countedChars = new long[1];
+        TokenEstimator countingEstimator = new TokenEstimator() {
+            @Override
+            public int estimate(String text) {
+                countedChars[0] += text.length();
+                return super.estimate(text);
+            }
+        };
+
+        List<String> chunks = new MarkdownTableChunker(500, countingEstimator).split(content.toString());
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(countedChars[0]).isEqualTo(content.length());
+        assertThat(chunks.subList(0, chunks.size() - 1))
+                .allSatisfy(chunk -> assertThat(tokenEstimator.estimate(chunk)).isGreaterThan(450));
+    }
 }
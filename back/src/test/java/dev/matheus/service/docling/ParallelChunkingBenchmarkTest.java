@@ -0,0 +1,90 @@
+package dev.matheus.service.docling;
+
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.entity.DocumentFile;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Speedup of chunking a long manual, hundreds of H2 sections, when its sections are chunked
+ * on all cores rather than on one. Skipped on machines with fewer than four cores.
+ * Only runs with -Pbenchmark.
+ */
+@Tag("benchmark")
+class ParallelChunkingBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(ParallelChunkingBenchmarkTest.class);
+    private static final int SECTIONS = 600;
+    private static final int MAX_TOKENS = 2000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void chunkingShouldScaleWithCores() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        assumeTrue(cores >= 4, "fewer than four cores");
+        DoclingChunkingService service = new DoclingChunkingService();
+        service.tokenEstimator = new TokenEstimator();
+        service.contentTypeDetector = new ContentTypeDetector();
+        String markdown = manual();
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool all = new ForkJoinPool(cores);
+        try {
+            service.regionPool = single;
+            // Warm up the JIT
+            List<DocumentChunk> sequential = chunk(service, markdown);
+            long singleNanos = bestNanos(service, markdown);
+
+            service.regionPool = all;
+            List<DocumentChunk> parallel = chunk(service, markdown);
+            long allNanos = bestNanos(service, markdown);
+
+            double speedup = (double) singleNanos / allNanos;
+            LOG.infof("Chunking %d sections: %.1f ms on 1 thread, %.1f ms on %d (%.1fx)",
+                    SECTIONS, singleNanos / 1_000_000.0, allNanos / 1_000_000.0, cores, speedup);
+
+            assertThat(parallel).hasSameSizeAs(sequential);
+            assertThat(speedup).isGreaterThan(1.5);
+        } finally {
+            single.shutdownNow();
+            all.shutdownNow();
+        }
+    }
+
+    private static long bestNanos(DoclingChunkingService service, String markdown) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            assertThat(chunk(service, markdown)).isNotEmpty();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static List<DocumentChunk> chunk(DoclingChunkingService service, String markdown) {
+        DocumentFile documentFile = new DocumentFile();
+        documentFile.fileName = "manual.md";
+        return service.chunkMarkdown(documentFile, markdown, MAX_TOKENS);
+    }
+
+    private static String manual() {
+        StringBuilder markdown = new StringBuilder("# Manual de operação\n\n");
+        for (int section = 0; section < SECTIONS; section++) {
+            markdown.append("## Procedimento ").append(section).append("\n\n");
+            for (int paragraph = 0; paragraph < 20; paragraph++) {
+                markdown.append("Passo ").append(paragraph)
+                        .append(": verifique a pressão do sistema antes de abrir a válvula principal. ")
+                        .append("Registre o valor no formulário de inspeção.\n\n");
+            }
+            markdown.append("| Parâmetro | Valor |\n|---|---|\n| Pressão | ").append(section).append(" bar |\n\n");
+        }
+        return markdown.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package dev.matheus.service.docling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for PassageSplitter.
+ */
+class PassageSplitterTest {
+
+    private final TokenEstimator tokenEstimator = new TokenEstimator();
+
+    @Test
+    void shouldKeepSmallContentInOnePassage() {
+        String content = "## Title\n\nShort paragraph.\n";
+
+        List<PassageSplitter.Passage> passages = new PassageSplitter(tokenEstimator, 200).split(content);
+
+        assertThat(passages).containsExactly(new PassageSplitter.Passage(0, content.strip().length()));
+    }
+
+    @Test
+    void shouldPackWholeBlocksUpToTheLimit() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            content.append(String.format("Paragraph %02d with nine tokens in it.\n\n", i));
+        }
+        // Two paragraphs and their separator fit, three do not
+        int twoParagraphs = tokenEstimator.estimate(
+                "Paragraph 00 with nine tokens in it.\n\nParagraph 01 with nine tokens in it.");
+
+        List<PassageSplitter.Passage> passages = new PassageSplitter(tokenEstimator, twoParagraphs)
+                .split(content.toString());
+
+        assertThat(passages).hasSize(5);
+        assertThat(passages).allSatisfy(passage -> {
+            String text = content.substring(passage.start(), passage.end());
+            assertThat(text).startsWith("Paragraph").endsWith("in it.");
+            assertThat(text.split("\n\n")).hasSize(2);
+        });
+    }
+
+    @Test
+    void shouldBreakOversizedBlocksIntoLinesAndSentences() {
+        StringBuilder table = new StringBuilder("| Parâmetro | Valor |\n|---|---|\n");
+        for (int i = 0; i < 50; i++) {
+            table.append("| Pressão ").append(i).append(" | ").append(i * 10).append(" bar |\n");
+        }
+        String longParagraph = "Primeira frase do parágrafo. ".repeat(40);
+        String content = table + "\n" + longParagraph;
+
+        List<PassageSplitter.Passage> passages = new PassageSplitter(tokenEstimator, 50).split(content);
+
+        assertThat(passages).hasSizeGreaterThan(5);
+        assertThat(passages).allSatisfy(passage -> {
+            String text = content.substring(passage.start(), passage.end());
+            assertThat(tokenEstimator.estimate(text)).isLessThanOrEqualTo(50);
+            assertThat(text).isEqualTo(text.strip());
+        });
+        assertThat(passages).anySatisfy(passage ->
+                assertThat(content.substring(passage.start(), passage.end())).contains("| Pressão 49 | 490 bar |"));
+        PassageSplitter.Passage last = passages.get(passages.size() - 1);
+        assertThat(content.substring(last.start(), last.end())).endsWith("parágrafo.");
+        assertThat(last.end()).isEqualTo(content.strip().length());
+    }
+
+    @Test
+    void shouldReturnNoPassagesForBlankContent() {
+        assertThat(new PassageSplitter(tokenEstimator, 200).split(" \n\n ")).isEmpty();
+    }
+}
@@ -0,0 +1,154 @@
+package dev.matheus.service.docling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex line matching DoclingChunkingService used before {@link MarkdownScanner}, kept as
+ * the reference the scanner must reproduce unit for unit.
+ */
+final class RegexMarkdownParser {
+
+    private static final Pattern HEADING_PATTERN = Pattern.compile("^(#{1,6})\\s+(.+)$", Pattern.MULTILINE);
+    private static final String LIST_ITEM_REGEX = "^[-*+]\\s+.*";
+    private static final String NUMBERED_LIST_REGEX = "^\\d+\\.\\s+.*";
+    private static final String HEADING_REGEX = "^#{1,6}\\s+.*";
+    private static final String CODE_FENCE = "```";
+
+    private RegexMarkdownParser() {
+    }
+
+    static List<SemanticUnit> parse(String markdown) {
+        List<SemanticUnit> units = new ArrayList<>();
+        String[] lines = markdown.split("\n", -1);
+
+        int i = 0;
+        while (i < lines.length) {
+            String line = lines[i];
+
+            if (line.trim().isEmpty()) {
+                i++;
+                continue;
+            }
+
+            if (line.matches(HEADING_REGEX)) {
+                units.add(parseHeading(line));
+                i++;
+                continue;
+            }
+
+            if (line.contains("|") && i + 1 < lines.length) {
+                int tableEnd = findTableEnd(lines, i);
+                if (tableEnd > i) {
+                    units.add(SemanticUnit.of(UnitType.TABLE, buildContent(lines, i, tableEnd, false)));
+                    i = tableEnd;
+                    continue;
+                }
+            }
+
+            if (isListItem(line)) {
+                int listEnd = findListEnd(lines, i);
+                units.add(SemanticUnit.of(UnitType.LIST, buildContent(lines, i, listEnd, false)));
+                i = listEnd;
+                continue;
+            }
+
+            if (line.trim().startsWith(CODE_FENCE)) {
+                int codeEnd = findCodeEnd(lines, i);
+                units.add(SemanticUnit.of(UnitType.CODE, buildContent(lines, i, codeEnd, false)));
+                i = codeEnd;
+                continue;
+            }
+
+            int paraEnd = findParagraphEnd(lines, i);
+            units.add(SemanticUnit.of(UnitType.PARAGRAPH, buildContent(lines, i, paraEnd, true)));
+            i = paraEnd;
+        }
+
+        return units;
+    }
+
+    private static SemanticUnit parseHeading(String line) {
+        Matcher matcher = HEADING_PATTERN.matcher(line);
+        if (matcher.find()) {
+            return SemanticUnit.heading(line, 0, line.length(), matcher.group(1).length(),
+                    matcher.start(2), matcher.end(2));
+        }
+        return SemanticUnit.heading(line, 0, line.length(), 1, 0, line.length());
+    }
+
+    private static boolean isListItem(String line) {
+        return line.matches(LIST_ITEM_REGEX) || line.matches(NUMBERED_LIST_REGEX);
+    }
+
+    private static int findTableEnd(String[] lines, int start) {
+        if (!lines[start + 1].matches("^\\s*\\|[-:| ]+\\|\\s*$")) {
+            return start;
+        }
+        int i = start + 2;
+        while (i < lines.length && lines[i].contains("|")) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int findListEnd(String[] lines, int start) {
+        int i = start + 1;
+        while (i < lines.length) {
+            String line = lines[i];
+            if (line.trim().isEmpty()) {
+                if (i + 1 < lines.length && isListItem(lines[i + 1])) {
+                    i++;
+                    continue;
+                }
+                break;
+            }
+            if (isListItem(line)) {
+                i++;
+                continue;
+            }
+            break;
+        }
+        return i;
+    }
+
+    private static String buildContent(String[] lines, int start, int end, boolean joinWithSpace) {
+        StringBuilder content = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                content.append(joinWithSpace ? " " : "\n");
+            }
+            content.append(joinWithSpace ? lines[i].trim() : lines[i]);
+        }
+        return content.toString().trim();
+    }
+
+    private static int findCodeEnd(String[] lines, int start) {
+        int i = start + 1;
+        while (i < lines.length && !lines[i].trim().startsWith(CODE_FENCE)) {
+            i++;
+        }
+        return i < lines.length ? i + 1 : lines.length;
+    }
+
+    private static int findParagraphEnd(String[] lines, int start) {
+        int i = start + 1;
+        while (i < lines.length) {
+            String line = lines[i];
+            if (line.trim().isEmpty() || isStructuralElement(line)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isStructuralElement(String line) {
+        return line.matches(HEADING_REGEX)
+                || isListItem(line)
+                || line.trim().startsWith(CODE_FENCE)
+                || line.contains("|");
+    }
+}
@@ -0,0 +1,108 @@
+package dev.matheus.service.docling;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of exact BPE token counts in the chunker's hot loop, in its worst case: re-counting
+ * the growing chunk each time a unit is considered (as DoclingChunkingService did before it
+ * kept running totals).
+ *
+ * Mixed Portuguese prose, a markdown table and code, counted with the cl100k_base ranks.
+ * Only runs with -Pbenchmark.
+ */
+@Tag("benchmark")
+class TokenEstimatorBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(TokenEstimatorBenchmarkTest.class);
+    private static final int UNITS = 400;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void bpeCountsShouldBeCheapEnoughForTheChunkingLoop() {
+        TokenEstimator estimator = new TokenEstimator();
+        List<String> units = units();
+
+        // Warm up the JIT
+        long checksum = chunkingLoop(estimator, units);
+
+        long chars = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            checksum += chunkingLoop(estimator, units);
+            chars += countedCharacters(units);
+        }
+        long nanos = System.nanoTime() - start;
+
+        double mbPerSecond = chars / (nanos / 1_000_000_000.0) / 1_000_000;
+        LOG.infof("BPE token counting: %.1f MB/s over %d characters (%.1f ms per chunking pass)",
+                mbPerSecond, chars, nanos / 1_000_000.0 / ROUNDS);
+
+        assertThat(checksum).isPositive();
+        assertThat(mbPerSecond).isGreaterThan(1.0);
+    }
+
+    @Test
+    void bpeCountsShouldDifferFromTheCharacterHeuristicOnNonEnglishText() {
+        String portuguese = String.join(" ", units().subList(0, 3));
+
+        int exact = new TokenEstimator().estimate(portuguese);
+        int heuristic = portuguese.length() / 4;
+
+        LOG.infof("Portuguese sample: %d characters, %d tokens (heuristic %d)", portuguese.length(), exact, heuristic);
+        assertThat(exact).isGreaterThan(heuristic);
+    }
+
+    /**
+     * The whole chunk so far, plus each new unit,
+     * with a flush every 20 units.
+     */
+    private static long chunkingLoop(TokenEstimator estimator, List<String> units) {
+        long total = 0;
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < units.size(); i++) {
+            String unit = units.get(i);
+            total += estimator.estimate(chunk.toString()) + estimator.estimate(unit);
+            chunk.append(unit).append("\n\n");
+            if ((i + 1) % 20 == 0) {
+                chunk.setLength(0);
+            }
+        }
+        return total;
+    }
+
+    private static long countedCharacters(List<String> units) {
+        long chars = 0;
+        int chunk = 0;
+        for (int i = 0; i < units.size(); i++) {
+            chars += chunk + units.get(i).length();
+            chunk += units.get(i).length() + 2;
+            if ((i + 1) % 20 == 0) {
+                chunk = 0;
+            }
+        }
+        return chars;
+    }
+
+    private static List<String> units() {
+        List<String> units = new ArrayList<>(UNITS);
+        for (int i = 0; i < UNITS; i++) {
+            units.add(switch (i % 4) {
+                case 0 -> "A análise técnica da operação " + i + " indica que a informação não foi "
+                        + "consolidada até a conclusão do exercício, exigindo revisão contábil.";
+                case 1 -> "Os órgãos responsáveis deverão apresentar as demonstrações financeiras "
+                        + "até o prazo estabelecido na seção " + i + ", sob pena de multa.";
+                case 2 -> "| Conta | Saldo (R$) | Variação |\n|---|---|---|\n| Receita " + i
+                        + " | 1.234.567,89 | +12,5% |\n| Despesa | 987.654,32 | -3,1% |";
+                default -> "```java\nint total" + i + " = items.stream().mapToInt(Item::quantity).sum();\n```";
+            });
+        }
+        return units;
+    }
+}
@@ -1,6 +1,5 @@
 package dev.matheus.service.docling;
 
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -10,40 +9,31 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class TokenEstimatorTest {
 
-    private TokenEstimator estimator;
+    private final TokenEstimator estimator = new TokenEstimator();
 
-    @BeforeEach
-    void setUp() {
-        estimator = new TokenEstimator();
+    @Test
+    void shouldCountTokensWithCl100kBase() {
+        // "Hello" " World"
+        assertThat(estimator.estimate("Hello World")).isEqualTo(2);
     }
 
     @Test
-    void shouldEstimateTokensForShortText() {
-        String content = "Hello World"; // 11 characters
-
-        int tokens = estimator.estimate(content);
-
-        // 11 / 4 = 2.75 -> 2 tokens
-        assertThat(tokens).isEqualTo(2);
+    void shouldCountShortWordAsOneToken() {
+        assertThat(estimator.estimate("Hi")).isEqualTo(1);
     }
 
     @Test
-    void shouldEstimateTokensForLongText() {
-        // 100 characters = 25 tokens
-        String content = "a".repeat(100);
+    void shouldCountMoreTokensThanFourCharactersEachForPortugueseAndCode() {
+        String portuguese = "Ação, atenção, função, pressão, condição e manutenção.";
+        String code = "if (x != null) { return x; }";
 
-        int tokens = estimator.estimate(content);
-
-        assertThat(tokens).isEqualTo(25);
+        assertThat(estimator.estimate(portuguese)).isGreaterThan(portuguese.length() / 4);
+        assertThat(estimator.estimate(code)).isGreaterThan(code.length() / 4);
     }
 
     @Test
-    void shouldReturnMinimumOneTokenForNonEmptyContent() {
-        String content = "Hi"; // 2 characters -> 0.5 tokens -> minimum 1
-
-        int tokens = estimator.estimate(content);
-
-        assertThat(tokens).isEqualTo(1);
+    void shouldCountSpecialTokensAsText() {
+        assertThat(estimator.estimate("<|endoftext|>")).isGreaterThan(1);
     }
 
     @Test
@@ -0,0 +1,78 @@
+package dev.matheus.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for BatchEmbeddingWriter
+ */
+class BatchEmbeddingWriterTest {
+
+    private final StubEmbeddingModel model = new StubEmbeddingModel(0);
+    private final InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+
+    @Test
+    void shouldEmbedSegmentsInBatches() {
+        BatchEmbeddingWriter writer = new BatchEmbeddingWriter(model, store, 10, 100_000);
+
+        List<String> ids = writer.embedAndStore(segments(25));
+
+        assertThat(ids).hasSize(25).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(model.requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRetrySegmentsOneByOneWhenBatchFails() {
+        BatchEmbeddingWriter writer = new BatchEmbeddingWriter(model, store, 10, 100_000);
+        model.failOnText = "segment 3";
+
+        List<String> ids = writer.embedAndStore(segments(5));
+
+        assertThat(ids).hasSize(5);
+        assertThat(ids.get(3)).isNull();
+        assertThat(ids).filteredOn(id -> id != null).hasSize(4);
+        // One failed batch, then one request per segment
+        assertThat(model.requests.get()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldStoreOnlySegmentsThatWereEmbedded() {
+        BatchEmbeddingWriter writer = new BatchEmbeddingWriter(model, store, 10, 100_000);
+        model.failOnText = "segment 1";
+        List<TextSegment> segments = segments(3);
+
+        List<Embedding> embeddings = writer.embed(segments);
+        assertThat(store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(embeddings.get(0)).maxResults(10).build()).matches()).isEmpty();
+
+        List<String> ids = writer.store(segments, embeddings);
+
+        assertThat(embeddings.get(1)).isNull();
+        assertThat(ids.get(1)).isNull();
+        assertThat(ids).filteredOn(id -> id != null).hasSize(2);
+    }
+
+    @Test
+    void shouldReturnNothingForNoSegments() {
+        BatchEmbeddingWriter writer = new BatchEmbeddingWriter(model, store, 10, 100_000);
+
+        assertThat(writer.embedAndStore(List.of())).isEmpty();
+        assertThat(model.requests.get()).isZero();
+    }
+
+    static List<TextSegment> segments(int count) {
+        List<TextSegment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(TextSegment.from("segment " + i));
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,46 @@
+package dev.matheus.service.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for EmbeddingBatches
+ */
+class EmbeddingBatchesTest {
+
+    @Test
+    void shouldCloseBatchAtMaxSize() {
+        List<List<Integer>> batches = EmbeddingBatches.pack(List.of(1, 1, 1, 1, 1), t -> t, 2, 100);
+
+        assertThat(batches).containsExactly(List.of(1, 1), List.of(1, 1), List.of(1));
+    }
+
+    @Test
+    void shouldCloseBatchBeforeExceedingTokenBudget() {
+        List<List<Integer>> batches = EmbeddingBatches.pack(List.of(40, 50, 20, 30), t -> t, 10, 100);
+
+        assertThat(batches).containsExactly(List.of(40, 50), List.of(20, 30));
+    }
+
+    @Test
+    void shouldPutOversizedItemInItsOwnBatch() {
+        List<List<Integer>> batches = EmbeddingBatches.pack(List.of(10, 500, 10), t -> t, 10, 100);
+
+        assertThat(batches).containsExactly(List.of(10), List.of(500), List.of(10));
+    }
+
+    @Test
+    void shouldReturnNoBatchesForNoItems() {
+        assertThat(EmbeddingBatches.pack(List.<Integer>of(), t -> t, 10, 100)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectNonPositiveMaxSize() {
+        assertThatThrownBy(() -> EmbeddingBatches.pack(List.of(1), t -> t, 0, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
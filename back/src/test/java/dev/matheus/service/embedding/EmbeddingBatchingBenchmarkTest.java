@@ -0,0 +1,80 @@
+package dev.matheus.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of per-segment vs batched embedding against a local stub model whose
+ * requests and store writes cost a fixed round trip, like the remote model and pgvector.
+ *
+ * Simulates a 100-chunk document with 4 questions per chunk (500 segments).
+ * Only runs with -Pbenchmark.
+ */
+@Tag("benchmark")
+class EmbeddingBatchingBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(EmbeddingBatchingBenchmarkTest.class);
+    private static final int SEGMENTS = 500;
+    private static final long MODEL_ROUND_TRIP_MILLIS = 2;
+    private static final long STORE_ROUND_TRIP_MILLIS = 1;
+
+    @Test
+    void batchedEmbeddingShouldOutperformPerSegmentEmbedding() {
+        List<TextSegment> segments = BatchEmbeddingWriterTest.segments(SEGMENTS);
+
+        StubEmbeddingModel perSegmentModel = new StubEmbeddingModel(MODEL_ROUND_TRIP_MILLIS);
+        InMemoryEmbeddingStore<TextSegment> perSegmentStore = new SlowStore();
+        long perSegmentStart = System.nanoTime();
+        for (TextSegment segment : segments) {
+            Embedding embedding = perSegmentModel.embed(segment).content();
+            perSegmentStore.add(embedding, segment);
+        }
+        long perSegmentNanos = System.nanoTime() - perSegmentStart;
+
+        StubEmbeddingModel batchedModel = new StubEmbeddingModel(MODEL_ROUND_TRIP_MILLIS);
+        BatchEmbeddingWriter writer = new BatchEmbeddingWriter(batchedModel, new SlowStore(), 64, 8000);
+        long batchedStart = System.nanoTime();
+        List<String> ids = writer.embedAndStore(segments);
+        long batchedNanos = System.nanoTime() - batchedStart;
+
+        LOG.infof("Per-segment: %d requests, %.0f segments/s", perSegmentModel.requests.get(),
+                throughput(perSegmentNanos));
+        LOG.infof("Batched:     %d requests, %.0f segments/s", batchedModel.requests.get(),
+                throughput(batchedNanos));
+
+        assertThat(ids).hasSize(SEGMENTS).doesNotContainNull();
+        assertThat(perSegmentModel.requests.get()).isEqualTo(SEGMENTS);
+        assertThat(batchedModel.requests.get()).isEqualTo(8);
+        assertThat(batchedNanos).isLessThan(perSegmentNanos / 5);
+    }
+
+    private static double throughput(long nanos) {
+        return SEGMENTS / (nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * In-memory store charging one round trip per write call, like a pgvector insert.
+     */
+    private static class SlowStore extends InMemoryEmbeddingStore<TextSegment> {
+
+        @Override
+        public String add(Embedding embedding, TextSegment embedded) {
+            StubEmbeddingModel.pause(STORE_ROUND_TRIP_MILLIS);
+            return super.add(embedding, embedded);
+        }
+
+        @Override
+        public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+            StubEmbeddingModel.pause(STORE_ROUND_TRIP_MILLIS);
+            return super.addAll(embeddings, embedded);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package dev.matheus.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for EmbeddingCache and CachingEmbeddingModel
+ */
+class EmbeddingCacheTest {
+
+    private final StubEmbeddingModel stub = new StubEmbeddingModel(0);
+
+    @Test
+    void shouldServeRepeatedTextsFromMemory() {
+        EmbeddingModel model = cached(new EmbeddingCache(100, null));
+
+        Embedding first = model.embed("Rodapé: confidencial").content();
+        // Layout whitespace does not change the key
+        Embedding second = model.embed("  Rodapé:\nconfidencial ").content();
+
+        assertThat(stub.requests.get()).isEqualTo(1);
+        assertThat(second.vector()).containsExactly(first.vector());
+    }
+
+    @Test
+    void shouldSendRepeatedTextsOfOneRequestOnce() {
+        EmbeddingCache cache = new EmbeddingCache(100, null);
+        EmbeddingModel model = cached(cache);
+        List<TextSegment> segments = List.of(
+                TextSegment.from("header"), TextSegment.from("body"), TextSegment.from("header"));
+
+        Response<List<Embedding>> response = model.embedAll(segments);
+
+        assertThat(response.content()).hasSize(3);
+        assertThat(response.content().get(2).vector()).containsExactly(response.content().get(0).vector());
+        assertThat(response.content().get(1).vector()).isNotEqualTo(response.content().get(0).vector());
+        EmbeddingCacheStats stats = cache.stats();
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.memoryHits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldOnlyEmbedMissesAndKeepOrder() {
+        EmbeddingCache cache = new EmbeddingCache(100, null);
+        EmbeddingModel model = cached(cache);
+        model.embed("b");
+
+        Response<List<Embedding>> response = model.embedAll(List.of(
+                TextSegment.from("a"), TextSegment.from("b"), TextSegment.from("c")));
+
+        assertThat(stub.requests.get()).isEqualTo(2);
+        for (int i = 0; i < 3; i++) {
+            String text = List.of("a", "b", "c").get(i);
+            assertThat(response.content().get(i).vector()).containsExactly(stub.embed(text).content().vector());
+        }
+        assertThat(cache.stats().hitRatio()).isEqualTo(0.25);
+    }
+
+    @Test
+    void shouldFallBackToPersistentTierAndWriteNewVectors() {
+        FakePersistentTier persistent = new FakePersistentTier();
+        cached(new EmbeddingCache(100, persistent)).embed("pergunta hipotética");
+        assertThat(persistent.rows).hasSize(1);
+
+        // Another node (or a restart) with an empty memory tier
+        EmbeddingCache cache = new EmbeddingCache(100, persistent);
+        cached(cache).embed("pergunta hipotética");
+        cached(cache).embed("pergunta hipotética");
+
+        assertThat(stub.requests.get()).isEqualTo(1);
+        EmbeddingCacheStats stats = cache.stats();
+        assertThat(stats.persistentHits()).isEqualTo(1);
+        assertThat(stats.memoryHits()).isEqualTo(1);
+        assertThat(stats.savedTokens()).isGreaterThan(0);
+    }
+
+    @Test
+    void shouldEmbedWhenPersistentTierFails() {
+        FakePersistentTier persistent = new FakePersistentTier();
+        persistent.failLoads = true;
+        EmbeddingCache cache = new EmbeddingCache(100, persistent);
+
+        Embedding embedding = cached(cache).embed("query").content();
+
+        assertThat(embedding.vector()).hasSize(4);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeySeparatelyPerModelAndDimensions() {
+        assertThat(EmbeddingCache.key("text-embedding-3-small", 768, "x"))
+                .isNotEqualTo(EmbeddingCache.key("text-embedding-3-small", 1536, "x"))
+                .isNotEqualTo(EmbeddingCache.key("text-embedding-3-large", 768, "x"))
+                .hasSize(64);
+    }
+
+    private EmbeddingModel cached(EmbeddingCache cache) {
+        return new CachingEmbeddingModel(stub, cache, "stub", 4);
+    }
+
+    private static class FakePersistentTier implements EmbeddingCache.PersistentTier {
+
+        final Map<String, float[]> rows = new HashMap<>();
+        boolean failLoads;
+
+        @Override
+        public Map<String, float[]> load(Collection<String> keys) {
+            if (failLoads) {
+                throw new IllegalStateException("connection refused");
+            }
+            Map<String, float[]> found = new HashMap<>();
+            for (String key : keys) {
+                if (rows.containsKey(key)) {
+                    found.put(key, rows.get(key));
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public void save(String model, Map<String, float[]> vectors) {
+            rows.putAll(vectors);
+        }
+
+        @Override
+        public long entries() {
+            return rows.size();
+        }
+
+        @Override
+        public long evictions() {
+            return 0;
+        }
+
+        @Override
+        public int pendingWrites() {
+            return 0;
+        }
+
+        @Override
+        public long droppedWrites() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.matheus.service.embedding;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.openai.OpenAiEmbeddingModel;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of query embeddings and throughput of chunk embeddings, remote OpenAI model vs
+ * local ONNX model. Needs the model files and an API key, so it only runs on request:
+ *
+ * <pre>
+ * OPENAI_API_KEY=... ./mvnw test -Dtest=LocalEmbeddingLatencyBenchmarkTest \
+ *     -Dlocal.model.path=models/model_quantized.onnx -Dlocal.tokenizer.path=models/tokenizer.json
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "local.model.path", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "OPENAI_API_KEY", matches = ".+")
+class LocalEmbeddingLatencyBenchmarkTest {
+
+    private static final Logger LOG = Logger.getLogger(LocalEmbeddingLatencyBenchmarkTest.class);
+    private static final int WARMUP = 5;
+    private static final int QUERIES = 50;
+    private static final int CHUNKS = 256;
+
+    @Test
+    void compareRemoteAndLocalModels() {
+        EmbeddingModel remote = OpenAiEmbeddingModel.builder()
+                .apiKey(System.getenv("OPENAI_API_KEY"))
+                .modelName("text-embedding-3-small")
+                .dimensions(768)
+                .build();
+        try (LocalOnnxEmbeddingModel local = new LocalOnnxEmbeddingModel(new LocalOnnxEmbeddingModel.Settings(
+                Path.of(System.getProperty("local.model.path")),
+                Path.of(System.getProperty("local.tokenizer.path")),
+                768, LocalOnnxEmbeddingModel.Pooling.MEAN, 512, 32, 2, 0))) {
+
+            long[] remoteQueries = queryLatencies(remote);
+            long[] localQueries = queryLatencies(local);
+            double remoteThroughput = chunkThroughput(remote);
+            double localThroughput = chunkThroughput(local);
+
+            LOG.infof("Query latency  remote: p50=%.1fms p95=%.1fms | local: p50=%.1fms p95=%.1fms",
+                    percentile(remoteQueries, 50), percentile(remoteQueries, 95),
+                    percentile(localQueries, 50), percentile(localQueries, 95));
+            LOG.infof("Chunk throughput  remote: %.0f chunks/s | local: %.0f chunks/s",
+                    remoteThroughput, localThroughput);
+
+            assertThat(percentile(localQueries, 50)).isLessThan(percentile(remoteQueries, 50));
+        }
+    }
+
+    private static long[] queryLatencies(EmbeddingModel model) {
+        for (int i = 0; i < WARMUP; i++) {
+            model.embed("aquecimento " + i);
+        }
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            model.embed("quais os tempos de corte do percurso de " + (20 + i) + "km?");
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static double chunkThroughput(EmbeddingModel model) {
+        List<TextSegment> segments = BatchEmbeddingWriterTest.segments(CHUNKS);
+        long start = System.nanoTime();
+        for (int from = 0; from < segments.size(); from += 64) {
+            model.embedAll(segments.subList(from, Math.min(segments.size(), from + 64)));
+        }
+        return CHUNKS / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[index] / 1_000_000.0;
+    }
+}
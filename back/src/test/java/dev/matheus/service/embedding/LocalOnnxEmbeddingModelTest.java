@@ -0,0 +1,54 @@
+package dev.matheus.service.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for the batching and pooling of LocalOnnxEmbeddingModel
+ * (inference itself needs model files, see LocalEmbeddingLatencyBenchmarkTest)
+ */
+class LocalOnnxEmbeddingModelTest {
+
+    @Test
+    void shouldBatchTextsOfSimilarLength() {
+        List<String> texts = List.of("aa", "aaaaaaaa", "a", "aaaaaaa", "aaa");
+
+        List<List<Integer>> batches = LocalOnnxEmbeddingModel.batchesByLength(texts, 2);
+
+        assertThat(batches).containsExactly(List.of(1, 3), List.of(4, 0), List.of(2));
+    }
+
+    @Test
+    void shouldMeanPoolOverAttentionMaskOnly() {
+        float[][] tokens = {{1f, 0f}, {3f, 0f}, {100f, 100f}};
+
+        float[] vector = LocalOnnxEmbeddingModel.pool(tokens, new long[]{1, 1, 0}, LocalOnnxEmbeddingModel.Pooling.MEAN);
+
+        // Mean (2, 0) without the padding token, normalized
+        assertThat(vector).containsExactly(1f, 0f);
+    }
+
+    @Test
+    void shouldTakeFirstTokenForClsPooling() {
+        float[][] tokens = {{3f, 4f}, {1f, 1f}};
+
+        float[] vector = LocalOnnxEmbeddingModel.pool(tokens, new long[]{1, 1}, LocalOnnxEmbeddingModel.Pooling.CLS);
+
+        assertThat(vector[0]).isCloseTo(0.6f, within(1e-6f));
+        assertThat(vector[1]).isCloseTo(0.8f, within(1e-6f));
+        assertThat(tokens[0]).containsExactly(3f, 4f);
+    }
+
+    @Test
+    void shouldLeaveZeroVectorUnchanged() {
+        float[] vector = {0f, 0f};
+
+        LocalOnnxEmbeddingModel.normalize(vector);
+
+        assertThat(vector).containsExactly(0f, 0f);
+    }
+}
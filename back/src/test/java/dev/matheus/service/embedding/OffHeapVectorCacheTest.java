@@ -0,0 +1,62 @@
+package dev.matheus.service.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for OffHeapVectorCache
+ */
+class OffHeapVectorCacheTest {
+
+    @Test
+    void shouldReturnCopyOfStoredVector() {
+        OffHeapVectorCache cache = new OffHeapVectorCache(3, 10);
+        cache.put("a", new float[]{1f, 2f, 3f});
+
+        float[] vector = cache.get("a");
+        vector[0] = 99f;
+
+        assertThat(cache.get("a")).containsExactly(1f, 2f, 3f);
+        assertThat(cache.get("missing")).isNull();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenFull() {
+        OffHeapVectorCache cache = new OffHeapVectorCache(2, 2);
+        cache.put("a", new float[]{1f, 1f});
+        cache.put("b", new float[]{2f, 2f});
+        cache.get("a");
+
+        cache.put("c", new float[]{3f, 3f});
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).containsExactly(1f, 1f);
+        assertThat(cache.get("c")).containsExactly(3f, 3f);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAllocatePagesAsItFills() {
+        OffHeapVectorCache cache = new OffHeapVectorCache(4, OffHeapVectorCache.PAGE_SLOTS * 3);
+        assertThat(cache.allocatedBytes()).isZero();
+
+        for (int i = 0; i <= OffHeapVectorCache.PAGE_SLOTS; i++) {
+            cache.put("k" + i, new float[]{i, i, i, i});
+        }
+
+        // Second page just started
+        assertThat(cache.allocatedBytes()).isEqualTo(2L * OffHeapVectorCache.PAGE_SLOTS * 4 * Float.BYTES);
+        assertThat(cache.get("k" + OffHeapVectorCache.PAGE_SLOTS)).containsOnly((float) OffHeapVectorCache.PAGE_SLOTS);
+    }
+
+    @Test
+    void shouldRejectVectorOfOtherDimension() {
+        OffHeapVectorCache cache = new OffHeapVectorCache(3, 10);
+
+        assertThatThrownBy(() -> cache.put("a", new float[]{1f}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
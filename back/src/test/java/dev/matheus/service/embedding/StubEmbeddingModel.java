@@ -0,0 +1,48 @@
+package dev.matheus.service.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local embedding model for tests and benchmarks: derives a small vector from the text
+ * and simulates the fixed cost of a remote request.
+ */
+class StubEmbeddingModel implements EmbeddingModel {
+
+    private final long roundTripMillis;
+    final AtomicInteger requests = new AtomicInteger();
+    volatile String failOnText;
+
+    StubEmbeddingModel(long roundTripMillis) {
+        this.roundTripMillis = roundTripMillis;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+        requests.incrementAndGet();
+        pause(roundTripMillis);
+        List<Embedding> embeddings = new ArrayList<>(segments.size());
+        for (TextSegment segment : segments) {
+            if (segment.text().equals(failOnText)) {
+                throw new IllegalArgumentException("Cannot embed: " + segment.text());
+            }
+            int hash = segment.text().hashCode();
+            embeddings.add(Embedding.from(new float[]{hash & 0xFF, (hash >> 8) & 0xFF, (hash >> 16) & 0xFF, 1f}));
+        }
+        return Response.from(embeddings);
+    }
+
+    static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
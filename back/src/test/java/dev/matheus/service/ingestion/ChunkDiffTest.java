@@ -0,0 +1,66 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.service.ingestion.ChunkDiff.PreviousChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ChunkDiff
+ */
+class ChunkDiffTest {
+
+    @Test
+    void shouldReuseChunksWithSameContentHash() {
+        ChunkDiff diff = new ChunkDiff(List.of(
+                new PreviousChunk("c1", "h1", true),
+                new PreviousChunk("c2", "h2", true)));
+
+        assertThat(diff.claim("h2")).extracting(PreviousChunk::id).isEqualTo("c2");
+        assertThat(diff.claim("h3")).isNull();
+        assertThat(diff.reusedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReportUnclaimedChunksAsRemoved() {
+        ChunkDiff diff = new ChunkDiff(List.of(
+                new PreviousChunk("c1", "h1", true),
+                new PreviousChunk("c2", "h2", true),
+                new PreviousChunk("c3", "h3", false)));
+
+        diff.claim("h1");
+        diff.claim("h3");
+
+        assertThat(diff.unclaimedIds()).containsExactly("c2");
+    }
+
+    @Test
+    void shouldMatchDuplicateContentInPositionOrder() {
+        ChunkDiff diff = new ChunkDiff(List.of(
+                new PreviousChunk("c1", "same", true),
+                new PreviousChunk("c2", "other", true),
+                new PreviousChunk("c3", "same", true)));
+
+        assertThat(diff.claim("same").id()).isEqualTo("c1");
+        assertThat(diff.claim("same").id()).isEqualTo("c3");
+        assertThat(diff.claim("same")).isNull();
+        assertThat(diff.unclaimedIds()).containsExactly("c2");
+    }
+
+    @Test
+    void shouldKeepEmbeddedFlagOfReusedChunk() {
+        ChunkDiff diff = new ChunkDiff(List.of(new PreviousChunk("c1", "h1", false)));
+
+        assertThat(diff.claim("h1").embedded()).isFalse();
+    }
+
+    @Test
+    void shouldTreatEverythingAsNewWithoutPreviousChunks() {
+        ChunkDiff diff = ChunkDiff.empty();
+
+        assertThat(diff.claim("h1")).isNull();
+        assertThat(diff.unclaimedIds()).isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.entity.DocumentChunk;
+import dev.matheus.entity.EmbeddingStatus;
+import dev.matheus.service.ingestion.EmbeddingResume.Plan;
+import dev.matheus.service.ingestion.EmbeddingResume.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for EmbeddingResume
+ */
+class EmbeddingResumeTest {
+
+    @Test
+    void shouldResumeAtTheStepAfterTheLastCommittedOne() {
+        assertThat(EmbeddingResume.next(chunk("c1", EmbeddingStatus.PENDING, null), false))
+                .isEqualTo(Step.EMBED_CONTENT);
+        assertThat(EmbeddingResume.next(chunk("c2", EmbeddingStatus.CONTENT_EMBEDDED, null), true))
+                .isEqualTo(Step.GENERATE_QUESTIONS);
+        assertThat(EmbeddingResume.next(chunk("c3", EmbeddingStatus.QUESTIONS_GENERATED, List.of("Q?")), true))
+                .isEqualTo(Step.EMBED_QUESTIONS);
+        assertThat(EmbeddingResume.next(chunk("c4", EmbeddingStatus.DONE, null), true))
+                .isEqualTo(Step.NONE);
+    }
+
+    @Test
+    void shouldResumeFailedChunksFromWhatIsStored() {
+        assertThat(EmbeddingResume.next(chunk("c1", EmbeddingStatus.FAILED, null), false))
+                .isEqualTo(Step.EMBED_CONTENT);
+        assertThat(EmbeddingResume.next(chunk("c2", EmbeddingStatus.FAILED, null), true))
+                .isEqualTo(Step.GENERATE_QUESTIONS);
+        assertThat(EmbeddingResume.next(chunk("c3", EmbeddingStatus.FAILED, List.of("Q?")), true))
+                .isEqualTo(Step.EMBED_QUESTIONS);
+    }
+
+    @Test
+    void shouldGenerateQuestionsAgainWhenNoneWereKept() {
+        assertThat(EmbeddingResume.next(chunk("c1", EmbeddingStatus.QUESTIONS_GENERATED, List.of()), true))
+                .isEqualTo(Step.GENERATE_QUESTIONS);
+    }
+
+    @Test
+    void shouldGroupUnfinishedChunksAndLeaveDoneOnesOut() {
+        DocumentChunk pending = chunk("c1", EmbeddingStatus.PENDING, null);
+        DocumentChunk done = chunk("c2", EmbeddingStatus.DONE, null);
+        DocumentChunk failedAfterContent = chunk("c3", EmbeddingStatus.FAILED, null);
+        DocumentChunk failedBeforeContent = chunk("c4", EmbeddingStatus.FAILED, null);
+        DocumentChunk questioned = chunk("c5", EmbeddingStatus.QUESTIONS_GENERATED, List.of("Q?"));
+
+        Plan plan = Plan.of(List.of(pending, done, failedAfterContent, failedBeforeContent, questioned), Set.of("c3"));
+
+        assertThat(plan.embedContent()).containsExactly(pending, failedBeforeContent);
+        assertThat(plan.generateQuestions()).containsExactly(failedAfterContent);
+        assertThat(plan.embedQuestions()).containsExactly(questioned);
+        assertThat(plan.size()).isEqualTo(4);
+    }
+
+    private static DocumentChunk chunk(String id, EmbeddingStatus status, List<String> pendingQuestions) {
+        DocumentChunk chunk = new DocumentChunk();
+        chunk.id = id;
+        chunk.embeddingStatus = status;
+        chunk.pendingQuestions = pendingQuestions;
+        return chunk;
+    }
+}
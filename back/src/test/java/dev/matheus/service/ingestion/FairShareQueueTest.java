@@ -0,0 +1,121 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.entity.IngestionPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for FairShareQueue
+ */
+class FairShareQueueTest {
+
+    @Test
+    void shouldTakeHigherPrioritiesFirst() throws Exception {
+        FairShareQueue queue = new FairShareQueue(10, owner -> 1);
+        List<String> order = new ArrayList<>();
+
+        queue.put(IngestionPriority.BULK, "chat-a", () -> order.add("bulk"));
+        queue.put(IngestionPriority.NORMAL, "chat-b", () -> order.add("normal"));
+        queue.put(IngestionPriority.INTERACTIVE, "chat-c", () -> order.add("interactive"));
+
+        drain(queue);
+
+        assertThat(order).containsExactly("interactive", "normal", "bulk");
+    }
+
+    @Test
+    void shouldAlternateBetweenOwnersOfTheSamePriority() throws Exception {
+        FairShareQueue queue = new FairShareQueue(10, owner -> 1);
+        List<String> order = new ArrayList<>();
+
+        // chat-a queued its whole document before chat-b's first task arrived
+        for (int i = 1; i <= 3; i++) {
+            String name = "a" + i;
+            queue.put(IngestionPriority.NORMAL, "chat-a", () -> order.add(name));
+        }
+        queue.put(IngestionPriority.NORMAL, "chat-b", () -> order.add("b1"));
+        queue.put(IngestionPriority.NORMAL, "chat-b", () -> order.add("b2"));
+
+        drain(queue);
+
+        assertThat(order).containsExactly("a1", "b1", "a2", "b2", "a3");
+    }
+
+    @Test
+    void shouldGiveOwnersTurnsProportionalToTheirWeight() throws Exception {
+        FairShareQueue queue = new FairShareQueue(20, owner -> owner.equals("chat-a") ? 2 : 1);
+        List<String> order = new ArrayList<>();
+
+        for (int i = 1; i <= 4; i++) {
+            String a = "a" + i;
+            String b = "b" + i;
+            queue.put(IngestionPriority.BULK, "chat-a", () -> order.add(a));
+            queue.put(IngestionPriority.BULK, "chat-b", () -> order.add(b));
+        }
+
+        drain(queue);
+
+        assertThat(order).containsExactly("a1", "a2", "b1", "a3", "a4", "b2", "b3", "b4");
+    }
+
+    @Test
+    void shouldReportQueuedTasksPerPriorityAndOwner() throws Exception {
+        FairShareQueue queue = new FairShareQueue(10, owner -> 1);
+
+        queue.put(IngestionPriority.BULK, "chat-a", () -> { });
+        queue.put(IngestionPriority.BULK, "chat-a", () -> { });
+        queue.put(IngestionPriority.INTERACTIVE, "chat-b", () -> { });
+        queue.put(IngestionPriority.INTERACTIVE, null, () -> { });
+
+        assertThat(queue.size()).isEqualTo(4);
+        assertThat(queue.owners()).isEqualTo(3);
+        assertThat(queue.sizeByPriority()).isEqualTo(Map.of(
+                IngestionPriority.INTERACTIVE, 2,
+                IngestionPriority.NORMAL, 0,
+                IngestionPriority.BULK, 2));
+    }
+
+    @Test
+    void shouldBlockProducerWhileFullWhateverThePriority() throws Exception {
+        FairShareQueue queue = new FairShareQueue(1, owner -> 1);
+        queue.put(IngestionPriority.BULK, "chat-a", () -> { });
+
+        AtomicBoolean accepted = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(IngestionPriority.INTERACTIVE, "chat-b", () -> { });
+                accepted.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        producer.join(300);
+        assertThat(accepted).isFalse();
+
+        assertThat(queue.poll(1, TimeUnit.SECONDS)).isNotNull();
+        producer.join(5_000);
+        assertThat(accepted).isTrue();
+    }
+
+    @Test
+    void shouldReturnNullWhenNothingArrivesInTime() throws Exception {
+        FairShareQueue queue = new FairShareQueue(1, owner -> 1);
+
+        assertThat(queue.poll(10, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private static void drain(FairShareQueue queue) throws InterruptedException {
+        Runnable task;
+        while ((task = queue.poll(0, TimeUnit.MILLISECONDS)) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package dev.matheus.service.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the retry backoff of {@link IngestionJobService}.
+ */
+class IngestionJobServiceTest {
+
+    private static final Duration BASE = Duration.ofSeconds(30);
+    private static final Duration MAX = Duration.ofMinutes(30);
+
+    @Test
+    void shouldUseBaseDelayForFirstRetry() {
+        assertThat(IngestionJobService.backoffFor(1, BASE, MAX)).isEqualTo(BASE);
+    }
+
+    @Test
+    void shouldDoubleDelayForEachAttempt() {
+        assertThat(IngestionJobService.backoffFor(2, BASE, MAX)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(IngestionJobService.backoffFor(3, BASE, MAX)).isEqualTo(Duration.ofSeconds(120));
+        assertThat(IngestionJobService.backoffFor(4, BASE, MAX)).isEqualTo(Duration.ofSeconds(240));
+    }
+
+    @Test
+    void shouldCapDelayAtMaximum() {
+        assertThat(IngestionJobService.backoffFor(10, BASE, MAX)).isEqualTo(MAX);
+        assertThat(IngestionJobService.backoffFor(1_000, BASE, MAX)).isEqualTo(MAX);
+    }
+
+    @Test
+    void shouldTreatNonPositiveAttemptAsFirst() {
+        assertThat(IngestionJobService.backoffFor(0, BASE, MAX)).isEqualTo(BASE);
+    }
+}
@@ -0,0 +1,85 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.service.ChatSessionRegistry;
+import io.quarkus.websockets.next.WebSocketConnection;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IngestionProgressPublisher coalescing
+ */
+class IngestionProgressPublisherTest {
+
+    private final ChatSessionRegistry registry = new ChatSessionRegistry();
+    private final IngestionProgressPublisher publisher = new IngestionProgressPublisher(registry);
+    private WebSocketConnection connection;
+
+    @BeforeEach
+    void connect() {
+        connection = mock(WebSocketConnection.class);
+        when(connection.sendText(anyString())).thenReturn(Uni.createFrom().voidItem());
+        registry.register("chat-1", connection);
+    }
+
+    @Test
+    void shouldCoalesceUpdatesIntoOneEventPerFlush() {
+        IngestionProgress progress = publisher.track(new IngestionProgress("doc-1", "chat-1"));
+        progress.chunksCreated(1000, 1000);
+        for (int i = 0; i < 1000; i++) {
+            progress.chunksEmbedded(1);
+        }
+
+        publisher.flush();
+        publisher.flush();
+
+        ArgumentCaptor<String> sent = ArgumentCaptor.forClass(String.class);
+        verify(connection, times(1)).sendText(sent.capture());
+        assertThat(sent.getValue())
+                .contains("\"type\":\"ingestion_progress\"")
+                .contains("\"chunksEmbedded\":1000")
+                .contains("\"status\":\"PROCESSING\"");
+    }
+
+    @Test
+    void shouldNotSendWhilePreviousEventIsInFlight() {
+        when(connection.sendText(anyString())).thenReturn(Uni.createFrom().nothing());
+        IngestionProgress progress = publisher.track(new IngestionProgress("doc-1", "chat-1"));
+
+        publisher.flush();
+        progress.chunkCompleted();
+        publisher.flush();
+
+        verify(connection, times(1)).sendText(anyString());
+    }
+
+    @Test
+    void shouldSendFinalStateImmediately() {
+        IngestionProgress progress = publisher.track(new IngestionProgress("doc-1", "chat-1"));
+
+        publisher.finished(progress, "COMPLETED", null);
+        publisher.flush();
+
+        ArgumentCaptor<String> sent = ArgumentCaptor.forClass(String.class);
+        verify(connection, times(1)).sendText(sent.capture());
+        assertThat(sent.getValue()).contains("\"status\":\"COMPLETED\"").contains("\"percent\":100");
+    }
+
+    @Test
+    void shouldResendCurrentStateWhenClientReconnects() {
+        registry.unregister("chat-1");
+        publisher.track(new IngestionProgress("doc-1", "chat-1"));
+        publisher.flush();
+
+        registry.register("chat-1", connection);
+        publisher.resend("chat-1");
+        publisher.flush();
+
+        verify(connection, times(1)).sendText(anyString());
+    }
+}
@@ -0,0 +1,92 @@
+package dev.matheus.service.ingestion;
+
+import dev.matheus.dto.IngestionProgressEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for IngestionProgress
+ */
+class IngestionProgressTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final IngestionProgress progress = new IngestionProgress("doc-1", "chat-1", nanos::get);
+
+    @Test
+    void shouldWeightConversionAsHalfOfProgress() {
+        progress.pagesConverted(50, 100);
+
+        IngestionProgressEvent event = progress.snapshot("PROCESSING", null);
+
+        assertThat(event.type()).isEqualTo("ingestion_progress");
+        assertThat(event.percent()).isEqualTo(25);
+        assertThat(event.pagesConverted()).isEqualTo(50);
+        assertThat(event.totalPages()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldCountChunkStagesAfterConversion() {
+        progress.pagesConverted(10, 10);
+        progress.conversionFinished();
+        progress.chunksCreated(10, 10);
+        progress.chunksEmbedded(10);
+        for (int i = 0; i < 5; i++) {
+            progress.chunkCompleted();
+        }
+
+        // 50% conversion + 20% embedding + 30% * 5/10 questions
+        assertThat(progress.snapshot("PROCESSING", null).percent()).isEqualTo(85);
+    }
+
+    @Test
+    void shouldNeverReportLowerPercentWhenMoreChunksArrive() {
+        progress.pagesConverted(10, 20);
+        progress.chunksCreated(4, 4);
+        progress.chunksEmbedded(4);
+        int before = progress.snapshot("PROCESSING", null).percent();
+
+        progress.chunksCreated(40, 40);
+
+        assertThat(progress.snapshot("PROCESSING", null).percent()).isEqualTo(before);
+    }
+
+    @Test
+    void shouldReachHundredOnlyWhenCompleted() {
+        progress.conversionFinished();
+
+        assertThat(progress.snapshot("PROCESSING", null).percent()).isEqualTo(99);
+        assertThat(progress.snapshot("COMPLETED", null).percent()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldEstimateRemainingTimeFromElapsedTime() {
+        progress.pagesConverted(50, 100);
+        nanos.set(60_000_000_000L);
+
+        // 25% done after 60s: 180s left
+        assertThat(progress.snapshot("PROCESSING", null).etaSeconds()).isEqualTo(180L);
+    }
+
+    @Test
+    void shouldNotEstimateWithoutProgress() {
+        nanos.set(60_000_000_000L);
+
+        assertThat(progress.snapshot("PROCESSING", null).etaSeconds()).isNull();
+    }
+
+    @Test
+    void shouldReuseChunksWithoutEmbeddingWork() {
+        progress.pagesConverted(5, 5);
+        progress.conversionFinished();
+        progress.chunksCreated(12, 0);
+
+        IngestionProgressEvent event = progress.snapshot("PROCESSING", null);
+
+        assertThat(event.chunksCreated()).isEqualTo(12);
+        assertThat(event.chunksToEmbed()).isZero();
+        assertThat(event.percent()).isEqualTo(99);
+    }
+}
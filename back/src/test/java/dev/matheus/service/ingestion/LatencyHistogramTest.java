@@ -0,0 +1,58 @@
+package dev.matheus.service.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for LatencyHistogram
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void shouldReportZeroWithoutSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.percentileMillis(99)).isZero();
+    }
+
+    @Test
+    void shouldReportPercentilesWithinABucketOfTheRealValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1..1000 ms, one sample each
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.percentileMillis(50)).isCloseTo(500, within(125.0));
+        assertThat(histogram.percentileMillis(99)).isCloseTo(990, within(250.0));
+        assertThat(histogram.percentileMillis(50)).isGreaterThanOrEqualTo(500);
+    }
+
+    @Test
+    void shouldSeparateTheTailFromTheMedian() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(2_000_000L);
+        }
+        histogram.record(5_000_000_000L);
+        histogram.record(5_000_000_000L);
+
+        assertThat(histogram.percentileMillis(50)).isCloseTo(2, within(0.5));
+        assertThat(histogram.percentileMillis(99)).isCloseTo(5000, within(1250.0));
+    }
+
+    @Test
+    void bucketsShouldCoverEveryDurationInOrder() {
+        int previous = -1;
+        for (long micros = 1; micros < 1L << 40; micros = micros * 3 / 2 + 1) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertThat(bucket).isGreaterThanOrEqualTo(previous);
+            assertThat(LatencyHistogram.upperBoundMicros(bucket)).isGreaterThan(micros);
+            previous = bucket;
+        }
+    }
+}
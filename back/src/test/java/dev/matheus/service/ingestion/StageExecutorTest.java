@@ -0,0 +1,144 @@
+package dev.matheus.service.ingestion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for StageExecutor and SlidingWindowCounter
+ */
+class StageExecutorTest {
+
+    private StageExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void shouldRunSubmittedTasksAndCountThem() throws Exception {
+        executor = new StageExecutor(IngestionStage.EMBED_CONTENT, 2, 10);
+        executor.start();
+        CountDownLatch done = new CountDownLatch(5);
+
+        for (int i = 0; i < 5; i++) {
+            executor.submit(done::countDown);
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        waitUntilIdle();
+        IngestionStageStats stats = executor.stats();
+        assertThat(stats.stage()).isEqualTo(IngestionStage.EMBED_CONTENT);
+        assertThat(stats.completed()).isEqualTo(5);
+        assertThat(stats.failed()).isZero();
+        assertThat(stats.throughputPerMinute()).isEqualTo(5);
+        assertThat(stats.queueDepth()).isZero();
+    }
+
+    @Test
+    void shouldBlockProducerWhenQueueIsFull() throws Exception {
+        executor = new StageExecutor(IngestionStage.CONVERT, 1, 1);
+        executor.start();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // Occupy the only worker, then fill the only queue slot
+        executor.submit(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.submit(() -> { });
+        assertThat(executor.hasIdleWorker()).isFalse();
+
+        AtomicBoolean thirdAccepted = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            try {
+                executor.submit(() -> { });
+                thirdAccepted.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        producer.join(300);
+
+        assertThat(thirdAccepted).isFalse();
+        assertThat(executor.stats().queueDepth()).isEqualTo(1);
+
+        release.countDown();
+        producer.join(5_000);
+        assertThat(thirdAccepted).isTrue();
+    }
+
+    @Test
+    void shouldCountFailedTasksAndKeepWorking() throws Exception {
+        executor = new StageExecutor(IngestionStage.FINALIZE, 1, 4);
+        executor.start();
+        CountDownLatch done = new CountDownLatch(1);
+
+        executor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.submit(done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        waitUntilIdle();
+        assertThat(executor.stats().failed()).isEqualTo(1);
+        assertThat(executor.stats().completed()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectSubmitWhenNotStarted() {
+        executor = new StageExecutor(IngestionStage.CHUNK, 1, 1);
+
+        assertThatThrownBy(() -> executor.submit(() -> { }))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void slidingWindowShouldForgetEventsOlderThanOneMinute() {
+        AtomicLong clock = new AtomicLong(1_000);
+        SlidingWindowCounter counter = new SlidingWindowCounter(clock::get);
+
+        counter.record();
+        counter.record();
+        clock.addAndGet(30);
+        counter.record();
+        assertThat(counter.sum()).isEqualTo(3);
+
+        clock.addAndGet(31);
+        assertThat(counter.sum()).isEqualTo(1);
+
+        // Same slot reused a minute later starts from zero
+        clock.addAndGet(29);
+        counter.record();
+        assertThat(counter.sum()).isEqualTo(1);
+    }
+
+    private void waitUntilIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (executor.stats().active() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
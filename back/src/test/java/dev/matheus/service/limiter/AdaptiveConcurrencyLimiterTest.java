@@ -0,0 +1,239 @@
+package dev.matheus.service.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldGrowAdditivelyWhileCallsSucceed() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(settings(1, 1, 10, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+
+        // Each success adds 1/limit
+        succeed(limiter, 2, 10);
+
+        assertThat(limiter.stats().limit()).isEqualTo(2.5);
+        assertThat(limiter.stats().succeeded()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotGrowPastMaxLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(settings(1, 1, 2, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+
+        succeed(limiter, 20, 10);
+
+        assertThat(limiter.stats().limit()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldNotGrowWhileLimitIsMostlyUnused() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(settings(8, 1, 64, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+
+        // One call at a time never shows the provider handles more than 8
+        succeed(limiter, 50, 10);
+
+        assertThat(limiter.stats().limit()).isEqualTo(8.0);
+    }
+
+    @Test
+    void shouldHalveLimitOnThrottlingOncePerCooldown() {
+        AdaptiveConcurrencyLimiter limiter = limiter(settings(16, 1, 64, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+
+        throttle(limiter);
+        throttle(limiter);
+        assertThat(limiter.stats().limit()).isEqualTo(8.0);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        throttle(limiter);
+        assertThat(limiter.stats().limit()).isEqualTo(4.0);
+
+        LimiterStats stats = limiter.stats();
+        assertThat(stats.throttled()).isEqualTo(3);
+        assertThat(stats.decreases()).isEqualTo(2);
+        assertThat(stats.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldNotBackOffBelowMinLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(settings(2, 2, 8, Duration.ZERO, Duration.ofSeconds(5)));
+
+        throttle(limiter);
+        throttle(limiter);
+
+        assertThat(limiter.stats().limit()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldBackOffOnLatencySpike() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(settings(8, 1, 8, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+        succeed(limiter, AdaptiveConcurrencyLimiter.LATENCY_WARMUP_SAMPLES, 100);
+        double before = limiter.stats().limit();
+
+        succeed(limiter, 1, 500);
+
+        assertThat(limiter.stats().limit()).isEqualTo(before / 2);
+        assertThat(limiter.stats().throttled()).isZero();
+    }
+
+    @Test
+    void shouldIgnoreOrdinaryFailures() {
+        AdaptiveConcurrencyLimiter limiter = limiter(settings(4, 1, 8, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+
+        assertThatThrownBy(() -> limiter.call(Lane.INTERACTIVE, () -> {
+            throw new IllegalArgumentException("bad prompt");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(limiter.stats().limit()).isEqualTo(4.0);
+        assertThat(limiter.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void shouldRecognizeThrottlingErrors() {
+        assertThat(AdaptiveConcurrencyLimiter.isThrottle(new RuntimeException("HTTP 429 Too Many Requests"))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isThrottle(
+                new IllegalStateException("call failed", new RuntimeException("RESOURCE_EXHAUSTED: quota")))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isThrottle(new RateLimitException("slow down"))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isThrottle(new RuntimeException("HTTP 500"))).isFalse();
+        assertThat(AdaptiveConcurrencyLimiter.isThrottle(new RuntimeException((String) null))).isFalse();
+    }
+
+    @Test
+    void shouldRecognizeOverloadErrors() {
+        assertThat(AdaptiveConcurrencyLimiter.isOverload(new RejectedExecutionException("No call slot"))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isOverload(
+                new RuntimeException("call failed", new RejectedExecutionException("No JDBC permit")))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isOverload(new RuntimeException("HTTP 429"))).isTrue();
+        assertThat(AdaptiveConcurrencyLimiter.isOverload(new RuntimeException("invalid JSON"))).isFalse();
+    }
+
+    @Test
+    void shouldKeepReserveFreeForInteractiveCalls() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test",
+                settings(4, 4, 4, Duration.ofSeconds(1), Duration.ofMillis(200)));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(3);
+
+        // Background may use 4 - ceil(4 * 0.25) = 3 slots
+        List<Thread> background = List.of(
+                block(limiter, Lane.BACKGROUND, started, release),
+                block(limiter, Lane.BACKGROUND, started, release),
+                block(limiter, Lane.BACKGROUND, started, release));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> limiter.call(Lane.BACKGROUND, () -> "fourth"))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(limiter.call(Lane.INTERACTIVE, () -> "interactive")).isEqualTo("interactive");
+        assertThat(limiter.stats().rejected()).isEqualTo(1);
+
+        release.countDown();
+        for (Thread thread : background) {
+            thread.join(5000);
+        }
+        assertThat(limiter.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void shouldAdmitWaitingInteractiveCallsBeforeBackground() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test",
+                settings(1, 1, 1, Duration.ofSeconds(1), Duration.ofSeconds(10)));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<Lane> order = new CopyOnWriteArrayList<>();
+
+        Thread holder = block(limiter, Lane.BACKGROUND, started, release);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread backgroundWaiter = record(limiter, Lane.BACKGROUND, order);
+        awaitWaiting(limiter, 0, 1);
+        Thread interactiveWaiter = record(limiter, Lane.INTERACTIVE, order);
+        awaitWaiting(limiter, 1, 1);
+
+        release.countDown();
+        for (Thread thread : List.of(holder, backgroundWaiter, interactiveWaiter)) {
+            thread.join(5000);
+        }
+
+        assertThat(order).containsExactly(Lane.INTERACTIVE, Lane.BACKGROUND);
+    }
+
+    // --- Helpers ---
+
+    /** Same simple name as LangChain4j's exception, which is all the limiter looks at */
+    private static class RateLimitException extends RuntimeException {
+        RateLimitException(String message) {
+            super(message);
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(AdaptiveConcurrencyLimiter.Settings settings) {
+        return new AdaptiveConcurrencyLimiter("test", settings, clock::get);
+    }
+
+    private static AdaptiveConcurrencyLimiter.Settings settings(int initial, int min, int max,
+                                                                Duration cooldown, Duration maxWait) {
+        return new AdaptiveConcurrencyLimiter.Settings(initial, min, max, 0.5, 2.0, cooldown, 0.25, maxWait);
+    }
+
+    /**
+     * Run calls one after another, each taking the given time on the fake clock.
+     */
+    private void succeed(AdaptiveConcurrencyLimiter limiter, int calls, long millis) throws Exception {
+        for (int i = 0; i < calls; i++) {
+            limiter.call(Lane.INTERACTIVE, () -> clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis)));
+        }
+    }
+
+    private static void throttle(AdaptiveConcurrencyLimiter limiter) {
+        assertThatThrownBy(() -> limiter.call(Lane.BACKGROUND, () -> {
+            throw new RuntimeException("status code: 429");
+        })).hasMessageContaining("429");
+    }
+
+    private static Thread block(AdaptiveConcurrencyLimiter limiter, Lane lane,
+                                CountDownLatch started, CountDownLatch release) {
+        Thread thread = new Thread(() -> limiter.execute(lane, () -> {
+            started.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        thread.start();
+        return thread;
+    }
+
+    private static Thread record(AdaptiveConcurrencyLimiter limiter, Lane lane, List<Lane> order) {
+        Thread thread = new Thread(() -> limiter.execute(lane, () -> order.add(lane)));
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(AdaptiveConcurrencyLimiter limiter, int interactive, int background)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            LimiterStats stats = limiter.stats();
+            if (stats.waitingInteractive() == interactive && stats.waitingBackground() == background) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Waiters did not queue up: " + limiter.stats());
+    }
+}
@@ -0,0 +1,100 @@
+package dev.matheus.service.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ResourceBulkheads
+ */
+class ResourceBulkheadsTest {
+
+    @Test
+    void shouldBoundConcurrencyOfVirtualThreads() throws Exception {
+        ResourceBulkheads bulkheads = new ResourceBulkheads(3, Duration.ofSeconds(30));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(executor.submit(() -> bulkheads.run(ExternalResource.PGVECTOR, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(5);
+                    running.decrementAndGet();
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(3);
+        assertThat(bulkheads.available()).containsEntry(ExternalResource.PGVECTOR, 3);
+    }
+
+    @Test
+    void shouldNotTakeSecondPermitForNestedUseOnSameThread() {
+        ResourceBulkheads bulkheads = new ResourceBulkheads(1, Duration.ofMillis(100));
+
+        String result = bulkheads.execute(ExternalResource.JDBC,
+                () -> bulkheads.execute(ExternalResource.JDBC, () -> "nested"));
+
+        assertThat(result).isEqualTo("nested");
+        assertThat(bulkheads.available()).containsEntry(ExternalResource.JDBC, 1);
+    }
+
+    @Test
+    void shouldKeepResourcesIndependent() {
+        ResourceBulkheads bulkheads = new ResourceBulkheads(1, Duration.ofMillis(100));
+
+        String result = bulkheads.execute(ExternalResource.JDBC,
+                () -> bulkheads.execute(ExternalResource.PGVECTOR, () -> "both"));
+
+        assertThat(result).isEqualTo("both");
+    }
+
+    @Test
+    void shouldRejectWhenNoPermitFreesUp() throws Exception {
+        ResourceBulkheads bulkheads = new ResourceBulkheads(1, Duration.ofMillis(50));
+
+        Thread holder = Thread.ofVirtual().start(() -> bulkheads.run(ExternalResource.DOCLING, () -> sleep(500)));
+        while (bulkheads.available().get(ExternalResource.DOCLING) > 0) {
+            Thread.sleep(1);
+        }
+
+        assertThatThrownBy(() -> bulkheads.run(ExternalResource.DOCLING, () -> { }))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("DOCLING");
+        holder.join();
+    }
+
+    @Test
+    void shouldReleasePermitWhenTaskFails() {
+        ResourceBulkheads bulkheads = new ResourceBulkheads(1, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> bulkheads.run(ExternalResource.JDBC, () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(bulkheads.available()).containsEntry(ExternalResource.JDBC, 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
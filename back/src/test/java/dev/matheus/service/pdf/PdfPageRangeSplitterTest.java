@@ -0,0 +1,77 @@
+package dev.matheus.service.pdf;
+
+import dev.matheus.service.pdf.PdfPageRangeSplitter.PageWindow;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for PdfPageRangeSplitter
+ */
+class PdfPageRangeSplitterTest {
+
+    @Test
+    void shouldSplitIntoWindowsInPageOrder() throws IOException {
+        byte[] pdf = createPdf(45);
+
+        List<PageWindow> windows = PdfPageRangeSplitter.split(pdf, 20);
+
+        assertThat(windows).hasSize(3);
+        assertThat(windows).extracting(PageWindow::index).containsExactly(0, 1, 2);
+        assertThat(windows).extracting(PageWindow::firstPage).containsExactly(1, 21, 41);
+        assertThat(windows).extracting(PageWindow::lastPage).containsExactly(20, 40, 45);
+    }
+
+    @Test
+    void shouldProduceStandalonePdfPerWindow() throws IOException {
+        byte[] pdf = createPdf(25);
+
+        List<PageWindow> windows = PdfPageRangeSplitter.split(pdf, 10);
+
+        assertThat(windows).hasSize(3);
+        assertThat(PdfPageRangeSplitter.countPages(windows.get(0).content())).isEqualTo(10);
+        assertThat(PdfPageRangeSplitter.countPages(windows.get(2).content())).isEqualTo(5);
+    }
+
+    @Test
+    void shouldReturnSingleWindowForSmallDocument() throws IOException {
+        byte[] pdf = createPdf(3);
+
+        List<PageWindow> windows = PdfPageRangeSplitter.split(pdf, 20);
+
+        assertThat(windows).hasSize(1);
+        assertThat(windows.get(0).firstPage()).isEqualTo(1);
+        assertThat(windows.get(0).lastPage()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCountPages() throws IOException {
+        assertThat(PdfPageRangeSplitter.countPages(createPdf(7))).isEqualTo(7);
+    }
+
+    @Test
+    void shouldRejectNonPositiveWindowSize() throws IOException {
+        byte[] pdf = createPdf(1);
+
+        assertThatThrownBy(() -> PdfPageRangeSplitter.split(pdf, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] createPdf(int pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage());
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
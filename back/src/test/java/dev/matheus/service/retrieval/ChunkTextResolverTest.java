@@ -0,0 +1,68 @@
+package dev.matheus.service.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ChunkTextResolver
+ */
+class ChunkTextResolverTest {
+
+    private final Map<String, String> table = new HashMap<>(Map.of(
+            "a", "Alpha", "b", "Beta", "c", "Gamma"));
+    private final List<List<String>> queries = new ArrayList<>();
+
+    @Test
+    void shouldLoadMissesInOneLookup() {
+        ChunkTextResolver resolver = new ChunkTextResolver(10, this::load);
+
+        Map<String, String> texts = resolver.resolve(List.of("a", "b", "missing"));
+
+        assertThat(texts).containsExactlyInAnyOrderEntriesOf(Map.of("a", "Alpha", "b", "Beta"));
+        assertThat(queries).hasSize(1);
+        assertThat(queries.get(0)).containsExactly("a", "b", "missing");
+    }
+
+    @Test
+    void shouldServeRepeatedChunksFromCache() {
+        ChunkTextResolver resolver = new ChunkTextResolver(10, this::load);
+        resolver.resolve(List.of("a", "b"));
+
+        Map<String, String> texts = resolver.resolve(List.of("a", "c"));
+
+        assertThat(texts).containsEntry("a", "Alpha").containsEntry("c", "Gamma");
+        assertThat(queries.get(1)).containsExactly("c");
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedChunks() {
+        ChunkTextResolver resolver = new ChunkTextResolver(2, this::load);
+        resolver.resolve(List.of("a"));
+        resolver.resolve(List.of("b"));
+        resolver.resolve(List.of("a"));
+        resolver.resolve(List.of("c"));
+
+        resolver.resolve(List.of("a", "b"));
+
+        // b was least recently used when c came in
+        assertThat(queries.get(queries.size() - 1)).containsExactly("b");
+    }
+
+    private Map<String, String> load(Collection<String> ids) {
+        queries.add(List.copyOf(ids));
+        Map<String, String> found = new HashMap<>();
+        for (String id : ids) {
+            if (table.containsKey(id)) {
+                found.put(id, table.get(id));
+            }
+        }
+        return found;
+    }
+}
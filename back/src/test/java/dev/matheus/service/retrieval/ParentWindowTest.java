@@ -0,0 +1,92 @@
+package dev.matheus.service.retrieval;
+
+import dev.matheus.service.docling.TokenEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ParentWindow.
+ */
+class ParentWindowTest {
+
+    private final TokenEstimator tokenEstimator = new TokenEstimator();
+
+    @Test
+    void shouldReturnWholeParentWithinBudget() {
+        String parent = "## Title\n\nShort paragraph.";
+
+        assertThat(ParentWindow.around(parent, List.of(span(parent, "Short")), 600, tokenEstimator))
+                .isEqualTo(parent);
+    }
+
+    @Test
+    void shouldCutWindowAroundMatchedPassage() {
+        String parent = section(40);
+        // Blocks 18 to 22
+        int budget = tokens(18, 22);
+
+        String window = ParentWindow.around(parent, List.of(span(parent, block(20))), budget, tokenEstimator);
+
+        assertThat(parent).contains(window);
+        assertThat(window).startsWith(block(18)).endsWith(block(22));
+    }
+
+    @Test
+    void shouldTakeInFurtherPassagesThatFit() {
+        String parent = section(40);
+        int budget = tokens(19, 24);
+
+        String window = ParentWindow.around(parent,
+                List.of(span(parent, block(20)), span(parent, block(23)), span(parent, block(35))),
+                budget, tokenEstimator);
+
+        assertThat(window).contains(block(20)).contains(block(23)).doesNotContain(block(35));
+    }
+
+    @Test
+    void shouldFallBackToPassageWhenItsBlockExceedsBudget() {
+        String table = "| a | b |\n|---|---|\n" + "| linha de dados | valor |\n".repeat(100);
+        String parent = "## Tabela\n\n" + table;
+        ParentWindow.Span hit = span(parent, "| linha de dados | valor |\n| linha");
+
+        String window = ParentWindow.around(parent, List.of(hit), 50, tokenEstimator);
+
+        assertThat(window).isEqualTo(parent.substring(hit.start(), hit.end()));
+    }
+
+    @Test
+    void shouldIgnoreSpansOutsideParent() {
+        String parent = section(40);
+
+        assertThat(ParentWindow.around(parent, List.of(new ParentWindow.Span(0, parent.length() + 10)), 20, tokenEstimator))
+                .isEqualTo(parent);
+    }
+
+    private int tokens(int firstBlock, int lastBlock) {
+        int tokens = 0;
+        for (int i = firstBlock; i <= lastBlock; i++) {
+            tokens += tokenEstimator.estimate(block(i));
+        }
+        return tokens;
+    }
+
+    private static String section(int blocks) {
+        StringBuilder section = new StringBuilder();
+        for (int i = 0; i < blocks; i++) {
+            section.append(block(i)).append("\n\n");
+        }
+        return section.toString().strip();
+    }
+
+    private static String block(int i) {
+        return String.format("Block %02d: the valve must be checked before the pump is started.", i);
+    }
+
+    private static ParentWindow.Span span(String parent, String text) {
+        int start = parent.indexOf(text);
+        return new ParentWindow.Span(start, start + text.length());
+    }
+}
@@ -15,9 +15,12 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +29,12 @@ class RetrievalSegmentProcessorTest {
     @Mock
     private ScoringModel scoringModel;
 
+    @Mock
+    private ChunkTextResolver chunkTextResolver;
+
+    @Mock
+    private RetrievalConfigProperties config;
+
     @InjectMocks
     private RetrievalSegmentProcessor processor;
 
@@ -51,6 +60,50 @@ class RetrievalSegmentProcessorTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void shouldResolveQuestionParagraphsByChunkId() {
+        when(chunkTextResolver.resolve(Set.of("chunk-1", "chunk-gone")))
+                .thenReturn(Map.of("chunk-1", "Chunk one content"));
+
+        EmbeddingMatch<TextSegment> question1 = new EmbeddingMatch<>(0.9, "id1", null, question("Question 1", "chunk-1"));
+        EmbeddingMatch<TextSegment> question2 = new EmbeddingMatch<>(0.88, "id2", null, question("Question 2", "chunk-1"));
+        EmbeddingMatch<TextSegment> orphan = new EmbeddingMatch<>(0.87, "id3", null, question("Question 3", "chunk-gone"));
+        EmbeddingMatch<TextSegment> content = new EmbeddingMatch<>(0.8, "id4", null,
+                TextSegment.from("Chunk one content", new Metadata().put("CHUNK_ID", "chunk-1")));
+
+        List<RetrievalSegment> result = processor.processMatches(
+                List.of(question1, question2, orphan, content), "test question", 10);
+
+        // Both questions and the content row stand for chunk-1; the orphaned question is dropped
+        assertEquals(1, result.size());
+        assertEquals("Chunk one content", result.get(0).chunk());
+        assertEquals("Question 1", result.get(0).question());
+        verify(chunkTextResolver).resolve(Set.of("chunk-1", "chunk-gone"));
+    }
+
+    @Test
+    void shouldMergePassagesOfChunkIntoOneWindow() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            content.append("Block ").append(i).append(": the valve must be checked before the pump is started.\n\n");
+        }
+        String chunk = content.toString().strip();
+        when(config.parentWindowMaxTokens()).thenReturn(60);
+        when(chunkTextResolver.resolve(Set.of("chunk-1"))).thenReturn(Map.of("chunk-1", chunk));
+
+        EmbeddingMatch<TextSegment> best = new EmbeddingMatch<>(0.9, "id1", null, passage(chunk, "Block 12:", "chunk-1"));
+        EmbeddingMatch<TextSegment> next = new EmbeddingMatch<>(0.85, "id2", null, passage(chunk, "Block 13:", "chunk-1"));
+
+        List<RetrievalSegment> result = processor.processMatches(List.of(best, next), "test question", 10);
+
+        assertEquals(1, result.size());
+        assertTrue(result.get(0).chunk().contains("Block 12:"));
+        assertTrue(result.get(0).chunk().contains("Block 13:"));
+        assertFalse(result.get(0).chunk().contains("Block 0:"));
+        assertTrue(chunk.contains(result.get(0).chunk()));
+        assertEquals(0.9, result.get(0).similarity());
+    }
+
     @Test
     void shouldFilterByMinScore() {
         List<RetrievalSegment> segments = List.of(
@@ -97,5 +150,20 @@ class RetrievalSegmentProcessorTest {
         assertEquals(9.0, limited.get(0).modelScore());
         assertEquals(8.0, limited.get(1).modelScore());
     }
-}
 
+    private static TextSegment passage(String chunk, String blockStart, String chunkId) {
+        int start = chunk.indexOf(blockStart);
+        int end = chunk.indexOf("\n", start);
+        return TextSegment.from(chunk.substring(start, end), new Metadata()
+                .put(QuestionSegments.CHUNK_ID_KEY, chunkId)
+                .put(QuestionSegments.EMBEDDING_TYPE_KEY, PassageSegments.PASSAGE)
+                .put(PassageSegments.START_KEY, start)
+                .put(PassageSegments.END_KEY, end));
+    }
+
+    private static TextSegment question(String text, String chunkId) {
+        return TextSegment.from(text, new Metadata()
+                .put(QuestionSegments.CHUNK_ID_KEY, chunkId)
+                .put(QuestionSegments.EMBEDDING_TYPE_KEY, QuestionSegments.HYPOTHETICAL_QUESTION));
+    }
+}
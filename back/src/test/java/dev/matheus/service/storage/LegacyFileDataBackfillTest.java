@@ -0,0 +1,109 @@
+package dev.matheus.service.storage;
+
+import dev.matheus.entity.Chat;
+import dev.matheus.entity.DocumentFile;
+import dev.matheus.entity.ProcessingStatus;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for LegacyFileDataBackfill
+ */
+@QuarkusTest
+class LegacyFileDataBackfillTest {
+
+    private static final byte[] CONTENT = "document uploaded before the blob store".getBytes(StandardCharsets.UTF_8);
+
+    @Inject
+    LegacyFileDataBackfill backfill;
+
+    @Inject
+    BlobStore blobStore;
+
+    @Inject
+    EntityManager em;
+
+    private String docId;
+
+    @BeforeEach
+    void setUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            em.createQuery("DELETE FROM ChunkEmbedding").executeUpdate();
+            em.createQuery("DELETE FROM DocumentChunk").executeUpdate();
+            em.createQuery("DELETE FROM DocumentFile").executeUpdate();
+            em.createQuery("DELETE FROM ChatMessage").executeUpdate();
+            em.createQuery("DELETE FROM Chat").executeUpdate();
+
+            // Schema as left by V20261016__move_file_data_to_blob_store.sql on an existing database
+            em.createNativeQuery("ALTER TABLE document_files ADD COLUMN IF NOT EXISTS file_data BYTEA, " +
+                    "ALTER COLUMN blob_key DROP NOT NULL, ALTER COLUMN checksum DROP NOT NULL").executeUpdate();
+
+            Chat chat = new Chat();
+            chat.title = "Legacy";
+            em.persist(chat);
+
+            DocumentFile doc = new DocumentFile();
+            doc.chat = chat;
+            chat.documentFile = doc;
+            doc.fileName = "legacy.txt";
+            doc.fileType = "text/plain";
+            doc.fileSize = (long) CONTENT.length;
+            doc.blobKey = "pending";
+            doc.checksum = "pending";
+            doc.processingStatus = ProcessingStatus.PENDING;
+            em.persist(doc);
+            em.flush();
+
+            em.createNativeQuery("UPDATE document_files SET blob_key = NULL, checksum = NULL, file_data = :data WHERE id = :id")
+                    .setParameter("data", CONTENT)
+                    .setParameter("id", doc.id)
+                    .executeUpdate();
+            docId = doc.id;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        QuarkusTransaction.requiringNew().run(() ->
+                em.createNativeQuery("ALTER TABLE document_files DROP COLUMN IF EXISTS file_data").executeUpdate());
+    }
+
+    @Test
+    void shouldMoveLegacyFileDataToBlobStore() throws Exception {
+        backfill.onStart(null);
+
+        DocumentFile doc = QuarkusTransaction.requiringNew().call(() -> em.find(DocumentFile.class, docId));
+        assertThat(doc.blobKey).isNotNull();
+        assertThat(doc.checksum).isEqualTo(doc.blobKey);
+        try (InputStream in = blobStore.open(doc.blobKey)) {
+            assertThat(in.readAllBytes()).isEqualTo(CONTENT);
+        }
+
+        Object fileData = QuarkusTransaction.requiringNew().call(() -> em.createNativeQuery(
+                "SELECT file_data FROM document_files WHERE id = :id")
+                .setParameter("id", docId)
+                .getSingleResult());
+        assertThat(fileData).isNull();
+    }
+
+    @Test
+    void shouldLeaveMovedDocumentsAlone() throws Exception {
+        backfill.onStart(null);
+        String blobKey = QuarkusTransaction.requiringNew().call(() -> em.find(DocumentFile.class, docId).blobKey);
+
+        backfill.onStart(null);
+
+        assertThat(QuarkusTransaction.requiringNew().call(() -> em.find(DocumentFile.class, docId).blobKey))
+                .isEqualTo(blobKey);
+    }
+}
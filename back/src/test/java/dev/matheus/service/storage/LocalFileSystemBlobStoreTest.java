@@ -0,0 +1,121 @@
+package dev.matheus.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for LocalFileSystemBlobStore
+ */
+class LocalFileSystemBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private LocalFileSystemBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new LocalFileSystemBlobStore(root);
+    }
+
+    @Test
+    void shouldStoreContentUnderItsSha256() throws IOException {
+        BlobStore.BlobRef blob = blobStore.put(stream("hello world"));
+
+        // sha256("hello world")
+        assertThat(blob.checksum()).isEqualTo("b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9");
+        assertThat(blob.key()).isEqualTo(blob.checksum());
+        assertThat(blob.size()).isEqualTo(11);
+        assertThat(blobStore.exists(blob.key())).isTrue();
+    }
+
+    @Test
+    void shouldDeduplicateIdenticalContent() throws IOException {
+        BlobStore.BlobRef first = blobStore.put(stream("same bytes"));
+        BlobStore.BlobRef second = blobStore.put(stream("same bytes"));
+
+        assertThat(second.key()).isEqualTo(first.key());
+        assertThat(blobStore.size(first.key())).isEqualTo(10);
+    }
+
+    @Test
+    void shouldTransferStoredContent() throws IOException {
+        byte[] data = new byte[300_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        BlobStore.BlobRef blob = blobStore.put(new ByteArrayInputStream(data));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long transferred = blobStore.transferTo(blob.key(), out);
+
+        assertThat(transferred).isEqualTo(data.length);
+        assertThat(out.toByteArray()).isEqualTo(data);
+        try (InputStream in = blobStore.open(blob.key())) {
+            assertThat(in.readAllBytes()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    void shouldDeleteBlob() throws IOException {
+        BlobStore.BlobRef blob = blobStore.put(stream("to be deleted"));
+
+        blobStore.delete(blob.key());
+
+        assertThat(blobStore.exists(blob.key())).isFalse();
+        assertThatThrownBy(() -> blobStore.open(blob.key())).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void shouldPublishStagedBlobAgainAfterDelete() throws IOException {
+        try (BlobStore.StagedBlob staged = blobStore.stage(stream("uploaded twice"))) {
+            assertThat(blobStore.exists(staged.ref().key())).isFalse();
+
+            BlobStore.BlobRef blob = blobStore.publish(staged);
+            // Released by the cleanup of another document before this upload committed
+            blobStore.delete(blob.key());
+            blobStore.publish(staged);
+
+            try (InputStream in = blobStore.open(blob.key())) {
+                assertThat(in.readAllBytes()).isEqualTo("uploaded twice".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepPublishedBlobWhenStagedCopyIsClosed() throws IOException {
+        BlobStore.BlobRef blob;
+        try (BlobStore.StagedBlob staged = blobStore.stage(stream("kept"))) {
+            blob = blobStore.publish(staged);
+        }
+
+        assertThat(blobStore.size(blob.key())).isEqualTo(4);
+        try (Stream<Path> staging = Files.list(root.resolve("tmp"))) {
+            assertThat(staging).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldRejectKeysOutsideTheStore() {
+        assertThat(blobStore.exists("../../etc/passwd")).isFalse();
+        assertThatThrownBy(() -> blobStore.open("../../etc/passwd")).isInstanceOf(NoSuchFileException.class);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
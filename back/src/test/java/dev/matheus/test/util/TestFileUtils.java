@@ -1,7 +1,12 @@
 package dev.matheus.test.util;
 
+import dev.matheus.entity.DocumentFile;
+import dev.matheus.service.storage.BlobStore;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 /**
  * Utility class for loading test files.
@@ -24,5 +29,17 @@ public class TestFileUtils {
             return inputStream.readAllBytes();
         }
     }
-}
 
+    /**
+     * Stores content in the blob store and points the document at it.
+     */
+    public static void attachContent(BlobStore blobStore, DocumentFile doc, byte[] data) {
+        try {
+            BlobStore.BlobRef blob = blobStore.put(new ByteArrayInputStream(data));
+            doc.blobKey = blob.key();
+            doc.checksum = blob.checksum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package dev.matheus.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ChunkHashes
+ */
+class ChunkHashesTest {
+
+    @Test
+    void shouldIgnoreLayoutWhitespace() {
+        assertThat(ChunkHashes.contentHash("| a | b |\n|---|---|\n"))
+                .isEqualTo(ChunkHashes.contentHash("  | a |  b |\r\n|---|---|"));
+    }
+
+    @Test
+    void shouldDistinguishDifferentText() {
+        assertThat(ChunkHashes.contentHash("Revenue grew 10%"))
+                .isNotEqualTo(ChunkHashes.contentHash("Revenue grew 12%"));
+    }
+
+    @Test
+    void shouldNormalizeUnicodeComposition() {
+        // "é" precomposed vs "e" + combining acute accent
+        assertThat(ChunkHashes.contentHash("caf\u00e9")).isEqualTo(ChunkHashes.contentHash("cafe\u0301"));
+    }
+
+    @Test
+    void shouldProduceHexSha256() {
+        assertThat(ChunkHashes.contentHash("abc"))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        assertThat(ChunkHashes.contentHash(null)).hasSize(64);
+    }
+}
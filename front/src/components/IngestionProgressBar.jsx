@@ -0,0 +1,66 @@
+import { Loader2, AlertCircle } from 'lucide-react';
+
+const formatEta = (seconds) => {
+    if (seconds == null) return null;
+    if (seconds < 60) return `${seconds}s left`;
+    const minutes = Math.round(seconds / 60);
+    if (minutes < 60) return `~${minutes} min left`;
+    const hours = Math.floor(minutes / 60);
+    return `~${hours}h ${minutes % 60}min left`;
+};
+
+const describe = (progress) => {
+    // Only the status is known when it came from polling the document status
+    if (progress.percent == null) {
+        if (progress.status === 'PENDING') return 'Queued for processing...';
+        return progress.chunkCount
+            ? `Processing document... (${progress.chunkCount} chunks created)`
+            : 'Processing document with Docling AI...';
+    }
+    if (progress.totalPages > 0 && progress.pagesConverted < progress.totalPages) {
+        return `Converting pages ${progress.pagesConverted}/${progress.totalPages}`;
+    }
+    if (progress.chunksToEmbed > 0) {
+        return `Embedding chunks ${progress.chunksCompleted}/${progress.chunksToEmbed}` +
+            ` · ${progress.questionsGenerated} questions generated`;
+    }
+    return `${progress.chunksCreated} chunks created`;
+};
+
+/**
+ * Ingestion progress pushed over the chat WebSocket (ingestion_progress events),
+ * or the document status polled while no event arrives
+ */
+export const IngestionProgressBar = ({ progress }) => {
+    if (!progress || progress.status === 'COMPLETED') return null;
+
+    const failed = progress.status === 'FAILED';
+    const known = progress.percent != null;
+    const retrying = known && progress.status === 'PENDING';
+
+    return (
+        <div className="w-full px-4 py-3 border-b border-gray-200 bg-white">
+            <div className="flex items-center justify-between text-sm text-gray-700 mb-1">
+                <span className="flex items-center gap-2">
+                    {failed
+                        ? <AlertCircle size={16} className="text-red-600" />
+                        : <Loader2 size={16} className="text-blue-600 animate-spin" />}
+                    {failed && `Processing failed: ${progress.error ?? 'Unknown error'}`}
+                    {retrying && 'Processing failed, retrying soon...'}
+                    {!failed && !retrying && describe(progress)}
+                </span>
+                {known && (
+                    <span className="text-gray-500">
+                        {progress.percent}%{!failed && formatEta(progress.etaSeconds) ? ` · ${formatEta(progress.etaSeconds)}` : ''}
+                    </span>
+                )}
+            </div>
+            <div className="w-full h-2 bg-gray-100 rounded-full overflow-hidden">
+                <div
+                    className={`h-full transition-all duration-500 ${failed ? 'bg-red-500' : 'bg-blue-600'} ${known ? '' : 'animate-pulse'}`}
+                    style={{ width: `${known ? progress.percent : 100}%` }}
+                />
+            </div>
+        </div>
+    );
+};
@@ -2,13 +2,14 @@ import { ChatMessage } from './ChatMessage';
 import { Header } from './Header';
 import { InputMessage } from './InputMessage';
 import { Upload } from './Upload';
+import { IngestionProgressBar } from './IngestionProgressBar';
 import { useWebSocketChat } from '../hooks/useWebSocketChat';
 import { getWebSocketUrl } from '../config';
 
 export const Main = ({ isDarkMode, currentChat, onChatCreated }) => {
     const wsUrl = getWebSocketUrl(currentChat?.id);
 
-    const { messages, isConnected, isTyping, liveStep, sendMessage, fetchSteps } = useWebSocketChat(
+    const { messages, isConnected, isTyping, liveStep, ingestionProgress, sendMessage, fetchSteps } = useWebSocketChat(
         currentChat?.id,
         wsUrl
     );
@@ -36,6 +37,8 @@ export const Main = ({ isDarkMode, currentChat, onChatCreated }) => {
                     paragraphText={getHeaderText()} 
                 />
                 
+                {currentChat && <IngestionProgressBar progress={ingestionProgress} />}
+
                 {currentChat ? (
                     <ChatMessage
                         messages={messages}
@@ -1,6 +1,12 @@
 import { useState, useEffect, useRef } from 'react';
 import { API_BASE_URL } from '../config';
 
+const STATUS_POLL_INTERVAL_MS = 3000;
+// Sem evento de progresso há mais tempo que isso, o status é consultado por polling
+const PROGRESS_STALE_MS = 5000;
+
+const isFinished = (status) => status === 'COMPLETED' || status === 'FAILED';
+
 /**
  * Hook para gerenciar WebSocket e mensagens do chat
  */
@@ -9,11 +15,14 @@ export const useWebSocketChat = (chatId, wsUrl) => {
     const [isConnected, setIsConnected] = useState(false);
     const [isTyping, setIsTyping] = useState(false);
     const [liveStep, setLiveStep] = useState(null);
+    const [ingestionProgress, setIngestionProgress] = useState(null);
 
     const wsRef = useRef(null);
     const currentStreamRef = useRef(null);
     const reconnectDelayRef = useRef(1000);
     const pendingStepsRef = useRef([]);
+    const lastProgressAtRef = useRef(0);
+    const ingestionFinishedRef = useRef(false);
 
     const sanitizeSteps = (steps) =>
         (steps ?? []).map(s => s.status === 'running' ? { ...s, status: 'done' } : s);
@@ -189,6 +198,13 @@ export const useWebSocketChat = (chatId, wsUrl) => {
         try {
             const parsedMessage = JSON.parse(messageText);
             console.log("Parsed WebSocket JSON message:", parsedMessage);
+            if (parsedMessage.type === 'ingestion_progress') {
+                lastProgressAtRef.current = Date.now();
+                ingestionFinishedRef.current = isFinished(parsedMessage.status);
+                setIngestionProgress(parsedMessage);
+                return;
+            }
+
             if (parsedMessage.type === 'tool_call') {
                 const event = parsedMessage;
                 if (event.status === 'start') {
@@ -244,6 +260,7 @@ export const useWebSocketChat = (chatId, wsUrl) => {
 
     // Conecta ao WebSocket quando há um chatId
     useEffect(() => {
+        setIngestionProgress(null);
         if (!chatId || !wsUrl) {
             setMessages([]);
             return;
@@ -295,6 +312,52 @@ export const useWebSocketChat = (chatId, wsUrl) => {
         };
     }, [chatId, wsUrl]);
 
+    // Eventos de progresso só chegam do nó que processa o documento; enquanto nenhum
+    // chega, o status do documento é consultado por polling
+    useEffect(() => {
+        lastProgressAtRef.current = 0;
+        ingestionFinishedRef.current = false;
+        if (!chatId) return;
+
+        let finished = false;
+        let interval = null;
+
+        const stop = () => {
+            finished = true;
+            clearInterval(interval);
+        };
+
+        const poll = async () => {
+            if (finished || ingestionFinishedRef.current) return stop();
+            if (Date.now() - lastProgressAtRef.current < PROGRESS_STALE_MS) return;
+            try {
+                const response = await fetch(`${API_BASE_URL}/${chatId}/document/status`);
+                if (!response.ok) {
+                    if (response.status === 404) stop();
+                    return;
+                }
+                const status = await response.json();
+                if (finished || ingestionFinishedRef.current
+                    || Date.now() - lastProgressAtRef.current < PROGRESS_STALE_MS) return;
+
+                setIngestionProgress(prev => ({
+                    ...(prev ?? { type: 'ingestion_progress', percent: null, etaSeconds: null }),
+                    status: status.status,
+                    error: status.error,
+                    chunkCount: status.chunkCount
+                }));
+                if (isFinished(status.status)) stop();
+            } catch (err) {
+                console.error('Error polling status:', err);
+            }
+        };
+
+        interval = setInterval(poll, STATUS_POLL_INTERVAL_MS);
+        poll();
+
+        return stop;
+    }, [chatId]);
+
     // Envia mensagem pelo WebSocket
     const sendMessage = (text) => {
         console.log("sendMessage called with text =", text);
@@ -325,6 +388,7 @@ export const useWebSocketChat = (chatId, wsUrl) => {
         isConnected,
         isTyping,
         liveStep,
+        ingestionProgress,
         sendMessage,
         fetchSteps
     };